@@ -0,0 +1,134 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Runs the benchmarks, writes the results as JMH JSON (which can be kept as
+ * a baseline) and compares them to a previously recorded baseline.
+ *
+ * Build and run with:
+ * mvn -P benchmark package
+ * java -jar target/benchmarks.jar -o baseline.json [-b old-baseline.json]
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+
+		// Define command line options
+		Options options = new Options();
+		options.addOption("i", "include", true, "Regular expression selecting the benchmarks to run (default: all)");
+		options.addOption("o", "output", true, "File to write the results to in JMH's JSON format (default: benchmarks.json)");
+		options.addOption("b", "baseline", true, "Results of a previous run to compare with");
+		options.addOption("t", "tolerance", true, "Slowdown in percent compared to the baseline that counts as regression (default: 10)");
+		options.addOption("h", "help", false, "Show help and exit");
+
+		CommandLineParser parser = new org.apache.commons.cli.DefaultParser();
+		CommandLine commandLine = null;
+		try {
+			commandLine = parser.parse(options, args);
+		} catch (ParseException e) {
+			Logger.getLogger("").log(Level.SEVERE, "Parsing of the command line options failed.", e);
+			System.exit(1);
+		}
+		if (commandLine.hasOption("h")) {
+			new HelpFormatter().printHelp("java -jar benchmarks.jar <options>", options);
+			System.exit(0);
+		}
+		String include = commandLine.getOptionValue("i", ".*Benchmark.*");
+		File output = new File(commandLine.getOptionValue("o", "benchmarks.json"));
+		double tolerance = Double.parseDouble(commandLine.getOptionValue("t", "10"));
+
+		// Run benchmarks
+		new Runner(new OptionsBuilder().include(include).resultFormat(ResultFormatType.JSON)
+				.result(output.getAbsolutePath()).build()).run();
+		Logger.getLogger("").log(Level.INFO, "Results written to " + output.getAbsolutePath());
+
+		// Compare with baseline
+		if (commandLine.hasOption("b")) {
+			int regressions = compare(readScores(new File(commandLine.getOptionValue("b"))), readScores(output), tolerance);
+			if (regressions > 0) {
+				Logger.getLogger("").log(Level.WARNING, regressions + " benchmark(s) slowed down by more than " + tolerance + "%.");
+				System.exit(2);
+			}
+		}
+	}
+
+	/**
+	 * Prints the change of each benchmark's score compared to the baseline.
+	 * All benchmarks measure the average time per operation, so higher
+	 * scores are worse.
+	 * @param baseline Scores of the baseline
+	 * @param scores Current scores
+	 * @param tolerance Slowdown in percent counting as regression
+	 * @return Number of regressions
+	 */
+	private static int compare(Map<String, Double> baseline, Map<String, Double> scores, double tolerance) {
+		int regressions = 0;
+		System.out.println(String.format("%-100s %12s %12s %8s", "Benchmark", "Baseline", "Current", "Change"));
+		for (Map.Entry<String, Double> score : scores.entrySet()) {
+			Double baselineScore = baseline.get(score.getKey());
+			if (baselineScore == null) {
+				System.out.println(String.format("%-100s %12s %12.3f %8s", score.getKey(), "-", score.getValue(), "new"));
+				continue;
+			}
+			double change = (score.getValue() / baselineScore - 1d) * 100d;
+			boolean regression = change > tolerance;
+			if (regression)
+				regressions++;
+			System.out.println(String.format("%-100s %12.3f %12.3f %+7.1f%%%s", score.getKey(), baselineScore,
+					score.getValue(), change, regression ? " !" : ""));
+		}
+		return regressions;
+	}
+
+	/**
+	 * Reads the scores from a JMH JSON result file.
+	 * @param file File
+	 * @return Scores by benchmark name and parameters
+	 * @throws Exception Thrown if the file cannot be read
+	 */
+	private static Map<String, Double> readScores(File file) throws Exception {
+		Map<String, Double> scores = new LinkedHashMap<String, Double>();
+		Reader reader = new FileReader(file);
+		try {
+			JsonArray results = new JsonParser().parse(reader).getAsJsonArray();
+			for (JsonElement element : results) {
+				JsonObject result = element.getAsJsonObject();
+				StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+				if (result.has("params")) {
+					// Sort parameters, so the keys do not depend on their order in the file
+					Map<String, String> params = new TreeMap<String, String>();
+					for (Map.Entry<String, JsonElement> param : result.getAsJsonObject("params").entrySet())
+						params.put(param.getKey(), param.getValue().getAsString());
+					key.append(params.toString());
+				}
+				scores.put(key.toString(), result.getAsJsonObject("primaryMetric").get("score").getAsDouble());
+			}
+		} finally {
+			reader.close();
+		}
+		return scores;
+	}
+
+}
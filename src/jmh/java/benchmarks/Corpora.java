@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.util.Random;
+
+/**
+ * Deterministic synthetic inputs for the benchmarks. Each corpus is derived
+ * from a fixed seed, so every run (and every machine) benchmarks the very
+ * same data and the results remain comparable to the recorded baselines.
+ */
+public final class Corpora {
+
+	public static final long SEED = 20160929l;
+
+	// Syllables the words are made of (a small alphabet yields repeats, like natural language does)
+	private static final String[] SYLLABLES = new String[] { "a", "an", "ba", "de", "er", "ge", "in", "ka", "le", "ma",
+			"ne", "or", "ra", "sa", "te", "un" };
+
+	// class should not be instantiated
+	private Corpora() {
+	}
+
+	/**
+	 * Creates a text of '$'-terminated lines of words (the input format of
+	 * the generalised suffix tree).
+	 * @param texts Number of lines
+	 * @param wordsPerText Number of words per line
+	 * @return Text
+	 */
+	public static String texts(int texts, int wordsPerText) {
+		Random random = new Random(SEED);
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < texts; i++) {
+			for (int j = 0; j < wordsPerText; j++) {
+				if (j > 0)
+					result.append(' ');
+				result.append(word(random));
+			}
+			result.append("$\n");
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Creates a single text of words without line breaks, terminated by a
+	 * single '$'.
+	 * @param words Number of words
+	 * @return Text
+	 */
+	public static String text(int words) {
+		Random random = new Random(SEED);
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			if (i > 0)
+				result.append(' ');
+			result.append(word(random));
+		}
+		return result.append('$').toString();
+	}
+
+	/**
+	 * Creates a CSV matrix with named rows and columns; about half of the
+	 * cells are zero (empty), the others hold small integral values.
+	 * @param rows Number of rows
+	 * @param columns Number of columns
+	 * @param delimiter Delimiter
+	 * @return CSV data
+	 */
+	public static String csv(int rows, int columns, String delimiter) {
+		Random random = new Random(SEED);
+		StringBuilder result = new StringBuilder();
+		for (int column = 0; column < columns; column++)
+			result.append(delimiter).append("col").append(column);
+		result.append('\n');
+		for (int row = 0; row < rows; row++) {
+			result.append("row").append(row);
+			for (int column = 0; column < columns; column++) {
+				result.append(delimiter);
+				if (random.nextBoolean())
+					result.append(random.nextInt(5) + 1).append(".0");
+			}
+			result.append('\n');
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Creates a word of one to four syllables.
+	 * @param random Source of randomness
+	 * @return Word
+	 */
+	private static String word(Random random) {
+		StringBuilder word = new StringBuilder();
+		int syllables = random.nextInt(4) + 1;
+		for (int i = 0; i < syllables; i++)
+			word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		return word.toString();
+	}
+
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import models.NamedFieldMatrix;
+
+/**
+ * Parsing and writing of CSV matrices and the pairwise Hamming distances of
+ * their rows (as calculated by the MatrixOperations module).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MatrixBenchmark {
+
+	private static final String DELIMITER = ";";
+
+	@Param({ "200" })
+	public int rows;
+
+	@Param({ "50", "500" })
+	public int columns;
+
+	private String csv;
+	private NamedFieldMatrix matrix;
+
+	@Setup
+	public void setup() throws Exception {
+		this.csv = Corpora.csv(this.rows, this.columns, DELIMITER);
+		this.matrix = NamedFieldMatrix.parseCSV(this.csv, DELIMITER);
+	}
+
+	@Benchmark
+	public NamedFieldMatrix parseCSV() throws Exception {
+		return NamedFieldMatrix.parseCSV(this.csv, DELIMITER);
+	}
+
+	@Benchmark
+	public void csvLine(Blackhole blackhole) {
+		blackhole.consume(this.matrix.csvHeader());
+		for (int row = 0; row < this.matrix.getRowAmount(); row++)
+			blackhole.consume(this.matrix.csvLine(row));
+	}
+
+	@Benchmark
+	public int[][] hammingDistances() {
+		int rowAmount = this.matrix.getRowAmount();
+		int[][] distances = new int[rowAmount][rowAmount];
+		for (int i = 0; i < rowAmount - 1; i++)
+			for (int j = i + 1; j < rowAmount; j++) {
+				distances[i][j] = this.matrix.getHammingDistanceForRows(i, j);
+				distances[j][i] = distances[i][j];
+			}
+		return distances;
+	}
+
+}
@@ -0,0 +1,107 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import modules.BytePipe;
+import modules.CharPipe;
+import modules.RingBufferBytePipe;
+import modules.RingBufferCharPipe;
+
+/**
+ * Throughput of the pipes connecting modules: one thread writes a fixed
+ * amount of data in chunks, the benchmark thread reads it until the pipe
+ * gets closed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PipeBenchmark {
+
+	// Amount of data transferred per operation (chars resp. bytes)
+	private static final int VOLUME = 4 * 1024 * 1024;
+
+	@Param({ "java.io", "ringbuffer" })
+	public String implementation;
+
+	@Param({ "64", "8192" })
+	public int chunkSize;
+
+	private char[] chars;
+	private byte[] bytes;
+
+	@Setup
+	public void setup() {
+		String text = Corpora.text(this.chunkSize);
+		this.chars = text.substring(0, this.chunkSize).toCharArray();
+		this.bytes = new byte[this.chunkSize];
+		for (int i = 0; i < this.chunkSize; i++)
+			this.bytes[i] = (byte) this.chars[i];
+	}
+
+	@Benchmark
+	public long charPipe() throws Exception {
+		final CharPipe pipe = this.implementation.equals("ringbuffer") ? new RingBufferCharPipe() : new CharPipe();
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for (int written = 0; written < VOLUME; written += chars.length)
+						pipe.write(chars, 0, chars.length);
+					pipe.writeClose();
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+		writer.start();
+		char[] buffer = new char[8192];
+		long total = 0l;
+		int read;
+		while ((read = pipe.read(buffer, 0, buffer.length)) != -1)
+			total += read;
+		writer.join();
+		return total;
+	}
+
+	@Benchmark
+	public long bytePipe() throws Exception {
+		final BytePipe pipe = this.implementation.equals("ringbuffer") ? new RingBufferBytePipe() : new BytePipe();
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for (int written = 0; written < VOLUME; written += bytes.length)
+						pipe.write(bytes, 0, bytes.length);
+					pipe.writeClose();
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+		writer.start();
+		byte[] buffer = new byte[8192];
+		long total = 0l;
+		int read;
+		while ((read = pipe.read(buffer, 0, buffer.length)) != -1)
+			total += read;
+		writer.join();
+		return total;
+	}
+
+}
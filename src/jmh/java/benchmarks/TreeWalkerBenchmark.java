@@ -0,0 +1,95 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import common.XmlPrintWriter;
+import modules.CharPipe;
+import modules.OutputPort;
+import modules.tree_building.suffixTree.GST;
+import modules.tree_building.suffixTree.ITreeWalkerListener;
+import modules.tree_building.suffixTree.ResultEdgeSegmentsListener;
+import modules.tree_building.suffixTree.ResultLabelListListener;
+import modules.tree_building.suffixTree.ResultToFiniteStateMachineListener;
+import modules.tree_building.suffixTree.ResultToGstLabelDataListener;
+import modules.tree_building.suffixTree.ResultToJsonListener;
+import modules.tree_building.suffixTree.ResultToMorphListListener;
+import modules.tree_building.suffixTree.ResultToXmlListener;
+import modules.tree_building.suffixTree.SuffixTree;
+import modules.tree_building.suffixTree.TreeWalker;
+
+/**
+ * Walks over a generalised suffix tree with each of the listeners. Output
+ * ports the listeners write to are not connected, so only the work of the
+ * listeners themselves is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TreeWalkerBenchmark {
+
+	@Param({ "EdgeSegments", "LabelList", "FiniteStateMachine", "GstLabelData", "Json", "MorphList", "Xml" })
+	public String listener;
+
+	@Param({ "500" })
+	public int texts;
+
+	private SuffixTree suffixTree;
+
+	@Setup
+	public void setup() throws Exception {
+		this.suffixTree = GST.buildGST(Corpora.texts(this.texts, 20));
+	}
+
+	/**
+	 * Creates a new instance of the listener benchmarked.
+	 * @return Listener
+	 * @throws IOException Thrown if the listener cannot be created
+	 */
+	private ITreeWalkerListener createListener() throws IOException {
+		OutputPort outputPort = new OutputPort("output", "Not connected.", null);
+		outputPort.addSupportedPipe(CharPipe.class);
+		switch (this.listener) {
+		case "EdgeSegments":
+			return new ResultEdgeSegmentsListener(this.suffixTree, outputPort);
+		case "LabelList":
+			return new ResultLabelListListener(this.suffixTree);
+		case "FiniteStateMachine":
+			return new ResultToFiniteStateMachineListener(this.suffixTree);
+		case "GstLabelData":
+			return new ResultToGstLabelDataListener(this.suffixTree);
+		case "Json":
+			return new ResultToJsonListener(this.suffixTree, outputPort);
+		case "MorphList":
+			return new ResultToMorphListListener(this.suffixTree, false);
+		case "Xml":
+			return new ResultToXmlListener(this.suffixTree, new XmlPrintWriter(new StringWriter()));
+		default:
+			throw new IllegalArgumentException("Unknown listener " + this.listener);
+		}
+	}
+
+	@Benchmark
+	public ITreeWalkerListener walk() throws Exception {
+		ITreeWalkerListener treeWalkerListener = this.createListener();
+		TreeWalker.walk(this.suffixTree.getRoot(), this.suffixTree, treeWalkerListener);
+		return treeWalkerListener;
+	}
+
+}
@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.util.LinkedList;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import modules.tree_building.treeBuilder.AtomicRangeSuffixTrieBuilder;
+import modules.tree_building.treeBuilder.CompactSuffixTrie;
+import modules.tree_building.treeBuilder.KGramTable;
+import modules.tree_building.treeBuilder.Knoten;
+
+/**
+ * Construction of an atomic range suffix trie, sliding a window of the
+ * given length over the text the way AtomicRangeSuffixTrieBuilder.process()
+ * did with baueTrie(), and the way it does now with CompactSuffixTrie;
+ * compared to counting the k-grams of the window length with KGramTable (as
+ * KGramCounterModule does), whose trie holds the same counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TrieBenchmark {
+
+	@Param({ "10" })
+	public int windowLength;
+
+	@Param({ "10000" })
+	public int words;
+
+	private String text;
+	private AtomicRangeSuffixTrieBuilder trieBuilder;
+
+	@Setup
+	public void setup() throws Exception {
+		this.text = Corpora.text(this.words);
+		this.trieBuilder = new AtomicRangeSuffixTrieBuilder(null, new Properties());
+	}
+
+	@Benchmark
+	public Knoten baueTrie() {
+		Knoten root = new Knoten("^");
+		LinkedList<Character> buffer = new LinkedList<Character>();
+		for (int i = 0; i < this.text.length(); i++) {
+			buffer.add(Character.valueOf(this.text.charAt(i)));
+			if (buffer.size() > this.windowLength)
+				buffer.removeFirst();
+			if (buffer.size() == this.windowLength)
+				this.trieBuilder.baueTrie(buffer, root, false, -1);
+		}
+		return root;
+	}
+
+	@Benchmark
+	public Knoten baueCompactSuffixTrie() {
+		CompactSuffixTrie trie = new CompactSuffixTrie(this.windowLength, false);
+		for (int i = 0; i < this.text.length(); i++)
+			trie.add(this.text.charAt(i));
+		return trie.toKnoten("^");
+	}
+
+	@Benchmark
+	public Knoten countKGrams() {
+		KGramTable table = new KGramTable(this.windowLength);
+		char[] chars = this.text.toCharArray();
+		table.count(chars, chars.length, 0, true);
+		return table.toKnoten("^");
+	}
+
+}
@@ -0,0 +1,60 @@
+package modules.tree_building.suffixTree;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.Corpora;
+
+/**
+ * Construction of (generalised) suffix trees. Resides in the suffix tree's
+ * package to set up the end of the leaves like the GST does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SuffixTreeBenchmark {
+
+	@Param({ "100", "1000" })
+	public int texts;
+
+	// Input of the GST ('$'-terminated lines) and a single text of the same size
+	private String gstInput;
+	private String singleText;
+
+	@Setup
+	public void setup() {
+		this.gstInput = Corpora.texts(this.texts, 20);
+		this.singleText = Corpora.text(this.texts * 20);
+	}
+
+	@Benchmark
+	public SuffixTree buildGST() throws Exception {
+		return GST.buildGST(this.gstInput);
+	}
+
+	@Benchmark
+	public SuffixTree addChar() throws Exception {
+		SuffixTree suffixTree = new SuffixTree(this.singleText.length());
+		NodePositionEnd end = suffixTree.newEnd();
+		suffixTree.setTextBegin(0, 0);
+		for (int i = 0; i < this.singleText.length(); i++)
+			suffixTree.addChar(this.singleText.charAt(i), 0);
+		end.val = this.singleText.length();
+		return suffixTree;
+	}
+
+}
@@ -10,6 +10,8 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
+import modules.ResultCache;
+
 /**
  * Provides a CLI to run module trees.
  * @author Marcel Boeing
@@ -23,6 +25,8 @@ public class ModuleBatchRunner {
 		Options options = new Options();
 		options.addOption("c", "config", true, "Module tree configuration file");
 		options.addOption("u", "update", true, "Update module tree configuration file and write it to the specified location");
+		options.addOption("r", "cache", true, "Directory of a cache for the output of the modules (modules whose output is found there are not run again)");
+		options.addOption("s", "cachesize", true, "Maximum size of the cache in MB (default: "+(ResultCache.DEFAULT_MAXSIZE/1024/1024)+")");
 		options.addOption("h", "help", false, "Show help and exit");
 		
 		// Instantiate parser for CLI options
@@ -91,6 +95,19 @@ public class ModuleBatchRunner {
 			System.exit(1);
 		}
 		
+		// Use result cache if requested
+		if (commandLine.hasOption("r")) {
+			try {
+				long cacheSize = ResultCache.DEFAULT_MAXSIZE;
+				if (commandLine.hasOption("s"))
+					cacheSize = Long.parseLong(commandLine.getOptionValue("s")) * 1024l * 1024l;
+				controller.getModuleNetwork().setResultCache(new ResultCache(new File(commandLine.getOptionValue("r")), cacheSize));
+			} catch (Exception e) {
+				Logger.getLogger("").log(Level.SEVERE, "Could not set up the result cache.", e);
+				System.exit(1);
+			}
+		}
+		
 		// Finally: Run the module tree
 		try {
 			controller.getModuleNetwork().runModules(true);
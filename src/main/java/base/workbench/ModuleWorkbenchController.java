@@ -95,8 +95,11 @@ import modules.segmentation.SegmentsTransitionNetworkModule;
 import modules.segmentation.paradigmSegmenter.ParadigmSegmenterModule;
 import modules.segmentation.seqSplitting.SeqMemory;
 import modules.tree_building.suffixTreeModuleWrapper.GeneralisedSuffixTreeModule;
+import modules.tree_building.suffixTreeModuleWrapper.SuffixTreeQueryModule;
+import modules.tree_building.suffixTreeModuleWrapper.SuffixTreeRepeatsModule;
 import modules.tree_building.suffixTreeModuleWrapper.GeneralizedSuffixTreesMorphologyModule;
 import modules.tree_building.treeBuilder.AtomicRangeSuffixTrieBuilder;
+import modules.tree_building.treeBuilder.KGramCounterModule;
 import modules.tree_building.treeBuilder.TreeBuilder;
 import modules.tree_building.treeBuilder.TreeBuilderV2Module;
 import modules.tree_building.treeBuilder.TreeBuilderV3Module;
@@ -152,6 +155,7 @@ public class ModuleWorkbenchController{ // TODO anderer Listener
 		createAndRegisterModule(ExampleModule.class);
 		createAndRegisterModule(TreeBuilder.class);
 		createAndRegisterModule(AtomicRangeSuffixTrieBuilder.class);
+		createAndRegisterModule(KGramCounterModule.class);
 		createAndRegisterModule(SuffixNetBuilderModule.class);
 		createAndRegisterModule(ColourGraph.class);
 		createAndRegisterModule(ASCIIGraph.class);
@@ -173,6 +177,8 @@ public class ModuleWorkbenchController{ // TODO anderer Listener
 		createAndRegisterModule(TreeBuilder2OutputController.class);
 		createAndRegisterModule(TreeBuilder2OutputControllerV2.class);
 		createAndRegisterModule(GeneralisedSuffixTreeModule.class);
+		createAndRegisterModule(SuffixTreeQueryModule.class);
+		createAndRegisterModule(SuffixTreeRepeatsModule.class);
 		createAndRegisterModule(BufferModule.class);
 		createAndRegisterModule(SuffixTreeClusteringModuleWrapper.class);
 		createAndRegisterModule(BagsOfWordsDistancesModule.class);
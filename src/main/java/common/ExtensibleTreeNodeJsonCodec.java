@@ -0,0 +1,104 @@
+package common;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import models.ExtensibleTreeNode;
+
+/**
+ * Streaming JSON codec for trees of ExtensibleTreeNode objects, in the
+ * format Gson used for the class' former fields (a TreeMap of children and a
+ * HashMap of attributes); Gson uses it for the class as well.
+ */
+public class ExtensibleTreeNodeJsonCodec extends TreeJsonCodec<ExtensibleTreeNode> {
+
+	// Attribute values may be of any type, these are left to Gson
+	private static final TypeAdapter<Map<String, Object>> ATTRIBUTES_ADAPTER = new Gson()
+			.getAdapter(new TypeToken<Map<String, Object>>() {
+			});
+
+	/**
+	 * Creates a codec writing pretty printed JSON.
+	 */
+	public ExtensibleTreeNodeJsonCodec() {
+		this(true);
+	}
+
+	/**
+	 * @param prettyPrinting Whether to write pretty printed or compact JSON
+	 */
+	public ExtensibleTreeNodeJsonCodec(boolean prettyPrinting) {
+		super("childNodes", prettyPrinting);
+	}
+
+	/**
+	 * Lets Gson (de)serialise ExtensibleTreeNode objects through the codec,
+	 * see the annotation of the class.
+	 */
+	public static class GsonAdapter extends TypeAdapter<ExtensibleTreeNode> {
+
+		private final ExtensibleTreeNodeJsonCodec codec = new ExtensibleTreeNodeJsonCodec(false);
+
+		@Override
+		public void write(JsonWriter out, ExtensibleTreeNode node) throws IOException {
+			this.codec.write(node, out);
+		}
+
+		@Override
+		public ExtensibleTreeNode read(JsonReader in) throws IOException {
+			return this.codec.read(in);
+		}
+	}
+
+	@Override
+	protected void writeFieldsBeforeChildren(ExtensibleTreeNode node, JsonWriter out) throws IOException {
+		if (node.getNodeValue() != null)
+			out.name("nodeValue").value(node.getNodeValue());
+		out.name("nodeCounter").value(node.getNodeCounter());
+	}
+
+	@Override
+	protected void writeFieldsAfterChildren(ExtensibleTreeNode node, JsonWriter out) throws IOException {
+		// An empty map if no attribute was ever set
+		out.name("attributes");
+		ATTRIBUTES_ADAPTER.write(out, node.getAttributes());
+	}
+
+	@Override
+	protected Map<String, ExtensibleTreeNode> getChildren(ExtensibleTreeNode node) {
+		return node.getChildNodes();
+	}
+
+	@Override
+	protected ExtensibleTreeNode createNode() {
+		return new ExtensibleTreeNode();
+	}
+
+	@Override
+	protected void readField(ExtensibleTreeNode node, String name, JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			if (name.equals("nodeValue"))
+				node.setNodeValue(null);
+			else if (name.equals("childNodes"))
+				node.setChildNodes(null);
+			else if (name.equals("attributes"))
+				node.setAttributes(null);
+		} else if (name.equals("nodeValue"))
+			node.setNodeValue(in.nextString());
+		else if (name.equals("nodeCounter"))
+			node.setNodeCounter(in.nextInt());
+		else if (name.equals("attributes"))
+			node.setAttributes(ATTRIBUTES_ADAPTER.read(in));
+		else
+			in.skipValue();
+	}
+
+}
@@ -0,0 +1,233 @@
+package common;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes and reads a tree of nodes keeping their children in a map as JSON,
+ * in the format Gson uses for the node class by reflection (so either side
+ * may still be Gson), but streaming: the tree is walked once per write, with
+ * an explicit stack instead of recursion, writing directly to the given
+ * writer, and read the same way. Deep trees thus need neither a deep call
+ * stack nor any intermediate representation.
+ *
+ * Subclasses write and read the fields of a single node; the child map is
+ * handled here.
+ *
+ * @param <N> Node class
+ */
+public abstract class TreeJsonCodec<N> {
+
+	private final String childrenFieldName;
+	private final boolean prettyPrinting;
+
+	/**
+	 * @param childrenFieldName Name of the node class' field holding the
+	 *            child map
+	 * @param prettyPrinting Whether to indent the output like Gson's pretty
+	 *            printing does; compact output otherwise
+	 */
+	protected TreeJsonCodec(String childrenFieldName, boolean prettyPrinting) {
+		this.childrenFieldName = childrenFieldName;
+		this.prettyPrinting = prettyPrinting;
+	}
+
+	/**
+	 * Writes the fields the node class declares before the child map.
+	 * @param node Node
+	 * @param out JSON writer
+	 * @throws IOException Thrown if the output cannot be written
+	 */
+	protected abstract void writeFieldsBeforeChildren(N node, JsonWriter out) throws IOException;
+
+	/**
+	 * Writes the fields the node class declares after the child map.
+	 * @param node Node
+	 * @param out JSON writer
+	 * @throws IOException Thrown if the output cannot be written
+	 */
+	protected abstract void writeFieldsAfterChildren(N node, JsonWriter out) throws IOException;
+
+	/**
+	 * @param node Node
+	 * @return The node's child map (may be null)
+	 */
+	protected abstract Map<String, N> getChildren(N node);
+
+	/**
+	 * @return A new node with an empty child map
+	 */
+	protected abstract N createNode();
+
+	/**
+	 * Reads the value of a field other than a non-null child map into the
+	 * node; unknown fields should be skipped.
+	 * @param node Node
+	 * @param name Field name
+	 * @param in JSON reader, positioned before the field's value
+	 * @throws IOException Thrown if the input cannot be read
+	 */
+	protected abstract void readField(N node, String name, JsonReader in) throws IOException;
+
+	/**
+	 * Writes the tree and flushes the writer (without closing it).
+	 * @param rootNode Root node (null is written as JSON null)
+	 * @param writer Writer
+	 * @throws IOException Thrown if the output cannot be written
+	 */
+	public void write(N rootNode, Writer writer) throws IOException {
+		// The same settings Gson applies to its writers by default
+		JsonWriter out = new JsonWriter(writer);
+		if (this.prettyPrinting)
+			out.setIndent("  ");
+		out.setHtmlSafe(true);
+		out.setSerializeNulls(false);
+		out.setLenient(true);
+		this.write(rootNode, out);
+		out.flush();
+	}
+
+	/**
+	 * Writes the tree as the next value of the JSON writer.
+	 * @param rootNode Root node (null is written as JSON null)
+	 * @param out JSON writer
+	 * @throws IOException Thrown if the output cannot be written
+	 */
+	public void write(N rootNode, JsonWriter out) throws IOException {
+		if (rootNode == null) {
+			out.nullValue();
+			return;
+		}
+
+		// Nodes whose children are being written
+		Deque<Frame<N>> frames = new ArrayDeque<Frame<N>>();
+		this.beginNode(rootNode, out, frames);
+		while (!frames.isEmpty()) {
+			Frame<N> frame = frames.peek();
+			if (frame.children.hasNext()) {
+				Entry<String, N> child = frame.children.next();
+				out.name(child.getKey());
+				if (child.getValue() == null)
+					out.nullValue();
+				else
+					this.beginNode(child.getValue(), out, frames);
+			} else {
+				frames.pop();
+				out.endObject();
+				this.writeFieldsAfterChildren(frame.node, out);
+				out.endObject();
+			}
+		}
+	}
+
+	// writes the node up to its children and pushes it (or the whole node if it has no child map)
+	private void beginNode(N node, JsonWriter out, Deque<Frame<N>> frames) throws IOException {
+		out.beginObject();
+		this.writeFieldsBeforeChildren(node, out);
+		Map<String, N> childMap = this.getChildren(node);
+		if (childMap == null) {
+			this.writeFieldsAfterChildren(node, out);
+			out.endObject();
+			return;
+		}
+		out.name(this.childrenFieldName);
+		out.beginObject();
+		Frame<N> frame = new Frame<N>(node);
+		frame.children = childMap.entrySet().iterator();
+		frames.push(frame);
+	}
+
+	/**
+	 * Reads a tree (leniently, as Gson does).
+	 * @param reader Reader
+	 * @return Root node, null for an empty input or JSON null
+	 * @throws IOException Thrown if the input cannot be read or is no valid
+	 *             tree
+	 */
+	public N read(Reader reader) throws IOException {
+		JsonReader in = new JsonReader(reader);
+		in.setLenient(true);
+		try {
+			in.peek();
+		} catch (EOFException e) {
+			return null;
+		}
+		return this.read(in);
+	}
+
+	/**
+	 * Reads a tree as the next value of the JSON reader.
+	 * @param in JSON reader
+	 * @return Root node, null for JSON null
+	 * @throws IOException Thrown if the input cannot be read or is no valid
+	 *             tree
+	 */
+	public N read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+
+		// Nodes being read
+		Deque<Frame<N>> frames = new ArrayDeque<Frame<N>>();
+		in.beginObject();
+		N rootNode = this.createNode();
+		frames.push(new Frame<N>(rootNode));
+		while (!frames.isEmpty()) {
+			Frame<N> frame = frames.peek();
+			if (frame.childMap != null) {
+				if (in.hasNext()) {
+					String key = in.nextName();
+					if (in.peek() == JsonToken.NULL) {
+						in.nextNull();
+						frame.childMap.put(key, null);
+						continue;
+					}
+					in.beginObject();
+					N child = this.createNode();
+					frame.childMap.put(key, child);
+					frames.push(new Frame<N>(child));
+				} else {
+					in.endObject();
+					frame.childMap = null;
+				}
+			} else if (in.hasNext()) {
+				String name = in.nextName();
+				if (name.equals(this.childrenFieldName) && in.peek() == JsonToken.BEGIN_OBJECT) {
+					in.beginObject();
+					frame.childMap = this.getChildren(frame.node);
+				} else
+					this.readField(frame.node, name, in);
+			} else {
+				in.endObject();
+				frames.pop();
+			}
+		}
+		return rootNode;
+	}
+
+	// a node whose children are being written or read
+	private static class Frame<N> {
+		private final N node;
+		// children left to write
+		private Iterator<Entry<String, N>> children;
+		// child map being read into
+		private Map<String, N> childMap;
+
+		private Frame(N node) {
+			this.node = node;
+		}
+	}
+
+}
@@ -1,12 +1,12 @@
 package common.parallelization;
 
 import java.lang.Thread.UncaughtExceptionHandler;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
 /**
@@ -17,10 +17,10 @@ import java.util.logging.Logger;
 public abstract class CallbackReceiverImpl implements
 		CallbackReceiver, UncaughtExceptionHandler {
 	
-	// Maps containing the actions to perform on process callback
-	private Map<Thread, Action> successActions = new HashMap<Thread, Action>();
-	private Map<Thread, Action> failActions = new HashMap<Thread, Action>();
-	private List<CallbackReceiver> externalCallbackReceiverList = new ArrayList<CallbackReceiver>();
+	// Maps containing the actions to perform on process callback (callbacks may arrive concurrently from many threads)
+	private Map<Thread, Action> successActions = new ConcurrentHashMap<Thread, Action>();
+	private Map<Thread, Action> failActions = new ConcurrentHashMap<Thread, Action>();
+	private List<CallbackReceiver> externalCallbackReceiverList = new CopyOnWriteArrayList<CallbackReceiver>();
 
 	/**
 	 * Registers an Action to perform on a successful process' callback
@@ -42,6 +42,16 @@ public abstract class CallbackReceiverImpl implements
 		this.failActions.put(process, action);
 	}
 	
+	/**
+	 * Removes the actions registered for a process (e.g. a pooled thread
+	 * that is about to be reused for another process).
+	 * @param process Process
+	 */
+	protected void unregisterCallbacks(Thread process){
+		this.successActions.remove(process);
+		this.failActions.remove(process);
+	}
+	
 	/**
 	 * Returns a set of threads currently registered.
 	 * @return Set of threads
@@ -58,19 +68,16 @@ public abstract class CallbackReceiverImpl implements
 	@Override
 	public void receiveCallback(Thread process, Object processingResult, boolean repeat) {
 		
-		// Determine whether a success action is present
-		if (successActions.containsKey(process)) {
-			
-			// Remove or keep the success action
-			Action action;
-			if (repeat)
-				action = successActions.get(process);
-			else
-				action = successActions.remove(process);
-			
-			// Perform the action
+		// Remove or keep the success action (if present)
+		Action action;
+		if (repeat)
+			action = successActions.get(process);
+		else
+			action = successActions.remove(process);
+		
+		// Perform the action
+		if (action != null)
 			action.perform(processingResult);
-		}
 		
 		// Relay callback to additional CallbackReceivers if present
 		Iterator<CallbackReceiver> externalCallbackReceivers = this.externalCallbackReceiverList.iterator();
@@ -87,14 +94,12 @@ public abstract class CallbackReceiverImpl implements
 		exception.printStackTrace();
 		
 		// If a success action is present, remove it
-		if (successActions.containsKey(process))
-			successActions.remove(process);
+		successActions.remove(process);
 		
 		// If a fail action is present, remove & perform it
-		if (failActions.containsKey(process)){
-			Action action = failActions.remove(process);
+		Action action = failActions.remove(process);
+		if (action != null)
 			action.perform(exception);
-		}
 		
 		// Relay exception to additional CallbackReceivers if present
 		Iterator<CallbackReceiver> externalCallbackReceivers = this.externalCallbackReceiverList.iterator();
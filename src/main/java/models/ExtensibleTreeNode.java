@@ -1,16 +1,32 @@
 package models;
 
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.SortedMap;
 
+import com.google.gson.annotations.JsonAdapter;
+
+import common.ExtensibleTreeNodeJsonCodec;
+
+/**
+ * Tree node with a counter and arbitrary attributes. Since most nodes of a
+ * tree have no or few children and no attributes, children are kept in a
+ * SortedArrayMap and the attribute map is only created once an attribute is
+ * set. Gson (de)serialises nodes through ExtensibleTreeNodeJsonCodec, in
+ * the format it used for the fields of former versions.
+ */
+@JsonAdapter(ExtensibleTreeNodeJsonCodec.GsonAdapter.class)
 public class ExtensibleTreeNode implements Comparable<ExtensibleTreeNode> {
-	
+
 	private String nodeValue;
 	private int nodeCounter = 0;
-	private TreeMap<String,ExtensibleTreeNode> childNodes = new TreeMap<String,ExtensibleTreeNode>();
-	private Map<String,Object> attributes = new HashMap<String,Object>();
-	
+	private SortedMap<String,ExtensibleTreeNode> childNodes = new SortedArrayMap<ExtensibleTreeNode>();
+	// null until the first attribute is set
+	private Map<String,Object> attributes;
+
 	public ExtensibleTreeNode() {
 		super();
 	}
@@ -19,15 +35,18 @@ public class ExtensibleTreeNode implements Comparable<ExtensibleTreeNode> {
 		this.nodeValue = nodeValue;
 	}
 	/**
-	 * @return the attributes
+	 * @return the attributes (a map that is created by putting the first
+	 *         attribute, unless set)
 	 */
 	public Map<String, Object> getAttributes() {
+		if (attributes == null)
+			return new LazyAttributes();
 		return attributes;
 	}
 	/**
 	 * @return the childNodes
 	 */
-	public TreeMap<String, ExtensibleTreeNode> getChildNodes() {
+	public SortedMap<String, ExtensibleTreeNode> getChildNodes() {
 		return childNodes;
 	}
 	/**
@@ -51,7 +70,7 @@ public class ExtensibleTreeNode implements Comparable<ExtensibleTreeNode> {
 	/**
 	 * @param childNodes the childNodes to set
 	 */
-	public void setChildNodes(TreeMap<String, ExtensibleTreeNode> childNodes) {
+	public void setChildNodes(SortedMap<String, ExtensibleTreeNode> childNodes) {
 		this.childNodes = childNodes;
 	}
 	/**
@@ -66,10 +85,46 @@ public class ExtensibleTreeNode implements Comparable<ExtensibleTreeNode> {
 	public void setNodeValue(String nodeValue) {
 		this.nodeValue = nodeValue;
 	}
-	
+
 	@Override
 	public int compareTo(ExtensibleTreeNode node) {
 		return (this.nodeValue+this.toString()).compareTo(node.nodeValue+node.toString());
 	}
 
+	/**
+	 * Stands in for the attribute map while there is none: reads the map once
+	 * it exists, creates it on the first put.
+	 */
+	private class LazyAttributes extends AbstractMap<String, Object> {
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			if (attributes == null)
+				return Collections.emptySet();
+			return attributes.entrySet();
+		}
+
+		@Override
+		public Object get(Object key) {
+			return attributes == null ? null : attributes.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return attributes != null && attributes.containsKey(key);
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			if (attributes == null)
+				attributes = new HashMap<String, Object>();
+			return attributes.put(key, value);
+		}
+
+		@Override
+		public Object remove(Object key) {
+			return attributes == null ? null : attributes.remove(key);
+		}
+	}
+
 }
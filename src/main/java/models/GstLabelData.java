@@ -17,7 +17,7 @@ import java.util.List;
  */
 public class GstLabelData {
 
-	private static final String CSV_HEADER = "label,sibling counts,child counts,occurence counts,leaf counts,levels";
+	private static final String CSV_HEADER = "label,sibling counts,child counts,occurence counts,leaf counts,levels,text counts,type context counts";
 
 	private String label;
 
@@ -31,6 +31,10 @@ public class GstLabelData {
 
 	private List<Integer> levels = new LinkedList<Integer>();
 
+	private List<Integer> textCounts = new LinkedList<Integer>();
+
+	private List<Integer> typeContextCounts = new LinkedList<Integer>();
+
 	public GstLabelData() {
 	}
 
@@ -40,6 +44,8 @@ public class GstLabelData {
 		this.getChildCounts().addAll(other.getChildCounts());
 		this.getOccurenceCounts().addAll(other.getOccurenceCounts());
 		this.getLeafCounts().addAll(other.getLeafCounts());
+		this.getTextCounts().addAll(other.getTextCounts());
+		this.getTypeContextCounts().addAll(other.getTypeContextCounts());
 	}
 
 	/**
@@ -62,7 +68,8 @@ public class GstLabelData {
 		sb.append(this.label);
 		sb.append("\",");
 
-		List<List<Integer>> lists = Arrays.asList(siblingCounts, childCounts, occurenceCounts, leafCounts, levels);
+		List<List<Integer>> lists = Arrays.asList(siblingCounts, childCounts, occurenceCounts, leafCounts, levels,
+				textCounts, typeContextCounts);
 		for (List<Integer> list : lists) {
 			printIntList(list, sb);
 			sb.append(",");
@@ -76,20 +83,23 @@ public class GstLabelData {
 			sb.append(i);
 			sb.append(" ");
 		}
-		sb.setLength(sb.length() - 1);
+		if (!list.isEmpty()) {
+			sb.setLength(sb.length() - 1);
+		}
 	}
 
 	/**
 	 * Parses row as a line of csv and and returns a GstLabelData object
-	 * represented by that row
+	 * represented by that row (rows without text and type context counts are
+	 * accepted as well)
 	 * 
 	 * @param row
 	 *            The String to interpre as a csv ro
 	 * @return a GstLabelData object
 	 */
 	public static GstLabelData fromCsv(String row) {
-		final String[] tokens = row.split(",");
-		if (tokens.length != 6) {
+		final String[] tokens = row.split(",", -1);
+		if (tokens.length != 6 && tokens.length != 8) {
 			throw new IllegalStateException("Wrong number of tokens on line: " + row);
 		}
 
@@ -104,6 +114,10 @@ public class GstLabelData {
 		result.setOccurenceCounts(parseListOfInts(tokens[3]));
 		result.setLeafCounts(parseListOfInts(tokens[4]));
 		result.setLevels(parseListOfInts(tokens[5]));
+		if (tokens.length == 8) {
+			result.setTextCounts(parseListOfInts(tokens[6]));
+			result.setTypeContextCounts(parseListOfInts(tokens[7]));
+		}
 		return result;
 	}
 
@@ -112,6 +126,9 @@ public class GstLabelData {
 		final List<Integer> result = new LinkedList<Integer>();
 		final String[] tokens = input.split(" ");
 		for (String token : tokens) {
+			if (token.isEmpty()) {
+				continue;
+			}
 			result.add(Integer.parseInt(token));
 		}
 		return result;
@@ -202,6 +219,40 @@ public class GstLabelData {
 		}
 	}
 
+	/**
+	 * @return the textCounts
+	 */
+	public List<Integer> getTextCounts() {
+		return textCounts;
+	}
+
+	/**
+	 * @param textCounts
+	 *            the textCounts to set
+	 */
+	public void setTextCounts(List<Integer> textCounts) {
+		if (textCounts != null) {
+			this.textCounts = textCounts;
+		}
+	}
+
+	/**
+	 * @return the typeContextCounts
+	 */
+	public List<Integer> getTypeContextCounts() {
+		return typeContextCounts;
+	}
+
+	/**
+	 * @param typeContextCounts
+	 *            the typeContextCounts to set
+	 */
+	public void setTypeContextCounts(List<Integer> typeContextCounts) {
+		if (typeContextCounts != null) {
+			this.typeContextCounts = typeContextCounts;
+		}
+	}
+
 	/**
 	 * @return the label
 	 */
@@ -49,6 +49,31 @@ public class NamedFieldMatrix {
 		this.colsToColNames = new TreeMap<Integer, String>();
 	}
 
+	/**
+	 * Returns a deep copy of this matrix (e.g. to modify a matrix that was
+	 * received through an object pipe and is shared with other modules).
+	 *
+	 * @return copy
+	 */
+	public NamedFieldMatrix copy() {
+		NamedFieldMatrix copy = new NamedFieldMatrix();
+		copy.values = new double[this.values.length][];
+		for (int i = 0; i < this.values.length; i++) {
+			if (this.values[i] != null)
+				copy.values[i] = Arrays.copyOf(this.values[i], this.values[i].length);
+		}
+		copy.colMax = this.colMax;
+		copy.rowMax = this.rowMax;
+		copy.colAmount = this.colAmount;
+		copy.rowAmount = this.rowAmount;
+		copy.rowsToRowNames.putAll(this.rowsToRowNames);
+		copy.rowNamesToRows.putAll(this.rowNamesToRows);
+		copy.colsToColNames.putAll(this.colsToColNames);
+		copy.colNamesToCols.putAll(this.colNamesToCols);
+		copy.delimiter = this.delimiter;
+		return copy;
+	}
+
 	/**
 	 * Adds value to the current value of the field designated by rowName and
 	 * columnName. Returns the new value.
@@ -0,0 +1,443 @@
+package models;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A sorted map of String keys for the many small maps of a tree (children of
+ * a node): up to MAX_ARRAY_SIZE entries are kept in two parallel arrays
+ * sorted by key (no arrays at all while empty), larger maps switch to a
+ * TreeMap. Keys of a single char are interned, since they repeat throughout
+ * a tree.
+ *
+ * Keys are ordered as in a TreeMap without comparator, so the map may
+ * replace one; views (entry set, sub maps, ...) are live.
+ *
+ * @param <V> Value type
+ */
+class SortedArrayMap<V> extends AbstractMap<String, V> implements SortedMap<String, V> {
+
+	static final int MAX_ARRAY_SIZE = 8;
+
+	// Interned keys of a single Latin-1 char
+	private static final String[] SINGLE_CHAR_KEYS = new String[256];
+	static {
+		for (char c = 0; c < SINGLE_CHAR_KEYS.length; c++)
+			SINGLE_CHAR_KEYS[c] = String.valueOf(c).intern();
+	}
+
+	// sorted keys and their values, null while the map is empty
+	private String[] keys;
+	private Object[] values;
+	private int size;
+	// replaces the arrays once the map grows beyond MAX_ARRAY_SIZE entries
+	private TreeMap<String, V> treeMap;
+	// number of structural modifications, for the iterators
+	private int modCount;
+
+	private Set<Entry<String, V>> entrySet;
+
+	static String intern(String key) {
+		if (key.length() != 1)
+			return key;
+		char c = key.charAt(0);
+		return c < SINGLE_CHAR_KEYS.length ? SINGLE_CHAR_KEYS[c] : key.intern();
+	}
+
+	// index of the key or -(insertion point + 1)
+	private int indexOf(String key) {
+		return this.keys == null ? -1 : Arrays.binarySearch(this.keys, 0, this.size, key);
+	}
+
+	// index of the first key not less than the given one (size for null)
+	private int lowerIndex(String key) {
+		if (key == null)
+			return this.size;
+		int i = this.indexOf(key);
+		return i >= 0 ? i : -(i + 1);
+	}
+
+	@SuppressWarnings("unchecked")
+	private V valueAt(int i) {
+		return (V) this.values[i];
+	}
+
+	private void removeAt(int i) {
+		this.size--;
+		System.arraycopy(this.keys, i + 1, this.keys, i, this.size - i);
+		System.arraycopy(this.values, i + 1, this.values, i, this.size - i);
+		this.keys[this.size] = null;
+		this.values[this.size] = null;
+		if (this.size == 0) {
+			this.keys = null;
+			this.values = null;
+		}
+		this.modCount++;
+	}
+
+	@Override
+	public int size() {
+		return this.treeMap != null ? this.treeMap.size() : this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (this.treeMap != null)
+			return this.treeMap.containsKey(key);
+		return this.indexOf((String) key) >= 0;
+	}
+
+	@Override
+	public V get(Object key) {
+		if (this.treeMap != null)
+			return this.treeMap.get(key);
+		int i = this.indexOf((String) key);
+		return i >= 0 ? this.valueAt(i) : null;
+	}
+
+	@Override
+	public V put(String key, V value) {
+		if (key == null)
+			throw new NullPointerException();
+		key = intern(key);
+		if (this.treeMap != null)
+			return this.treeMap.put(key, value);
+
+		int i = this.indexOf(key);
+		if (i >= 0) {
+			V oldValue = this.valueAt(i);
+			this.values[i] = value;
+			return oldValue;
+		}
+		i = -(i + 1);
+		this.modCount++;
+		if (this.size == MAX_ARRAY_SIZE) {
+			this.treeMap = new TreeMap<String, V>();
+			for (int j = 0; j < this.size; j++)
+				this.treeMap.put(this.keys[j], this.valueAt(j));
+			this.treeMap.put(key, value);
+			this.keys = null;
+			this.values = null;
+			this.size = 0;
+			return null;
+		}
+		if (this.keys == null) {
+			this.keys = new String[2];
+			this.values = new Object[2];
+		} else if (this.size == this.keys.length) {
+			this.keys = Arrays.copyOf(this.keys, Math.min(this.size * 2, MAX_ARRAY_SIZE));
+			this.values = Arrays.copyOf(this.values, this.keys.length);
+		}
+		System.arraycopy(this.keys, i, this.keys, i + 1, this.size - i);
+		System.arraycopy(this.values, i, this.values, i + 1, this.size - i);
+		this.keys[i] = key;
+		this.values[i] = value;
+		this.size++;
+		return null;
+	}
+
+	@Override
+	public V remove(Object key) {
+		if (this.treeMap != null)
+			return this.treeMap.remove(key);
+		int i = this.indexOf((String) key);
+		if (i < 0)
+			return null;
+		V oldValue = this.valueAt(i);
+		this.removeAt(i);
+		return oldValue;
+	}
+
+	@Override
+	public void clear() {
+		this.keys = null;
+		this.values = null;
+		this.size = 0;
+		this.treeMap = null;
+		this.modCount++;
+	}
+
+	@Override
+	public Set<Entry<String, V>> entrySet() {
+		if (this.entrySet == null)
+			this.entrySet = new EntrySet(null, null);
+		return this.entrySet;
+	}
+
+	@Override
+	public Comparator<? super String> comparator() {
+		return null;
+	}
+
+	@Override
+	public String firstKey() {
+		return new SubMap(null, null).firstKey();
+	}
+
+	@Override
+	public String lastKey() {
+		return new SubMap(null, null).lastKey();
+	}
+
+	@Override
+	public SortedMap<String, V> subMap(String fromKey, String toKey) {
+		return new SubMap(null, null).subMap(fromKey, toKey);
+	}
+
+	@Override
+	public SortedMap<String, V> headMap(String toKey) {
+		return new SubMap(null, null).headMap(toKey);
+	}
+
+	@Override
+	public SortedMap<String, V> tailMap(String fromKey) {
+		return new SubMap(null, null).tailMap(fromKey);
+	}
+
+	/**
+	 * Entries with keys from fromKey (inclusive) to toKey (exclusive), null
+	 * standing for no bound.
+	 */
+	private class EntrySet extends AbstractSet<Entry<String, V>> {
+
+		private final String fromKey;
+		private final String toKey;
+
+		private EntrySet(String fromKey, String toKey) {
+			this.fromKey = fromKey;
+			this.toKey = toKey;
+		}
+
+		// the tree map's entries within the bounds
+		private SortedMap<String, V> treeRange() {
+			SortedMap<String, V> range = treeMap;
+			if (this.fromKey != null)
+				range = range.tailMap(this.fromKey);
+			if (this.toKey != null)
+				range = range.headMap(this.toKey);
+			return range;
+		}
+
+		@Override
+		public Iterator<Entry<String, V>> iterator() {
+			if (treeMap != null)
+				return this.treeRange().entrySet().iterator();
+			int from = this.fromKey == null ? 0 : lowerIndex(this.fromKey);
+			int to = this.toKey == null ? size : lowerIndex(this.toKey);
+			return new ArrayIterator(from, Math.max(from, to));
+		}
+
+		@Override
+		public int size() {
+			if (treeMap != null)
+				return this.treeRange().size();
+			if (this.fromKey == null && this.toKey == null)
+				return size;
+			int from = this.fromKey == null ? 0 : lowerIndex(this.fromKey);
+			int to = this.toKey == null ? size : lowerIndex(this.toKey);
+			return Math.max(0, to - from);
+		}
+	}
+
+	private class ArrayIterator implements Iterator<Entry<String, V>> {
+
+		private int next;
+		private int to;
+		private int last = -1;
+		private int expectedModCount = modCount;
+
+		private ArrayIterator(int from, int to) {
+			this.next = from;
+			this.to = to;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.next < this.to;
+		}
+
+		@Override
+		public Entry<String, V> next() {
+			if (modCount != this.expectedModCount)
+				throw new ConcurrentModificationException();
+			if (this.next >= this.to)
+				throw new NoSuchElementException();
+			this.last = this.next++;
+			return new ArrayEntry(this.last);
+		}
+
+		@Override
+		public void remove() {
+			if (this.last < 0)
+				throw new IllegalStateException();
+			if (modCount != this.expectedModCount)
+				throw new ConcurrentModificationException();
+			removeAt(this.last);
+			this.expectedModCount = modCount;
+			this.next = this.last;
+			this.to--;
+			this.last = -1;
+		}
+	}
+
+	// entry at an index of the arrays, writing its value through
+	private class ArrayEntry implements Entry<String, V> {
+
+		private final int index;
+
+		private ArrayEntry(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public String getKey() {
+			return keys[this.index];
+		}
+
+		@Override
+		public V getValue() {
+			return valueAt(this.index);
+		}
+
+		@Override
+		public V setValue(V value) {
+			V oldValue = valueAt(this.index);
+			values[this.index] = value;
+			return oldValue;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Entry))
+				return false;
+			Entry<?, ?> entry = (Entry<?, ?>) o;
+			return this.getKey().equals(entry.getKey())
+					&& (this.getValue() == null ? entry.getValue() == null : this.getValue().equals(entry.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.getKey().hashCode() ^ (this.getValue() == null ? 0 : this.getValue().hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return this.getKey() + "=" + this.getValue();
+		}
+	}
+
+	/**
+	 * View of the keys from fromKey (inclusive) to toKey (exclusive), null
+	 * standing for no bound.
+	 */
+	private class SubMap extends AbstractMap<String, V> implements SortedMap<String, V> {
+
+		private final String fromKey;
+		private final String toKey;
+		private final EntrySet entrySet;
+
+		private SubMap(String fromKey, String toKey) {
+			this.fromKey = fromKey;
+			this.toKey = toKey;
+			this.entrySet = new EntrySet(fromKey, toKey);
+		}
+
+		private boolean inRange(Object key) {
+			String k = (String) key;
+			return (this.fromKey == null || k.compareTo(this.fromKey) >= 0)
+					&& (this.toKey == null || k.compareTo(this.toKey) < 0);
+		}
+
+		// whether the bounds of a sub map lie within this one's
+		private void checkRange(String fromKey, String toKey) {
+			if (fromKey != null && this.fromKey != null && fromKey.compareTo(this.fromKey) < 0
+					|| toKey != null && this.toKey != null && toKey.compareTo(this.toKey) > 0)
+				throw new IllegalArgumentException("key out of range");
+		}
+
+		@Override
+		public Set<Entry<String, V>> entrySet() {
+			return this.entrySet;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return this.inRange(key) && SortedArrayMap.this.containsKey(key);
+		}
+
+		@Override
+		public V get(Object key) {
+			return this.inRange(key) ? SortedArrayMap.this.get(key) : null;
+		}
+
+		@Override
+		public V put(String key, V value) {
+			if (!this.inRange(key))
+				throw new IllegalArgumentException("key out of range");
+			return SortedArrayMap.this.put(key, value);
+		}
+
+		@Override
+		public V remove(Object key) {
+			return this.inRange(key) ? SortedArrayMap.this.remove(key) : null;
+		}
+
+		@Override
+		public Comparator<? super String> comparator() {
+			return null;
+		}
+
+		@Override
+		public String firstKey() {
+			Iterator<Entry<String, V>> entries = this.entrySet.iterator();
+			if (!entries.hasNext())
+				throw new NoSuchElementException();
+			return entries.next().getKey();
+		}
+
+		@Override
+		public String lastKey() {
+			if (treeMap != null)
+				return this.entrySet.treeRange().lastKey();
+			int from = this.fromKey == null ? 0 : lowerIndex(this.fromKey);
+			int to = this.toKey == null ? size : lowerIndex(this.toKey);
+			if (to <= from)
+				throw new NoSuchElementException();
+			return keys[to - 1];
+		}
+
+		@Override
+		public SortedMap<String, V> subMap(String fromKey, String toKey) {
+			if (fromKey.compareTo(toKey) > 0)
+				throw new IllegalArgumentException("fromKey > toKey");
+			this.checkRange(fromKey, toKey);
+			return new SubMap(fromKey, toKey);
+		}
+
+		@Override
+		public SortedMap<String, V> headMap(String toKey) {
+			this.checkRange(null, toKey);
+			return new SubMap(this.fromKey, toKey);
+		}
+
+		@Override
+		public SortedMap<String, V> tailMap(String fromKey) {
+			this.checkRange(fromKey, null);
+			return new SubMap(fromKey, this.toKey);
+		}
+	}
+
+}
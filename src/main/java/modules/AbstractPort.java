@@ -1,12 +1,14 @@
 package modules;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 
 public abstract class AbstractPort implements Port {
 	
 	private Map<String, Class<? extends Pipe>> supportedPipes = new HashMap<String, Class<? extends Pipe>>();
+	private Class<?> supportedObjectType = null;
 	private String name;
 	private String description;
 	private Module parent;
@@ -55,15 +57,47 @@ public abstract class AbstractPort implements Port {
 	 */
 	@Override
 	public boolean supportsPipe(Pipe pipe) {
+		if (pipe instanceof ObjectPipe)
+			return this.supportsPipeClass(pipe.getClass()) && this.supportsObjectType(((ObjectPipe<?>) pipe).getType());
 		return this.supportsPipeClass(pipe.getClass());
 	}
 	
+	/**
+	 * Determines whether objects of the given type can be passed through this
+	 * port (i.e. whether they can be assigned to the supported object type).
+	 * @param objectType Object type
+	 * @return True if supported
+	 */
+	protected boolean supportsObjectType(Class<?> objectType) {
+		return this.supportedObjectType != null && this.supportedObjectType.isAssignableFrom(objectType);
+	}
+	
 	/* (non-Javadoc)
 	 * @see modules.Port#supportsPipeClass(Class<Pipe> pipeClass)
 	 */
 	@Override
 	public boolean supportsPipeClass(Class<? extends Pipe> pipeClass) {
-		return this.supportedPipes.containsKey(pipeClass.getCanonicalName());
+		return this.getSupportedPipeClass(pipeClass) != null;
+	}
+	
+	/**
+	 * Returns the supported pipe class that the given pipe class is handled
+	 * as -- either the class itself or a supported superclass of it (e.g.
+	 * CharPipe for RingBufferCharPipe).
+	 * @param pipeClass Pipe class
+	 * @return Supported pipe class or null if the pipe class is not supported
+	 */
+	public Class<? extends Pipe> getSupportedPipeClass(Class<? extends Pipe> pipeClass) {
+		Class<? extends Pipe> supportedPipeClass = this.supportedPipes.get(pipeClass.getCanonicalName());
+		if (supportedPipeClass != null)
+			return supportedPipeClass;
+		Iterator<Class<? extends Pipe>> supportedPipeClasses = this.supportedPipes.values().iterator();
+		while (supportedPipeClasses.hasNext()){
+			supportedPipeClass = supportedPipeClasses.next();
+			if (supportedPipeClass.isAssignableFrom(pipeClass))
+				return supportedPipeClass;
+		}
+		return null;
 	}
 
 	/* (non-Javadoc)
@@ -82,6 +116,26 @@ public abstract class AbstractPort implements Port {
 		this.supportedPipes.put(pipeClass.getCanonicalName(),pipeClass);
 	}
 
+	/**
+	 * Adds support for object pipes passing objects of the specified type.
+	 * Input ports accept objects of that type or any subtype, output ports
+	 * provide objects of that type.
+	 * @param objectType Object type
+	 * @see ObjectPipe
+	 */
+	public void addSupportedObjectType(Class<?> objectType) {
+		this.supportedObjectType = objectType;
+		this.addSupportedPipe(ObjectPipe.class);
+	}
+
+	/* (non-Javadoc)
+	 * @see modules.Port#getSupportedObjectType()
+	 */
+	@Override
+	public Class<?> getSupportedObjectType() {
+		return this.supportedObjectType;
+	}
+
 	/* (non-Javadoc)
 	 * @see modules.Port#getParent()
 	 */
@@ -6,13 +6,24 @@ import java.io.PipedOutputStream;
 
 public class BytePipe implements Pipe {
 	
-	private PipedInputStream input;
-	private PipedOutputStream output;
+	protected PipedInputStream input;
+	protected PipedOutputStream output;
 
 	public BytePipe() throws IOException {
 		this.reset();
 	}
 	
+	/**
+	 * Constructor for subclasses that provide their own (already connected)
+	 * ends instead of the java.io piped ones.
+	 * @param input Read end
+	 * @param output Write end
+	 */
+	protected BytePipe(PipedInputStream input, PipedOutputStream output) {
+		this.input = input;
+		this.output = output;
+	}
+	
 	/**
 	 * Get the input stream.
 	 * @return input stream
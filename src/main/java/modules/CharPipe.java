@@ -6,13 +6,24 @@ import java.io.PipedWriter;
 
 public class CharPipe implements Pipe {
 	
-	private PipedReader input;
-	private PipedWriter output;
+	protected PipedReader input;
+	protected PipedWriter output;
 
 	public CharPipe() throws IOException {
 		this.reset();
 	}
 	
+	/**
+	 * Constructor for subclasses that provide their own (already connected)
+	 * ends instead of the java.io piped ones.
+	 * @param input Read end
+	 * @param output Write end
+	 */
+	protected CharPipe(PipedReader input, PipedWriter output) {
+		this.input = input;
+		this.output = output;
+	}
+	
 	/**
 	 * Get input writer
 	 * @return the input
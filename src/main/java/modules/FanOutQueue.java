@@ -0,0 +1,288 @@
+package modules;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded queue of output chunks for one consumer of a decoupled output port.
+ * A dedicated thread forwards the queued chunks to the consumer's pipe, so a
+ * slow consumer only holds up the producer once its own queue is full (and
+ * only then if the overflow policy says so).
+ *
+ * @see OutputPort#setDecoupled(int, OutputPort.OverflowPolicy)
+ */
+class FanOutQueue implements Runnable {
+
+	// Chunk type markers used in the spill file
+	private static final byte SPILLTYPE_BYTES = 0;
+	private static final byte SPILLTYPE_CHARS = 1;
+
+	private final Pipe pipe;
+	private final int capacity;
+	private final OutputPort.OverflowPolicy overflowPolicy;
+	private final Thread thread;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = this.lock.newCondition();
+	private final Condition notFull = this.lock.newCondition();
+	private final ArrayDeque<Object> chunks = new ArrayDeque<Object>();
+	private boolean closed = false;
+	private volatile IOException failure = null;
+
+	// Chunks that did not fit into the queue (overflow policy SPILL)
+	private File spillFile = null;
+	private RandomAccessFile spill = null;
+	private long spillReadPosition = 0l;
+	private long spillWritePosition = 0l;
+	private int spilledChunks = 0;
+
+	// Elements (chars or bytes) accepted resp. passed on to the pipe
+	private final AtomicLong enqueued = new AtomicLong();
+	private final AtomicLong delivered = new AtomicLong();
+
+	/**
+	 * Constructor; starts the forwarding thread.
+	 * @param pipe Pipe to forward to (char or byte pipe)
+	 * @param capacity Maximum number of chunks held in memory
+	 * @param overflowPolicy What to do when the queue is full
+	 * @param name Name of the forwarding thread
+	 */
+	FanOutQueue(Pipe pipe, int capacity, OutputPort.OverflowPolicy overflowPolicy, String name) {
+		super();
+		this.pipe = pipe;
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.thread = new Thread(this, name);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Queues a chunk for the consumer. The chunk is shared between all
+	 * consumers and must not be modified afterwards.
+	 * @param chunk char[] or byte[]
+	 * @throws IOException Thrown if forwarding to the consumer failed, the queue is full under policy FAIL or the queue has been closed
+	 */
+	void offer(Object chunk) throws IOException {
+		this.lock.lock();
+		try {
+			if (this.failure != null)
+				throw this.failure;
+			if (this.closed)
+				throw new IOException("Pipe closed");
+
+			if (this.spilledChunks > 0) {
+				// Keep the order: once spilling, everything goes to disk until the spill has been drained
+				this.spill(chunk);
+			} else if (this.chunks.size() < this.capacity) {
+				this.chunks.add(chunk);
+			} else {
+				switch (this.overflowPolicy) {
+				case SPILL:
+					this.spill(chunk);
+					break;
+				case FAIL:
+					throw new IOException("The consumer on pipe "+this.pipe+" is lagging behind by "+this.getLag()+" elements, its queue is full.");
+				default:
+					while (this.chunks.size() >= this.capacity && this.failure == null)
+						this.notFull.await();
+					if (this.failure != null)
+						throw this.failure;
+					this.chunks.add(chunk);
+				}
+			}
+			this.enqueued.addAndGet(length(chunk));
+			this.notEmpty.signal();
+		} catch (InterruptedException e) {
+			throw new java.io.InterruptedIOException();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Marks the end of the output; the pipe gets closed once all queued chunks have been forwarded.
+	 */
+	void close() {
+		this.lock.lock();
+		try {
+			this.closed = true;
+			this.notEmpty.signal();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Stops forwarding immediately, discarding queued chunks.
+	 */
+	void abort() {
+		this.thread.interrupt();
+		try {
+			this.thread.join(1000l);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return Number of elements (chars or bytes) the consumer is lagging behind
+	 */
+	long getLag() {
+		return this.enqueued.get() - this.delivered.get();
+	}
+
+	@Override
+	public void run() {
+		try {
+			Object chunk;
+			while ((chunk = this.next()) != null) {
+				if (chunk instanceof char[])
+					((CharPipe) this.pipe).write((char[]) chunk, 0, ((char[]) chunk).length);
+				else
+					((BytePipe) this.pipe).write((byte[]) chunk, 0, ((byte[]) chunk).length);
+				this.delivered.addAndGet(length(chunk));
+			}
+			this.pipe.writeClose();
+		} catch (InterruptedException e) {
+			this.fail(new java.io.InterruptedIOException());
+		} catch (IOException e) {
+			this.fail(e);
+			try {
+				this.pipe.writeClose();
+			} catch (IOException e1) {
+				// The pipe is broken anyway
+			}
+		} finally {
+			this.discardSpill();
+		}
+	}
+
+	/**
+	 * Takes the next chunk, waiting for one if necessary.
+	 * @return Chunk or null if the queue has been closed and drained
+	 * @throws InterruptedException Thrown if the forwarding thread gets interrupted
+	 * @throws IOException Thrown if the spill file cannot be read
+	 */
+	private Object next() throws InterruptedException, IOException {
+		this.lock.lock();
+		try {
+			while (this.chunks.isEmpty() && this.spilledChunks == 0 && !this.closed)
+				this.notEmpty.await();
+			if (!this.chunks.isEmpty()) {
+				Object chunk = this.chunks.poll();
+				this.notFull.signal();
+				return chunk;
+			}
+			if (this.spilledChunks > 0)
+				return this.unspill();
+			return null;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Records a failure and releases a producer waiting for space.
+	 * @param e Failure
+	 */
+	private void fail(IOException e) {
+		this.lock.lock();
+		try {
+			this.failure = e;
+			this.chunks.clear();
+			this.notFull.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/*
+	 * Spill file handling (only called while holding the lock)
+	 */
+
+	private void spill(Object chunk) throws IOException {
+		if (this.spill == null) {
+			this.spillFile = File.createTempFile("fanout", ".spill");
+			this.spillFile.deleteOnExit();
+			this.spill = new RandomAccessFile(this.spillFile, "rw");
+			Logger.getLogger(this.getClass().getSimpleName()).log(Level.INFO,
+					"Consumer on pipe " + this.pipe + " is lagging behind, spilling output to " + this.spillFile);
+		}
+		this.spill.seek(this.spillWritePosition);
+		if (chunk instanceof char[]) {
+			char[] chars = (char[]) chunk;
+			this.spill.writeByte(SPILLTYPE_CHARS);
+			this.spill.writeInt(chars.length);
+			byte[] data = new byte[chars.length * 2];
+			for (int i = 0; i < chars.length; i++) {
+				data[2 * i] = (byte) (chars[i] >>> 8);
+				data[2 * i + 1] = (byte) chars[i];
+			}
+			this.spill.write(data);
+		} else {
+			byte[] bytes = (byte[]) chunk;
+			this.spill.writeByte(SPILLTYPE_BYTES);
+			this.spill.writeInt(bytes.length);
+			this.spill.write(bytes);
+		}
+		this.spillWritePosition = this.spill.getFilePointer();
+		this.spilledChunks++;
+	}
+
+	private Object unspill() throws IOException {
+		this.spill.seek(this.spillReadPosition);
+		byte type = this.spill.readByte();
+		int length = this.spill.readInt();
+		Object chunk;
+		if (type == SPILLTYPE_CHARS) {
+			byte[] data = new byte[length * 2];
+			this.spill.readFully(data);
+			char[] chars = new char[length];
+			for (int i = 0; i < length; i++)
+				chars[i] = (char) (((data[2 * i] & 0xFF) << 8) | (data[2 * i + 1] & 0xFF));
+			chunk = chars;
+		} else {
+			byte[] bytes = new byte[length];
+			this.spill.readFully(bytes);
+			chunk = bytes;
+		}
+		this.spillReadPosition = this.spill.getFilePointer();
+
+		// Start over once the spill has been drained
+		if (--this.spilledChunks == 0) {
+			this.spill.setLength(0l);
+			this.spillReadPosition = 0l;
+			this.spillWritePosition = 0l;
+		}
+		return chunk;
+	}
+
+	private void discardSpill() {
+		this.lock.lock();
+		try {
+			if (this.spill != null) {
+				this.spill.close();
+				this.spillFile.delete();
+				this.spill = null;
+			}
+			this.spilledChunks = 0;
+		} catch (IOException e) {
+			Logger.getLogger(this.getClass().getSimpleName()).log(Level.WARNING, "Could not remove spill file " + this.spillFile, e);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private static int length(Object chunk) {
+		return (chunk instanceof char[]) ? ((char[]) chunk).length : ((byte[]) chunk).length;
+	}
+
+}
@@ -8,6 +8,10 @@ import java.io.PipedReader;
 public class InputPort extends AbstractPort {
 	private Pipe pipe;
 	private Port connectedPort;
+	
+	// Buffered reader on top of the current character pipe (created on demand)
+	private InputPortReader reader;
+	private PipedReader readerInput;
 
 	public InputPort(String name, String description, Module parent) {
 		super(name, description, parent);
@@ -36,7 +40,7 @@ public class InputPort extends AbstractPort {
 	 */
 	public PipedInputStream getInputStream() throws NotSupportedException {
 		if (this.pipe == null) return null;
-		if (!this.pipe.getClass().equals(BytePipe.class)){
+		if (!BytePipe.class.isAssignableFrom(this.pipe.getClass())){
 			throw new NotSupportedException("This port ("+this.toString()+") does not provide byte stream input.");
 		} else {
 			BytePipe bytePipe = (BytePipe) this.pipe;
@@ -51,7 +55,7 @@ public class InputPort extends AbstractPort {
 	 */
 	public PipedReader getInputReader() throws NotSupportedException {
 		if (this.pipe == null) return null;
-		if (!this.pipe.getClass().equals(CharPipe.class)){
+		if (!CharPipe.class.isAssignableFrom(this.pipe.getClass())){
 			throw new NotSupportedException("This port ("+this.toString()+") does not provide character stream input.");
 		} else {
 			CharPipe charPipe = (CharPipe) this.pipe;
@@ -59,6 +63,24 @@ public class InputPort extends AbstractPort {
 		}
 	}
 	
+	/**
+	 * Returns a buffered reader for the character input, which allows to read
+	 * it in blocks or line by line or to pass it to Gson as a stream. The
+	 * same instance is returned until the pipe gets replaced or reset.
+	 * @return Input reader (null if not connected)
+	 * @throws NotSupportedException Thrown if this port does not provide character stream input
+	 */
+	public InputPortReader getReader() throws NotSupportedException {
+		PipedReader input = this.getInputReader();
+		if (input == null)
+			return null;
+		if (this.reader == null || this.readerInput != input) {
+			this.reader = new InputPortReader(input);
+			this.readerInput = input;
+		}
+		return this.reader;
+	}
+	
 	/**
 	 * Reads bytes from the input.
 	 * @see modules.BytePipe#read(byte[] buffer, int offset, int length)
@@ -71,7 +93,7 @@ public class InputPort extends AbstractPort {
 	 */
 	public int read(byte[] buffer, int offset, int length) throws NotSupportedException, IOException {
 		if (this.pipe == null) throw new IOException("There is no pipe to read from.");
-		if (!this.pipe.getClass().equals(BytePipe.class)){
+		if (!BytePipe.class.isAssignableFrom(this.pipe.getClass())){
 			throw new NotSupportedException("This port ("+this.toString()+") does not provide byte stream input.");
 		} else {
 			BytePipe bytePipe = (BytePipe) this.pipe;
@@ -91,7 +113,7 @@ public class InputPort extends AbstractPort {
 	 */
 	public int read(char[] buffer, int offset, int length) throws NotSupportedException, IOException {
 		if (this.pipe == null) throw new IOException("There is no pipe to read from.");
-		if (!this.pipe.getClass().equals(CharPipe.class)){
+		if (!CharPipe.class.isAssignableFrom(this.pipe.getClass())){
 			throw new NotSupportedException("This port ("+this.toString()+") does not provide character stream input.");
 		} else {
 			CharPipe charPipe = (CharPipe) this.pipe;
@@ -99,6 +121,34 @@ public class InputPort extends AbstractPort {
 		}
 	}
 
+	/**
+	 * Reads the next object from the input.
+	 * @see modules.ObjectPipe#read()
+	 * @param type Type of the object expected
+	 * @param <T> Type of the object expected
+	 * @return Object read (null if the input is closed). Must not be modified, since it may be shared with other modules.
+	 * @throws NotSupportedException Thrown if this port does not provide object input
+	 * @throws IOException Thrown if something goes wrong
+	 */
+	public <T> T readObject(Class<T> type) throws NotSupportedException, IOException {
+		if (this.pipe == null) throw new IOException("There is no pipe to read from.");
+		if (!ObjectPipe.class.isAssignableFrom(this.pipe.getClass())){
+			throw new NotSupportedException("This port ("+this.toString()+") does not provide object input.");
+		} else {
+			ObjectPipe<?> objectPipe = (ObjectPipe<?>) this.pipe;
+			return type.cast(objectPipe.read());
+		}
+	}
+	
+	/**
+	 * Determines whether this port is connected via a pipe of the specified class.
+	 * @param pipeClass Pipe class
+	 * @return True if connected via that kind of pipe
+	 */
+	public boolean isConnected(Class<? extends Pipe> pipeClass) {
+		return this.pipe != null && pipeClass.isAssignableFrom(this.pipe.getClass());
+	}
+
 	@Override
 	public void addPipe(Pipe pipe, Port connectedPort) throws NotSupportedException, OccupiedException {
 		if (super.supportsPipe(pipe)){
@@ -0,0 +1,120 @@
+package modules;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Buffered reader for character input ports. Reads the input in blocks
+ * (using a reusable char array) instead of char by char, provides the input
+ * line by line without the regular expressions of a Scanner and can be
+ * handed to Gson (or any other consumer of a Reader) as a stream, so large
+ * inputs do not have to be loaded into a String first.
+ *
+ * @see InputPort#getReader()
+ */
+public class InputPortReader extends BufferedReader {
+
+	public static final int DEFAULT_BLOCKSIZE = 8192;
+
+	// Reusable block to read into
+	private final char[] block;
+
+	/**
+	 * Constructor.
+	 * @param input Reader to read from
+	 */
+	public InputPortReader(Reader input) {
+		this(input, DEFAULT_BLOCKSIZE);
+	}
+
+	/**
+	 * Constructor.
+	 * @param input Reader to read from
+	 * @param blockSize Size of the buffer and of the blocks read
+	 */
+	public InputPortReader(Reader input, int blockSize) {
+		super(input, blockSize);
+		this.block = new char[blockSize];
+	}
+
+	/**
+	 * Reads the next block of characters into the reusable array returned by
+	 * {@link #getBlock()}; its content is only valid until the next call.
+	 * @return Number of chars read, -1 if the end of the input has been reached
+	 * @throws IOException Thrown if an I/O error occurs
+	 */
+	public int readBlock() throws IOException {
+		return this.read(this.block, 0, this.block.length);
+	}
+
+	/**
+	 * @return The array the blocks are read into
+	 */
+	public char[] getBlock() {
+		return this.block;
+	}
+
+	/**
+	 * Reads the total remaining input.
+	 * @return The String read
+	 * @throws IOException Thrown if an I/O error occurs or the thread has been interrupted
+	 */
+	public String readAll() throws IOException {
+		StringBuilder stringBuilder = new StringBuilder();
+		int charsRead;
+		while ((charsRead = this.readBlock()) != -1) {
+			if (Thread.interrupted())
+				throw new InterruptedIOException("Thread has been interrupted.");
+			stringBuilder.append(this.block, 0, charsRead);
+		}
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Provides the remaining input line by line (line breaks being \n, \r or
+	 * \r\n). I/O errors occurring while iterating are thrown as
+	 * UncheckedIOException.
+	 * @param skipEmptyLines If true, empty lines are skipped (like a Scanner with delimiter "\\R+" does)
+	 * @return Lines
+	 */
+	public Iterable<String> iterateLines(final boolean skipEmptyLines) {
+		return new Iterable<String>() {
+			@Override
+			public Iterator<String> iterator() {
+				return new Iterator<String>() {
+
+					private String nextLine = null;
+
+					@Override
+					public boolean hasNext() {
+						if (this.nextLine != null)
+							return true;
+						try {
+							do {
+								this.nextLine = InputPortReader.this.readLine();
+							} while (skipEmptyLines && this.nextLine != null && this.nextLine.isEmpty());
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+						return this.nextLine != null;
+					}
+
+					@Override
+					public String next() {
+						if (!this.hasNext())
+							throw new NoSuchElementException();
+						String line = this.nextLine;
+						this.nextLine = null;
+						return line;
+					}
+				};
+			}
+		};
+	}
+
+}
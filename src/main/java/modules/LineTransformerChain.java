@@ -0,0 +1,288 @@
+package modules;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import common.parallelization.CallbackReceiver;
+
+/**
+ * Runs a linear chain of line transforming modules within a single thread:
+ * The input of the first module is read block-wise, split into lines and
+ * passed through the transformations of all modules, the result is written
+ * to the output of the last one. The output of every stage is split into
+ * lines again before being handed on, so the result equals the one of the
+ * modules connected by pipes.
+ */
+public class LineTransformerChain implements Runnable {
+
+	// Number of lines between updates of the modules' status details
+	private static final long STATUSUPDATE_INTERVAL = 10000l;
+
+	private final LineTransformerModule[] modules;
+	private final StringBuilder[] pending;
+	private final StringBuilder[] outputs;
+	private final int[] scanPositions;
+	private final long[] linesProcessed;
+
+	/**
+	 * Constructor.
+	 * @param modules Modules to chain (the output of each one has to be connected to the input of the next one)
+	 * @throws NotSupportedException Thrown if one of the modules cannot be fused
+	 */
+	public LineTransformerChain(LineTransformerModule... modules) throws NotSupportedException {
+		super();
+		for (LineTransformerModule module : modules)
+			if (!isFusable(module))
+				throw new NotSupportedException("The module " + module.getName() + " cannot be run as part of a chain.");
+		this.modules = modules;
+		this.pending = new StringBuilder[modules.length];
+		this.outputs = new StringBuilder[modules.length];
+		for (int i = 0; i < modules.length; i++) {
+			this.pending[i] = new StringBuilder();
+			this.outputs[i] = new StringBuilder();
+		}
+		this.scanPositions = new int[modules.length];
+		this.linesProcessed = new long[modules.length];
+	}
+
+	/**
+	 * Determines whether the given module can be part of a chain.
+	 * @param module Module
+	 * @return True if fusable
+	 */
+	public static boolean isFusable(Module module) {
+		return module instanceof LineTransformerModule && module instanceof ModuleImpl
+				&& ((LineTransformerModule) module).isFusable() && module.getInputPorts().size() == 1
+				&& module.getOutputPorts().size() == 1;
+	}
+
+	/**
+	 * Determines the module a fusable module passes its output to, if that
+	 * one is fusable, too, and the only consumer.
+	 * @param module Module
+	 * @return Successor within a chain or null
+	 */
+	private static Module getSuccessor(Module module) {
+		OutputPort outputPort = module.getOutputPorts().values().iterator().next();
+		List<Pipe> pipes = outputPort.getPipes(CharPipe.class);
+		int connections = 0;
+		Iterator<List<Pipe>> pipeLists = outputPort.getPipes().values().iterator();
+		while (pipeLists.hasNext())
+			connections += pipeLists.next().size();
+		if (connections != 1 || pipes == null || pipes.size() != 1)
+			return null;
+		Port connectedPort = outputPort.getConnectedPort(pipes.get(0));
+		if (connectedPort == null || !isFusable(connectedPort.getParent()))
+			return null;
+		return connectedPort.getParent();
+	}
+
+	/**
+	 * Finds the linear chains of at least two fusable modules within the given ones.
+	 * @param modules Modules
+	 * @return Chains
+	 * @throws NotSupportedException Thrown if a chain cannot be set up
+	 */
+	public static List<LineTransformerChain> findChains(List<Module> modules) throws NotSupportedException {
+
+		// Modules that are the successor of another one cannot start a chain
+		Set<Module> successors = new HashSet<Module>();
+		for (Module module : modules)
+			if (isFusable(module)) {
+				Module successor = getSuccessor(module);
+				if (successor != null)
+					successors.add(successor);
+			}
+
+		List<LineTransformerChain> chains = new ArrayList<LineTransformerChain>();
+		Set<Module> chained = new HashSet<Module>();
+		for (Module module : modules) {
+			if (!isFusable(module) || successors.contains(module))
+				continue;
+			List<LineTransformerModule> chainModules = new ArrayList<LineTransformerModule>();
+			Module next = module;
+			while (next != null && modules.contains(next) && chained.add(next)) {
+				chainModules.add((LineTransformerModule) next);
+				next = getSuccessor(next);
+			}
+			if (chainModules.size() > 1)
+				chains.add(new LineTransformerChain(chainModules.toArray(new LineTransformerModule[chainModules.size()])));
+		}
+		return chains;
+	}
+
+	/**
+	 * @return The modules of the chain
+	 */
+	public LineTransformerModule[] getModules() {
+		return modules;
+	}
+
+	/**
+	 * Processes the input of the first module and writes the result to the
+	 * output of the last one; closes the outputs of all modules afterwards.
+	 * @return True if successful
+	 * @throws Exception Thrown if something goes wrong
+	 */
+	public boolean process() throws Exception {
+		InputPortReader reader = this.modules[0].getInputPorts().values().iterator().next().getReader();
+		OutputPort outputPort = this.modules[this.modules.length - 1].getOutputPorts().values().iterator().next();
+		StringBuilder output = this.outputs[this.modules.length - 1];
+
+		try {
+			if (reader == null)
+				throw new Exception("The input of module " + this.modules[0].getName() + " is not connected.");
+
+			// Read input block-wise and pass it through the chain
+			int charsRead;
+			while ((charsRead = reader.readBlock()) != -1) {
+
+				// Check for interrupt signal
+				if (Thread.interrupted())
+					throw new InterruptedException("Thread has been interrupted.");
+
+				this.pending[0].append(reader.getBlock(), 0, charsRead);
+				this.transform(0, false);
+				if (output.length() > 0) {
+					outputPort.outputToAllCharPipes(output.toString());
+					output.setLength(0);
+				}
+			}
+
+			// Flush remaining (unterminated) lines
+			this.transform(0, true);
+			if (output.length() > 0) {
+				outputPort.outputToAllCharPipes(output.toString());
+				output.setLength(0);
+			}
+			this.updateStatusDetails(true);
+
+		} finally {
+			// Close outputs (important!)
+			for (LineTransformerModule module : this.modules)
+				((ModuleImpl) module).closeAllOutputs();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Passes the complete lines pending for a stage through its module and
+	 * hands the result on to the next stage.
+	 * @param stage Index of the stage
+	 * @param end True if the end of the input has been reached
+	 * @throws Exception Thrown if a module fails to transform a line
+	 */
+	private void transform(int stage, boolean end) throws Exception {
+		LineTransformerModule module = this.modules[stage];
+		StringBuilder input = this.pending[stage];
+		StringBuilder output = this.outputs[stage];
+		int length = input.length();
+		int lineStart = 0;
+		int position = this.scanPositions[stage];
+
+		while (position < length) {
+			char c = input.charAt(position);
+			if (c != '\n' && c != '\r') {
+				position++;
+				continue;
+			}
+			int terminatorEnd = position + 1;
+			if (c == '\r') {
+				// Wait for the next block to know whether a \n follows
+				if (terminatorEnd == length && !end)
+					break;
+				if (terminatorEnd < length && input.charAt(terminatorEnd) == '\n')
+					terminatorEnd++;
+			}
+			module.transformLine(input.substring(lineStart, position), input.substring(position, terminatorEnd), output);
+			this.linesProcessed[stage]++;
+			if (this.linesProcessed[stage] % STATUSUPDATE_INTERVAL == 0)
+				this.updateStatusDetails(false);
+			lineStart = terminatorEnd;
+			position = terminatorEnd;
+		}
+		if (end && lineStart < length) {
+			module.transformLine(input.substring(lineStart), "", output);
+			this.linesProcessed[stage]++;
+			lineStart = length;
+			position = length;
+		}
+		input.delete(0, lineStart);
+		this.scanPositions[stage] = position - lineStart;
+
+		// Hand the output on to the next stage
+		if (stage + 1 < this.modules.length) {
+			this.pending[stage + 1].append(output);
+			output.setLength(0);
+			this.transform(stage + 1, end);
+		}
+	}
+
+	/**
+	 * Reports the number of lines processed by each module.
+	 * @param done True if the chain is done
+	 */
+	private void updateStatusDetails(boolean done) {
+		String fused = "";
+		if (this.modules.length > 1)
+			fused = " (fused with " + (this.modules.length - 1) + " other module" + (this.modules.length > 2 ? "s" : "") + ")";
+		for (int i = 0; i < this.modules.length; i++)
+			this.modules[i].setStatusDetail((done ? "Done: " : "") + this.linesProcessed[i] + " lines processed" + fused);
+	}
+
+	/*
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		CallbackReceiver callbackReceiver = this.modules[0].getCallbackReceiver();
+		try {
+
+			// Update status
+			for (LineTransformerModule module : this.modules)
+				((ModuleImpl) module).setStatus(Module.STATUSCODE_RUNNING);
+
+			// Log message
+			Logger.getLogger("").log(Level.INFO, "Running fused modules " + this.toString());
+
+			// Run process and determine result
+			boolean result = this.process();
+
+			// Log message
+			Logger.getLogger("").log(Level.INFO, "Fused modules " + this.toString() + " finished.");
+
+			// Update status
+			for (LineTransformerModule module : this.modules)
+				((ModuleImpl) module).setStatus(result ? Module.STATUSCODE_SUCCESS : Module.STATUSCODE_FAILURE);
+
+			// Return result
+			callbackReceiver.receiveCallback(Thread.currentThread(), result);
+
+		} catch (Exception e) {
+			for (LineTransformerModule module : this.modules)
+				((ModuleImpl) module).setStatus(Module.STATUSCODE_FAILURE);
+			callbackReceiver.receiveException(Thread.currentThread(), e);
+		}
+	}
+
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < this.modules.length; i++) {
+			if (i > 0)
+				result.append(" -> ");
+			result.append(this.modules[i].getName());
+		}
+		return result.toString();
+	}
+
+}
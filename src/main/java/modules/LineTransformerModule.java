@@ -0,0 +1,27 @@
+package modules;
+
+/**
+ * Module that transforms its (single) character input line by line into its
+ * (single) character output without keeping any state between the lines.
+ * Linear chains of such modules are fused by the ModuleNetwork, i.e. run
+ * within one thread without pipes in between (see LineTransformerChain).
+ */
+public interface LineTransformerModule extends Module {
+
+	/**
+	 * Determines whether the module works line by line with its current
+	 * settings (some modules do only in certain modes).
+	 * @return True if the module can be fused
+	 */
+	public boolean isFusable();
+
+	/**
+	 * Transforms a single line of input.
+	 * @param line Line (without line terminator)
+	 * @param lineTerminator Terminator of the line as found in the input ("\n", "\r\n" or "\r"; empty for the last line if it has none)
+	 * @param output Buffer to append the output for the line to (including line terminators, if any)
+	 * @throws Exception Thrown if the line cannot be processed
+	 */
+	public void transformLine(String line, String lineTerminator, StringBuilder output) throws Exception;
+
+}
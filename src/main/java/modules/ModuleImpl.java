@@ -1,6 +1,7 @@
 package modules;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -108,7 +109,8 @@ public abstract class ModuleImpl implements Module {
 	 * Reads the total remaining String from inputPort.
 	 *
 	 * Convenience method for module implementations that need the whole input
-	 * present before processing can begin.
+	 * present before processing can begin. Modules that can process the input
+	 * as a stream should rather use {@link InputPort#getReader()}.
 	 *
 	 * @param inputPort the port to read from
 	 * @return The String read
@@ -123,18 +125,12 @@ public abstract class ModuleImpl implements Module {
 			throw new Exception("inputPort is not connected");
 		}
 		
-		final StringBuilder stringBuilder = new StringBuilder();
-		int charCode = inputPort.getInputReader().read();
-
-		while (charCode != -1) {
-			if (Thread.interrupted()) {
-				throw new InterruptedException("Thread has been interrupted.");
-			}
-			stringBuilder.append((char) charCode);
-			charCode = inputPort.getInputReader().read();
+		// Read block-wise (see InputPortReader)
+		try {
+			return inputPort.getReader().readAll();
+		} catch (InterruptedIOException e) {
+			throw new InterruptedException("Thread has been interrupted.");
 		}
-
-		return stringBuilder.toString();
 	}
 
 	/*
@@ -169,6 +165,27 @@ public abstract class ModuleImpl implements Module {
 	public int getStatus() {
 		return status;
 	}
+	
+	/**
+	 * Sets the status code (used if the module is not run by itself, but as
+	 * part of a LineTransformerChain).
+	 * @param status Status code
+	 */
+	void setStatus(int status) {
+		this.status = status;
+	}
+
+	/**
+	 * Returns what determines the module's output besides its properties and
+	 * input (e.g. the state of a file it reads), so the keys of the result
+	 * cache change along with it.
+	 * @return Details (empty by default), or null if the output must not be
+	 * taken from (or recorded in) the cache this time
+	 * @see ResultCache
+	 */
+	public String getCacheKeyDetails() {
+		return "";
+	}
 
 	@Override
 	public abstract boolean process() throws Exception;
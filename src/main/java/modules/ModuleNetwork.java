@@ -2,10 +2,26 @@ package modules;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,12 +39,36 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 	// The list used to organize the modules
 	private List<Module> moduleList;
 
-	// List of started threads
-	private Map<Module,Thread> startedThreads = new HashMap<Module,Thread>();
+	// List of started threads and of the tasks submitted for each module
+	private Map<Module,Thread> startedThreads = new ConcurrentHashMap<Module,Thread>();
+	private Map<Module,FutureTask<Void>> startedTasks = new ConcurrentHashMap<Module,FutureTask<Void>>();
+
+	// Counts down as the modules of the current run finish
+	private CountDownLatch runningModules = new CountDownLatch(0);
+
+	// Executors running the modules (created on demand unless set explicitly)
+	private ExecutorService executorService = null;
+	private boolean ownExecutorService = false;
+	private ForkJoinPool nonBlockingPool = null;
+	private int maxThreads = 0;
+
+	// Whether linear chains of line transforming modules are run within a single thread
+	private boolean fuseModules = true;
+
+	// Capacity of the ring buffer pipes used for new connections (zero or less: use java.io pipes)
+	private int pipeBufferCapacity = 0;
+
+	// Queue capacity for output ports with several consumers (zero or less: consumers are not decoupled)
+	private int fanOutQueueCapacity = 0;
+	private OutputPort.OverflowPolicy fanOutOverflowPolicy = OutputPort.OverflowPolicy.BLOCK;
+
+	// Cache for the output of the modules (null: not used) and the output being recorded during the current run
+	private ResultCache resultCache = null;
+	private Map<Module,ResultCache.Recording> recordings = new ConcurrentHashMap<Module,ResultCache.Recording>();
 
 	/**
 	 * Determines which pipe to use between both given module ports (prefers
-	 * byte pipe).
+	 * object pipe, then byte pipe).
 	 * 
 	 * @param port1
 	 *            Module port 1
@@ -42,7 +82,10 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 	 */
 	public static Pipe getCompatiblePipe(Port port1,
 			Port port2) throws NotSupportedException, IOException {
-		Pipe pipe = new BytePipe();
+		Pipe pipe = ModuleNetwork.getCompatibleObjectPipe(port1, port2);
+		if (pipe != null)
+			return pipe;
+		pipe = new BytePipe();
 		if (!(port2.supportsPipe(pipe) && port1
 				.supportsPipe(pipe))) {
 			pipe = new CharPipe();
@@ -55,6 +98,66 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 		return pipe;
 	}
 
+	/**
+	 * Determines which pipe to use between both given module ports (prefers
+	 * byte pipe). If a positive buffer capacity is given, the lock-free ring
+	 * buffer variants of the pipes are used.
+	 * 
+	 * @param port1
+	 *            Module port 1
+	 * @param port2
+	 *            Module port 2
+	 * @param ringBufferCapacity
+	 *            Capacity of the ring buffer pipes (zero or less to use the
+	 *            java.io piped readers/streams)
+	 * @return Compatible pipe
+	 * @throws IOException
+	 *             Thrown if an I/O error occurs
+	 * @throws NotSupportedException
+	 *             Thrown if the module ports' I/O is not compatible
+	 */
+	public static Pipe getCompatiblePipe(Port port1,
+			Port port2, int ringBufferCapacity) throws NotSupportedException, IOException {
+		if (ringBufferCapacity <= 0)
+			return ModuleNetwork.getCompatiblePipe(port1, port2);
+		Pipe pipe = ModuleNetwork.getCompatibleObjectPipe(port1, port2);
+		if (pipe != null)
+			return pipe;
+		pipe = new RingBufferBytePipe(ringBufferCapacity);
+		if (!(port2.supportsPipe(pipe) && port1
+				.supportsPipe(pipe))) {
+			pipe = new RingBufferCharPipe(ringBufferCapacity);
+			if (!(port2.supportsPipe(pipe) && port1
+					.supportsPipe(pipe))) {
+				throw new NotSupportedException (
+						"The I/O of those two module ports does not seem to be compatible.");
+			}
+		}
+		return pipe;
+	}
+
+	/**
+	 * Returns an object pipe for the given ports if the objects provided by
+	 * the output port can be consumed by the input port.
+	 * 
+	 * @param port1
+	 *            Module port 1
+	 * @param port2
+	 *            Module port 2
+	 * @return Object pipe typed with the output port's object type or null
+	 *         if the ports cannot be connected by an object pipe
+	 */
+	public static ObjectPipe<?> getCompatibleObjectPipe(Port port1, Port port2) {
+		Port outputPort = (port1 instanceof OutputPort) ? port1 : port2;
+		Class<?> objectType = outputPort.getSupportedObjectType();
+		if (objectType == null)
+			return null;
+		ObjectPipe<?> pipe = new ObjectPipe<>(objectType);
+		if (port1.supportsPipe(pipe) && port2.supportsPipe(pipe))
+			return pipe;
+		return null;
+	}
+
 	/**
 	 * Constructor
 	 */
@@ -70,6 +173,171 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 		return startedThreads;
 	}
 	
+	/**
+	 * @return Capacity of the ring buffer pipes used for new connections (zero or less: java.io pipes are used)
+	 */
+	public int getPipeBufferCapacity() {
+		return pipeBufferCapacity;
+	}
+
+	/**
+	 * Sets the capacity of the ring buffer pipes used for connections added
+	 * via {@link #addConnection(Port, Port)}.
+	 * @param pipeBufferCapacity Capacity (zero or less to use the java.io pipes)
+	 */
+	public void setPipeBufferCapacity(int pipeBufferCapacity) {
+		this.pipeBufferCapacity = pipeBufferCapacity;
+	}
+
+	/**
+	 * @return Queue capacity per consumer for output ports with several consumers (zero or less: not decoupled)
+	 */
+	public int getFanOutQueueCapacity() {
+		return fanOutQueueCapacity;
+	}
+
+	/**
+	 * @return Overflow policy for output ports with several consumers
+	 */
+	public OutputPort.OverflowPolicy getFanOutOverflowPolicy() {
+		return fanOutOverflowPolicy;
+	}
+
+	/**
+	 * Decouples the consumers of output ports with more than one connection
+	 * when the modules are run, so a slow consumer does not stall the others.
+	 * @param queueCapacity Number of chunks queued per consumer (zero or less to write directly)
+	 * @param overflowPolicy What to do if a consumer's queue is full
+	 * @see OutputPort#setDecoupled(int, OutputPort.OverflowPolicy)
+	 */
+	public void setFanOut(int queueCapacity, OutputPort.OverflowPolicy overflowPolicy) {
+		this.fanOutQueueCapacity = queueCapacity;
+		this.fanOutOverflowPolicy = overflowPolicy;
+	}
+	
+	/**
+	 * @return Maximum number of threads used to run the modules (zero or less: one per module)
+	 */
+	public int getMaxThreads() {
+		return maxThreads;
+	}
+
+	/**
+	 * Limits the number of threads used to run the modules. Modules connected
+	 * by pipes wait for each other, so the pool is enlarged (with a warning)
+	 * if there are more of them than threads; only modules implementing
+	 * {@link NonBlockingModule} share a work-stealing pool of the given size.
+	 * @param maxThreads Maximum number of threads (zero or less: one thread per module)
+	 */
+	public synchronized void setMaxThreads(int maxThreads) {
+		this.maxThreads = maxThreads;
+		if (this.ownExecutorService)
+			this.executorService.shutdown();
+		this.executorService = null;
+		if (this.nonBlockingPool != null)
+			this.nonBlockingPool.shutdown();
+		this.nonBlockingPool = null;
+	}
+
+	/**
+	 * @return True if linear chains of line transforming modules are run fused within a single thread
+	 */
+	public boolean isFuseModules() {
+		return fuseModules;
+	}
+
+	/**
+	 * Determines whether linear chains of modules implementing
+	 * {@link LineTransformerModule} are run fused within a single thread
+	 * (without pipes in between) or like any other module.
+	 * @param fuseModules True to fuse chains
+	 */
+	public void setFuseModules(boolean fuseModules) {
+		this.fuseModules = fuseModules;
+	}
+
+	/**
+	 * @return Cache for the output of the modules (null if not used)
+	 */
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Sets the cache for the output of the modules. When the modules are run,
+	 * the ones whose output is found in the cache are not run, but their
+	 * output is replayed from it (modules whose output is only needed by
+	 * those are not run at all); the output of the others is added to it.
+	 * @param resultCache Cache (null to run all modules)
+	 * @see UncachedModule
+	 */
+	public void setResultCache(ResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+
+	/**
+	 * Sets the executor used to run the modules, replacing the thread pool
+	 * the network would create itself. The executor is not shut down by the
+	 * network.
+	 * @param executorService Executor (null to let the network create one)
+	 */
+	public synchronized void setExecutorService(ExecutorService executorService) {
+		if (this.ownExecutorService)
+			this.executorService.shutdown();
+		this.executorService = executorService;
+		this.ownExecutorService = false;
+	}
+
+	/**
+	 * Returns the executor for the modules that may block, making sure it can
+	 * run the given number of them at the same time.
+	 * @param blockingModules Number of modules that may block
+	 * @return Executor
+	 */
+	private synchronized ExecutorService getExecutorService(int blockingModules) {
+		if (this.executorService == null || this.executorService.isShutdown()) {
+			ThreadFactory threadFactory = new ThreadFactory() {
+				private final AtomicInteger threadCount = new AtomicInteger();
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "ModuleNetwork-" + this.threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			};
+			if (this.maxThreads > 0) {
+				ThreadPoolExecutor threadPool = new ThreadPoolExecutor(this.maxThreads, this.maxThreads, 60l,
+						TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+				threadPool.allowCoreThreadTimeOut(true);
+				this.executorService = threadPool;
+			} else
+				this.executorService = Executors.newCachedThreadPool(threadFactory);
+			this.ownExecutorService = true;
+		}
+
+		// Modules exchanging data through pipes must run concurrently, otherwise they might wait for each other forever
+		if (this.executorService instanceof ThreadPoolExecutor) {
+			ThreadPoolExecutor threadPool = (ThreadPoolExecutor) this.executorService;
+			if (threadPool.getMaximumPoolSize() < blockingModules) {
+				Logger.getLogger(this.getClass().getSimpleName()).log(Level.WARNING,
+						"The thread pool is too small to run all " + blockingModules
+								+ " blocking modules at once, enlarging it.");
+				threadPool.setMaximumPoolSize(blockingModules);
+				threadPool.setCorePoolSize(blockingModules);
+			}
+		}
+		return this.executorService;
+	}
+
+	/**
+	 * @return The work-stealing pool for modules implementing NonBlockingModule
+	 */
+	private synchronized ForkJoinPool getNonBlockingPool() {
+		if (this.nonBlockingPool == null)
+			this.nonBlockingPool = new ForkJoinPool(this.maxThreads > 0 ? this.maxThreads : Runtime.getRuntime().availableProcessors());
+		return this.nonBlockingPool;
+	}
+	
 	/**
 	 * Adds a thread to the list of the ones started in a thread-safe manner.
 	 * If there already is a thread associated to the specified module, it will be interrupted.
@@ -113,6 +381,11 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 	
 	public synchronized void interruptAllThreads(){
 		
+		// Modules that have not been started yet won't be
+		Iterator<FutureTask<Void>> tasks = this.startedTasks.values().iterator();
+		while (tasks.hasNext())
+			tasks.next().cancel(false);
+		
 		Iterator<Thread> threads = this.startedThreads.values().iterator();
 		while (threads.hasNext()) {
 			Thread thread = threads.next();
@@ -143,7 +416,7 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 			throws NotSupportedException, OccupiedException, IOException {
 
 		// Determine pipe that connects both modules
-		Pipe pipe = ModuleNetwork.getCompatiblePipe(port1, port2);
+		Pipe pipe = ModuleNetwork.getCompatiblePipe(port1, port2, this.pipeBufferCapacity);
 
 		// Jump to more detailed method
 		return this.addConnection(port1, port2, pipe);
@@ -293,28 +566,82 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 	 *            If true, the method runs until all spawned threads have
 	 *            finished
 	 * @param interval
-	 *            Interval to check for thread completion in milliseconds
+	 *            Interval to print the module status while waiting in milliseconds
 	 * @throws Exception Thrown if something goes wrong
 	 */
 	public void runModules(boolean runUntilAllThreadsAreDone, long interval)
 			throws Exception {
 
-		// Loop over all modules
+		// Determine chains of modules to run fused within a single thread
+		Map<Module,LineTransformerChain> fusedModules = new HashMap<Module,LineTransformerChain>();
+		if (this.fuseModules) {
+			Iterator<LineTransformerChain> chains = LineTransformerChain.findChains(this.moduleList).iterator();
+			while (chains.hasNext()) {
+				LineTransformerChain chain = chains.next();
+				for (LineTransformerModule module : chain.getModules())
+					fusedModules.put(module, chain);
+				Logger.getLogger(this.getClass().getSimpleName()).log(Level.INFO, "Fusing modules " + chain);
+			}
+		}
+
+		// Determine the modules to take from the result cache and the ones to record the output of
+		Map<Module,Runnable> replays = new HashMap<Module,Runnable>();
+		if (this.resultCache != null)
+			this.prepareResultCache(fusedModules.keySet(), replays);
+
+		// Count the modules first, so that the latch is in place before any of them finishes
+		CountDownLatch runningModules = new CountDownLatch(this.moduleList.size());
+		this.runningModules = runningModules;
+		int blockingModules = 0;
 		Iterator<Module> modules = this.moduleList.iterator();
+		while (modules.hasNext()) {
+			Module module = modules.next();
+			// A chain takes one thread (counted with its first module)
+			if (!(module instanceof NonBlockingModule) && (!fusedModules.containsKey(module) || fusedModules.get(module).getModules()[0] == module))
+				blockingModules++;
+		}
+		ExecutorService executorService = this.getExecutorService(blockingModules);
+
+		// Loop over all modules
+		modules = this.moduleList.iterator();
 		while (modules.hasNext()){
-			// Run module
-			this.runModule(modules.next());
+			Module module = modules.next();
+			
+			// Decouple the consumers of ports with several connections
+			Iterator<OutputPort> outputPorts = module.getOutputPorts().values().iterator();
+			while (outputPorts.hasNext()){
+				OutputPort outputPort = outputPorts.next();
+				int connections = 0;
+				Iterator<List<Pipe>> pipeLists = outputPort.getPipes().values().iterator();
+				while (pipeLists.hasNext())
+					connections += pipeLists.next().size();
+				outputPort.setDecoupled(connections > 1 ? this.fanOutQueueCapacity : 0, this.fanOutOverflowPolicy);
+			}
+			
+			// Run module (chains of fused modules are started along with their first module)
+			LineTransformerChain chain = fusedModules.get(module);
+			Runnable replay = replays.get(module);
+			if (replay != null)
+				this.runModule(replay, module.getName(), Collections.singletonList(module),
+						module instanceof NonBlockingModule ? this.getNonBlockingPool() : executorService, runningModules);
+			else if (chain != null) {
+				if (chain.getModules()[0] == module)
+					this.runModule(chain, chain.toString(), new ArrayList<Module>(Arrays.asList(chain.getModules())), executorService, runningModules);
+			} else if (module instanceof NonBlockingModule)
+				this.runModule(module, module.getName(), Collections.singletonList(module), this.getNonBlockingPool(), runningModules);
+			else
+				this.runModule(module, module.getName(), Collections.singletonList(module), executorService, runningModules);
 		}
 		
 		// Determine runtime environment
 		Runtime rt = Runtime.getRuntime();
 		long maxBelegterHauptspeicher = 0l;
 
-		// Wait for threads to finish, if requested
-		while (runUntilAllThreadsAreDone && !this.startedThreads.isEmpty()) {
+		// Wait for the modules to finish, if requested (printing the status every interval)
+		while (runUntilAllThreadsAreDone) {
 			try {
-				// Sleep for a quarter second
-				Thread.sleep(interval);
+				if (runningModules.await(interval, TimeUnit.MILLISECONDS))
+					break;
 
 				// Print pretty overview
 				Logger.getLogger(this.getClass().getSimpleName()).log(
@@ -327,10 +654,6 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 			    	maxBelegterHauptspeicher = belegterHauptspeicher;
 			    Logger.getLogger(this.getClass().getSimpleName()).log(Level.INFO, "Hauptspeicher belegt (MB):" + belegterHauptspeicher + "; bisheriges Max.:"+maxBelegterHauptspeicher);
 
-				// Test which threads are still active and remove the rest from
-				// the list
-				this.removeDeadThreads();
-
 			} catch (InterruptedException e) {
 				break;
 			}
@@ -338,16 +661,100 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 	}
 
 	/**
-	 * Runs the specified module (within a separate thread).
+	 * Determines which modules' output can be replayed from the result cache
+	 * and which modules need not run at all, since only those read their
+	 * output; starts recording the output of the other cacheable modules.
+	 * @param fusedModules Modules run as part of a chain (neither taken from the cache nor recorded)
+	 * @param replays Map to put the processes replacing modules into
+	 * @throws IOException Thrown if the output of a module cannot be recorded
+	 */
+	private void prepareResultCache(Set<Module> fusedModules, Map<Module,Runnable> replays) throws IOException {
+		Map<Module,String> keys = new HashMap<Module,String>();
+		ResultCache.computeKeys(this.moduleList, keys);
+
+		// Modules with cached output
+		Map<Module,String> hits = new HashMap<Module,String>();
+		Iterator<Module> modules = this.moduleList.iterator();
+		while (modules.hasNext()) {
+			Module module = modules.next();
+			String key = keys.get(module);
+			if (key != null && !fusedModules.contains(module) && ResultCache.isRecordable(module)
+					&& this.resultCache.contains(key, module))
+				hits.put(module, key);
+		}
+
+		// Modules whose output is only read by modules with cached output (or by ones that are skipped themselves)
+		Set<Module> skipped = new HashSet<Module>();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			modules = this.moduleList.iterator();
+			while (modules.hasNext()) {
+				Module module = modules.next();
+				if (skipped.contains(module) || fusedModules.contains(module) || !ResultCache.isCacheable(module))
+					continue;
+				boolean connected = false;
+				boolean needed = false;
+				Iterator<OutputPort> outputPorts = module.getOutputPorts().values().iterator();
+				while (outputPorts.hasNext() && !needed) {
+					OutputPort outputPort = outputPorts.next();
+					Iterator<List<Pipe>> pipeLists = outputPort.getPipes().values().iterator();
+					while (pipeLists.hasNext() && !needed) {
+						Iterator<Pipe> pipes = pipeLists.next().iterator();
+						while (pipes.hasNext() && !needed) {
+							Port connectedPort = outputPort.getConnectedPort(pipes.next());
+							connected = true;
+							needed = connectedPort == null || (!hits.containsKey(connectedPort.getParent())
+									&& !skipped.contains(connectedPort.getParent()));
+						}
+					}
+				}
+				if (connected && !needed) {
+					skipped.add(module);
+					changed = true;
+				}
+			}
+		}
+
+		modules = this.moduleList.iterator();
+		while (modules.hasNext()) {
+			Module module = modules.next();
+			String key = keys.get(module);
+			if (skipped.contains(module)) {
+				Logger.getLogger(this.getClass().getSimpleName()).log(Level.INFO,
+						"Skipping module " + module.getName() + ", its output is not needed.");
+				replays.put(module, this.resultCache.getReplay(null, (ModuleImpl) module));
+			} else if (hits.containsKey(module)) {
+				Logger.getLogger(this.getClass().getSimpleName()).log(Level.INFO,
+						"Taking the output of module " + module.getName() + " from the result cache.");
+				replays.put(module, this.resultCache.getReplay(key, (ModuleImpl) module));
+			} else if (key != null && !fusedModules.contains(module) && ResultCache.isRecordable(module))
+				this.recordings.put(module, this.resultCache.record(key, module));
+		}
+	}
+
+	/**
+	 * Waits for the modules of the current run to finish.
+	 * @param timeout Maximum time to wait
+	 * @param unit Unit of the timeout
+	 * @return True if all modules have finished, false if the timeout elapsed
+	 * @throws InterruptedException Thrown if the current thread gets interrupted while waiting
+	 */
+	public boolean awaitModules(long timeout, TimeUnit unit) throws InterruptedException {
+		return this.runningModules.await(timeout, unit);
+	}
+
+	/**
+	 * Runs the specified module (within a thread of the given executor).
 	 * 
-	 * @param module Module to run
+	 * @param process Module or chain of fused modules to run
+	 * @param name Name of the module resp. chain
+	 * @param modules Modules run by the process
+	 * @param executorService Executor to run the module with
+	 * @param runningModules Latch to count down once for each module when finished
 	 * @throws Exception
 	 */
-	private void runModule(Module module) throws Exception {
-
-		// Initialize thread
-		final Thread moduleThread = new Thread(module);
-		moduleThread.setName(module.getName());
+	private void runModule(final Runnable process, final String name, final List<Module> modules, ExecutorService executorService, final CountDownLatch runningModules) throws Exception {
 
 		// Final list of started threads
 		final ModuleNetwork moduleNetworkInstance = this;
@@ -355,51 +762,145 @@ public class ModuleNetwork extends CallbackReceiverImpl {
 		// Define action to perform on success (note that this merely means the
 		// module finished without throwing an exception -- not necessarily that
 		// the module's own computation was successful)
-		Action successAction = new Action() {
+		final Action successAction = new Action() {
 			@Override
 			public void perform(Object processResult) {
 				Boolean result = Boolean.parseBoolean(processResult.toString());
 				if (result)
 					Logger.getLogger("").log(
 							Level.INFO,
-							"Module " + module.getName()
+							"Module " + name
 									+ " has successfully finished processing.");
 				else
 					Logger.getLogger("")
 							.log(Level.WARNING,
 									"Module "
-											+ module.getName()
+											+ name
 											+ " did not finish processing successfully.");
-				// Remove thread from list of running ones
-				moduleNetworkInstance.removeStartedThread(moduleThread);
 			}
 		};
 
-		// Define action to perform on failure
-		Action failureAction = new Action() {
+		// Define action to perform on failure (since any exception already
+		// gets reported from within the super class' receiveException()
+		// method, there is nothing left to do but cleaning up, which happens
+		// once the module's task is done)
+		final Action failureAction = new Action() {
 			@Override
 			public void perform(Object processResult) {
-				// Since any exception already gets reported from within the
-				// super class' receiveException() method, we only need to
-				// remove the thread from our list.
-				moduleNetworkInstance.removeStartedThread(moduleThread);
 			}
 		};
 
+		// Either the task runs the module or it gets cancelled before -- the latch is counted down in both cases
+		final AtomicBoolean claimed = new AtomicBoolean(false);
+		FutureTask<Void> task = new FutureTask<Void>(new Runnable() {
+			@Override
+			public void run() {
+				if (claimed.compareAndSet(false, true))
+					moduleNetworkInstance.processModule(process, name, modules, successAction, failureAction, runningModules);
+			}
+		}, null) {
+			@Override
+			protected void done() {
+				if (this.isCancelled() && claimed.compareAndSet(false, true)) {
+					for (Module module : modules) {
+						moduleNetworkInstance.startedTasks.remove(module);
+						moduleNetworkInstance.finishRecording(module);
+						runningModules.countDown();
+					}
+				}
+			}
+		};
+
+		// Add module task to list of the ones started & fire it up
+		for (Module module : modules)
+			this.startedTasks.put(module, task);
+		executorService.execute(task);
+	}
+
+	/**
+	 * Processes the specified module within the current (pooled) thread.
+	 * @param process Module or chain of fused modules to run
+	 * @param name Name of the module resp. chain
+	 * @param modules Modules run by the process
+	 * @param successAction Action to perform on success
+	 * @param failureAction Action to perform on failure
+	 * @param runningModules Latch to count down once for each module when finished
+	 */
+	private void processModule(Runnable process, String name, List<Module> modules, Action successAction, Action failureAction, CountDownLatch runningModules) {
+		Thread moduleThread = Thread.currentThread();
+		String threadName = moduleThread.getName();
+		moduleThread.setName(name);
+
 		// Add module thread to list of the ones started
-		this.addStartedThread(module, moduleThread);
+		for (Module module : modules)
+			this.startedThreads.put(module, moduleThread);
 
 		// Register callback actions
 		this.registerSuccessCallback(moduleThread, successAction);
 		this.registerFailureCallback(moduleThread, failureAction);
 
-		// Log thread start message & fire it up 
+		// Log thread start message & run the module
 		Logger.getLogger("").log(
 				Level.INFO,
-				"Starting to process module " + module.getName()
+				"Starting to process module " + name
 						+ " on thread #" + moduleThread.getId());
-		moduleThread.start();
+		try {
+			process.run();
+		} catch (Throwable e) {
+			this.receiveException(moduleThread, e);
+		} finally {
+			this.unregisterCallbacks(moduleThread);
+			for (Module module : modules) {
+				this.startedThreads.remove(module);
+				this.startedTasks.remove(module);
+				this.finishRecording(module);
+
+				// The pooled thread outlives the module, so the pipes won't notice
+				// that their end is dead -- close them explicitly instead
+				this.closePipes(module);
+			}
+
+			// Clear a pending interrupt before the thread gets reused
+			Thread.interrupted();
+			moduleThread.setName(threadName);
+			for (int i = 0; i < modules.size(); i++)
+				runningModules.countDown();
+		}
+	}
+
+	/**
+	 * Adds the output of the given module to the result cache if it has been
+	 * recorded and the module was successful.
+	 * @param module Module
+	 */
+	private void finishRecording(Module module) {
+		ResultCache.Recording recording = this.recordings.remove(module);
+		if (recording != null)
+			recording.finish(module.getStatus() == Module.STATUSCODE_SUCCESS);
+	}
 
+	/**
+	 * Closes the reading end of the module's input pipes and, if it did not
+	 * finish successfully, the writing end of its output pipes.
+	 * @param module Module
+	 */
+	private void closePipes(Module module) {
+		try {
+			if (module.getStatus() != Module.STATUSCODE_SUCCESS) {
+				Iterator<OutputPort> outputPorts = module.getOutputPorts().values().iterator();
+				while (outputPorts.hasNext())
+					outputPorts.next().close();
+			}
+			Iterator<InputPort> inputPorts = module.getInputPorts().values().iterator();
+			while (inputPorts.hasNext()) {
+				Pipe pipe = inputPorts.next().getPipe();
+				if (pipe != null)
+					pipe.readClose();
+			}
+		} catch (IOException e) {
+			Logger.getLogger(this.getClass().getSimpleName()).log(Level.WARNING,
+					"Could not close the pipes of module " + module.getName() + ".", e);
+		}
 	}
 
 	/**
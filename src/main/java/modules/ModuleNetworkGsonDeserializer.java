@@ -119,9 +119,16 @@ public class ModuleNetworkGsonDeserializer implements JsonDeserializer<ModuleNet
 					throw new JsonParseException(
 							"The port connection mapping seems to be inconsistent. Please check the serialized input.");
 
-				// All is well, instantiate the pipe ...
-				Constructor<?> constructor = pipeClass.getConstructor();
-				Pipe pipe = (Pipe) constructor.newInstance(new Object[] {});
+				// All is well, instantiate the pipe (object pipes need to be typed, so they are negotiated anew) ...
+				Pipe pipe;
+				if (ObjectPipe.class.isAssignableFrom(pipeClass)) {
+					pipe = ModuleNetwork.getCompatibleObjectPipe(outputPort, inputPort);
+					if (pipe == null)
+						throw new NotSupportedException("The ports "+outputPort+" and "+inputPort+" cannot be connected by an object pipe.");
+				} else {
+					Constructor<?> constructor = pipeClass.getConstructor();
+					pipe = (Pipe) constructor.newInstance(new Object[] {});
+				}
 
 				// ... and connect the ports with it
 				inputPort.addPipe(pipe, outputPort);
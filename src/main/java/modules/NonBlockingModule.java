@@ -0,0 +1,12 @@
+package modules;
+
+/**
+ * Marks modules that never wait for other modules of the same network while
+ * processing (e.g. ones without connected inputs that write into pipes large
+ * enough to hold their complete output). The ModuleNetwork runs them on a
+ * work-stealing pool instead of the thread pool used for the other modules,
+ * which must be able to run all of them at the same time.
+ */
+public interface NonBlockingModule extends Module {
+
+}
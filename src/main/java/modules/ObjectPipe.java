@@ -0,0 +1,139 @@
+package modules;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Pipe that hands over object references instead of serialized text. Both
+ * ends have to run in the same JVM; the objects written are shared with every
+ * connected consumer, so they must be treated as immutable after writing (a
+ * consumer that needs to modify one has to work on a copy).
+ *
+ * @param <T> Type of the objects passed through the pipe
+ */
+public class ObjectPipe<T> implements Pipe {
+
+	public static final int DEFAULT_CAPACITY = 16;
+
+	// Marks the end of the stream within the queue
+	private static final Object END = new Object();
+
+	private final Class<T> type;
+	private final int capacity;
+	private LinkedBlockingQueue<Object> queue;
+	private Semaphore slots;
+	private volatile boolean readClosed;
+	private volatile boolean writeClosed;
+	private boolean endReached;
+
+	/**
+	 * Constructor for an untyped object pipe (used when the pipe is instantiated via reflection).
+	 */
+	@SuppressWarnings("unchecked")
+	public ObjectPipe() {
+		this((Class<T>) Object.class);
+	}
+
+	/**
+	 * Constructor.
+	 * @param type Type of the objects passed through the pipe
+	 */
+	public ObjectPipe(Class<T> type) {
+		this(type, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor.
+	 * @param type Type of the objects passed through the pipe
+	 * @param capacity Number of objects that can be written before the writer blocks
+	 */
+	public ObjectPipe(Class<T> type, int capacity) {
+		super();
+		this.type = type;
+		this.capacity = capacity;
+		this.reset();
+	}
+
+	/**
+	 * @return the type of the objects passed through the pipe
+	 */
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * Writes an object to the pipe, blocking while the pipe is full.
+	 * @param object Object to write (not null)
+	 * @throws IOException Thrown if the pipe has been closed or the writing thread got interrupted
+	 */
+	public void write(T object) throws IOException {
+		if (object == null)
+			throw new NullPointerException("Cannot write null to an object pipe.");
+		if (!this.type.isInstance(object))
+			throw new IOException("This pipe only accepts objects of type "+this.type.getCanonicalName()+".");
+		if (this.readClosed || this.writeClosed)
+			throw new IOException("Pipe closed");
+		try {
+			this.slots.acquire();
+			if (this.readClosed)
+				throw new IOException("Pipe closed");
+			this.queue.put(object);
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+	}
+
+	/**
+	 * Reads the next object from the pipe, blocking until one is available.
+	 * @return Object read or null if the pipe has been closed by the writer and all objects have been read
+	 * @throws IOException Thrown if the reading end has been closed or the reading thread got interrupted
+	 */
+	public T read() throws IOException {
+		if (this.readClosed)
+			throw new IOException("Pipe closed");
+		if (this.endReached)
+			return null;
+		Object object;
+		try {
+			object = this.queue.take();
+		} catch (InterruptedException e) {
+			throw new InterruptedIOException();
+		}
+		if (object == END) {
+			this.endReached = true;
+			return null;
+		}
+		this.slots.release();
+		return this.type.cast(object);
+	}
+
+	@Override
+	public void readClose() throws IOException {
+		this.readClosed = true;
+		this.queue.clear();
+		// Release a blocked writer (it will notice the closed pipe on its next write)
+		this.slots.release(this.capacity);
+	}
+
+	@Override
+	public void writeClose() throws IOException {
+		if (this.writeClosed)
+			return;
+		this.writeClosed = true;
+		// The end marker does not count against the capacity
+		this.queue.offer(END);
+	}
+
+	@Override
+	public void reset() {
+		// The capacity is enforced through the slots, so the end marker always fits into the queue
+		this.queue = new LinkedBlockingQueue<Object>();
+		this.slots = new Semaphore(this.capacity);
+		this.readClosed = false;
+		this.writeClosed = false;
+		this.endReached = false;
+	}
+
+}
@@ -1,6 +1,11 @@
 package modules;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -9,15 +14,83 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
 public class OutputPort extends AbstractPort {
 	
+	/**
+	 * Determines what happens if a consumer of a decoupled port lags behind
+	 * so far that its queue is full.
+	 */
+	public enum OverflowPolicy {
+		/** The producer waits until the consumer has caught up a little */
+		BLOCK,
+		/** Further output for that consumer is buffered in a temporary file */
+		SPILL,
+		/** Writing fails with an IOException */
+		FAIL
+	}
+	
+	// Size of the buffers of the writers and streams created for the port
+	public static final int STREAM_BUFFER_SIZE = 8192;
+	
 	// Maps a list of pipes to each of the supported pipe classes 
 	private Map<Class<? extends Pipe>, List<Pipe>> pipes;
 	private Map<Pipe, Port> connectedPorts;
 	
+	// Per consumer queues used for the char and byte output if the port is decoupled
+	private Map<Pipe, FanOutQueue> fanOutQueues;
+	private int fanOutCapacity = 0;
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+	
 	
 	public OutputPort(String name, String description, Module parent) {
 		super(name, description, parent);
 		this.pipes = new ConcurrentHashMap<Class<? extends Pipe>, List<Pipe>>();
 		this.connectedPorts = new ConcurrentHashMap<Pipe, Port>();
+		this.fanOutQueues = new ConcurrentHashMap<Pipe, FanOutQueue>();
+	}
+	
+	/**
+	 * Decouples the consumers of this port from each other: Every chunk
+	 * written via outputToAllCharPipes() resp. outputToAllBytePipes() is
+	 * copied once and queued for each connected pipe, where a separate thread
+	 * passes it on. Thus a slow consumer only affects the producer once its
+	 * own queue is full. Output written directly to a pipe is not affected.
+	 * @param queueCapacity Number of chunks queued per consumer (zero or less to write directly again)
+	 * @param overflowPolicy What to do if a queue is full
+	 */
+	public void setDecoupled(int queueCapacity, OverflowPolicy overflowPolicy) {
+		this.fanOutCapacity = queueCapacity;
+		this.overflowPolicy = overflowPolicy;
+	}
+	
+	/**
+	 * @return True if the consumers of this port are decoupled
+	 * @see #setDecoupled(int, OverflowPolicy)
+	 */
+	public boolean isDecoupled() {
+		return this.fanOutCapacity > 0;
+	}
+	
+	/**
+	 * Returns how far the consumer on the given pipe lags behind.
+	 * @param pipe Pipe
+	 * @return Number of chars resp. bytes written to this port, but not yet to the pipe (always zero if the port is not decoupled)
+	 */
+	public long getLag(Pipe pipe) {
+		FanOutQueue queue = this.fanOutQueues.get(pipe);
+		if (queue == null)
+			return 0l;
+		return queue.getLag();
+	}
+	
+	/**
+	 * @return Lag of the slowest consumer
+	 * @see #getLag(Pipe)
+	 */
+	public long getMaxLag() {
+		long maxLag = 0l;
+		Iterator<FanOutQueue> queues = this.fanOutQueues.values().iterator();
+		while (queues.hasNext())
+			maxLag = Math.max(maxLag, queues.next().getLag());
+		return maxLag;
 	}
 
 
@@ -33,11 +106,21 @@ public class OutputPort extends AbstractPort {
 	}
 
 
+	/* (non-Javadoc)
+	 * @see modules.AbstractPort#supportsObjectType(java.lang.Class)
+	 */
+	@Override
+	protected boolean supportsObjectType(Class<?> objectType) {
+		// The objects provided by this port must fit into the pipe
+		return this.getSupportedObjectType() != null && objectType.isAssignableFrom(this.getSupportedObjectType());
+	}
+
+
 	@Override
 	public void addPipe(Pipe pipe, Port connectedPort) throws NotSupportedException, OccupiedException {
 		if (super.supportsPipe(pipe))
 			if (InputPort.class.isAssignableFrom(connectedPort.getClass())){
-				this.pipes.get(pipe.getClass()).add(pipe);
+				this.pipes.get(this.getSupportedPipeClass(pipe.getClass())).add(pipe);
 				this.connectedPorts.put(pipe, connectedPort);
 			} else
 				throw new NotSupportedException("This port ("+this.toString()+") can only be connected to an input port.");
@@ -73,10 +156,33 @@ public class OutputPort extends AbstractPort {
 
 	@Override
 	public void removePipe(Pipe pipe) throws NotFoundException {
-		if (!this.pipes.containsKey(pipe.getClass()) || !this.pipes.get(pipe.getClass()).remove(pipe))
+		Class<? extends Pipe> pipeClass = this.getSupportedPipeClass(pipe.getClass());
+		if (pipeClass == null || !this.pipes.containsKey(pipeClass) || !this.pipes.get(pipeClass).remove(pipe))
 			throw new NotFoundException("The specified pipe could not be found.");
 		if (this.connectedPorts.get(pipe) != null)
 			this.connectedPorts.remove(pipe);
+		FanOutQueue queue = this.fanOutQueues.remove(pipe);
+		if (queue != null)
+			queue.abort();
+	}
+	
+	/**
+	 * Returns the queue for the given pipe, creating it if necessary.
+	 * @param pipe Pipe
+	 * @return Queue
+	 */
+	private FanOutQueue getFanOutQueue(Pipe pipe) {
+		FanOutQueue queue = this.fanOutQueues.get(pipe);
+		if (queue == null) {
+			synchronized (this.fanOutQueues) {
+				queue = this.fanOutQueues.get(pipe);
+				if (queue == null) {
+					queue = new FanOutQueue(pipe, this.fanOutCapacity, this.overflowPolicy, this.toString() + " -> " + this.connectedPorts.get(pipe));
+					this.fanOutQueues.put(pipe, queue);
+				}
+			}
+		}
+		return queue;
 	}
 	
 	/**
@@ -92,6 +198,15 @@ public class OutputPort extends AbstractPort {
 		if (!this.supportsPipeClass(BytePipe.class))
 			throw new IOException("This port ("+this.toString()+") does not support byte stream output.");
 		
+		// Queue one shared copy of the data per consumer if decoupled
+		if (this.isDecoupled()) {
+			byte[] chunk = Arrays.copyOfRange(data, offset, offset + bytesToWrite);
+			Iterator<Pipe> outputStreams = this.pipes.get(BytePipe.class).iterator();
+			while (outputStreams.hasNext())
+				this.getFanOutQueue(outputStreams.next()).offer(chunk);
+			return;
+		}
+		
 		// Loop over the defined outputs
 		Iterator<Pipe> outputStreams = this.pipes.get(BytePipe.class).iterator();
 		while (outputStreams.hasNext()) {
@@ -117,6 +232,15 @@ public class OutputPort extends AbstractPort {
 		if (!this.supportsPipeClass(CharPipe.class))
 			throw new IOException("This port ("+this.toString()+") does not support character stream output.");
 		
+		// Queue one shared copy of the data per consumer if decoupled
+		if (this.isDecoupled()) {
+			char[] chunk = Arrays.copyOfRange(data, offset, offset + charsToWrite);
+			Iterator<Pipe> outputPipes = this.pipes.get(CharPipe.class).iterator();
+			while (outputPipes.hasNext())
+				this.getFanOutQueue(outputPipes.next()).offer(chunk);
+			return;
+		}
+		
 		// Loop over the defined outputs
 		Iterator<Pipe> outputPipes = this.pipes.get(CharPipe.class).iterator();
 		while (outputPipes.hasNext()) {
@@ -129,6 +253,27 @@ public class OutputPort extends AbstractPort {
 		}
 	}
 	
+	/**
+	 * Writes the given object to all object output pipes. The same instance
+	 * is handed to every connected consumer, so it must not be modified
+	 * afterwards.
+	 * @param data Object to write
+	 * @throws IOException Thrown if an I/O problem occurs
+	 */
+	@SuppressWarnings("unchecked")
+	public void outputToAllObjectPipes(Object data) throws IOException {
+		
+		// Check whether this port does support object output
+		if (!this.supportsPipeClass(ObjectPipe.class))
+			throw new IOException("This port ("+this.toString()+") does not support object output.");
+		
+		// Loop over the defined outputs
+		Iterator<Pipe> outputPipes = this.pipes.get(ObjectPipe.class).iterator();
+		while (outputPipes.hasNext()) {
+			((ObjectPipe<Object>) outputPipes.next()).write(data);
+		}
+	}
+	
 	/**
 	 * Writes the given byte array to all byte stream output pipes.
 	 * @param data Data to write
@@ -148,13 +293,61 @@ public class OutputPort extends AbstractPort {
 			this.outputToAllCharPipes(data.toCharArray(), 0, data.length());
 	}
 	
+	/**
+	 * Returns a new buffered writer passing what is written to it on to all
+	 * char output pipes, a block at a time. Closing the writer flushes it but
+	 * leaves the port open.
+	 * @return Writer
+	 */
+	public Writer createWriter() {
+		return new BufferedWriter(new Writer() {
+			@Override
+			public void write(char[] cbuf, int off, int len) throws IOException {
+				outputToAllCharPipes(cbuf, off, len);
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		}, STREAM_BUFFER_SIZE);
+	}
+
+	/**
+	 * Returns a new buffered output stream passing what is written to it on
+	 * to all byte stream output pipes, a block at a time. Closing the stream
+	 * flushes it but leaves the port open.
+	 * @return Output stream
+	 */
+	public OutputStream createOutputStream() {
+		return new BufferedOutputStream(new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				outputToAllBytePipes(new byte[] { (byte) b });
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				outputToAllBytePipes(b, off, len);
+			}
+		}, STREAM_BUFFER_SIZE);
+	}
+
 	public void close() throws IOException{
 		Iterator<List<Pipe>> pipeLists = this.getPipes().values().iterator();
 		while (pipeLists.hasNext()){
 			Iterator<Pipe> pipes = pipeLists.next().iterator();
 			while (pipes.hasNext()){
 				Pipe pipe = pipes.next();
-				pipe.writeClose();
+				// Queued output is passed on before the pipe gets closed
+				FanOutQueue queue = this.fanOutQueues.get(pipe);
+				if (queue != null)
+					queue.close();
+				else
+					pipe.writeClose();
 			}
 		}
 	}
@@ -162,6 +355,10 @@ public class OutputPort extends AbstractPort {
 
 	@Override
 	public void reset() throws IOException {
+		Iterator<FanOutQueue> queues = this.fanOutQueues.values().iterator();
+		while (queues.hasNext())
+			queues.next().abort();
+		this.fanOutQueues.clear();
 		Iterator<List<Pipe>> pipeLists = this.getPipes().values().iterator();
 		while (pipeLists.hasNext()){
 			Iterator<Pipe> pipes = pipeLists.next().iterator();
@@ -177,5 +374,17 @@ public class OutputPort extends AbstractPort {
 	public boolean isConnected() {
 		return !this.connectedPorts.isEmpty();
 	}
+	
+	/**
+	 * Determines whether at least one pipe of the specified class is connected
+	 * to this port. Useful to skip producing output that nobody reads (e.g.
+	 * the text serialization if all consumers take objects).
+	 * @param pipeClass Pipe class
+	 * @return True if connected via that kind of pipe
+	 */
+	public boolean isConnected(Class<? extends Pipe> pipeClass) {
+		List<Pipe> pipeList = this.pipes.get(pipeClass);
+		return pipeList != null && !pipeList.isEmpty();
+	}
 
 }
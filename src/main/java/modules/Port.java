@@ -12,6 +12,7 @@ public interface Port {
 	public boolean supportsPipe(Pipe pipe);
 	public boolean supportsPipeClass(Class<? extends Pipe> pipeClass);
 	public Map<String, Class<? extends Pipe>> getSupportedPipeClasses();
+	public Class<?> getSupportedObjectType();
 	public void addPipe(Pipe pipe, Port connectingPort) throws NotSupportedException, OccupiedException;
 	public void removePipe(Pipe pipe) throws NotFoundException;
 	public void reset() throws IOException;
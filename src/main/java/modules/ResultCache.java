@@ -0,0 +1,632 @@
+package modules;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import common.parallelization.CallbackReceiver;
+
+/**
+ * On-disk cache of the char and byte output of modules. An entry is stored
+ * under a key derived from the module's class, its properties and the keys
+ * of the modules connected to its inputs (which in turn identify their
+ * output), so a module whose key is found need not be run again -- its
+ * output is replayed from the cache instead. The total size of the cache is
+ * bounded; the least recently used entries are evicted first.
+ *
+ * Modules implementing {@link UncachedModule} are never taken from the
+ * cache, neither are the modules depending on their output. The same holds
+ * for a run in which a module's ModuleImpl.getCacheKeyDetails() returns null.
+ *
+ * @see ModuleNetwork#setResultCache(ResultCache)
+ */
+public class ResultCache {
+
+	// Changes whenever the key derivation or the entry layout changes
+	private static final String FORMAT_VERSION = "1";
+
+	public static final long DEFAULT_MAXSIZE = 1024l * 1024l * 1024l;
+
+	// Bytes at the start and end of a file its details depend on (see getFileDetails())
+	private static final int FILE_BLOCKLENGTH = 64 * 1024;
+
+	// Suffixes of the files holding the output of a port
+	private static final String SUFFIX_CHARS = ".chars";
+	private static final String SUFFIX_BYTES = ".bytes";
+	private static final String SUFFIX_TEMP = ".tmp";
+
+	private static final int BUFFERSIZE = 8192;
+
+	private final File directory;
+	private final long maxSize;
+
+	/**
+	 * Constructor.
+	 * @param directory Directory to keep the cache in (created if necessary)
+	 * @param maxSize Maximum total size of the cached output in bytes
+	 * @throws IOException Thrown if the directory cannot be created
+	 */
+	public ResultCache(File directory, long maxSize) throws IOException {
+		super();
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Cannot create the cache directory " + directory.getAbsolutePath() + ".");
+		this.directory = directory;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return The directory the cache is kept in
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return Maximum total size of the cached output in bytes
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Determines whether the output of the given module may be cached at all.
+	 * @param module Module
+	 * @return True if cacheable
+	 */
+	public static boolean isCacheable(Module module) {
+		return module instanceof ModuleImpl && !(module instanceof UncachedModule);
+	}
+
+	/**
+	 * Determines whether the given module's output can be recorded and
+	 * replayed, i.e. whether something reads it and all of it goes through
+	 * char and byte pipes.
+	 * @param module Module
+	 * @return True if the output can be recorded
+	 */
+	public static boolean isRecordable(Module module) {
+		boolean connected = false;
+		Iterator<OutputPort> outputPorts = module.getOutputPorts().values().iterator();
+		while (outputPorts.hasNext()) {
+			OutputPort outputPort = outputPorts.next();
+			if (outputPort.isConnected(ObjectPipe.class))
+				return false;
+			connected = connected || outputPort.isConnected();
+		}
+		return connected;
+	}
+
+	/**
+	 * Derives the cache keys of the given modules. A module gets no key (null)
+	 * if it is not cacheable or depends on a module that has none.
+	 * @param modules Modules
+	 * @param keys Map to put the keys into
+	 */
+	public static void computeKeys(List<Module> modules, Map<Module, String> keys) {
+		Set<Module> visiting = new HashSet<Module>();
+		for (Module module : modules)
+			computeKey(module, keys, visiting);
+	}
+
+	/**
+	 * Derives the cache key of the given module (and of the modules it depends
+	 * on, if not done yet).
+	 * @param module Module
+	 * @param keys Keys computed so far
+	 * @param visiting Modules whose key is being computed (to detect cycles)
+	 * @return Key or null
+	 */
+	private static String computeKey(Module module, Map<Module, String> keys, Set<Module> visiting) {
+		if (keys.containsKey(module))
+			return keys.get(module);
+		final String details = isCacheable(module) ? ((ModuleImpl) module).getCacheKeyDetails() : null;
+		if (details == null || !visiting.add(module)) {
+			keys.put(module, null);
+			return null;
+		}
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		update(digest, FORMAT_VERSION);
+		update(digest, module.getClass().getName());
+		update(digest, details);
+
+		// Properties (the name does not affect the output)
+		TreeMap<String, String> properties = new TreeMap<String, String>();
+		for (String propertyKey : module.getProperties().stringPropertyNames())
+			if (!propertyKey.equals(ModuleImpl.PROPERTYKEY_NAME))
+				properties.put(propertyKey, module.getProperties().getProperty(propertyKey));
+		for (Map.Entry<String, String> property : properties.entrySet()) {
+			update(digest, property.getKey());
+			update(digest, property.getValue());
+		}
+
+		// Inputs, identified by the key of the connected module and port
+		String key = null;
+		TreeMap<String, InputPort> inputPorts = new TreeMap<String, InputPort>(module.getInputPorts());
+		boolean cacheable = true;
+		for (InputPort inputPort : inputPorts.values()) {
+			update(digest, inputPort.getName());
+			Port connectedPort = inputPort.getConnectedPort();
+			if (connectedPort == null) {
+				update(digest, "-");
+				continue;
+			}
+			String upstreamKey = computeKey(connectedPort.getParent(), keys, visiting);
+			if (upstreamKey == null) {
+				cacheable = false;
+				break;
+			}
+			update(digest, upstreamKey);
+			update(digest, connectedPort.getName());
+		}
+		if (cacheable) {
+			StringBuilder hex = new StringBuilder();
+			for (byte b : digest.digest())
+				hex.append(String.format("%02x", b));
+			key = hex.toString();
+		}
+
+		visiting.remove(module);
+		keys.put(module, key);
+		return key;
+	}
+
+	/**
+	 * Describes the state of a file a module reads, as its cache key details
+	 * (see ModuleImpl.getCacheKeyDetails()): its path, length, modification
+	 * time and a checksum of its first and last FILE_BLOCKLENGTH bytes (of all
+	 * of it, if not larger than twice that). So a change keeping the file's
+	 * length and modification time still changes the details, without
+	 * reading all of a large file.
+	 * @param file File (need not exist)
+	 * @return Details
+	 */
+	public static String getFileDetails(File file) {
+		long checksum;
+		try {
+			final CRC32 crc = new CRC32();
+			final RandomAccessFile in = new RandomAccessFile(file, "r");
+			try {
+				final long length = in.length();
+				final byte[] block = new byte[(int) Math.min(length, 2 * FILE_BLOCKLENGTH)];
+				if (length <= block.length) {
+					in.readFully(block);
+				} else {
+					in.readFully(block, 0, FILE_BLOCKLENGTH);
+					in.seek(length - FILE_BLOCKLENGTH);
+					in.readFully(block, FILE_BLOCKLENGTH, FILE_BLOCKLENGTH);
+				}
+				crc.update(block);
+			} finally {
+				in.close();
+			}
+			checksum = crc.getValue();
+		} catch (IOException e) {
+			// not readable (or not there)
+			checksum = -1;
+		}
+		return file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified() + ":" + checksum;
+	}
+
+	/**
+	 * Adds a (length prefixed) string to the digest.
+	 * @param digest Digest
+	 * @param value String
+	 */
+	private static void update(MessageDigest digest, String value) {
+		byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+		digest.update((byte) (bytes.length >>> 24));
+		digest.update((byte) (bytes.length >>> 16));
+		digest.update((byte) (bytes.length >>> 8));
+		digest.update((byte) bytes.length);
+		digest.update(bytes);
+	}
+
+	/**
+	 * Returns the file holding an output port's char or byte output.
+	 * @param entry Directory of the entry
+	 * @param outputPort Port
+	 * @param pipeClass CharPipe or BytePipe
+	 * @return File
+	 */
+	private static File getFile(File entry, OutputPort outputPort, Class<? extends Pipe> pipeClass) {
+		String name;
+		try {
+			name = URLEncoder.encode(outputPort.getName(), "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		return new File(entry, name + (pipeClass.equals(CharPipe.class) ? SUFFIX_CHARS : SUFFIX_BYTES));
+	}
+
+	/**
+	 * Determines whether the cache holds all output of the given module that
+	 * is currently read by other modules.
+	 * @param key Key of the module
+	 * @param module Module
+	 * @return True if the output can be replayed
+	 */
+	public boolean contains(String key, Module module) {
+		File entry = new File(this.directory, key);
+		if (!entry.isDirectory())
+			return false;
+		Iterator<OutputPort> outputPorts = module.getOutputPorts().values().iterator();
+		while (outputPorts.hasNext()) {
+			OutputPort outputPort = outputPorts.next();
+			for (Class<? extends Pipe> pipeClass : Arrays.asList(CharPipe.class, BytePipe.class))
+				if (outputPort.isConnected(pipeClass) && !getFile(entry, outputPort, pipeClass).isFile())
+					return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a process that writes the cached output of the given module to
+	 * its outputs instead of running it (while reading and discarding its
+	 * input, so the modules it is connected to are not stalled).
+	 * @param key Key of the module (null to write no output at all, e.g. if the module's output is not needed)
+	 * @param module Module
+	 * @return Process
+	 */
+	public Runnable getReplay(final String key, final ModuleImpl module) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				CallbackReceiver callbackReceiver = module.getCallbackReceiver();
+				List<Thread> drains = new ArrayList<Thread>();
+				try {
+					module.setStatus(Module.STATUSCODE_RUNNING);
+					for (InputPort inputPort : module.getInputPorts().values())
+						if (inputPort.getPipe() != null)
+							drains.add(drain(inputPort));
+					if (key != null) {
+						ResultCache.this.replay(key, module);
+						module.setStatusDetail("Output taken from cache");
+					} else
+						module.setStatusDetail("Skipped, output not needed");
+					module.closeAllOutputs();
+					for (Thread drain : drains)
+						drain.join();
+					module.setStatus(Module.STATUSCODE_SUCCESS);
+					callbackReceiver.receiveCallback(Thread.currentThread(), true);
+				} catch (Exception e) {
+					for (Thread drain : drains)
+						drain.interrupt();
+					module.setStatus(Module.STATUSCODE_FAILURE);
+					callbackReceiver.receiveException(Thread.currentThread(), e);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Starts a thread that reads and discards the input of the given port.
+	 * @param inputPort Port
+	 * @return Thread
+	 */
+	private static Thread drain(final InputPort inputPort) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Pipe pipe = inputPort.getPipe();
+					if (pipe instanceof CharPipe) {
+						char[] buffer = new char[BUFFERSIZE];
+						while (inputPort.read(buffer, 0, buffer.length) != -1);
+					} else if (pipe instanceof BytePipe) {
+						byte[] buffer = new byte[BUFFERSIZE];
+						while (inputPort.read(buffer, 0, buffer.length) != -1);
+					} else if (pipe instanceof ObjectPipe)
+						while (inputPort.readObject(Object.class) != null);
+				} catch (Exception e) {
+					// The input is not needed anyway
+				}
+			}
+		}, inputPort.toString() + " (discarded)");
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Writes the cached output of the given module to the pipes connected to
+	 * its outputs (without closing them).
+	 * @param key Key of the module
+	 * @param module Module
+	 * @throws IOException Thrown if the cache cannot be read or the output cannot be written
+	 */
+	void replay(String key, Module module) throws IOException {
+		File entry = new File(this.directory, key);
+		entry.setLastModified(System.currentTimeMillis());
+		Iterator<OutputPort> outputPorts = module.getOutputPorts().values().iterator();
+		while (outputPorts.hasNext()) {
+			OutputPort outputPort = outputPorts.next();
+			if (outputPort.isConnected(CharPipe.class)) {
+				InputStream input = new BufferedInputStream(new FileInputStream(getFile(entry, outputPort, CharPipe.class)));
+				try {
+					byte[] bytes = new byte[BUFFERSIZE * 2];
+					char[] chars = new char[BUFFERSIZE];
+					int bytesRead;
+					int pending = 0;
+					while ((bytesRead = input.read(bytes, pending, bytes.length - pending)) != -1) {
+						pending += bytesRead;
+						int charCount = pending / 2;
+						for (int i = 0; i < charCount; i++)
+							chars[i] = (char) (((bytes[2 * i] & 0xff) << 8) | (bytes[2 * i + 1] & 0xff));
+						if (charCount > 0)
+							outputPort.outputToAllCharPipes(chars, 0, charCount);
+						if (pending % 2 == 1)
+							bytes[0] = bytes[pending - 1];
+						pending = pending % 2;
+					}
+				} finally {
+					input.close();
+				}
+			}
+			if (outputPort.isConnected(BytePipe.class)) {
+				InputStream input = new BufferedInputStream(new FileInputStream(getFile(entry, outputPort, BytePipe.class)));
+				try {
+					byte[] bytes = new byte[BUFFERSIZE];
+					int bytesRead;
+					while ((bytesRead = input.read(bytes)) != -1)
+						if (bytesRead > 0)
+							outputPort.outputToAllBytePipes(bytes, 0, bytesRead);
+				} finally {
+					input.close();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Starts recording the output of the given module: an additional pipe is
+	 * connected to each of its output ports for every kind of pipe read by
+	 * other modules.
+	 * @param key Key of the module
+	 * @param module Module
+	 * @return Recording, to be finished once the module is done
+	 * @throws IOException Thrown if the recording cannot be set up
+	 */
+	public Recording record(String key, Module module) throws IOException {
+		return new Recording(key, module);
+	}
+
+	/**
+	 * Output of a module being written to the cache.
+	 */
+	public class Recording {
+
+		private final String key;
+		private final File entry;
+		private final List<OutputPort> outputPorts = new ArrayList<OutputPort>();
+		private final List<Pipe> pipes = new ArrayList<Pipe>();
+		private final List<Thread> threads = new ArrayList<Thread>();
+		private volatile IOException failure = null;
+
+		/**
+		 * Constructor; connects the recording pipes.
+		 * @param key Key of the module
+		 * @param module Module
+		 * @throws IOException Thrown if the recording cannot be set up
+		 */
+		private Recording(String key, Module module) throws IOException {
+			super();
+			this.key = key;
+			this.entry = new File(ResultCache.this.directory, key + "." + UUID.randomUUID() + SUFFIX_TEMP);
+			if (!this.entry.mkdirs())
+				throw new IOException("Cannot create the cache entry " + this.entry.getAbsolutePath() + ".");
+			try {
+				Iterator<OutputPort> outputPorts = module.getOutputPorts().values().iterator();
+				while (outputPorts.hasNext()) {
+					OutputPort outputPort = outputPorts.next();
+					if (outputPort.isConnected(CharPipe.class))
+						this.connect(outputPort, new CharPipe());
+					if (outputPort.isConnected(BytePipe.class))
+						this.connect(outputPort, new BytePipe());
+				}
+			} catch (NotSupportedException | OccupiedException e) {
+				this.finish(false);
+				throw new IOException(e);
+			}
+		}
+
+		/**
+		 * Connects a pipe to the given port and starts a thread writing what
+		 * comes through it to the entry.
+		 * @param outputPort Port
+		 * @param pipe CharPipe or BytePipe
+		 * @throws IOException Thrown if the file cannot be created
+		 * @throws NotSupportedException Thrown if the port does not support the pipe
+		 * @throws OccupiedException Not thrown (the input port is a new one)
+		 */
+		private void connect(final OutputPort outputPort, final Pipe pipe) throws IOException, NotSupportedException, OccupiedException {
+			final OutputStream output = new BufferedOutputStream(new FileOutputStream(
+					getFile(this.entry, outputPort, pipe instanceof CharPipe ? CharPipe.class : BytePipe.class)));
+			InputPort cachePort = new InputPort("cache", "Records the output for the result cache.", outputPort.getParent());
+			outputPort.addPipe(pipe, cachePort);
+			this.outputPorts.add(outputPort);
+			this.pipes.add(pipe);
+
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						// Keep reading after a write error, so the module is not stalled
+						if (pipe instanceof CharPipe) {
+							char[] chars = new char[BUFFERSIZE];
+							byte[] bytes = new byte[BUFFERSIZE * 2];
+							int charsRead;
+							while ((charsRead = ((CharPipe) pipe).read(chars, 0, chars.length)) != -1) {
+								for (int i = 0; i < charsRead; i++) {
+									bytes[2 * i] = (byte) (chars[i] >>> 8);
+									bytes[2 * i + 1] = (byte) chars[i];
+								}
+								this.write(bytes, 2 * charsRead);
+							}
+						} else {
+							byte[] bytes = new byte[BUFFERSIZE];
+							int bytesRead;
+							while ((bytesRead = ((BytePipe) pipe).read(bytes, 0, bytes.length)) != -1)
+								this.write(bytes, bytesRead);
+						}
+					} catch (IOException e) {
+						Recording.this.fail(e);
+					} finally {
+						try {
+							output.close();
+						} catch (IOException e) {
+							Recording.this.fail(e);
+						}
+					}
+				}
+
+				private void write(byte[] bytes, int length) {
+					if (Recording.this.failure != null)
+						return;
+					try {
+						output.write(bytes, 0, length);
+					} catch (IOException e) {
+						Recording.this.fail(e);
+					}
+				}
+			}, outputPort.toString() + " (cache)");
+			thread.setDaemon(true);
+			thread.start();
+			this.threads.add(thread);
+		}
+
+		/**
+		 * Notes a failure to record the output.
+		 * @param e Exception
+		 */
+		private void fail(IOException e) {
+			if (this.failure == null)
+				this.failure = e;
+		}
+
+		/**
+		 * Waits for the recorded output to be written, disconnects the
+		 * recording pipes and adds the entry to the cache if the module was
+		 * successful. Must be called once the module is done; closes its
+		 * outputs in case it did not.
+		 * @param success True if the module finished successfully
+		 */
+		public void finish(boolean success) {
+			for (OutputPort outputPort : this.outputPorts) {
+				try {
+					outputPort.close();
+				} catch (IOException e) {
+					success = false;
+				}
+			}
+			for (Thread thread : this.threads) {
+				try {
+					thread.join();
+				} catch (InterruptedException e) {
+					thread.interrupt();
+					success = false;
+				}
+			}
+			for (int i = 0; i < this.pipes.size(); i++) {
+				try {
+					this.outputPorts.get(i).removePipe(this.pipes.get(i));
+				} catch (NotFoundException e) {
+					// Already removed
+				}
+			}
+
+			File target = new File(ResultCache.this.directory, this.key);
+			if (success && this.failure == null && !target.exists() && this.entry.renameTo(target))
+				ResultCache.this.evict();
+			else {
+				if (this.failure != null)
+					Logger.getLogger(this.getClass().getSimpleName()).log(Level.WARNING,
+							"Could not write the output to the result cache.", this.failure);
+				delete(this.entry);
+			}
+		}
+	}
+
+	/**
+	 * Removes the least recently used entries until the cache does not exceed
+	 * its maximum size anymore.
+	 */
+	public synchronized void evict() {
+		File[] entries = this.directory.listFiles();
+		if (entries == null)
+			return;
+		final long[] lastUsed = new long[entries.length];
+		long[] sizes = new long[entries.length];
+		List<Integer> order = new ArrayList<Integer>();
+		long totalSize = 0l;
+		for (int i = 0; i < entries.length; i++) {
+			// Entries being recorded are not counted yet
+			if (!entries[i].isDirectory() || entries[i].getName().endsWith(SUFFIX_TEMP))
+				continue;
+			lastUsed[i] = entries[i].lastModified();
+			File[] files = entries[i].listFiles();
+			if (files != null)
+				for (File file : files)
+					sizes[i] += file.length();
+			totalSize += sizes[i];
+			order.add(i);
+		}
+		Collections.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Long.compare(lastUsed[o1], lastUsed[o2]);
+			}
+		});
+		Iterator<Integer> oldest = order.iterator();
+		while (totalSize > this.maxSize && oldest.hasNext()) {
+			int i = oldest.next();
+			Logger.getLogger(this.getClass().getSimpleName()).log(Level.INFO,
+					"Evicting result cache entry " + entries[i].getName() + ".");
+			delete(entries[i]);
+			totalSize -= sizes[i];
+		}
+	}
+
+	/**
+	 * Deletes an entry directory.
+	 * @param entry Directory
+	 */
+	private static void delete(File entry) {
+		File[] files = entry.listFiles();
+		if (files != null)
+			for (File file : files)
+				file.delete();
+		entry.delete();
+	}
+
+}
@@ -0,0 +1,141 @@
+package modules;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+
+/**
+ * Byte pipe backed by a lock-free single-producer/single-consumer ring
+ * buffer of configurable capacity instead of java.io's
+ * PipedInputStream/PipedOutputStream. The ends are still exposed as piped
+ * streams, so modules can use this pipe wherever they accept a BytePipe.
+ */
+public class RingBufferBytePipe extends BytePipe {
+
+	private final int capacity;
+
+	public RingBufferBytePipe() {
+		this(SpscRingBuffer.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor.
+	 * @param capacity Buffer capacity in bytes (rounded up to the next power of two)
+	 */
+	public RingBufferBytePipe(int capacity) {
+		this(new SpscRingBuffer(new byte[SpscRingBuffer.capacityFor(capacity)]));
+	}
+
+	private RingBufferBytePipe(SpscRingBuffer buffer) {
+		super(new RingBufferInputStream(buffer), new RingBufferOutputStream(buffer));
+		this.capacity = buffer.capacity();
+	}
+
+	/**
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public void reset() throws IOException {
+		SpscRingBuffer buffer = new SpscRingBuffer(new byte[this.capacity]);
+		this.input = new RingBufferInputStream(buffer);
+		this.output = new RingBufferOutputStream(buffer);
+	}
+
+	/**
+	 * Read end of the ring buffer.
+	 */
+	private static class RingBufferInputStream extends PipedInputStream {
+
+		private final SpscRingBuffer ringBuffer;
+		private final byte[] single = new byte[1];
+
+		private RingBufferInputStream(SpscRingBuffer ringBuffer) {
+			super(1);
+			this.ringBuffer = ringBuffer;
+		}
+
+		@Override
+		public void connect(PipedOutputStream src) throws IOException {
+			throw new IOException("Already connected");
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (this.ringBuffer.read(this.single, 0, 1) == -1)
+				return -1;
+			return this.single[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (b == null)
+				throw new NullPointerException();
+			if (off < 0 || len < 0 || len > b.length - off)
+				throw new IndexOutOfBoundsException();
+			return this.ringBuffer.read(b, off, len);
+		}
+
+		@Override
+		public int available() throws IOException {
+			if (this.ringBuffer.isReadClosed())
+				throw new IOException("Pipe closed");
+			return this.ringBuffer.available();
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.ringBuffer.closeRead();
+		}
+	}
+
+	/**
+	 * Write end of the ring buffer.
+	 */
+	private static class RingBufferOutputStream extends PipedOutputStream {
+
+		private final SpscRingBuffer ringBuffer;
+		private final byte[] single = new byte[1];
+
+		private RingBufferOutputStream(SpscRingBuffer ringBuffer) {
+			super();
+			this.ringBuffer = ringBuffer;
+		}
+
+		@Override
+		public synchronized void connect(PipedInputStream snk) throws IOException {
+			throw new IOException("Already connected");
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.single[0] = (byte) b;
+			this.ringBuffer.write(this.single, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (b == null)
+				throw new NullPointerException();
+			if (off < 0 || len < 0 || len > b.length - off)
+				throw new IndexOutOfBoundsException();
+			this.ringBuffer.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// Writes are published immediately
+			if (this.ringBuffer.isReadClosed())
+				throw new IOException("Pipe closed");
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.ringBuffer.closeWrite();
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+package modules;
+
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+
+/**
+ * Character pipe backed by a lock-free single-producer/single-consumer ring
+ * buffer of configurable capacity instead of java.io's PipedReader/PipedWriter
+ * (which use a fixed 1024 char buffer and poll with wait(1000)). The ends are
+ * still exposed as PipedReader/PipedWriter, so modules can use this pipe
+ * wherever they accept a CharPipe.
+ */
+public class RingBufferCharPipe extends CharPipe {
+
+	private final int capacity;
+
+	public RingBufferCharPipe() {
+		this(SpscRingBuffer.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor.
+	 * @param capacity Buffer capacity in chars (rounded up to the next power of two)
+	 */
+	public RingBufferCharPipe(int capacity) {
+		this(new SpscRingBuffer(new char[SpscRingBuffer.capacityFor(capacity)]));
+	}
+
+	private RingBufferCharPipe(SpscRingBuffer buffer) {
+		super(new RingBufferReader(buffer), new RingBufferWriter(buffer));
+		this.capacity = buffer.capacity();
+	}
+
+	/**
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public void reset() throws IOException {
+		SpscRingBuffer buffer = new SpscRingBuffer(new char[this.capacity]);
+		this.input = new RingBufferReader(buffer);
+		this.output = new RingBufferWriter(buffer);
+	}
+
+	/**
+	 * Read end of the ring buffer.
+	 */
+	private static class RingBufferReader extends PipedReader {
+
+		private final SpscRingBuffer buffer;
+		private final char[] single = new char[1];
+
+		private RingBufferReader(SpscRingBuffer buffer) {
+			super();
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void connect(PipedWriter src) throws IOException {
+			throw new IOException("Already connected");
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (this.buffer.read(this.single, 0, 1) == -1)
+				return -1;
+			return this.single[0];
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			if (off < 0 || len < 0 || off + len > cbuf.length)
+				throw new IndexOutOfBoundsException();
+			return this.buffer.read(cbuf, off, len);
+		}
+
+		@Override
+		public boolean ready() throws IOException {
+			if (this.buffer.isReadClosed())
+				throw new IOException("Pipe closed");
+			return this.buffer.available() > 0;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.buffer.closeRead();
+		}
+	}
+
+	/**
+	 * Write end of the ring buffer.
+	 */
+	private static class RingBufferWriter extends PipedWriter {
+
+		private final SpscRingBuffer buffer;
+		private final char[] single = new char[1];
+
+		private RingBufferWriter(SpscRingBuffer buffer) {
+			super();
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void connect(PipedReader snk) throws IOException {
+			throw new IOException("Already connected");
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			this.single[0] = (char) c;
+			this.buffer.write(this.single, 0, 1);
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			if (off < 0 || len < 0 || off + len > cbuf.length)
+				throw new IndexOutOfBoundsException();
+			this.buffer.write(cbuf, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// Writes are published immediately
+			if (this.buffer.isReadClosed())
+				throw new IOException("Pipe closed");
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.buffer.closeWrite();
+		}
+	}
+
+}
@@ -0,0 +1,234 @@
+package modules;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Array;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single-producer/single-consumer ring buffer over a primitive array
+ * (char[] or byte[]). Both cursors only ever grow; the writer owns the tail,
+ * the reader owns the head, so no locks are needed. A side that has to wait
+ * first spins briefly, then yields and finally parks until the other side
+ * signals progress.
+ *
+ * @see RingBufferCharPipe
+ * @see RingBufferBytePipe
+ */
+public class SpscRingBuffer {
+
+	public static final int DEFAULT_CAPACITY = 65536;
+
+	// Waiting strategy: busy spins, then yields, then timed parks
+	private static final int SPINS = 128;
+	private static final int YIELDS = 16;
+	private static final long PARKNANOS = 50000000l;
+
+	private final Object array;
+	private final int capacity;
+	private final int mask;
+
+	// Read (head) and write (tail) cursors
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	private volatile boolean readClosed = false;
+	private volatile boolean writeClosed = false;
+
+	// Threads parked while waiting for data or space (null if none)
+	private volatile Thread parkedReader = null;
+	private volatile Thread parkedWriter = null;
+
+	// Last threads seen on either side (used to detect dead ends like the java.io pipes do)
+	private volatile Thread readSide = null;
+	private volatile Thread writeSide = null;
+
+	/**
+	 * Constructor.
+	 * @param array Backing array (char[] or byte[]); its length must be a power of two
+	 * @see #capacityFor(int)
+	 */
+	public SpscRingBuffer(Object array) {
+		super();
+		this.array = array;
+		this.capacity = Array.getLength(array);
+		if (this.capacity < 1 || Integer.bitCount(this.capacity) != 1)
+			throw new IllegalArgumentException("The capacity of a ring buffer must be a power of two.");
+		this.mask = this.capacity - 1;
+	}
+
+	/**
+	 * Returns the smallest power of two that is not smaller than the
+	 * requested capacity (the default capacity if the request is not positive).
+	 * @param requestedCapacity Requested capacity
+	 * @return Usable capacity
+	 */
+	public static int capacityFor(int requestedCapacity) {
+		if (requestedCapacity <= 0)
+			return DEFAULT_CAPACITY;
+		if (requestedCapacity > (1 << 30))
+			return 1 << 30;
+		int capacity = Integer.highestOneBit(requestedCapacity);
+		return (capacity < requestedCapacity) ? capacity << 1 : capacity;
+	}
+
+	/**
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * @return The number of elements that can currently be read without blocking
+	 */
+	public int available() {
+		return (int) (this.tail.get() - this.head.get());
+	}
+
+	/**
+	 * Writes the given elements, blocking until all of them have been put into the buffer.
+	 * @param data Array of the same type as the backing array
+	 * @param offset Offset
+	 * @param length Number of elements to write
+	 * @throws IOException Thrown if either end has been closed or the reading thread died
+	 */
+	public void write(Object data, int offset, int length) throws IOException {
+		if (this.writeClosed || this.readClosed)
+			throw new IOException("Pipe closed");
+		this.writeSide = Thread.currentThread();
+
+		int round = 0;
+		while (length > 0) {
+			long t = this.tail.get();
+			int free = this.capacity - (int) (t - this.head.get());
+
+			// Wait for the reader to make room
+			if (free == 0) {
+				if (this.readClosed)
+					throw new IOException("Pipe closed");
+				if (this.readSide != null && !this.readSide.isAlive())
+					throw new IOException("Read end dead");
+				this.await(round++, false);
+				continue;
+			}
+			round = 0;
+
+			// Copy as much as fits (in up to two segments)
+			int n = Math.min(length, free);
+			int index = (int) (t & this.mask);
+			int first = Math.min(n, this.capacity - index);
+			System.arraycopy(data, offset, this.array, index, first);
+			if (n > first)
+				System.arraycopy(data, offset + first, this.array, 0, n - first);
+
+			// Publish and wake the reader if it is parked
+			this.tail.set(t + n);
+			LockSupport.unpark(this.parkedReader);
+
+			offset += n;
+			length -= n;
+		}
+	}
+
+	/**
+	 * Reads up to length elements, blocking until at least one is available.
+	 * @param buffer Array of the same type as the backing array
+	 * @param offset Offset
+	 * @param length Maximum number of elements to read
+	 * @return Number of elements read or -1 if the write end has been closed and all data has been consumed
+	 * @throws IOException Thrown if the read end has been closed or the writing thread died
+	 */
+	public int read(Object buffer, int offset, int length) throws IOException {
+		if (this.readClosed)
+			throw new IOException("Pipe closed");
+		this.readSide = Thread.currentThread();
+		if (length == 0)
+			return 0;
+
+		long h = this.head.get();
+		int available;
+		int round = 0;
+		while ((available = (int) (this.tail.get() - h)) == 0) {
+			if (this.writeClosed) {
+				// Re-check, the writer might have published data right before closing
+				if (this.tail.get() == h)
+					return -1;
+				continue;
+			}
+			if (this.writeSide != null && !this.writeSide.isAlive())
+				throw new IOException("Write end dead");
+			this.await(round++, true);
+		}
+
+		// Copy out (in up to two segments)
+		int n = Math.min(length, available);
+		int index = (int) (h & this.mask);
+		int first = Math.min(n, this.capacity - index);
+		System.arraycopy(this.array, index, buffer, offset, first);
+		if (n > first)
+			System.arraycopy(this.array, 0, buffer, offset + first, n - first);
+
+		// Free the slots and wake the writer if it is parked
+		this.head.set(h + n);
+		LockSupport.unpark(this.parkedWriter);
+
+		return n;
+	}
+
+	/**
+	 * Closes the write end; the reader receives the remaining data, then EOF.
+	 */
+	public void closeWrite() {
+		this.writeClosed = true;
+		LockSupport.unpark(this.parkedReader);
+	}
+
+	/**
+	 * Closes the read end; further writes will fail.
+	 */
+	public void closeRead() {
+		this.readClosed = true;
+		LockSupport.unpark(this.parkedWriter);
+	}
+
+	/**
+	 * @return True if the read end has been closed
+	 */
+	public boolean isReadClosed() {
+		return this.readClosed;
+	}
+
+	/**
+	 * Waits a little, escalating from spinning over yielding to parking.
+	 * @param round Number of unsuccessful attempts so far
+	 * @param reader True if called by the reading side
+	 * @throws InterruptedIOException Thrown if the waiting thread has been interrupted
+	 */
+	private void await(int round, boolean reader) throws InterruptedIOException {
+		if (Thread.interrupted())
+			throw new InterruptedIOException();
+		if (round < SPINS)
+			return;
+		if (round < SPINS + YIELDS) {
+			Thread.yield();
+			return;
+		}
+
+		// Announce ourselves before parking; the other side re-checks after publishing
+		Thread current = Thread.currentThread();
+		if (reader) {
+			this.parkedReader = current;
+			if (this.tail.get() == this.head.get() && !this.writeClosed)
+				LockSupport.parkNanos(this, PARKNANOS);
+			this.parkedReader = null;
+		} else {
+			this.parkedWriter = current;
+			if (this.tail.get() - this.head.get() == this.capacity && !this.readClosed)
+				LockSupport.parkNanos(this, PARKNANOS);
+			this.parkedWriter = null;
+		}
+	}
+
+}
@@ -0,0 +1,14 @@
+package modules;
+
+/**
+ * Marks modules whose output must not be taken from the ModuleNetwork's
+ * result cache: ones with side effects (e.g. writing files or running
+ * external commands) and ones whose output depends on more than their input
+ * and properties (e.g. on the contents of a directory). Modules depending on
+ * the output of such a module are not taken from the cache either.
+ *
+ * @see ResultCache
+ */
+public interface UncachedModule extends Module {
+
+}
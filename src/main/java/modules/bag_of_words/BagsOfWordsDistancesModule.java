@@ -95,8 +95,11 @@ public class BagsOfWordsDistancesModule extends ModuleImpl {
 	public boolean process() throws Exception {
 		boolean result = true;
 
-		// read the whole text once
-		final String input = this.readStringFromInputPort(this.getInputPorts().get(INPUT_ID));
+		// the input is deserialized straight from the pipe
+		final InputPort inputPort = this.getInputPorts().get(INPUT_ID);
+		if (!inputPort.isConnected()) {
+			throw new Exception("inputPort is not connected");
+		}
 
 		// the output: an empty result map mapping sentence Nrs to a map holding
 		// the distance of this sentence to each other sentence
@@ -105,7 +108,7 @@ public class BagsOfWordsDistancesModule extends ModuleImpl {
 		try {
 			// deserialize the input
 			final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-			final TreeMap<Integer, Map<String, Integer>> sentenceNrsToBagOfWords = gson.fromJson(input, INPUT_TYPE);
+			final TreeMap<Integer, Map<String, Integer>> sentenceNrsToBagOfWords = gson.fromJson(inputPort.getReader(), INPUT_TYPE);
 			final Set<Integer> sentenceNrs = sentenceNrsToBagOfWords.keySet();
 
 			// make sure that the bags of words are ready to use
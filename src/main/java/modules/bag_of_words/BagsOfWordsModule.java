@@ -116,8 +116,8 @@ public class BagsOfWordsModule extends ModuleImpl {
 			if (gstPort.isConnected() && simplePort.isConnected()) {
 				throw new Exception("Either gst input or simple input has to be connected, not both.");
 			} else if (gstPort.isConnected()) {
-				text = this.readStringFromInputPort(gstPort);
-				final SuffixTreeRepresentation treeRepresentation = GSON.fromJson(text, INPUT_TYPE);
+				// deserialize straight from the pipe
+				final SuffixTreeRepresentation treeRepresentation = GSON.fromJson(gstPort.getReader(), INPUT_TYPE);
 				bagsOfWords = BagOfWordsFactory.build(treeRepresentation);
 			} else if (simplePort.isConnected()) {
 				text = this.readStringFromInputPort(simplePort);
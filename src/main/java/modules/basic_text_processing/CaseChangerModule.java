@@ -5,6 +5,8 @@ import java.util.Properties;
 
 import modules.CharPipe;
 import modules.InputPort;
+import modules.LineTransformerChain;
+import modules.LineTransformerModule;
 import modules.ModuleImpl;
 import modules.OutputPort;
 
@@ -12,7 +14,7 @@ import common.parallelization.CallbackReceiver;
 
 import base.workbench.ModuleRunner;
 
-public class CaseChangerModule extends ModuleImpl {
+public class CaseChangerModule extends ModuleImpl implements LineTransformerModule {
 
 	// Main method for stand-alone execution
 	public static void main(String[] args) throws Exception {
@@ -70,51 +72,22 @@ public class CaseChangerModule extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 		
-		// Variables used for input data
-		int bufferSize = 1024;
-		char[] bufferInput1 = new char[bufferSize];
-		StringBuffer outputBuffer = new StringBuffer();
-		
-		// Read first chunk of data from both inputs
-		int readCharsInput1 = this.getInputPorts().get(INPUT1ID).read(bufferInput1, 0, bufferSize);
-		
-		// Loop until no more data can be read from input
-		while (readCharsInput1 != -1){
-			
-			// Check for interrupt signal
-			if (Thread.interrupted()) {
-				this.closeAllOutputs();
-				throw new InterruptedException("Thread has been interrupted.");
-			}
-			
-			if (readCharsInput1<bufferInput1.length)
-				outputBuffer.append(new String(bufferInput1).substring(0, readCharsInput1));
-			else
-				outputBuffer.append(bufferInput1);
-			
-			// Read next chunk of data from both inputs
-			readCharsInput1 = this.getInputPorts().get(INPUT1ID).read(bufferInput1, 0, bufferSize);
-		}
-		
-		String outputString;
-		
+		// Process the input line by line (the same way as if fused with other modules; closes the outputs)
+		return new LineTransformerChain(this).process();
+	}
+	
+	@Override
+	public boolean isFusable() {
+		return true;
+	}
+	
+	@Override
+	public void transformLine(String line, String lineTerminator, StringBuilder output) {
 		if (this.toLowercase)
-			outputString = outputBuffer.toString().toLowerCase();
+			output.append(line.toLowerCase());
 		else
-			outputString = outputBuffer.toString().toUpperCase();
-		
-		// Write to outputs
-		this.getOutputPorts().get(OUTPUTNORMID).outputToAllCharPipes(outputString);
-		
-		// Close outputs (important!)
-		this.closeAllOutputs();
-		
-		/*
-		 * NOTE: A module must not close its inputs itself -- this is done by the module providing them
-		 */
-		
-		// Done
-		return true;
+			output.append(line.toUpperCase());
+		output.append(lineTerminator);
 	}
 	
 	@Override
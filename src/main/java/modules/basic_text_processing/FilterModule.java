@@ -1,17 +1,18 @@
 package modules.basic_text_processing;
 
-import java.io.BufferedReader;
 import java.util.Properties;
 
 import modules.CharPipe;
 import modules.InputPort;
+import modules.LineTransformerChain;
+import modules.LineTransformerModule;
 import modules.ModuleImpl;
 import modules.OutputPort;
 import common.parallelization.CallbackReceiver;
 
 import base.workbench.ModuleRunner;
 
-public class FilterModule extends ModuleImpl {
+public class FilterModule extends ModuleImpl implements LineTransformerModule {
 
 	// Main method for stand-alone execution
 	public static void main(String[] args) throws Exception {
@@ -73,36 +74,23 @@ public class FilterModule extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 		
-		// Reader
-		BufferedReader inputReader = new BufferedReader(this.getInputPorts().get(INPUT1ID).getInputReader());
-		
-		// Loop until no more data can be read from input 1
-		String line;
-		while ((line = inputReader.readLine()) != null){
-			
-			// Check for interrupt signal
-			if (Thread.interrupted()) {
-				this.closeAllOutputs();
-				throw new InterruptedException("Thread has been interrupted.");
-			}
-			
-			// Process data
-			int length = line.split("[ ]").length;
-			if (length >= minlength && length <= maxlength){
-				// Write to outputs
-				this.getOutputPorts().get(OUTPUTNORMID).outputToAllCharPipes(line.concat("$\n"));
-			}
-			
-			
-		}
-		
-		// Close outputs (important!)
-		this.closeAllOutputs();
-		
-		// Done
+		// Process the input line by line (the same way as if fused with other modules; closes the outputs)
+		return new LineTransformerChain(this).process();
+	}
+	
+	@Override
+	public boolean isFusable() {
 		return true;
 	}
 	
+	@Override
+	public void transformLine(String line, String lineTerminator, StringBuilder output) {
+		int length = line.split("[ ]").length;
+		if (length >= minlength && length <= maxlength){
+			output.append(line).append("$\n");
+		}
+	}
+	
 	@Override
 	public void applyProperties() throws Exception {
 		
@@ -1,9 +1,12 @@
 package modules.basic_text_processing;
 
 import java.util.Properties;
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import modules.CharPipe;
 import modules.InputPort;
+import modules.LineTransformerChain;
+import modules.LineTransformerModule;
 import modules.ModuleImpl;
 import modules.OutputPort;
 
@@ -14,7 +17,7 @@ import common.parallelization.CallbackReceiver;
 
 import base.workbench.ModuleRunner;
 
-public class RegExReplacementModule extends ModuleImpl {
+public class RegExReplacementModule extends ModuleImpl implements LineTransformerModule {
 
 	// Main method for stand-alone execution
 	public static void main(String[] args) throws Exception {
@@ -34,6 +37,7 @@ public class RegExReplacementModule extends ModuleImpl {
 	
 	// Local variables
 	private String regex;
+	private Pattern pattern;
 	private String replacement;
 	private boolean unescape;
 
@@ -72,51 +76,21 @@ public class RegExReplacementModule extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 		
-		// Variables used for input data
-		int bufferSize = 1024;
-		char[] bufferInput = new char[bufferSize];
-		
-		// Read first chunk of data from both inputs
-		int readCharsInput = this.getInputPorts().get(INPUTID).read(bufferInput, 0, bufferSize);
-		
-		// Loop until no more data can be read from input 1
-		while (readCharsInput != -1){
-			
-			// Check for interrupt signal
-			if (Thread.interrupted()) {
-				this.closeAllOutputs();
-				throw new InterruptedException("Thread has been interrupted.");
-			}
-			
-			// Convert char array to string
-			String inputChunk = new String(bufferInput).substring(0, readCharsInput);
-			// Process data
-			String outputChunk="";
-			try {
-			 outputChunk = inputChunk.replaceAll(this.regex, this.replacement);
-			}
-			catch(PatternSyntaxException p) {
-				System.out.println("error pattern:"+p.getMessage()+ " pattern: "+
-						p.getPattern());
-				p.printStackTrace();
-				System.exit(3);
-				
-			};
-			
-			// Write to output
-			this.getOutputPorts().get(OUTPUTID).outputToAllCharPipes(outputChunk);
-			
-			// Read next chunk of data from input
-			readCharsInput = this.getInputPorts().get(INPUTID).read(bufferInput, 0, bufferSize);
-		}
-		
-		// Close outputs (important!)
-		this.closeAllOutputs();
-		
-		// Done
+		// Process the input line by line (the same way as if fused with other modules; closes the outputs)
+		return new LineTransformerChain(this).process();
+	}
+	
+	@Override
+	public boolean isFusable() {
 		return true;
 	}
 	
+	@Override
+	public void transformLine(String line, String lineTerminator, StringBuilder output) {
+		// The line terminator is included, so expressions matching line breaks keep working
+		output.append(this.pattern.matcher(line + lineTerminator).replaceAll(this.replacement));
+	}
+	
 	@Override
 	public void applyProperties() throws Exception {
 		
@@ -125,6 +99,13 @@ public class RegExReplacementModule extends ModuleImpl {
 		
 		// Apply own properties
 		this.regex = this.getProperties().getProperty(PROPERTYKEY_REGEX, this.getPropertyDefaultValues().get(PROPERTYKEY_REGEX));
+		if (this.regex != null) {
+			try {
+				this.pattern = Pattern.compile(this.regex);
+			} catch (PatternSyntaxException e) {
+				throw new Exception("Invalid setting for "+PROPERTYKEY_REGEX+": "+e.getMessage());
+			}
+		}
 		
 		this.unescape = Boolean.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_UNESCAPE, this.getPropertyDefaultValues().get(PROPERTYKEY_UNESCAPE)));
 		String replacementString = this.getProperties().getProperty(PROPERTYKEY_REPLACEMENT, this.getPropertyDefaultValues().get(PROPERTYKEY_REPLACEMENT));
@@ -1,10 +1,11 @@
 package modules.basic_text_processing;
 
-import java.io.BufferedReader;
 import java.util.Properties;
 
 import modules.CharPipe;
 import modules.InputPort;
+import modules.LineTransformerChain;
+import modules.LineTransformerModule;
 import modules.ModuleImpl;
 import modules.OutputPort;
 
@@ -12,7 +13,7 @@ import common.parallelization.CallbackReceiver;
 
 import base.workbench.ModuleRunner;
 
-public class ReverserModule extends ModuleImpl {
+public class ReverserModule extends ModuleImpl implements LineTransformerModule {
 
 	// Main method for stand-alone execution
 	public static void main(String[] args) throws Exception {
@@ -68,15 +69,8 @@ public class ReverserModule extends ModuleImpl {
 
 		// Read input, reverse it and output it again. Either line by line or the whole string.
 		if (this.reverseLineByLine) {
-			final BufferedReader reader = new BufferedReader(in.getInputReader());
-			String line = null;
-
-			while((line = reader.readLine()) != null) {
-				sb.append(line);
-				out.outputToAllCharPipes(sb.reverse().toString() + System.lineSeparator());
-				sb.setLength(0);
-			}
-			reader.close();
+			// (the same way as if fused with other modules; closes the outputs)
+			return new LineTransformerChain(this).process();
 		} else 
 		
 		{
@@ -91,6 +85,16 @@ public class ReverserModule extends ModuleImpl {
 		return true;
 	}
 	
+	@Override
+	public boolean isFusable() {
+		return this.reverseLineByLine;
+	}
+	
+	@Override
+	public void transformLine(String line, String lineTerminator, StringBuilder output) {
+		output.append(new StringBuilder(line).reverse()).append(System.lineSeparator());
+	}
+	
 	@Override
 	public void applyProperties() throws Exception {
 		// Set defaults for properties not yet set
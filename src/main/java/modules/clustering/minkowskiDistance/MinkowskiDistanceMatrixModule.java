@@ -7,7 +7,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
-import java.util.Scanner;
 import java.util.TreeMap;
 
 import com.google.gson.Gson;
@@ -18,6 +17,7 @@ import common.VectorCalculation;
 import common.parallelization.CallbackReceiver;
 import modules.CharPipe;
 import modules.InputPort;
+import modules.InputPortReader;
 import modules.ModuleImpl;
 import modules.OutputPort;
 
@@ -107,21 +107,21 @@ public class MinkowskiDistanceMatrixModule extends ModuleImpl {
 		Map<String, List<Double>> aberrationValuesMap = null;
 		
 		if (this.inputFormat.equals("csv")){
-			Scanner lineScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
-			lineScanner.useDelimiter("\\R+");
+			InputPortReader lineReader = this.getInputPorts().get(ID_INPUT).getReader();
+			Iterator<String> lines = lineReader.iterateLines(true).iterator();
 			
 			aberrationValuesMap = new TreeMap<String, List<Double>>();
 			
 			// Read csv header line
-			String line = lineScanner.next();
+			String line = lines.next();
 			String[] headerFields = line.split(this.inputdelimiter);
 			
 			for (int i=1; i<headerFields.length; i++){
 				aberrationValuesMap.put(headerFields[i], new ArrayList<Double>());
 			}
 			
-			while (lineScanner.hasNext()){
-				line = lineScanner.next();
+			while (lines.hasNext()){
+				line = lines.next();
 				
 				String[] lineFields = line.split(this.inputdelimiter);
 				String lineTag = lineFields[0];
@@ -135,7 +135,7 @@ public class MinkowskiDistanceMatrixModule extends ModuleImpl {
 				
 			}
 			
-			lineScanner.close();
+			lineReader.close();
 		} else if (this.inputFormat.equals("json")){
 		
 		// Read input
@@ -34,7 +34,7 @@ import modules.Pipe;
 import modules.ProgressWatcher;
 import modules.ProgressWatcherThread;
 
-import com.google.gson.Gson;
+import common.ExtensibleTreeNodeJsonCodec;
 import common.parallelization.CallbackReceiver;
 
 import base.workbench.ModuleRunner;
@@ -117,19 +117,19 @@ public class TreeSimilarityClusteringModule extends ModuleImpl {
 		
 		
 
-		// Instantiate JSON parser
-		Gson gson = new Gson();
+		// Instantiate (streaming) JSON parser
+		ExtensibleTreeNodeJsonCodec codec = new ExtensibleTreeNodeJsonCodec();
 		
 		// Updating status detail
 		this.setStatusDetail("Receiving/parsing input");
 		
 		// Read tree from input & parse it
-		ExtensibleTreeNode rootNode = gson.fromJson(this.getInputPorts().get(ID_INPUT).getInputReader(), ExtensibleTreeNode.class);
+		ExtensibleTreeNode rootNode = codec.read(this.getInputPorts().get(ID_INPUT).getInputReader());
 		
 		// Read reversed tree from input & parse it
 		ExtensibleTreeNode reversedRootNode = null;
 		if (this.getInputPorts().get(ID_INPUT_REVERSED).isConnected())
-			reversedRootNode = gson.fromJson(this.getInputPorts().get(ID_INPUT_REVERSED).getInputReader(), ExtensibleTreeNode.class);
+			reversedRootNode = codec.read(this.getInputPorts().get(ID_INPUT_REVERSED).getInputReader());
 		
 		// If a second (reversed) suffix tree is present, make sure it contains the same keys
 		if (reversedRootNode != null && !rootNode.getChildNodes().keySet().equals(reversedRootNode.getChildNodes().keySet())){
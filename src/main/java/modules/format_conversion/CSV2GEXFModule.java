@@ -4,7 +4,6 @@ import java.util.Calendar;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Scanner;
 import java.util.TreeMap;
 
 import common.parallelization.CallbackReceiver;
@@ -18,6 +17,7 @@ import it.uniroma1.dis.wsngroup.gexf4j.core.impl.GexfImpl;
 import it.uniroma1.dis.wsngroup.gexf4j.core.impl.StaxGraphWriter;
 import modules.CharPipe;
 import modules.InputPort;
+import modules.InputPortReader;
 import modules.ModuleImpl;
 import modules.OutputPort;
 import modules.Pipe;
@@ -100,17 +100,17 @@ public class CSV2GEXFModule extends ModuleImpl {
 		 * Prepare input reading
 		 */
 		
-		Scanner lineScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
-		lineScanner.useDelimiter("\\R+");
+		InputPortReader lineReader = this.getInputPorts().get(ID_INPUT).getReader();
+		Iterator<String> lines = lineReader.iterateLines(true).iterator();
 		
-		if (! lineScanner.hasNext()){
-			lineScanner.close();
+		if (! lines.hasNext()){
+			lineReader.close();
 			this.closeAllOutputs();
 			throw new Exception("Empty input.");
 		}
 		
 		// Read CSV header line
-		String[] headerFields = lineScanner.next().split(this.inputdelimiter);
+		String[] headerFields = lines.next().split(this.inputdelimiter);
 		
 		/*
 		 *  Instantiate GEXF writer
@@ -146,8 +146,8 @@ public class CSV2GEXFModule extends ModuleImpl {
 		 * Create edges from data fields
 		 */
 		this.edgeId = 0l;
-		while (lineScanner.hasNext()){
-			String[] dataLine = lineScanner.next().split(this.inputdelimiter);
+		while (lines.hasNext()){
+			String[] dataLine = lines.next().split(this.inputdelimiter);
 			String lineTitle = dataLine[0];
 			// If the line title does not yet have a node, create it
 			if (lineTitle != null && ! nodeMap.containsKey(lineTitle)){
@@ -179,8 +179,8 @@ public class CSV2GEXFModule extends ModuleImpl {
 				edgeId++;
 			}
 		}
-		// Close input scanner
-		lineScanner.close();
+		// Close input reader
+		lineReader.close();
 		
 		StaxGraphWriter graphWriter = new StaxGraphWriter();
 		
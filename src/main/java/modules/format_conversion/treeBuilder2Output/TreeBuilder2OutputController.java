@@ -12,6 +12,7 @@ import com.google.gson.GsonBuilder;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
 import modules.Pipe;
 import modules.tree_building.treeBuilder.Knoten;
@@ -67,6 +68,7 @@ public class TreeBuilder2OutputController extends ModuleImpl {
 		 */
 		InputPort inputPort = new InputPort(INPUTID, "JSON-encoded suffix tree.", this);
 		inputPort.addSupportedPipe(CharPipe.class);
+		inputPort.addSupportedObjectType(Knoten.class);
 		
 		OutputPort outputPort = new OutputPort(OUTPUTID, "JSON-encoded suffix tree.", this);
 		outputPort.addSupportedPipe(CharPipe.class);
@@ -97,8 +99,14 @@ public class TreeBuilder2OutputController extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 		
-		//create mainNode by reading JSON input
-		this.setGson(this.getInputPorts().get(INPUTID).getInputReader());
+		//create mainNode by reading JSON input (or take it over directly if handed over as an object)
+		InputPort inputPort = this.getInputPorts().get(INPUTID);
+		if (inputPort.isConnected(ObjectPipe.class)) {
+			this.mainNode = inputPort.readObject(Knoten.class);
+			if (this.mainNode == null)
+				throw new Exception("No tree received on input port " + inputPort.toString());
+		} else
+			this.setGson(inputPort.getInputReader());
 					
 		//iterate over the tree and get parameters
 		this.iterateMainNode();
@@ -166,13 +174,11 @@ public class TreeBuilder2OutputController extends ModuleImpl {
 								}
 								
 								node.addNode(childNode.getValue(), childNode);
-								subIt.remove(); // avoids a ConcurrentModificationException
 							}
 							
 							rootNode.addNode(node.getValue(), node);
 					}
 			}
-		    it.remove(); // avoids a ConcurrentModificationException
 		}
 	}
 	
@@ -218,7 +224,6 @@ public class TreeBuilder2OutputController extends ModuleImpl {
 					currPropNode.addNode(newNode.getValue(), newNode);
 				}
 			}
-			deepIt.remove(); // avoids a ConcurrentModificationException
 			return currPropNode;
 		}
 	}
@@ -165,13 +165,11 @@ public class TreeBuilder2OutputControllerV2 extends ModuleImpl {
 								}
 								
 								node.addNode(childNode.getValue(), childNode);
-								subIt.remove(); // avoids a ConcurrentModificationException
 							}
 							
 							rootNode.addNode(node.getValue(), node);
 					}
 			}
-		    it.remove(); // avoids a ConcurrentModificationException
 		}
 	}
 	
@@ -219,7 +217,6 @@ public class TreeBuilder2OutputControllerV2 extends ModuleImpl {
 					currPropNode.addNode(newNode.getValue(), newNode);
 				}
 			}
-			deepIt.remove(); // avoids a ConcurrentModificationException
 			return currPropNode;
 		}
 	}
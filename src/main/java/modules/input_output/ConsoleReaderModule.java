@@ -9,8 +9,9 @@ import common.parallelization.CallbackReceiver;
 import modules.CharPipe;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.UncachedModule;
 
-public class ConsoleReaderModule extends ModuleImpl {
+public class ConsoleReaderModule extends ModuleImpl implements UncachedModule {
 
 	// Property keys
 	public static final String PROPERTYKEY_ENCODING = "Encoding";
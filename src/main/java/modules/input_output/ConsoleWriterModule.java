@@ -10,6 +10,7 @@ import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.NotSupportedException;
+import modules.UncachedModule;
 import common.parallelization.CallbackReceiver;
 
 /**
@@ -18,7 +19,7 @@ import common.parallelization.CallbackReceiver;
  * @author Marcel Boeing
  *
  */
-public class ConsoleWriterModule extends ModuleImpl {
+public class ConsoleWriterModule extends ModuleImpl implements UncachedModule {
 
 	private final String INPUTID = "input";
 
@@ -13,10 +13,11 @@ import modules.InputPort;
 import modules.ModuleImpl;
 import modules.NotSupportedException;
 import modules.OutputPort;
+import modules.UncachedModule;
 
 import common.parallelization.CallbackReceiver;
 
-public class ExternalCommandModule extends ModuleImpl {
+public class ExternalCommandModule extends ModuleImpl implements UncachedModule {
 	
 	// Define property keys (every setting has to have a unique key to associate it with)
 	public static final String PROPERTYKEY_COMMAND = "command";
@@ -9,6 +9,7 @@ import java.util.Properties;
 import modules.CharPipe;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.UncachedModule;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -24,7 +25,7 @@ import common.parallelization.CallbackReceiver;
  * @author marcel
  *
  */
-public class FileFinderModule extends ModuleImpl {
+public class FileFinderModule extends ModuleImpl implements UncachedModule {
 
 	public static final String PROPERTYKEY_PATHTOSEARCH = "path to search";
 	public static final String PROPERTYKEY_FILENAMESUFFIX = "file name suffix";
@@ -16,6 +16,7 @@ import modules.BytePipe;
 import modules.CharPipe;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.ResultCache;
 
 public class FileReaderModule extends ModuleImpl {
 
@@ -188,6 +189,19 @@ public class FileReaderModule extends ModuleImpl {
 		return true;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see modules.ModuleImpl#getCacheKeyDetails()
+	 */
+	@Override
+	public String getCacheKeyDetails() {
+		// The cached output is outdated once the file changes
+		if (this.file == null)
+			return "";
+		return ResultCache.getFileDetails(this.file);
+	}
+
 	@Override
 	public void applyProperties() throws Exception {
 		super.setDefaultsIfMissing();
@@ -15,6 +15,7 @@ import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.NotSupportedException;
+import modules.UncachedModule;
 import common.parallelization.CallbackReceiver;
 
 /**
@@ -23,7 +24,7 @@ import common.parallelization.CallbackReceiver;
  * @author Marcel Boeing
  *
  */
-public class FileWriterModule extends ModuleImpl {
+public class FileWriterModule extends ModuleImpl implements UncachedModule {
 
 	// Property keys
 	public static final String PROPERTYKEY_OUTPUTFILE = "outputfile";
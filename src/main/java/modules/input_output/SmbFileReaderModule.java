@@ -11,11 +11,12 @@ import modules.BytePipe;
 import modules.CharPipe;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.UncachedModule;
 import jcifs.smb.NtlmPasswordAuthentication;
 import jcifs.smb.SmbFile;
 import jcifs.smb.SmbFileInputStream;
 
-public class SmbFileReaderModule extends ModuleImpl {
+public class SmbFileReaderModule extends ModuleImpl implements UncachedModule {
 
 	// Property keys
 	public static final String PROPERTYKEY_SMBURL = "SMB URL to inputfile";
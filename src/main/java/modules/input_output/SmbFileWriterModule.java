@@ -15,6 +15,7 @@ import modules.BytePipe;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.UncachedModule;
 
 import common.parallelization.CallbackReceiver;
 
@@ -24,7 +25,7 @@ import common.parallelization.CallbackReceiver;
  * @author Marcel Boeing
  *
  */
-public class SmbFileWriterModule extends ModuleImpl {
+public class SmbFileWriterModule extends ModuleImpl implements UncachedModule {
 
 	// Property keys
 	public static final String PROPERTYKEY_SMBURL = "SMB URL to outputfile";
@@ -13,6 +13,7 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
 
 public class MatrixValuesExpressionApplyModule extends ModuleImpl {
@@ -70,7 +71,9 @@ public class MatrixValuesExpressionApplyModule extends ModuleImpl {
 		InputPort in = new InputPort(INPUT_MATRIX_ID, "[text/csv] A NamedFieldMatrix to evaluate.", this);
 		OutputPort out = new OutputPort(OUTPUT_MATRIX_ID, "[text/csv] the evaluated NamedFieldMatrix", this);
 		in.addSupportedPipe(CharPipe.class);
+		in.addSupportedObjectType(NamedFieldMatrix.class);
 		out.addSupportedPipe(CharPipe.class);
+		out.addSupportedObjectType(NamedFieldMatrix.class);
 		super.addInputPort(in);
 		super.addOutputPort(out);
 	}
@@ -80,14 +83,26 @@ public class MatrixValuesExpressionApplyModule extends ModuleImpl {
 		boolean result = true;
 		
 		try {
-			// parse input
-			Reader inputReader = this.getInputPorts().get(INPUT_MATRIX_ID).getInputReader();
-			NamedFieldMatrix matrix = NamedFieldMatrix.parseCSV(inputReader, csvDelimiter);
+			// take over the input matrix or parse it (the values are
+			// changed in place, so a received matrix has to be copied)
+			InputPort in = this.getInputPorts().get(INPUT_MATRIX_ID);
+			NamedFieldMatrix matrix;
+			if (in.isConnected(ObjectPipe.class)) {
+				matrix = in.readObject(NamedFieldMatrix.class);
+				if (matrix == null)
+					throw new Exception("No matrix received on input port " + in.toString());
+				matrix = matrix.copy();
+			} else {
+				Reader inputReader = in.getInputReader();
+				matrix = NamedFieldMatrix.parseCSV(inputReader, csvDelimiter);
+			}
 			
 			// prepare output and write header as that will not change
 			OutputPort out = this.getOutputPorts().get(OUTPUT_MATRIX_ID);
+			boolean writeCsv = out.isConnected(CharPipe.class);
 			matrix.setDelimiter(csvDelimiter);
-			out.outputToAllCharPipes(matrix.csvHeader());
+			if (writeCsv)
+				out.outputToAllCharPipes(matrix.csvHeader());
 			
 			// traverse matrix, apply expression and output the line in question
 			Double value;
@@ -97,8 +112,13 @@ public class MatrixValuesExpressionApplyModule extends ModuleImpl {
 					value = evaluateExpression(value, expression);
 					matrix.setValue(i, j, value);
 				}
-				out.outputToAllCharPipes(matrix.csvLine(i));
+				if (writeCsv)
+					out.outputToAllCharPipes(matrix.csvLine(i));
 			}
+			
+			// hand the finished matrix to modules taking objects
+			if (out.isConnected(ObjectPipe.class))
+				out.outputToAllObjectPipes(matrix);
 		} catch (Exception e) {
 			result = false;
 			throw e;
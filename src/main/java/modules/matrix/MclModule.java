@@ -10,6 +10,7 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
 
 import base.workbench.ModuleRunner;
@@ -66,8 +67,10 @@ public class MclModule extends ModuleImpl {
 		InputPort inputPort = new InputPort(ID_INPUT,
 				"[text/csv] (Named Field) Matrix to cluster. NOTE: x and y dimensions of the matrix must agree.", this);
 		inputPort.addSupportedPipe(CharPipe.class);
+		inputPort.addSupportedObjectType(NamedFieldMatrix.class);
 		OutputPort outputPort = new OutputPort(ID_OUTPUT, "[text/csv] Matrix clustered.", this);
 		outputPort.addSupportedPipe(CharPipe.class);
+		outputPort.addSupportedObjectType(NamedFieldMatrix.class);
 
 		// Add I/O ports to instance (don't forget...)
 		super.addInputPort(inputPort);
@@ -82,10 +85,19 @@ public class MclModule extends ModuleImpl {
 		PipedReader inputReader = null;
 
 		try {
-			inputReader = this.getInputPorts().get(ID_INPUT).getInputReader();
-
-			// read the input into a NamedFieldMatrix
-			final NamedFieldMatrix nfMatrix = NamedFieldMatrix.parseCSV(inputReader, this.csvDelimiter);
+			// read the input into a NamedFieldMatrix (a matrix received as
+			// an object is copied, since mcl changes its values in place)
+			final InputPort inputPort = this.getInputPorts().get(ID_INPUT);
+			final NamedFieldMatrix nfMatrix;
+			if (inputPort.isConnected(ObjectPipe.class)) {
+				final NamedFieldMatrix receivedMatrix = inputPort.readObject(NamedFieldMatrix.class);
+				if (receivedMatrix == null)
+					throw new Exception("No matrix received on input port " + inputPort.toString());
+				nfMatrix = receivedMatrix.copy();
+			} else {
+				inputReader = inputPort.getInputReader();
+				nfMatrix = NamedFieldMatrix.parseCSV(inputReader, this.csvDelimiter);
+			}
 
 			// The JAMA matrix is initialised from the named field matrix'
 			// values and will operate on them directly, avoiding some
@@ -106,10 +118,14 @@ public class MclModule extends ModuleImpl {
 			nfMatrix.setValues(matrix.getArray());
 			OutputPort out = this.getOutputPorts().get(ID_OUTPUT);
 			nfMatrix.setDelimiter(this.csvDelimiter);
-			out.outputToAllCharPipes(nfMatrix.csvHeader());
-			for (int i = 0; i < nfMatrix.getRowAmount(); i++) {
-				out.outputToAllCharPipes(nfMatrix.csvLine(i));
+			if (out.isConnected(CharPipe.class)) {
+				out.outputToAllCharPipes(nfMatrix.csvHeader());
+				for (int i = 0; i < nfMatrix.getRowAmount(); i++) {
+					out.outputToAllCharPipes(nfMatrix.csvLine(i));
+				}
 			}
+			if (out.isConnected(ObjectPipe.class))
+				out.outputToAllObjectPipes(nfMatrix);
 		} catch (Exception e) {
 			result = false;
 			throw e;
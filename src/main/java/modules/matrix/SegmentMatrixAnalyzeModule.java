@@ -12,6 +12,7 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
 
 public class SegmentMatrixAnalyzeModule extends ModuleImpl {
@@ -61,6 +62,7 @@ public class SegmentMatrixAnalyzeModule extends ModuleImpl {
 		InputPort distanceMatrixIn = new InputPort(INPUT_SEGMENT_MATRIX_ID,
 				"[text/csv] NamedFieldMatrix from SegmentMatrixModule", this);
 		distanceMatrixIn.addSupportedPipe(CharPipe.class);
+		distanceMatrixIn.addSupportedObjectType(NamedFieldMatrix.class);
 		super.addInputPort(distanceMatrixIn);
 
 		InputPort segmentationCandidatesIn = new InputPort(INPUT_SEGMENTATION_CANDIDATES_ID,
@@ -137,6 +139,15 @@ public class SegmentMatrixAnalyzeModule extends ModuleImpl {
 
 	private NamedFieldMatrix readSegmentMatrix() throws Exception {
 		InputPort matrixIn = this.getInputPorts().get(INPUT_SEGMENT_MATRIX_ID);
+
+		// the matrix is only queried, so a received one can be used as is
+		if (matrixIn.isConnected(ObjectPipe.class)) {
+			NamedFieldMatrix matrix = matrixIn.readObject(NamedFieldMatrix.class);
+			if (matrix == null)
+				throw new Exception("No matrix received on input port " + matrixIn.toString());
+			return matrix;
+		}
+
 		Reader matrixReader = matrixIn.getInputReader();
 
 		return NamedFieldMatrix.parseCSV(matrixReader, this.inputCsvDelim);
@@ -10,6 +10,7 @@ import models.NamedFieldMatrix;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
 
 import base.workbench.ModuleRunner;
@@ -66,6 +67,7 @@ public class SegmentDistanceMatrixModule extends ModuleImpl {
 		OutputPort outputPort2 = new OutputPort(ID_OUTPUT_HAMMING_DISTANCES,
 				"CSV output of the hamming distances between rows of the distance matrix", this);
 		outputPort2.addSupportedPipe(CharPipe.class);
+		outputPort2.addSupportedObjectType(NamedFieldMatrix.class);
 
 		// Add I/O ports to instance (don't forget...)
 		super.addInputPort(inputPort);
@@ -102,10 +104,14 @@ public class SegmentDistanceMatrixModule extends ModuleImpl {
 			}
 			if (hdOut.isConnected()) {
 				NamedFieldMatrix hammingMatrix = buildHammingDistancesMatrix(matrix);
-				hdOut.outputToAllCharPipes(hammingMatrix.csvHeader());
-				for (int i = 0; i < hammingMatrix.getRowAmount(); i++) {
-					hdOut.outputToAllCharPipes(hammingMatrix.csvLine(i));
+				if (hdOut.isConnected(CharPipe.class)) {
+					hdOut.outputToAllCharPipes(hammingMatrix.csvHeader());
+					for (int i = 0; i < hammingMatrix.getRowAmount(); i++) {
+						hdOut.outputToAllCharPipes(hammingMatrix.csvLine(i));
+					}
 				}
+				if (hdOut.isConnected(ObjectPipe.class))
+					hdOut.outputToAllObjectPipes(hammingMatrix);
 			}
 		} catch (Exception e) {
 			result = false;
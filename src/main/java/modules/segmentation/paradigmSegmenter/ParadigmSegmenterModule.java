@@ -16,9 +16,7 @@ import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-
+import common.ExtensibleTreeNodeJsonCodec;
 import common.StringUnescaper;
 import common.parallelization.CallbackReceiver;
 
@@ -136,16 +134,13 @@ public class ParadigmSegmenterModule extends ModuleImpl {
 		 * Suffixbaum einlesen
 		 */
 
-		// Instantiate JSON (de)serializer
-		Gson gson = new GsonBuilder().setPrettyPrinting().create();
-
 		// Instantiate input reader if an encoding has been set
 		Reader trieReader = this.getInputPorts().get(TRIEINPUTID)
 				.getInputReader();
 
-		// Deserialize suffix tree
-		ExtensibleTreeNode suffixbaumWurzelknoten = gson.fromJson(trieReader,
-				ExtensibleTreeNode.class);
+		// Deserialize suffix tree (streaming)
+		ExtensibleTreeNode suffixbaumWurzelknoten = new ExtensibleTreeNodeJsonCodec()
+				.read(trieReader);
 
 		/*
 		 * Segmentierung des Eingabedatenstroms
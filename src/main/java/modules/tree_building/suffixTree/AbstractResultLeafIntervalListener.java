@@ -0,0 +1,57 @@
+package modules.tree_building.suffixTree;
+
+import java.io.IOException;
+
+/**
+ * A listener handing each node to the child class on its exit action, like
+ * AbstractResultNodeStackListener, but without noting anything in the nodes:
+ * the path and the leaves below the node are given by a TreeWalkState, edge
+ * labels may be read as views on the text (BaseSuffixTree.edgeLabel()).
+ * Neither Node objects nor leaf sets are created, so it suits large trees.
+ */
+public abstract class AbstractResultLeafIntervalListener implements ITreeWalkerListener {
+
+	private final TreeWalkState walkState;
+
+	public AbstractResultLeafIntervalListener(BaseSuffixTree tree) {
+		this.walkState = new TreeWalkState(tree);
+	}
+
+	@Override
+	public void entryaction(int nodeNr, int level) throws IOException {
+		walkState.enter(nodeNr);
+	}
+
+	@Override
+	public void exitaction(int nodeNr, int level) throws IOException {
+		// invariant check, the walk has to leave the node it entered last
+		if (walkState.getNode() != nodeNr) {
+			throw new IllegalStateException("Differing nodes encountered on tree listener.");
+		}
+		process(nodeNr, walkState, level);
+		walkState.exit();
+	}
+
+	// exposes the state of the walk to the child class
+	protected TreeWalkState getWalkState() {
+		return walkState;
+	}
+
+	/**
+	 * The child class implements this method to do it's actual work once all
+	 * nodes below the node have been walked.
+	 * 
+	 * @param nodeNr
+	 *            The number of the node currently processed.
+	 * @param walk
+	 *            The state of the walk, giving the path to the node and the
+	 *            leaves below it (the node itself if it is a leaf).
+	 * @param level
+	 *            The node's level within the tree.
+	 * @throws IOException
+	 *             The implementing class may throw an IOException (if it uses
+	 *             IO)
+	 */
+	public abstract void process(int nodeNr, TreeWalkState walk, int level) throws IOException;
+
+}
@@ -20,6 +20,10 @@ public abstract class AbstractResultNodeStackListener implements ITreeWalkerList
 	// while iterating the tree keeps track of the current path's length
 	private int pathLength = 0;
 
+	// whether this listener notes the path lengths and leaves in the nodes
+	// (the MultiTreeWalker does so once for all of its listeners)
+	boolean noteNodeData = true;
+
 	/**
 	 * An initialiser for subclasses to setup all necessary variables.
 	 * 
@@ -50,7 +54,8 @@ public abstract class AbstractResultNodeStackListener implements ITreeWalkerList
 
 		edges.push(edge);
 		pathLength += edge.length();
-		tree.getNode(nodeNr).setPathLength(pathLength);
+		if (noteNodeData)
+			tree.getNode(nodeNr).setPathLength(pathLength);
 	}
 
 	/**
@@ -75,18 +80,9 @@ public abstract class AbstractResultNodeStackListener implements ITreeWalkerList
 		// let the child class do it's work
 		process(nodeNr, Collections.unmodifiableList(nodes), pathLength, level);
 
-		if (nodeNr != tree.getRoot()) {
+		if (nodeNr != tree.getRoot() && noteNodeData) {
 			parent = nodes.peek();
-
-			// propagate leaf nodes from this node to the parent if any are
-			// present
-			parent.getLeaves().addAll(node.getLeaves());
-
-			// if the node is itself a terminal node, it is noted in the
-			// parent's leaves as well
-			if (node.isTerminal()) {
-				parent.getLeaves().add(node);
-			}
+			propagateLeaves(node, parent);
 		}
 
 		// fully reverse the entry actions effects
@@ -94,6 +90,22 @@ public abstract class AbstractResultNodeStackListener implements ITreeWalkerList
 		this.pathLength -= edge.length();
 	}
 
+	/**
+	 * Notes the leaves below a node (and the node itself if it is a leaf) in
+	 * its parent's leaves.
+	 */
+	static void propagateLeaves(Node node, Node parent) {
+		// propagate leaf nodes from this node to the parent if any are
+		// present
+		parent.getLeaves().addAll(node.getLeaves());
+
+		// if the node is itself a terminal node, it is noted in the
+		// parent's leaves as well
+		if (node.isTerminal()) {
+			parent.getLeaves().add(node);
+		}
+	}
+
 	// exposes the stack of nodes to the child class read-only
 	protected List<Node> getNodes() {
 		return Collections.unmodifiableList(nodes);
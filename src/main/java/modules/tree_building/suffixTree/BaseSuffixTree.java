@@ -1,5 +1,6 @@
 package modules.tree_building.suffixTree;
 
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -14,7 +15,7 @@ public class BaseSuffixTree {
 	// Expose .oo to the package read-only
 	protected static final int oo = Integer.MAX_VALUE / 2;
 	int position=-1;
-	Node[] nodes;
+	NodeStore store;
 	char[] text;
 	int root, currentNode, needSuffixLink, remainder;
 
@@ -32,23 +33,102 @@ public class BaseSuffixTree {
 	// An end to keep track of all node's end positions while setting a single
 	// text when this is used as a generalised suffix tree.
 	private NodePositionEnd end;
+	// The end the leaves of the current text are created with (see NodeStore)
+	private int openEnd = oo;
+
+	// Views on the nodes, created on demand by getNode()
+	private Node[] views;
 	
 	public BaseSuffixTree(int length) {
-		nodes = new Node[2 * length + 2];
+		store = new NodeStore(length + 2);
 		text = new char[length];
 		root = active_node = newNode(-1, -1, 0, NO_TYPE_CONTEXT);
 		
 		textBegins = new ArrayList<Integer>();
 	}
-	
+
+	/**
+	 * Copies a tree whose texts are all terminated by '$' (e.g. one read from
+	 * an index file) into a new one that further texts can be added to. Node
+	 * numbers and suffix links are kept, every end becomes a fixed index.
+	 * @param tree Tree to copy
+	 */
+	BaseSuffixTree(BaseSuffixTree tree) {
+		this(tree.position + 1);
+		if (tree.position >= 0 && tree.charAt(tree.position) != '$') {
+			throw new IllegalArgumentException("The last text of the tree is not terminated by '$'.");
+		}
+		for (int i = 0; i <= tree.position; i++) {
+			text[i] = tree.charAt(i);
+		}
+		position = tree.position;
+
+		boolean linked = false;
+		for (int node = root + 1; node <= tree.getNodeAmount(); node++) {
+			newNode(tree.nodeStart(node, 0), tree.nodeEnd(node, 0), tree.nodeTextNr(node, 0), tree.nodeTypeContext(node, 0));
+			for (int pos = 1; pos < tree.nodePositionsAmount(node); pos++) {
+				store.addPosition(node, tree.nodeStart(node, pos), tree.nodeEnd(node, pos), tree.nodeTextNr(node, pos),
+						tree.nodeTypeContext(node, pos));
+			}
+			store.link[node] = tree.suffixLink(node);
+			linked |= store.link[node] != NodeStore.NONE;
+		}
+		for (int node = root; node <= tree.getNodeAmount(); node++) {
+			for (int child = tree.firstChild(node); child != NodeStore.NONE; child = tree.nextSibling(child)) {
+				if (!tree.isTerminal(child) && !linked) {
+					// Ukkonen's algorithm links the inner nodes, a tree built from a suffix array has no links at all
+					throw new IllegalArgumentException("The tree has no suffix links, no texts can be added to it.");
+				}
+				store.setChild(node, charAt(nodeStart(child, 0)), child);
+			}
+		}
+
+		for (int i = 0; i < tree.textNrsAmount(); i++) {
+			textBegins.add(tree.getTextBegin(i));
+		}
+		currentTypeContext = tree.getCurrentTypeContext();
+		// the end for the leaves of the next text
+		newEnd();
+	}
+
+	/**
+	 * Makes sure the text can hold the given number of chars, growing it if
+	 * necessary.
+	 * @param length Number of chars
+	 * @param maxLength Maximum capacity to grow to
+	 */
+	void ensureCapacity(int length, int maxLength) {
+		if (length <= text.length)
+			return;
+		int capacity = (int) Math.min(maxLength, Math.max(length, text.length * 2l));
+		text = Arrays.copyOf(text, capacity);
+	}
+
+	/**
+	 * Shrinks the text to the chars added and the node store to the nodes
+	 * created (after building the tree with a growing buffer).
+	 */
+	void trimToSize() {
+		if (text.length > position + 1)
+			text = Arrays.copyOf(text, position + 1);
+		store.trimToSize();
+		if (views != null && views.length > currentNode + 1)
+			views = Arrays.copyOf(views, currentNode + 1);
+	}
+
 	int newNode(int start, int end, int nrText, int typeContextNr) {
-		nodes[++currentNode] = new Node(start, end, nrText, typeContextNr, this);
+		currentNode = store.add(start, end == oo ? openEnd : end, nrText, typeContextNr);
 		return currentNode;
 	}
 
+	// return the edge length of the node in the tree
+	int edgeLength(int node) {
+		return Math.min(store.getEnd(node, 0), position + 1) - store.start[node];
+	}
+
 	private void addSuffixLink(int node) {
 		if (needSuffixLink > 0)
-			nodes[needSuffixLink].link = node;
+			store.link[needSuffixLink] = node;
 		needSuffixLink = node;
 	}
 
@@ -57,9 +137,10 @@ public class BaseSuffixTree {
 	}
 
 	boolean walkDown(int next) {
-		if (active_length >= nodes[next].edgeLength(this)) {
-			active_edge += nodes[next].edgeLength(this);
-			active_length -= nodes[next].edgeLength(this);
+		final int edgeLength = edgeLength(next);
+		if (active_length >= edgeLength) {
+			active_edge += edgeLength;
+			active_length -= edgeLength;
 			active_node = next;
 			return true;
 		}
@@ -76,17 +157,18 @@ public class BaseSuffixTree {
 		for (int i=position-remainder+1;i<=position;i++){
 			pos=i;
 			while (pos<=position) {
-				if (!nodes[next].next.containsKey(this.text[pos]))  {
+				final int child = store.getChild(next, this.text[pos]);
+				if (child == NodeStore.NONE)  {
 					throw new IllegalStateException("addRemaining Error");
 				}
 				else {
-					next = nodes[next].next.get(this.text[pos]);
-					pos+=nodes[next].edgeLength(this);
+					next = child;
+					pos+=edgeLength(next);
 				}
 			
 			}// while
-			if (nodes[next].isTerminal()){
-				nodes[next].addPos(pos-nodes[next].edgeLength(this), BaseSuffixTree.oo, textNr, currentTypeContext, this);
+			if (store.isTerminal(next)){
+				store.addPosition(next, pos-edgeLength(next), openEnd, textNr, currentTypeContext);
 			}
 			next=this.root;
 		}// for
@@ -99,9 +181,10 @@ public class BaseSuffixTree {
 		while (remainder > 0) {
 			if (active_length == 0)
 				active_edge = position;
-			if (!nodes[active_node].next.containsKey(active_edge())) {
+			int next = store.getChild(active_node, active_edge());
+			if (next == NodeStore.NONE) {
 				int leaf = newNode(position, oo, nrText, currentTypeContext);
-				nodes[active_node].next.put(active_edge(), leaf);
+				store.setChild(active_node, active_edge(), leaf);
 				addSuffixLink(active_node);  
 				/* rule 2:
 				If we create a new internal node OR make an inserter from an internal node, 
@@ -109,7 +192,6 @@ public class BaseSuffixTree {
 				then we link the previous SUCH node with THIS one through a suffix link.
 				*/
 			} else {
-				int next = nodes[active_node].next.get(active_edge());
 				if (walkDown(next)) {
 					continue; /* observation 2:
 						If at some point active_length is greater or equal to the length of 
@@ -117,10 +199,10 @@ public class BaseSuffixTree {
 						until edge_length is not strictly greater than active_length.
 					*/
 				}
-				if (this.text[nodes[next].getStart(0) + active_length] == ch) { 
+				if (this.text[store.start[next] + active_length] == ch) { 
 					// end of text, for further texts in GST
 					if (ch=='$') {
-						if (nodes[next].isTerminal()){
+						if (store.isTerminal(next)){
 							addRemaining(nrText);
 						}// if  ..isTerminal
 						else {
@@ -142,14 +224,15 @@ public class BaseSuffixTree {
 
 					break;
 				}
-				int split = newNode(nodes[next].getStart(0), nodes[next].getStart(0) + active_length, nrText, currentTypeContext);
-				nodes[active_node].next.put(active_edge(), split);
+				int split = newNode(store.start[next], store.start[next] + active_length, nrText, currentTypeContext);
+				store.setChild(active_node, active_edge(), split);
 
 				int leaf = newNode(position, oo, nrText, currentTypeContext);
-				nodes[split].next.put(ch, leaf);
-				nodes[next].updateStartPositions(active_length);
+				store.setChild(split, ch, leaf);
+				// if the node represents more than one text, all its start positions move
+				store.moveStarts(next, active_length);
 
-				nodes[split].next.put(this.text[nodes[next].getStart(0)], next);
+				store.setChild(split, this.text[store.start[next]], next);
 				addSuffixLink(split); 
 				/* rule 2:
 				 If we create a new internal node OR make an inserter from an internal node, 
@@ -170,7 +253,7 @@ public class BaseSuffixTree {
 				active_length--;
 				active_edge = position - remainder + 1;
 			} else
-				active_node = nodes[active_node].link > 0 ? nodes[active_node].link : root; 
+				active_node = store.link[active_node] > 0 ? store.link[active_node] : root; 
 				/*rule 3:
 				After an insert from the active node which is not the root node, 
 				we must follow the suffix link and set the active node to the node it points to. 
@@ -182,22 +265,23 @@ public class BaseSuffixTree {
 
 	// get the edge string of a node by node number
 	public String edgeString(int node) {
-		return edgeString(nodes[node]);
-	}
-	
-	// get the edge string of a node
-	public String edgeString(Node node) {
-		if (node == getNode(getRoot())) {
+		if (node == root) {
 			return "";
 		}
 
-		int end=node.getEnd(0);
+		int start=nodeStart(node, 0);
+		int end=nodeEnd(node, 0);
 		if (end==oo) {
-			for (end=node.getStart(0);end<=oo;end++) {
-				if (this.text[end]=='$') {end++; break;}
+			for (end=start;end<=oo;end++) {
+				if (charAt(end)=='$') {end++; break;}
 			}
 		}
-		return new String(Arrays.copyOfRange(this.text, node.getStart(0), Math.min(position + 1,end)));
+		return substring(start, Math.min(position + 1,end));
+	}
+	
+	// get the edge string of a node
+	public String edgeString(Node node) {
+		return edgeString(node.getNr());
 	}
 	
 
@@ -215,19 +299,19 @@ public class BaseSuffixTree {
 		int localActiveEdge=0;int i=0;
 		for (i=0;i<nextText.length();i++){
 			// find edge
-			if (nodes[node].next.containsKey(nextText.charAt(i))){
-				int child_node = this.nodes[node].next.get(nextText.charAt(i));
+			int child_node = store.getChild(node, nextText.charAt(i));
+			if (child_node != NodeStore.NONE){
 				localActiveEdge=0;
 				// compare edge
 				int pos=i+1;// pos is index for position in nextText
-				for (int j=this.nodes[child_node].getStart(0)+1;j<this.nodes[child_node].getEnd(0);j++){
+				for (int j=store.start[child_node]+1;j<store.getEnd(child_node, 0);j++){
 					if (this.text[j]==nextText.charAt(pos)) {
 						pos++;
 						localActiveEdge++;
 					}
 					else {
-						setActivePoint(node,this.nodes[child_node].getStart(0),
-								j-this.nodes[child_node].getStart(0));
+						setActivePoint(node,store.start[child_node],
+								j-store.start[child_node]);
 						return pos;
 					};
 					
@@ -240,53 +324,56 @@ public class BaseSuffixTree {
 				return i;
 			}
 		} // for
-		setActivePoint(node,nodes[node].getStart(0),localActiveEdge);
+		setActivePoint(node,store.start[node],localActiveEdge);
 		return i;
 	} // longestPath
 	
 	// Checks if pattern is a path (maybe partial) in this tree, starting at the specified node.
 	public boolean findPattern(String pattern, int node /*root*/){
+		return findNode(pattern, node) != NodeStore.NONE;
+	}
+
+	// Returns the node whose edge the pattern's path (maybe partial, starting at
+	// the specified node) ends on, NodeStore.NONE if pattern is no such path.
+	int findNode(CharSequence pattern, int node /*root*/){
 		if (pattern == null || pattern.length() == 0) {
-			return false;
+			return NodeStore.NONE;
 		}
 
-		boolean result = true;
-		Integer current = node;
+		int current = node;
 
 		// variables for the edge string currently compared
 		int start = 0;
 		int length = 0;
 		int pos = 0;
 		if(current != root) {
-			start = nodes[current].getStart(0);
-			length = nodes[current].edgeLength(this);
+			start = nodeStart(current, 0);
+			length = nodeEdgeLength(current);
 		}
 
 		for(int i = 0; i < pattern.length(); i++) {
 			// do we have to jump to the next node?
 			if (pos == length) {
-				current = nodes[current].getNext(pattern.charAt(i));
+				current = child(current, pattern.charAt(i));
 				// no node found for the next char
-				if (current == null) {
-					result = false;
-					break;
+				if (current == NodeStore.NONE) {
+					return NodeStore.NONE;
 				}
-				start = nodes[current].getStart(0);
-				length = nodes[current].edgeLength(this);
+				start = nodeStart(current, 0);
+				length = nodeEdgeLength(current);
 				pos = 0;
 			}
 			// actual comparison
-			if(pattern.charAt(i) != text[start + pos]) {
-				result = false;
-				break;
+			if(pattern.charAt(i) != charAt(start + pos)) {
+				return NodeStore.NONE;
 			}
 			// chars matched, increase position on the edge and repeat
 			pos += 1;
 		}
 
-		return result;
+		return current;
 	}
-	
+
 	public boolean findPattern(String pattern) {
 		return findPattern(pattern, getRoot());
 	}
@@ -296,13 +383,123 @@ public class BaseSuffixTree {
 		return root;
 	}
 	
-	// return the node corresponding to nodeNr
+	// return the node corresponding to nodeNr (a view on it, created once on demand)
 	public Node getNode(int nodeNr) {
-		try {
-			return this.nodes[nodeNr];
-		} catch (ArrayIndexOutOfBoundsException e) {
+		if (!isNode(nodeNr)) {
 			return null;
 		}
+		if (views == null || views.length <= nodeNr) {
+			views = Arrays.copyOf(views == null ? new Node[0] : views, currentNode + 1);
+		}
+		if (views[nodeNr] == null) {
+			views[nodeNr] = new Node(this, nodeNr);
+		}
+		return views[nodeNr];
+	}
+
+	// return the node numbers of the children of a node, ordered by the first char of their edges
+	public int[] getChildren(int nodeNr) {
+		final int[] children = new int[childrenAmount(nodeNr)];
+		int i = 0;
+		for (int child = firstChild(nodeNr); child != NodeStore.NONE; child = nextSibling(child)) {
+			children[i++] = child;
+		}
+		return children;
+	}
+
+	// return the edge label of a node as a view on the text (nothing is copied)
+	public CharSequence edgeLabel(int nodeNr) {
+		if (nodeNr == root) {
+			return "";
+		}
+		final int start = nodeStart(nodeNr, 0);
+		return textSequence(start, start + nodeEdgeLength(nodeNr));
+	}
+
+	/*
+	 * Read access to the text and the nodes. Node views, the walker and the
+	 * output methods only use these, so trees keeping their nodes (or text)
+	 * differently (see SuffixArrayTree, MappedSuffixTree) can override them.
+	 */
+
+	char charAt(int index) {
+		return text[index];
+	}
+
+	String substring(int begin, int end) {
+		return new String(text, begin, end - begin);
+	}
+
+	CharSequence textSequence(int begin, int end) {
+		return CharBuffer.wrap(text, begin, end - begin);
+	}
+
+	boolean isNode(int node) {
+		return node > NodeStore.NONE && node <= currentNode;
+	}
+
+	boolean isTerminal(int node) {
+		return store.isTerminal(node);
+	}
+
+	// the first child of a node or NodeStore.NONE, children are ordered by the first char of their edges
+	int firstChild(int node) {
+		return store.firstChild[node];
+	}
+
+	// the next child of the node's parent or NodeStore.NONE
+	int nextSibling(int node) {
+		return store.nextSibling[node];
+	}
+
+	int childrenAmount(int node) {
+		int amount = 0;
+		for (int child = firstChild(node); child != NodeStore.NONE; child = nextSibling(child)) {
+			amount++;
+		}
+		return amount;
+	}
+
+	// the child reached by the edge beginning with c or NodeStore.NONE
+	int child(int node, char c) {
+		return store.getChild(node, c);
+	}
+
+	int suffixLink(int node) {
+		return store.link[node];
+	}
+
+	// whether the tree was built with suffix links (by Ukkonen's algorithm), which adding texts to it needs
+	public boolean hasSuffixLinks() {
+		return true;
+	}
+
+	int nodePositionsAmount(int node) {
+		return store.positionsAmount(node);
+	}
+
+	int nodeStart(int node, int pos) {
+		return store.getStart(node, pos);
+	}
+
+	int nodeEnd(int node, int pos) {
+		return store.getEnd(node, pos);
+	}
+
+	int nodeTextNr(int node, int pos) {
+		return store.getTextNr(node, pos);
+	}
+
+	int nodeTypeContext(int node, int pos) {
+		return store.getTypeContext(node, pos);
+	}
+
+	NodePosition nodePosition(int node, int pos) {
+		return store.getPosition(node, pos);
+	}
+
+	int nodeEdgeLength(int node) {
+		return Math.min(nodeEnd(node, 0), position + 1) - nodeStart(node, 0);
 	}
 	
 	// return the number of nodes in the tree
@@ -389,7 +586,7 @@ public class BaseSuffixTree {
 	public String getInputText(int textNr) {
 		final int begin = getTextBegin(textNr);
 		final int end = getTextEnd(textNr) + 1;
-		return new String(Arrays.copyOfRange(text, begin, end));
+		return substring(begin, end);
 	}
 	
 	/**
@@ -408,7 +605,7 @@ public class BaseSuffixTree {
 			throw new IllegalArgumentException("Attempt to set a begin for a text (" + textNr + ") other than the next one. Next: " + textBegins.size());
 		}
 		// check that textBegin actually marks a text begin
-		if (textBegin == 0 || text[textBegin - 1] == '$') {
+		if (textBegin == 0 || charAt(textBegin - 1) == '$') {
 			textBegins.add(textBegin);
 		} else {
 			throw new IllegalArgumentException("Did not find char '$' before supposed text begin: " + textBegin + " (of text: " + textNr + ").");
@@ -430,6 +627,7 @@ public class BaseSuffixTree {
 	 */
 	protected NodePositionEnd newEnd() {
 		this.end = new NodePositionEnd(BaseSuffixTree.oo);
+		this.openEnd = store.addEnd(this.end);
 		return this.end;
 	}
 	
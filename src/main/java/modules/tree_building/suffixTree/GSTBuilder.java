@@ -0,0 +1,368 @@
+package modules.tree_building.suffixTree;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Builds a generalised suffix tree while the input is being read. Lines are
+ * appended to the tree's own (growing) char array as they arrive and fed to
+ * addChar() from there, so the input is never held twice and never
+ * concatenated into a single String. The resulting tree is the same as the
+ * one built from the concatenated input: the first line is taken as is,
+ * every further line is appended directly if it ends with '$' or else
+ * separated by a blank.
+ *
+ * Texts can also be appended to a tree built before (see append()).
+ *
+ * Since the memory needed by the tree grows linearly with the length of the
+ * input, a maximum text length can be set; building fails with an
+ * IllegalStateException as soon as the input exceeds it.
+ */
+public class GSTBuilder {
+
+	// Largest text length a tree can be built for (it needs up to two nodes per char)
+	public static final int MAX_TEXT_LENGTH = (Integer.MAX_VALUE - 8) / 2 - 1;
+	public static final int DEFAULT_INITIAL_CAPACITY = 64 * 1024;
+
+	private final int maxTextLength;
+	private final int initialCapacity;
+
+	private BufferedReader in;
+	private SuffixTree st;
+	// the text read if no tree is built (see readText())
+	private char[] text;
+	// number of chars read so far
+	private int length;
+	private boolean firstLine;
+	// whether texts are appended to a tree built before
+	private boolean appending;
+
+	// state of building the tree: the number of the current text, the end
+	// of its leaves and the type context end numbers still to come
+	private int nrText;
+	private NodePositionEnd oo;
+	private List<Integer> typeContextEndIndices;
+
+	public GSTBuilder() {
+		this(MAX_TEXT_LENGTH);
+	}
+
+	/**
+	 * @param maxTextLength Maximum number of chars the tree may hold (at
+	 *            most MAX_TEXT_LENGTH)
+	 */
+	public GSTBuilder(int maxTextLength) {
+		this(maxTextLength, DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * @param maxTextLength Maximum number of chars the tree may hold (at
+	 *            most MAX_TEXT_LENGTH)
+	 * @param initialCapacity Number of chars to allocate the tree for
+	 *            initially
+	 */
+	public GSTBuilder(int maxTextLength, int initialCapacity) {
+		if (maxTextLength < 0 || maxTextLength > MAX_TEXT_LENGTH)
+			throw new IllegalArgumentException("The maximum text length must be between 0 and " + MAX_TEXT_LENGTH + ".");
+		this.maxTextLength = maxTextLength;
+		this.initialCapacity = Math.max(0, Math.min(initialCapacity, maxTextLength));
+	}
+
+	public int getMaxTextLength() {
+		return maxTextLength;
+	}
+
+	/**
+	 * Reads the input and builds the generalised suffix tree from it. The
+	 * reader is closed afterwards.
+	 * @param reader Input, texts terminated by '$'
+	 * @param typeContextEndIndices Numbers of the texts ending a type
+	 *            context (may be null)
+	 * @return Generalised suffix tree
+	 * @throws Exception Thrown if the input cannot be read or exceeds the
+	 *             maximum text length
+	 */
+	public SuffixTree build(Reader reader, List<Integer> typeContextEndIndices) throws Exception {
+		this.in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+		this.st = new SuffixTree(initialCapacity);
+		this.length = 0;
+		this.firstLine = true;
+		try {
+			this.build(typeContextEndIndices);
+		} finally {
+			this.in.close();
+			this.in = null;
+		}
+		SuffixTree result = this.st;
+		this.st = null;
+		result.trimToSize();
+		return result;
+	}
+
+	/**
+	 * Appends the texts read to a tree built (or loaded) before, continuing
+	 * Ukkonen's construction where it stopped. The result is the same as the
+	 * tree built from the whole input at once, i.e. from the tree's text
+	 * followed by the lines read, with the type context end numbers of the
+	 * tree followed by the ones given.
+	 *
+	 * The texts of the tree as well as the ones appended must be terminated
+	 * by '$'. A tree built by this class is extended in place, any other one
+	 * (e.g. a MappedSuffixTree) is copied first. If appending fails, the tree
+	 * must not be used any further. The reader is closed afterwards.
+	 * @param tree Tree to append to, built by Ukkonen's algorithm
+	 * @param reader Input, texts terminated by '$'
+	 * @param typeContextEndIndices Numbers of the texts ending a type
+	 *            context, counted on from the texts in the tree (null if and
+	 *            only if the tree was built without type contexts)
+	 * @return The tree with the texts appended
+	 * @throws Exception Thrown if the input cannot be read, does not fit the
+	 *             tree or exceeds the maximum text length
+	 */
+	public SuffixTree append(BaseSuffixTree tree, Reader reader, List<Integer> typeContextEndIndices) throws Exception {
+		if ((typeContextEndIndices == null) != (tree.getCurrentTypeContext() == BaseSuffixTree.NO_TYPE_CONTEXT))
+			throw new IllegalArgumentException("Type context end numbers must be given if and only if the tree has type contexts.");
+		if (tree.position + 1 > this.maxTextLength)
+			throw new IllegalStateException("The tree exceeds the maximum text length of " + this.maxTextLength + " chars.");
+
+		this.st = tree.getClass() == SuffixTree.class ? (SuffixTree) tree : new SuffixTree(tree);
+		if (st.position >= 0 && st.text[st.position] != '$')
+			throw new IllegalArgumentException("The last text of the tree is not terminated by '$'.");
+		this.in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+		this.length = st.position + 1;
+		// the lines read continue the tree's input
+		this.firstLine = this.length == 0;
+		this.appending = true;
+		try {
+			this.append(typeContextEndIndices);
+		} finally {
+			this.in.close();
+			this.in = null;
+			this.appending = false;
+		}
+		SuffixTree result = this.st;
+		this.st = null;
+		result.trimToSize();
+		return result;
+	}
+
+	private void build(List<Integer> typeContextEndIndices) throws Exception {
+		this.nrText = 0;
+		this.oo = st.newEnd();// end value for leaves; is changed if final '$' is reached
+							  // generate new st.OO for next text
+
+		// set the beginning of the first text to first letter of the input
+		st.setTextBegin(0, 0);
+
+		this.typeContextEndIndices = null;
+		if (typeContextEndIndices != null) {
+			// copy the list to not harm the input
+			this.typeContextEndIndices = new LinkedList<Integer>(typeContextEndIndices);
+			// initialise the type context numbers
+			st.incrementTypeContext();
+		}
+
+		this.addChars(0);
+		this.checkTypeContextsHandled();
+	}
+
+	private void append(List<Integer> typeContextEndIndices) throws Exception {
+		// an empty tree has noted the begin of its first text already
+		this.nrText = st.position < 0 ? 0 : st.textNrsAmount();
+		// the end created after the tree's last text was closed
+		this.oo = st.getEnd();
+
+		this.typeContextEndIndices = null;
+		if (typeContextEndIndices != null) {
+			this.typeContextEndIndices = new LinkedList<Integer>(typeContextEndIndices);
+			// the type context following the tree's last text has been entered already
+			if (!this.typeContextEndIndices.isEmpty() && this.typeContextEndIndices.get(0) <= this.nrText)
+				throw new IllegalArgumentException("The type context end numbers must be greater than the number of texts in the tree ("
+						+ this.nrText + ").");
+		}
+
+		int i = st.position;
+		// enter the first text appended as if it followed the tree's last '$' in the input
+		if (i >= 0) {
+			final int next = this.enterText(i);
+			i = next > i && st.text[next] == '$' ? this.terminate(next) : next;
+		}
+		this.addChars(i + 1);
+		this.checkTypeContextsHandled();
+	}
+
+	/**
+	 * Adds the chars from the given index on to the tree.
+	 */
+	private void addChars(int i) throws Exception {
+		for (; this.available(i); i++) {
+			st.addChar(st.text[i], nrText);
+			if (st.text[i] == '$')
+				i = this.terminate(i);
+		}
+	}
+
+	/**
+	 * Closes the text ending with the '$' at the given index and enters the
+	 * following one.
+	 * @return Index of the last char handled
+	 */
+	private int terminate(int i) throws Exception {
+		// loop as completely repeated texts are possible
+		do {
+			// set value for end in leaves
+			oo.val = i + 1;
+			// generate new element for next text
+			oo = st.newEnd();
+
+			nrText++;
+			// Handle incrementing of type contexts if provided
+			if (typeContextEndIndices != null) {
+				GST.incrementTypeContexts(st, typeContextEndIndices, nrText);
+			}
+
+			final int next = this.enterText(i);
+			// res must be greater 0; otherwise endless loop
+			if (next == i)
+				return i;
+			i = next;
+		} while (st.text[i] == '$');
+		return i;
+	}
+
+	/**
+	 * Notes the beginning of the text following the '$' at the given index and
+	 * skips those of its first chars which the tree already holds as a path.
+	 * If that is the whole text (i.e. it is a complete repeat of a precedent
+	 * text), its suffixes are counted, as addChar won't be called for them.
+	 * @return Index of the last char skipped (i if none)
+	 */
+	private int enterText(int i) throws Exception {
+		// note the beginning of the whole next text in the tree
+		if (this.available(i + 1)) {
+			st.setTextBegin(nrText, i + 1);
+		}
+
+		int end = this.findTerminator(i + 1);
+		// input end not reached
+		if (end > i) {
+			int res = st.longestPath(new String(st.text, i + 1, end - i), st.root);
+			st.remainder = res; // see addChar, remainder corresponds
+			//					   to longest length of label to implicit node
+			// the chars matched are already in place in st.text, only the position has to follow
+			st.position += res;
+
+			if ((res != 0) && (st.text[i + res] == '$')) {
+				st.addRemaining(nrText);
+			}
+			return i + res;
+		} else if (this.appending && this.available(i + 1)) {
+			// the tree could not be continued after an unterminated text once it is copied
+			throw new IllegalArgumentException("Text " + nrText + " appended is not terminated by '$'.");
+		}
+		return i;
+	}
+
+	private void checkTypeContextsHandled() {
+		if (typeContextEndIndices != null && !typeContextEndIndices.isEmpty()) {
+			throw new IllegalStateException(
+					"Some type context end numbers were not handled. First remaining textNr: " + typeContextEndIndices.get(0));
+		}
+	}
+
+	/**
+	 * Reads lines until the char at the given index is available.
+	 * @param index Index in the text
+	 * @return False if the input ends before
+	 */
+	private boolean available(int index) throws Exception {
+		while (index >= this.length) {
+			if (!this.readLine())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the next '$' at or after the given index, reading further lines
+	 * if necessary.
+	 * @param start Index to start searching at
+	 * @return Index or -1 if the input ends without another '$'
+	 */
+	private int findTerminator(int start) throws Exception {
+		int i = start;
+		while (this.available(i)) {
+			if (st.text[i] == '$')
+				return i;
+			i++;
+		}
+		return -1;
+	}
+
+	/**
+	 * Appends the next line of the input to the text.
+	 * @return False if the input has ended
+	 */
+	private boolean readLine() throws Exception {
+		String line = this.in.readLine();
+		if (line == null)
+			return false;
+		boolean separate = !this.firstLine && (line.isEmpty() || line.charAt(line.length() - 1) != '$');
+		this.firstLine = false;
+		int newLength = this.length + line.length() + (separate ? 1 : 0);
+		if (newLength > this.maxTextLength || newLength < 0)
+			throw new IllegalStateException("The input exceeds the maximum text length of " + this.maxTextLength
+					+ " chars the generalised suffix tree may hold.");
+		final char[] buffer = this.reserve(newLength);
+		if (separate)
+			buffer[this.length++] = ' ';
+		line.getChars(0, line.length(), buffer, this.length);
+		this.length = newLength;
+		return true;
+	}
+
+	/**
+	 * Makes room for the given number of chars in the text (the tree's own
+	 * text while building a tree).
+	 * @return The text
+	 */
+	private char[] reserve(int length) {
+		if (this.st != null) {
+			st.ensureCapacity(length, this.maxTextLength);
+			return st.text;
+		}
+		if (length > this.text.length)
+			this.text = Arrays.copyOf(this.text, (int) Math.min(this.maxTextLength, Math.max(length, this.text.length * 2l)));
+		return this.text;
+	}
+
+	/**
+	 * Reads the whole input into a char array, joining the lines the same way
+	 * build() does, but without building a tree. The reader is closed
+	 * afterwards.
+	 * @param reader Input, texts terminated by '$'
+	 * @return Text
+	 * @throws Exception Thrown if the input cannot be read or exceeds the
+	 *             maximum text length
+	 */
+	public char[] readText(Reader reader) throws Exception {
+		this.in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+		this.text = new char[initialCapacity];
+		this.length = 0;
+		this.firstLine = true;
+		try {
+			while (this.readLine())
+				;
+		} finally {
+			this.in.close();
+			this.in = null;
+		}
+		final char[] result = Arrays.copyOf(this.text, this.length);
+		this.text = null;
+		return result;
+	}
+
+}
@@ -0,0 +1,407 @@
+package modules.tree_building.suffixTree;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A generalised suffix array with LCP array over the same text (and text
+ * begins, type contexts) GST.buildGST() builds a generalised suffix tree
+ * for. It needs a fraction of the tree's memory and is built in linear
+ * time: the suffix array by induced sorting (SA-IS, Nong, Zhang & Chan
+ * 2009), the LCP array by Kasai et al.'s algorithm.
+ *
+ * Like the tree's paths, suffixes only count up to (and including) the '$'
+ * ending their text, i.e. the LCP of two suffixes never reaches into the
+ * following text. SuffixArrayTree presents the LCP interval tree over these
+ * arrays as a BaseSuffixTree, so the tree walker and its listeners can work
+ * on it.
+ */
+public class GeneralisedSuffixArray {
+
+	private final char[] text;
+	// index of the first char of each text
+	private final int[] textBegins;
+	// type context of each text, NO_TYPE_CONTEXT if none were given
+	private final int[] typeContexts;
+	private final int typeContextsAmount;
+
+	// suffix array and LCP array, lcp[i] being the length of the common
+	// prefix of the suffixes at sa[i - 1] and sa[i] (lcp[0] is 0)
+	private final int[] sa;
+	private final int[] lcp;
+
+	/**
+	 * Reads the input the same way GSTBuilder does and builds the suffix
+	 * array for it.
+	 * @param reader Input, texts terminated by '$'
+	 * @param typeContextEndIndices Numbers of the texts ending a type
+	 *            context (may be null)
+	 * @param maxTextLength Maximum number of chars to read
+	 * @return Suffix array
+	 * @throws Exception Thrown if the input cannot be read or exceeds the
+	 *             maximum text length
+	 */
+	public static GeneralisedSuffixArray build(Reader reader, List<Integer> typeContextEndIndices, int maxTextLength)
+			throws Exception {
+		return new GeneralisedSuffixArray(new GSTBuilder(maxTextLength).readText(reader), typeContextEndIndices);
+	}
+
+	/**
+	 * @param text Texts, each terminated by '$'
+	 * @param typeContextEndIndices Numbers of the texts ending a type
+	 *            context (may be null)
+	 */
+	public GeneralisedSuffixArray(char[] text, List<Integer> typeContextEndIndices) {
+		this.text = text;
+
+		// note the text begins and type contexts the way GST.buildGST() does
+		int texts = 1;
+		for (int i = 0; i < text.length - 1; i++) {
+			if (text[i] == '$')
+				texts++;
+		}
+		this.textBegins = new int[texts];
+		this.typeContexts = new int[texts];
+		int typeContext = BaseSuffixTree.NO_TYPE_CONTEXT;
+		if (typeContextEndIndices != null) {
+			// copy the list to not harm the input
+			typeContextEndIndices = new LinkedList<Integer>(typeContextEndIndices);
+			typeContext = 0;
+		}
+		int nrText = 0;
+		this.typeContexts[0] = typeContext;
+		for (int i = 0; i < text.length; i++) {
+			if (text[i] != '$')
+				continue;
+			nrText++;
+			if (typeContextEndIndices != null) {
+				if (typeContextEndIndices.isEmpty())
+					throw new IllegalStateException("No type context to set at text: " + nrText);
+				if (typeContextEndIndices.get(0) == nrText) {
+					typeContext++;
+					typeContextEndIndices.remove(0);
+				}
+			}
+			if (nrText < texts) {
+				this.textBegins[nrText] = i + 1;
+				this.typeContexts[nrText] = typeContext;
+			}
+		}
+		if (typeContextEndIndices != null && !typeContextEndIndices.isEmpty()) {
+			throw new IllegalStateException(
+					"Some type context end numbers were not handled. First remaining textNr: " + typeContextEndIndices.get(0));
+		}
+		this.typeContextsAmount = typeContext == BaseSuffixTree.NO_TYPE_CONTEXT ? 0 : typeContext;
+
+		this.sa = suffixArray(text);
+		this.lcp = this.lcpArray();
+		this.sortEqualSuffixes();
+	}
+
+	/**
+	 * Suffixes of different texts that are equal up to the end of their
+	 * texts are ordered by the chars following them in the input. Order them
+	 * by position instead, as the positions of the leaf they share in the
+	 * tree are. This changes no LCP value.
+	 */
+	private void sortEqualSuffixes() {
+		int first = 0;
+		for (int i = 1; i <= sa.length; i++) {
+			if (i < sa.length && lcp[i] == this.getTextEnd(sa[i]) - sa[i])
+				continue;
+			if (i - first > 1)
+				Arrays.sort(sa, first, i);
+			first = i;
+		}
+	}
+
+	// ----- accessors -----
+
+	char[] text() {
+		return text;
+	}
+
+	public int length() {
+		return text.length;
+	}
+
+	public int getSuffix(int i) {
+		return sa[i];
+	}
+
+	public int getLcp(int i) {
+		return lcp[i];
+	}
+
+	public int textNrsAmount() {
+		return textBegins.length;
+	}
+
+	public int getTextBegin(int textNr) {
+		return textBegins[textNr];
+	}
+
+	public int getTypeContextsAmount() {
+		return typeContextsAmount;
+	}
+
+	/**
+	 * @param position Index in the text
+	 * @return The number of the text the index is in
+	 */
+	public int getTextNr(int position) {
+		int i = Arrays.binarySearch(textBegins, position);
+		return i >= 0 ? i : -i - 2;
+	}
+
+	public int getTypeContext(int textNr) {
+		return typeContexts[textNr];
+	}
+
+	/**
+	 * @param position Index in the text
+	 * @return The index following the '$' that ends the text the index is in
+	 */
+	public int getTextEnd(int position) {
+		final int textNr = this.getTextNr(position);
+		return textNr + 1 < textBegins.length ? textBegins[textNr + 1] : text.length;
+	}
+
+	// ----- search -----
+
+	/**
+	 * Checks if the pattern is a path (maybe partial) in the corresponding
+	 * generalised suffix tree, i.e. if it occurs in a text (it may end with
+	 * the text's '$', but not reach beyond).
+	 * @param pattern Pattern
+	 * @return True if found
+	 */
+	public boolean findPattern(String pattern) {
+		if (pattern == null || pattern.length() == 0)
+			return false;
+		return this.longestPath(pattern) == pattern.length();
+	}
+
+	/**
+	 * @param pattern Pattern
+	 * @return The length of the longest prefix of the pattern that occurs in
+	 *         a text
+	 */
+	public int longestPath(String pattern) {
+		int lo = 0;
+		int hi = text.length;
+		int depth = 0;
+		while (depth < pattern.length() && lo < hi) {
+			final char c = pattern.charAt(depth);
+			// the suffixes in [lo, hi) share the first depth chars, so they
+			// are sorted by the char at depth (suffixes ending before first)
+			final int from = this.firstWithCharAtLeast(lo, hi, depth, c);
+			final int to = this.firstWithCharAtLeast(from, hi, depth, c + 1);
+			if (from == to)
+				break;
+			lo = from;
+			hi = to;
+			depth++;
+		}
+		return depth;
+	}
+
+	// returns the char at offset depth of the suffix, -1 if the suffix ends before
+	private int charAt(int suffix, int depth) {
+		final int i = suffix + depth;
+		return i < this.getTextEnd(suffix) ? text[i] : -1;
+	}
+
+	private int firstWithCharAtLeast(int lo, int hi, int depth, int c) {
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (this.charAt(sa[mid], depth) < c)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	// ----- construction -----
+
+	/**
+	 * Kasai et al.'s LCP construction, with each LCP cut off at the end of
+	 * the text the suffixes start in.
+	 */
+	private int[] lcpArray() {
+		final int n = text.length;
+		final int[] rank = new int[n];
+		for (int i = 0; i < n; i++)
+			rank[sa[i]] = i;
+		final int[] lcp = new int[n];
+		int h = 0;
+		int textNr = 0;
+		int textEnd = this.getTextEnd(0);
+		for (int p = 0; p < n; p++) {
+			if (p >= textEnd) {
+				textNr++;
+				textEnd = textNr + 1 < textBegins.length ? textBegins[textNr + 1] : n;
+			}
+			final int r = rank[p];
+			if (r == 0) {
+				h = 0;
+				continue;
+			}
+			final int q = sa[r - 1];
+			while (p + h < n && q + h < n && text[p + h] == text[q + h])
+				h++;
+			// a common prefix reaching beyond p's '$' reaches beyond q's as well
+			lcp[r] = Math.min(h, textEnd - p);
+			if (h > 0)
+				h--;
+		}
+		return lcp;
+	}
+
+	/**
+	 * @param text Text
+	 * @return The suffix array of the text
+	 */
+	static int[] suffixArray(char[] text) {
+		final int n = text.length;
+		if (n == 0)
+			return new int[0];
+
+		// reduce the alphabet to the chars used, 0 is the sentinel
+		final int[] rank = new int[Character.MAX_VALUE + 1];
+		for (char c : text)
+			rank[c] = 1;
+		int k = 1;
+		for (int c = 0; c < rank.length; c++) {
+			if (rank[c] != 0)
+				rank[c] = k++;
+		}
+		final int[] s = new int[n + 1];
+		for (int i = 0; i < n; i++)
+			s[i] = rank[text[i]];
+
+		final int[] sa = new int[n + 1];
+		sais(s, sa, n + 1, k);
+		// the sentinel's suffix is the first
+		return Arrays.copyOfRange(sa, 1, n + 1);
+	}
+
+	/**
+	 * Induced sorting of the suffixes of s, which has to end on a unique
+	 * smallest symbol 0.
+	 * @param s Symbols (0 to k - 1)
+	 * @param sa Suffix array to fill (n entries)
+	 * @param n Length of s
+	 * @param k Size of the alphabet
+	 */
+	private static void sais(int[] s, int[] sa, int n, int k) {
+		// classify the suffixes as S-type (true) or L-type (false)
+		final boolean[] t = new boolean[n];
+		t[n - 1] = true;
+		for (int i = n - 2; i >= 0; i--)
+			t[i] = s[i] < s[i + 1] || (s[i] == s[i + 1] && t[i + 1]);
+
+		// sort the LMS substrings
+		final int[] bucket = new int[k];
+		buckets(s, bucket, n, k, true);
+		Arrays.fill(sa, 0, n, -1);
+		for (int i = 1; i < n; i++) {
+			if (isLMS(t, i))
+				sa[--bucket[s[i]]] = i;
+		}
+		induce(s, sa, t, bucket, n, k);
+
+		// compact the sorted LMS substrings into the front of sa and name them
+		int n1 = 0;
+		for (int i = 0; i < n; i++) {
+			if (isLMS(t, sa[i]))
+				sa[n1++] = sa[i];
+		}
+		Arrays.fill(sa, n1, n, -1);
+		int name = 0;
+		int previous = -1;
+		for (int i = 0; i < n1; i++) {
+			final int pos = sa[i];
+			boolean differs = false;
+			for (int d = 0; d < n; d++) {
+				if (previous == -1 || s[pos + d] != s[previous + d] || t[pos + d] != t[previous + d]) {
+					differs = true;
+					break;
+				} else if (d > 0 && (isLMS(t, pos + d) || isLMS(t, previous + d))) {
+					break;
+				}
+			}
+			if (differs) {
+				name++;
+				previous = pos;
+			}
+			// LMS positions are at least two apart, so pos / 2 is unique
+			sa[n1 + pos / 2] = name - 1;
+		}
+		for (int i = n - 1, j = n - 1; i >= n1; i--) {
+			if (sa[i] >= 0)
+				sa[j--] = sa[i];
+		}
+
+		// sort the reduced problem, recursively if the names are not unique
+		final int[] s1 = Arrays.copyOfRange(sa, n - n1, n);
+		final int[] sa1 = new int[n1];
+		if (name < n1) {
+			sais(s1, sa1, n1, name);
+		} else {
+			for (int i = 0; i < n1; i++)
+				sa1[s1[i]] = i;
+		}
+
+		// induce the order of all suffixes from the sorted LMS suffixes
+		for (int i = 1, j = 0; i < n; i++) {
+			if (isLMS(t, i))
+				s1[j++] = i;
+		}
+		for (int i = 0; i < n1; i++)
+			sa1[i] = s1[sa1[i]];
+		buckets(s, bucket, n, k, true);
+		Arrays.fill(sa, 0, n, -1);
+		for (int i = n1 - 1; i >= 0; i--) {
+			final int j = sa1[i];
+			sa[--bucket[s[j]]] = j;
+		}
+		induce(s, sa, t, bucket, n, k);
+	}
+
+	private static boolean isLMS(boolean[] t, int i) {
+		return i > 0 && t[i] && !t[i - 1];
+	}
+
+	// computes the start (or end) of each symbol's bucket
+	private static void buckets(int[] s, int[] bucket, int n, int k, boolean ends) {
+		Arrays.fill(bucket, 0, k, 0);
+		for (int i = 0; i < n; i++)
+			bucket[s[i]]++;
+		int sum = 0;
+		for (int i = 0; i < k; i++) {
+			sum += bucket[i];
+			bucket[i] = ends ? sum : sum - bucket[i];
+		}
+	}
+
+	// induces the L-type suffixes from left to right, then the S-type ones from right to left
+	private static void induce(int[] s, int[] sa, boolean[] t, int[] bucket, int n, int k) {
+		buckets(s, bucket, n, k, false);
+		for (int i = 0; i < n; i++) {
+			final int j = sa[i] - 1;
+			if (j >= 0 && !t[j])
+				sa[bucket[s[j]]++] = j;
+		}
+		buckets(s, bucket, n, k, true);
+		for (int i = n - 1; i >= 0; i--) {
+			final int j = sa[i] - 1;
+			if (j >= 0 && t[j])
+				sa[--bucket[s[j]]] = j;
+		}
+	}
+
+}
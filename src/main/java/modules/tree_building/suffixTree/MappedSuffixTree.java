@@ -0,0 +1,607 @@
+package modules.tree_building.suffixTree;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A generalised suffix tree read from an index file written by write(). The
+ * file is memory-mapped, so loading it neither rebuilds the tree nor copies
+ * it onto the heap: the text, the node arrays, suffix links, positions and
+ * text begins are all read from the mapping when asked for. The tree can be
+ * walked, printed and searched like the one it was written from, but not be
+ * extended.
+ *
+ * The file starts with a header of HEADER_SIZE bytes (big endian):
+ *
+ * <pre>
+ * int  MAGIC
+ * int  VERSION
+ * int  length of the text
+ * int  number of nodes
+ * int  number of texts
+ * int  current type context (or NO_TYPE_CONTEXT)
+ * int  number of positions
+ * int  flags (FLAG_SUFFIX_LINKS)
+ * long checksum of the source (see sourceChecksum())
+ * long CRC32 of everything following the header
+ * </pre>
+ *
+ * followed by the text (chars), the text begins, then first child, next
+ * sibling and suffix link of every node (ints, indexed by node number from
+ * 0), the index of every node's first position (one more than nodes to
+ * mark the end) and the positions themselves (start, end, textNr and type
+ * context each). Each of these sections is mapped in chunks of up to
+ * CHUNK_SIZE bytes, so they may be larger than a single buffer can hold.
+ */
+public class MappedSuffixTree extends SuffixTree {
+
+	public static final int MAGIC = 0x47535449; // "GSTI"
+	public static final int VERSION = 2;
+	public static final int HEADER_SIZE = 48;
+
+	private static final int POSITION_FIELDS = 4;
+
+	// Flag marking a tree with suffix links (see BaseSuffixTree.hasSuffixLinks())
+	private static final int FLAG_SUFFIX_LINKS = 1;
+
+	// Size of the chunks a section is mapped in (a multiple of the size of ints and chars)
+	private static final int CHUNK_BITS = 30;
+	private static final long CHUNK_SIZE = 1l << CHUNK_BITS;
+	private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final int nodeAmount;
+	private final long sourceChecksum;
+	private final boolean suffixLinks;
+
+	private final Section textSection;
+	private final Section firstChild;
+	private final Section nextSibling;
+	private final Section link;
+	private final Section positionOffsets;
+	private final Section positions;
+
+	private MappedSuffixTree(FileChannel channel, boolean verify, boolean map) throws IOException {
+		super(0);
+		final Header header = new Header(channel);
+		this.nodeAmount = header.nodeAmount;
+		this.sourceChecksum = header.sourceChecksum;
+		this.suffixLinks = header.hasSuffixLinks();
+
+		final long[] sizes = { 2l * header.length, 4l * header.texts, 4l * (nodeAmount + 1), 4l * (nodeAmount + 1),
+				4l * (nodeAmount + 1), 4l * (nodeAmount + 2), 4l * POSITION_FIELDS * header.positionsAmount };
+		long size = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			if (sizes[i] < 0 || HEADER_SIZE + size + sizes[i] > channel.size())
+				throw new IOException("The index file is truncated.");
+			size += sizes[i];
+		}
+		// a damaged file is not mapped at all, its mapping would only be released by the garbage collector
+		if (verify && map && checksum(channel, HEADER_SIZE, size) != header.checksum)
+			throw new IOException("The checksum of the suffix tree index does not match, the file is damaged.");
+
+		final Section[] sections = new Section[sizes.length];
+		long offset = HEADER_SIZE;
+		for (int i = 0; i < sizes.length; i++) {
+			sections[i] = new Section(channel, offset, sizes[i], map);
+			offset += sizes[i];
+		}
+		if (verify && !map) {
+			final CRC32 crc = new CRC32();
+			for (Section section : sections) {
+				for (ByteBuffer chunk : section.chunks)
+					crc.update(chunk.duplicate());
+			}
+			if (crc.getValue() != header.checksum)
+				throw new IOException("The checksum of the suffix tree index does not match, the file is damaged.");
+		}
+
+		this.textSection = sections[0];
+		this.firstChild = sections[2];
+		this.nextSibling = sections[3];
+		this.link = sections[4];
+		this.positionOffsets = sections[5];
+		this.positions = sections[6];
+
+		this.position = header.length - 1;
+		this.currentNode = nodeAmount;
+		for (int i = 0; i < header.texts; i++)
+			this.setTextBegin(i, sections[1].getInt(i));
+		if (header.typeContext != NO_TYPE_CONTEXT) {
+			while (this.getCurrentTypeContext() < header.typeContext)
+				this.incrementTypeContext();
+		}
+	}
+
+	// computes the CRC32 of size bytes of the channel from offset on, reading them
+	private static long checksum(FileChannel channel, long offset, long size) throws IOException {
+		final CRC32 crc = new CRC32();
+		final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+		final long end = offset + size;
+		for (long position = offset; position < end;) {
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), end - position));
+			final int read = channel.read(buffer, position);
+			if (read < 0)
+				throw new IOException("The index file is truncated.");
+			buffer.flip();
+			crc.update(buffer);
+			position += read;
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Maps the index file and checks its checksum.
+	 * @param file Index file written by write()
+	 * @return The tree
+	 * @throws IOException Thrown if the file cannot be read, is of another
+	 *             version or is damaged
+	 */
+	public static MappedSuffixTree load(File file) throws IOException {
+		return load(file, true);
+	}
+
+	/**
+	 * Maps the index file.
+	 * @param file Index file written by write()
+	 * @param verify Whether to check the checksum (which reads the whole file)
+	 * @return The tree
+	 * @throws IOException Thrown if the file cannot be read, is of another
+	 *             version or is damaged
+	 */
+	public static MappedSuffixTree load(File file, boolean verify) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			// the mappings stay valid after the channel is closed
+			return new MappedSuffixTree(in.getChannel(), verify, true);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads the index file into memory instead of mapping it and checks its
+	 * checksum. Unlike a mapped tree, the tree read holds nothing of the
+	 * file, so the file can be replaced while the tree is used (e.g. by the
+	 * tree with further texts appended to this one).
+	 * @param file Index file written by write()
+	 * @return The tree
+	 * @throws IOException Thrown if the file cannot be read, is of another
+	 *             version or is damaged
+	 */
+	public static MappedSuffixTree read(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			return new MappedSuffixTree(in.getChannel(), true, false);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads the header of the index file only, neither mapping nor checking
+	 * the rest of it.
+	 * @param file Index file written by write()
+	 * @return Header
+	 * @throws IOException Thrown if the file cannot be read or is of another
+	 *             version
+	 */
+	public static Header readHeader(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			return new Header(in.getChannel());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes a tree to an index file (replacing it once complete). A tree
+	 * loaded from the file before keeps its mapping of the old file until it
+	 * is garbage collected (which Java offers no way to release earlier), so
+	 * the file cannot be replaced on Windows while such a tree may still be
+	 * around; trees that are to be written back should be read() instead.
+	 * @param tree Tree
+	 * @param file Index file
+	 * @param sourceChecksum Checksum of what the tree was built from (see
+	 *            sourceChecksum()), kept in the header
+	 * @throws IOException Thrown if the file cannot be written or the tree
+	 *             has more positions than the index can take
+	 */
+	public static void write(BaseSuffixTree tree, File file, long sourceChecksum) throws IOException {
+		final int nodes = tree.getNodeAmount();
+		final int length = tree.position + 1;
+
+		// the positions are numbered by int (see the header), fail before writing anything
+		long positionsTotal = 0;
+		for (int node = NodeStore.NONE + 1; node <= nodes; node++)
+			positionsTotal += tree.nodePositionsAmount(node);
+		if (positionsTotal > Integer.MAX_VALUE)
+			throw new IOException("The suffix tree has too many positions (" + positionsTotal + ") to be written to an index.");
+
+		final File temp = new File(file.getAbsoluteFile().getParentFile(),
+				file.getName() + "." + UUID.randomUUID() + ".tmp");
+
+		boolean written = false;
+		try {
+			final CRC32 crc = new CRC32();
+			int positionsAmount = 0;
+			final FileOutputStream fileOut = new FileOutputStream(temp);
+			try {
+				// the header is written once the body (and thus its checksum) is complete
+				fileOut.write(new byte[HEADER_SIZE]);
+				final DataOutputStream out = new DataOutputStream(
+						new BufferedOutputStream(new CheckedOutputStream(fileOut, crc), 64 * 1024));
+				for (int i = 0; i < length; i++)
+					out.writeChar(tree.charAt(i));
+				for (int i = 0; i < tree.textNrsAmount(); i++)
+					out.writeInt(tree.getTextBegin(i));
+
+				final int[] firstChild = new int[nodes + 1];
+				final int[] nextSibling = new int[nodes + 1];
+				for (int node = NodeStore.NONE + 1; node <= nodes; node++) {
+					final int[] children = tree.getChildren(node);
+					for (int i = 0; i < children.length; i++) {
+						if (i == 0)
+							firstChild[node] = children[i];
+						else
+							nextSibling[children[i - 1]] = children[i];
+					}
+				}
+				writeInts(out, firstChild);
+				writeInts(out, nextSibling);
+				for (int node = 0; node <= nodes; node++)
+					out.writeInt(node == NodeStore.NONE ? NodeStore.NONE : tree.suffixLink(node));
+
+				for (int node = 0; node <= nodes; node++) {
+					out.writeInt(positionsAmount);
+					if (node != NodeStore.NONE)
+						positionsAmount += tree.nodePositionsAmount(node);
+				}
+				out.writeInt(positionsAmount);
+				for (int node = NodeStore.NONE + 1; node <= nodes; node++) {
+					for (int pos = 0; pos < tree.nodePositionsAmount(node); pos++) {
+						out.writeInt(tree.nodeStart(node, pos));
+						out.writeInt(tree.nodeEnd(node, pos));
+						out.writeInt(tree.nodeTextNr(node, pos));
+						out.writeInt(tree.nodeTypeContext(node, pos));
+					}
+				}
+				out.flush();
+			} finally {
+				fileOut.close();
+			}
+
+			final RandomAccessFile header = new RandomAccessFile(temp, "rw");
+			try {
+				header.writeInt(MAGIC);
+				header.writeInt(VERSION);
+				header.writeInt(length);
+				header.writeInt(nodes);
+				header.writeInt(tree.textNrsAmount());
+				header.writeInt(tree.getCurrentTypeContext());
+				header.writeInt(positionsAmount);
+				header.writeInt(tree.hasSuffixLinks() ? FLAG_SUFFIX_LINKS : 0);
+				header.writeLong(sourceChecksum);
+				header.writeLong(crc.getValue());
+			} finally {
+				header.close();
+			}
+
+			// replace the index at once, it is never seen incomplete
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			written = true;
+		} finally {
+			if (!written)
+				temp.delete();
+		}
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		for (int value : values)
+			out.writeInt(value);
+	}
+
+	/**
+	 * Computes a checksum of a tree's input, to tell if an index file was
+	 * written for it.
+	 * @param text Text as read by GSTBuilder
+	 * @param typeContextEndIndices Numbers of the texts ending a type
+	 *            context (may be null)
+	 * @return Checksum
+	 */
+	public static long sourceChecksum(char[] text, List<Integer> typeContextEndIndices) {
+		final CRC32 crc = new CRC32();
+		final ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+		for (int i = 0; i < text.length; i++) {
+			if (buffer.remaining() < 2) {
+				buffer.flip();
+				crc.update(buffer);
+				buffer.clear();
+			}
+			buffer.putChar(text[i]);
+		}
+		buffer.flip();
+		crc.update(buffer);
+		// tell an empty list from none
+		crc.update(typeContextEndIndices == null ? 0 : 1);
+		if (typeContextEndIndices != null) {
+			for (int index : typeContextEndIndices) {
+				crc.update(index >>> 24);
+				crc.update(index >>> 16);
+				crc.update(index >>> 8);
+				crc.update(index);
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Computes the checksum sourceChecksum(char[], List) gives for the input
+	 * a tree was built (or appended) from.
+	 * @param tree Tree
+	 * @return Checksum
+	 */
+	public static long sourceChecksum(BaseSuffixTree tree) {
+		final char[] text = new char[tree.position + 1];
+		for (int i = 0; i < text.length; i++)
+			text[i] = tree.charAt(i);
+		return sourceChecksum(text, typeContextEndIndices(tree));
+	}
+
+	/**
+	 * Recovers the type context end numbers of the input a tree was built (or
+	 * appended) from. They are taken from the type contexts noted in the
+	 * leaves, as every suffix of a text ends at one.
+	 * @param tree Tree
+	 * @return Numbers of the texts ending a type context (null if the tree
+	 *         has no type contexts)
+	 */
+	public static List<Integer> typeContextEndIndices(BaseSuffixTree tree) {
+		if (tree.getCurrentTypeContext() == NO_TYPE_CONTEXT)
+			return null;
+		final List<Integer> typeContextEndIndices = new ArrayList<Integer>();
+		final int[] typeContexts = new int[tree.position < 0 ? 0 : tree.textNrsAmount()];
+		for (int node = tree.getRoot() + 1; node <= tree.getNodeAmount(); node++) {
+			if (!tree.isTerminal(node))
+				continue;
+			for (int pos = 0; pos < tree.nodePositionsAmount(node); pos++)
+				typeContexts[tree.nodeTextNr(node, pos)] = tree.nodeTypeContext(node, pos);
+		}
+		// a type context is entered once per text at most
+		for (int textNr = 1; textNr < typeContexts.length; textNr++) {
+			if (typeContexts[textNr] != typeContexts[textNr - 1])
+				typeContextEndIndices.add(textNr);
+		}
+		if (typeContexts.length > 0 && typeContexts[typeContexts.length - 1] != tree.getCurrentTypeContext())
+			typeContextEndIndices.add(typeContexts.length);
+		return typeContextEndIndices;
+	}
+
+	/**
+	 * @return The checksum of the source noted in the index file
+	 */
+	public long getSourceChecksum() {
+		return sourceChecksum;
+	}
+
+	// ----- read access (see BaseSuffixTree) -----
+
+	@Override
+	char charAt(int index) {
+		return textSection.getChar(index);
+	}
+
+	@Override
+	String substring(int begin, int end) {
+		return textSection.chars(begin, end).toString();
+	}
+
+	@Override
+	public String getText() {
+		return this.substring(0, this.position + 1);
+	}
+
+	@Override
+	CharSequence textSequence(int begin, int end) {
+		return textSection.chars(begin, end);
+	}
+
+	@Override
+	boolean isTerminal(int node) {
+		return firstChild.getInt(node) == NodeStore.NONE;
+	}
+
+	@Override
+	int firstChild(int node) {
+		return firstChild.getInt(node);
+	}
+
+	@Override
+	int nextSibling(int node) {
+		return nextSibling.getInt(node);
+	}
+
+	@Override
+	int child(int node, char c) {
+		// children are sorted by the first char of their edges
+		for (int child = firstChild.getInt(node); child != NodeStore.NONE; child = nextSibling.getInt(child)) {
+			final char edgeBegin = this.charAt(this.nodeStart(child, 0));
+			if (edgeBegin == c)
+				return child;
+			if (edgeBegin > c)
+				break;
+		}
+		return NodeStore.NONE;
+	}
+
+	@Override
+	int suffixLink(int node) {
+		return link.getInt(node);
+	}
+
+	@Override
+	public boolean hasSuffixLinks() {
+		return suffixLinks;
+	}
+
+	@Override
+	int nodePositionsAmount(int node) {
+		return positionOffsets.getInt(node + 1) - positionOffsets.getInt(node);
+	}
+
+	// returns the index of the position's first field
+	private long offset(int node, int pos) {
+		if (pos < 0 || pos >= this.nodePositionsAmount(node))
+			throw new IndexOutOfBoundsException("Position: " + pos + ", Amount: " + this.nodePositionsAmount(node));
+		return ((long) positionOffsets.getInt(node) + pos) * POSITION_FIELDS;
+	}
+
+	@Override
+	int nodeStart(int node, int pos) {
+		return positions.getInt(this.offset(node, pos));
+	}
+
+	@Override
+	int nodeEnd(int node, int pos) {
+		return positions.getInt(this.offset(node, pos) + 1);
+	}
+
+	@Override
+	int nodeTextNr(int node, int pos) {
+		return positions.getInt(this.offset(node, pos) + 2);
+	}
+
+	@Override
+	int nodeTypeContext(int node, int pos) {
+		return positions.getInt(this.offset(node, pos) + 3);
+	}
+
+	@Override
+	NodePosition nodePosition(int node, int pos) {
+		final long offset = this.offset(node, pos);
+		return new NodePosition(positions.getInt(offset), new NodePositionEnd(positions.getInt(offset + 1)),
+				positions.getInt(offset + 2), positions.getInt(offset + 3));
+	}
+
+	/**
+	 * The header of an index file (see above).
+	 */
+	public static final class Header {
+
+		private final int length;
+		private final int nodeAmount;
+		private final int texts;
+		private final int typeContext;
+		private final int positionsAmount;
+		private final int flags;
+		private final long sourceChecksum;
+		private final long checksum;
+
+		private Header(FileChannel channel) throws IOException {
+			final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0)
+					throw new IOException("The index file is truncated.");
+			}
+			header.flip();
+			if (header.getInt() != MAGIC)
+				throw new IOException("The file is no suffix tree index.");
+			final int version = header.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported suffix tree index version " + version + " (expected " + VERSION + ").");
+			this.length = header.getInt();
+			this.nodeAmount = header.getInt();
+			this.texts = header.getInt();
+			this.typeContext = header.getInt();
+			this.positionsAmount = header.getInt();
+			this.flags = header.getInt();
+			this.sourceChecksum = header.getLong();
+			this.checksum = header.getLong();
+		}
+
+		/**
+		 * @return The checksum of the source noted in the index file
+		 */
+		public long getSourceChecksum() {
+			return sourceChecksum;
+		}
+
+		/**
+		 * @return Whether the tree in the index file has suffix links (see
+		 *         BaseSuffixTree.hasSuffixLinks())
+		 */
+		public boolean hasSuffixLinks() {
+			return (flags & FLAG_SUFFIX_LINKS) != 0;
+		}
+	}
+
+	/**
+	 * A section of the index file, mapped (or read) in chunks of CHUNK_SIZE
+	 * bytes.
+	 */
+	private static final class Section {
+
+		private final ByteBuffer[] chunks;
+
+		private Section(FileChannel channel, long offset, long size, boolean map) throws IOException {
+			this.chunks = new ByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_BITS)];
+			for (int i = 0; i < chunks.length; i++) {
+				final long chunkOffset = (long) i << CHUNK_BITS;
+				final int chunkSize = (int) Math.min(CHUNK_SIZE, size - chunkOffset);
+				if (map) {
+					chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + chunkOffset, chunkSize);
+				} else {
+					chunks[i] = ByteBuffer.allocate(chunkSize);
+					while (chunks[i].hasRemaining()) {
+						if (channel.read(chunks[i], offset + chunkOffset + chunks[i].position()) < 0)
+							throw new IOException("The index file is truncated.");
+					}
+					chunks[i].clear();
+				}
+			}
+		}
+
+		private int getInt(long index) {
+			final long byteIndex = index * 4;
+			return chunks[(int) (byteIndex >>> CHUNK_BITS)].getInt((int) (byteIndex & CHUNK_MASK));
+		}
+
+		private char getChar(long index) {
+			final long byteIndex = index * 2;
+			return chunks[(int) (byteIndex >>> CHUNK_BITS)].getChar((int) (byteIndex & CHUNK_MASK));
+		}
+
+		// returns the chars from begin to end, a view if they are in one chunk
+		private CharSequence chars(long begin, long end) {
+			if (begin == end)
+				return "";
+			final long first = begin * 2;
+			final int chunk = (int) (first >>> CHUNK_BITS);
+			if (chunk == (int) ((end * 2 - 1) >>> CHUNK_BITS)) {
+				final ByteBuffer bytes = chunks[chunk].duplicate();
+				bytes.position((int) (first & CHUNK_MASK));
+				return bytes.asCharBuffer().subSequence(0, (int) (end - begin));
+			}
+			final char[] chars = new char[(int) (end - begin)];
+			for (int i = 0; i < chars.length; i++)
+				chars[i] = this.getChar(begin + i);
+			return new String(chars);
+		}
+	}
+
+}
@@ -0,0 +1,261 @@
+package modules.tree_building.suffixTree;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Walks a tree once for any number of listeners. The walk itself runs in the
+ * calling thread, every listener gets its own thread that is handed the
+ * entry and exit actions through a bounded queue and, after the walk, runs
+ * the listener's completion (e.g. serialising its result). So the tree is
+ * walked once, however many outputs are generated, and slow listeners only
+ * hold up the walk once their queue is full.
+ *
+ * What AbstractResultNodeStackListener notes in the nodes (path lengths and
+ * leaves) is noted once by the walk for all of them instead of by each of
+ * them, so the listeners never change the nodes concurrently.
+ *
+ * Node views (see BaseSuffixTree.getNode()) are only created if a listener
+ * reads the nodes through them; listeners reading the tree's arrays only,
+ * like the AbstractResultLeafIntervalListeners, leave the tree as it is.
+ */
+public class MultiTreeWalker {
+
+	/**
+	 * An action run in a listener's thread after the walk.
+	 */
+	public interface Completion {
+		void complete() throws Exception;
+	}
+
+	// Number of actions handed to the listeners at once
+	private static final int BATCH_SIZE = 1024;
+	// Number of batches a listener may lag behind the walk
+	public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+	// marks the end of the walk
+	private static final int[] END = new int[0];
+
+	private final BaseSuffixTree tree;
+	private final int queueCapacity;
+	private final List<Worker> workers = new ArrayList<Worker>();
+	private boolean noteNodeData = false;
+	private boolean createNodeViews = false;
+
+	// actions not yet handed to the listeners: node number and level (complemented for exit actions)
+	private int[] batch = new int[2 * BATCH_SIZE];
+	private int batchSize;
+
+	// the path to the current node and its length while noting node data
+	private Node[] path = new Node[64];
+	private int pathLength;
+
+	public MultiTreeWalker(BaseSuffixTree tree) {
+		this(tree, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * @param tree Tree to walk
+	 * @param queueCapacity Number of batches of actions a listener may lag
+	 *            behind the walk
+	 */
+	public MultiTreeWalker(BaseSuffixTree tree, int queueCapacity) {
+		if (queueCapacity < 1)
+			throw new IllegalArgumentException("The queue capacity must be at least 1.");
+		this.tree = tree;
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Adds a listener to notify on the next walk.
+	 * @param listener Listener
+	 * @param completion Action to run in the listener's thread once the walk
+	 *            is complete (may be null)
+	 */
+	public void add(ITreeWalkerListener listener, Completion completion) {
+		if (listener instanceof AbstractResultNodeStackListener) {
+			((AbstractResultNodeStackListener) listener).noteNodeData = false;
+			this.noteNodeData = true;
+		}
+		if (readsNodeViews(listener))
+			this.createNodeViews = true;
+		this.workers.add(new Worker(listener, completion));
+	}
+
+	/**
+	 * Walks the tree (depth-first) from the given node, notifying all
+	 * listeners added, and waits for them to complete.
+	 * @param startNodeNr Node to start with
+	 * @throws Exception The first exception thrown by the walk or by any
+	 *             listener or completion
+	 */
+	public void walk(int startNodeNr) throws Exception {
+		// create the node views before the listeners' threads do, if any of them needs them
+		if (createNodeViews) {
+			for (int nodeNr = tree.getRoot(); nodeNr <= tree.getNodeAmount(); nodeNr++)
+				tree.getNode(nodeNr);
+		}
+
+		final List<Thread> threads = new ArrayList<Thread>(workers.size());
+		for (Worker worker : workers) {
+			final Thread thread = new Thread(worker, "TreeWalker-" + worker.listener.getClass().getSimpleName());
+			thread.start();
+			threads.add(thread);
+		}
+
+		Exception failure = null;
+		try {
+			TreeWalker.walk(startNodeNr, tree, new Dispatcher());
+			this.flush();
+		} catch (Exception e) {
+			failure = e;
+		} finally {
+			for (Worker worker : workers)
+				worker.put(END);
+			for (Thread thread : threads) {
+				boolean interrupted = false;
+				while (thread.isAlive()) {
+					try {
+						thread.join();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				if (interrupted)
+					Thread.currentThread().interrupt();
+			}
+		}
+		if (failure != null)
+			throw failure;
+		for (Worker worker : workers) {
+			if (worker.failure != null)
+				throw worker.failure;
+		}
+	}
+
+	// whether the listener may call BaseSuffixTree.getNode(), which is not thread-safe
+	private static boolean readsNodeViews(ITreeWalkerListener listener) {
+		return !(listener instanceof AbstractResultLeafIntervalListener || listener instanceof ResultLabelListListener
+				|| listener instanceof ResultToDotListener || listener instanceof NodeFrequencies);
+	}
+
+	private void add(int nodeNr, int level) {
+		batch[batchSize++] = nodeNr;
+		batch[batchSize++] = level;
+		if (batchSize == batch.length)
+			this.flush();
+	}
+
+	private void flush() {
+		if (batchSize == 0)
+			return;
+		final int[] full = batchSize == batch.length ? batch : Arrays.copyOf(batch, batchSize);
+		for (Worker worker : workers)
+			worker.put(full);
+		batch = new int[2 * BATCH_SIZE];
+		batchSize = 0;
+	}
+
+	/**
+	 * Notes the actions for the listeners and, if needed, the node data for
+	 * them (see AbstractResultNodeStackListener).
+	 */
+	private class Dispatcher implements ITreeWalkerListener {
+
+		@Override
+		public void entryaction(int nodeNr, int level) {
+			if (noteNodeData) {
+				final Node node = tree.getNode(nodeNr);
+				pathLength += tree.nodeEdgeLength(nodeNr);
+				node.setPathLength(pathLength);
+				// create the set now, the listener's threads only read it
+				node.getLeaves();
+				if (level == path.length)
+					path = Arrays.copyOf(path, path.length * 2);
+				path[level] = node;
+			}
+			MultiTreeWalker.this.add(nodeNr, level);
+		}
+
+		@Override
+		public void exitaction(int nodeNr, int level) {
+			MultiTreeWalker.this.add(nodeNr, ~level);
+			if (noteNodeData) {
+				// the leaves go up once the listeners were handed the node,
+				// they read a node's leaves on its exit action only
+				final Node node = path[level];
+				if (level > 0)
+					AbstractResultNodeStackListener.propagateLeaves(node, path[level - 1]);
+				path[level] = null;
+				pathLength -= tree.nodeEdgeLength(nodeNr);
+			}
+		}
+	}
+
+	/**
+	 * Runs one listener on the actions handed to it.
+	 */
+	private class Worker implements Runnable {
+
+		private final ITreeWalkerListener listener;
+		private final Completion completion;
+		private final BlockingQueue<int[]> queue;
+		private volatile Exception failure;
+
+		private Worker(ITreeWalkerListener listener, Completion completion) {
+			this.listener = listener;
+			this.completion = completion;
+			this.queue = new ArrayBlockingQueue<int[]>(queueCapacity);
+		}
+
+		// hands a batch to the listener, waiting for room in its queue
+		private void put(int[] actions) {
+			boolean interrupted = false;
+			while (true) {
+				try {
+					queue.put(actions);
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+
+		@Override
+		public void run() {
+			try {
+				int[] actions;
+				while ((actions = queue.take()) != END) {
+					// after a failure, only keep the queue from blocking the walk
+					if (failure != null)
+						continue;
+					try {
+						for (int i = 0; i < actions.length; i += 2) {
+							if (actions[i + 1] >= 0)
+								listener.entryaction(actions[i], actions[i + 1]);
+							else
+								listener.exitaction(actions[i], ~actions[i + 1]);
+						}
+					} catch (Exception e) {
+						failure = e;
+					} catch (Error e) {
+						failure = new Exception(e);
+					}
+				}
+				if (failure == null && completion != null)
+					completion.complete();
+			} catch (InterruptedException e) {
+				failure = new IOException("Interrupted while walking the tree.", e);
+			} catch (Exception e) {
+				failure = e;
+			}
+		}
+	}
+
+}
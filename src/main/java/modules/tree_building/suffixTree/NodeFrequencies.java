@@ -0,0 +1,168 @@
+package modules.tree_building.suffixTree;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Counts for every node of a tree the occurrences of its path as well as the
+ * distinct texts and type contexts it occurs in, in time linear to the size
+ * of the tree.
+ *
+ * The distinct counts avoid sets of texts per node: Every occurrence is
+ * counted at its leaf and, if its text was met before at another leaf, taken
+ * back at the lowest common ancestor of both leaves. As the leaves are met in
+ * the order of the walk, summing up the counts of each subtree then counts
+ * every text once. The lowest common ancestors are found with a union-find
+ * over the nodes already left, each joined to its parent (Tarjan's offline
+ * algorithm).
+ *
+ * The counts of a node are complete once the node was left, so the counts can
+ * be read by listeners following this one in the same walk (as in
+ * ResultToGstLabelDataListener) or after walking the tree with it (see
+ * count()).
+ */
+public class NodeFrequencies implements ITreeWalkerListener {
+
+	private final BaseSuffixTree tree;
+
+	// per node: occurrences, distinct texts and distinct type contexts
+	private final int[] occurrences;
+	private final int[] texts;
+	private final int[] typeContexts;
+
+	// per node: the union-find parent, the node itself while it is on the path
+	private final int[] ancestors;
+
+	// the leaf each text and type context was last met at
+	private final int[] lastTextLeaf;
+	private int[] lastTypeContextLeaf;
+
+	// the nodes on the path to the current node by level
+	private int[] path = new int[64];
+
+	public NodeFrequencies(BaseSuffixTree tree) {
+		this.tree = tree;
+		final int size = tree.getNodeAmount() + 1;
+		this.occurrences = new int[size];
+		this.texts = new int[size];
+		this.typeContexts = new int[size];
+		this.ancestors = new int[size];
+		this.lastTextLeaf = new int[tree.textNrsAmount()];
+		// (NO_TYPE_CONTEXT is counted as a type context of its own)
+		this.lastTypeContextLeaf = new int[tree.getTypeContextsAmount() + 2];
+	}
+
+	/**
+	 * Walks the tree once to count the frequencies of all of its nodes.
+	 *
+	 * @param tree The tree
+	 * @return The frequencies
+	 * @throws IOException if the walk fails
+	 */
+	public static NodeFrequencies count(BaseSuffixTree tree) throws IOException {
+		final NodeFrequencies frequencies = new NodeFrequencies(tree);
+		TreeWalker.walk(tree.getRoot(), tree, frequencies);
+		return frequencies;
+	}
+
+	@Override
+	public void entryaction(int nodeNr, int level) {
+		if (level == path.length)
+			path = Arrays.copyOf(path, path.length * 2);
+		path[level] = nodeNr;
+		ancestors[nodeNr] = nodeNr;
+	}
+
+	@Override
+	public void exitaction(int nodeNr, int level) {
+		if (tree.isTerminal(nodeNr)) {
+			for (int p = 0; p < tree.nodePositionsAmount(nodeNr); p++) {
+				occurrences[nodeNr]++;
+
+				final int textNr = tree.nodeTextNr(nodeNr, p);
+				texts[nodeNr]++;
+				if (lastTextLeaf[textNr] != NodeStore.NONE)
+					texts[this.find(lastTextLeaf[textNr])]--;
+				lastTextLeaf[textNr] = nodeNr;
+
+				final int typeContext = tree.nodeTypeContext(nodeNr, p) + 1;
+				if (typeContext >= lastTypeContextLeaf.length)
+					lastTypeContextLeaf = Arrays.copyOf(lastTypeContextLeaf, typeContext + 1);
+				typeContexts[nodeNr]++;
+				if (lastTypeContextLeaf[typeContext] != NodeStore.NONE)
+					typeContexts[this.find(lastTypeContextLeaf[typeContext])]--;
+				lastTypeContextLeaf[typeContext] = nodeNr;
+			}
+		}
+
+		// add up the subtree in the parent and join the node to it
+		if (level > 0) {
+			final int parent = path[level - 1];
+			occurrences[parent] += occurrences[nodeNr];
+			texts[parent] += texts[nodeNr];
+			typeContexts[parent] += typeContexts[nodeNr];
+			ancestors[nodeNr] = parent;
+		}
+	}
+
+	// the lowest node on the current path the node is below of (or the node
+	// itself if it is on the path)
+	private int find(int node) {
+		int root = node;
+		while (ancestors[root] != root)
+			root = ancestors[root];
+		while (ancestors[node] != root) {
+			final int next = ancestors[node];
+			ancestors[node] = root;
+			node = next;
+		}
+		return root;
+	}
+
+	/**
+	 * @param nodeNr A node left by the walk
+	 * @return The number of occurrences of the node's path
+	 */
+	public int getOccurrences(int nodeNr) {
+		return occurrences[nodeNr];
+	}
+
+	/**
+	 * @param nodeNr A node left by the walk
+	 * @return The number of distinct texts the node's path occurs in
+	 */
+	public int getTexts(int nodeNr) {
+		return texts[nodeNr];
+	}
+
+	/**
+	 * @param nodeNr A node left by the walk
+	 * @return The number of distinct type contexts the node's path occurs in
+	 */
+	public int getTypeContexts(int nodeNr) {
+		return typeContexts[nodeNr];
+	}
+
+	/**
+	 * @return The number of occurrences by node number (not to be modified)
+	 */
+	public int[] getOccurrenceCounts() {
+		return occurrences;
+	}
+
+	/**
+	 * @return The number of distinct texts by node number (not to be modified)
+	 */
+	public int[] getTextCounts() {
+		return texts;
+	}
+
+	/**
+	 * @return The number of distinct type contexts by node number (not to be
+	 *         modified)
+	 */
+	public int[] getTypeContextCounts() {
+		return typeContexts;
+	}
+
+}
@@ -0,0 +1,287 @@
+package modules.tree_building.suffixTree;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the nodes of a suffix tree in primitive arrays indexed by node
+ * number instead of one object (holding a map of children, a list of
+ * position objects and a set of leaves) per node.
+ *
+ * Children are chained from their parent's first child through their next
+ * sibling, sorted by the first char of their edge. Looking up a child by
+ * that char goes through an open addressing hash over (parent, char).
+ *
+ * Every node is created with one position, which is kept in the start, end,
+ * textNr and typeContext arrays. Further positions (only leaves shared by
+ * several texts get those) are packed into one int[] per node.
+ *
+ * An end either is the end index itself (-1 for the root) or refers to one
+ * of the open ends (NodePositionEnd) shared by the leaves of a text while it
+ * is added.
+ *
+ * Node number 0 is never used, so 0 marks a missing node (suffix link,
+ * child, sibling).
+ */
+final class NodeStore {
+
+	static final int NONE = 0;
+
+	// Values per further position in morePositions
+	private static final int POSITION_FIELDS = 4;
+
+	private int size = 1;
+
+	int[] link;
+	int[] firstChild;
+	int[] nextSibling;
+	// first char of the edge leading to the node
+	char[] edgeChar;
+
+	int[] start;
+	int[] end;
+	int[] textNr;
+	int[] typeContext;
+	// {count, start, end, textNr, typeContext, start, end, ...} or null
+	int[][] morePositions;
+
+	// Open ends, referred to by -(index + 2)
+	private NodePositionEnd[] ends = new NodePositionEnd[4];
+	private int endsSize;
+
+	// Hash of (parent, char) to child; keys are offset by one, so 0 marks an empty slot
+	private long[] childKeys = new long[16];
+	private int[] childValues = new int[16];
+	private int childrenSize;
+
+	NodeStore(int capacity) {
+		this.allocate(Math.max(capacity, 2));
+	}
+
+	private void allocate(int capacity) {
+		link = Arrays.copyOf(link == null ? new int[0] : link, capacity);
+		firstChild = Arrays.copyOf(firstChild == null ? new int[0] : firstChild, capacity);
+		nextSibling = Arrays.copyOf(nextSibling == null ? new int[0] : nextSibling, capacity);
+		edgeChar = Arrays.copyOf(edgeChar == null ? new char[0] : edgeChar, capacity);
+		start = Arrays.copyOf(start == null ? new int[0] : start, capacity);
+		end = Arrays.copyOf(end == null ? new int[0] : end, capacity);
+		textNr = Arrays.copyOf(textNr == null ? new int[0] : textNr, capacity);
+		typeContext = Arrays.copyOf(typeContext == null ? new int[0] : typeContext, capacity);
+		morePositions = Arrays.copyOf(morePositions == null ? new int[0][] : morePositions, capacity);
+	}
+
+	/**
+	 * @return The number of the last node added
+	 */
+	int last() {
+		return size - 1;
+	}
+
+	/**
+	 * Adds a node with a single position.
+	 * @return The new node's number
+	 */
+	int add(int start, int end, int textNr, int typeContext) {
+		if (size == link.length)
+			this.allocate((int) Math.min(Integer.MAX_VALUE - 8, size + (size >> 1) + 1l));
+		int node = size++;
+		this.start[node] = start;
+		this.end[node] = end;
+		this.textNr[node] = textNr;
+		this.typeContext[node] = typeContext;
+		return node;
+	}
+
+	/**
+	 * Shrinks all arrays to the nodes added.
+	 */
+	void trimToSize() {
+		if (link.length > size)
+			this.allocate(size);
+	}
+
+	// ----- ends -----
+
+	/**
+	 * Registers an open end.
+	 * @return The value referring to it in place of an end index
+	 */
+	int addEnd(NodePositionEnd openEnd) {
+		if (endsSize == ends.length)
+			ends = Arrays.copyOf(ends, endsSize * 2);
+		ends[endsSize++] = openEnd;
+		return -(endsSize + 1);
+	}
+
+	private int resolve(int end) {
+		return end < -1 ? ends[-end - 2].val : end;
+	}
+
+	private NodePositionEnd endObject(int end) {
+		return end < -1 ? ends[-end - 2] : new NodePositionEnd(end);
+	}
+
+	// ----- positions -----
+
+	int positionsAmount(int node) {
+		return morePositions[node] == null ? 1 : 1 + morePositions[node][0];
+	}
+
+	// returns the index of the i-th further position's first value
+	private int offset(int node, int pos) {
+		if (pos < 1 || pos >= this.positionsAmount(node))
+			throw new IndexOutOfBoundsException("Position: " + pos + ", Amount: " + this.positionsAmount(node));
+		return 1 + (pos - 1) * POSITION_FIELDS;
+	}
+
+	int getStart(int node, int pos) {
+		return pos == 0 ? start[node] : morePositions[node][this.offset(node, pos)];
+	}
+
+	int getEnd(int node, int pos) {
+		return this.resolve(pos == 0 ? end[node] : morePositions[node][this.offset(node, pos) + 1]);
+	}
+
+	int getTextNr(int node, int pos) {
+		return pos == 0 ? textNr[node] : morePositions[node][this.offset(node, pos) + 2];
+	}
+
+	int getTypeContext(int node, int pos) {
+		return pos == 0 ? typeContext[node] : morePositions[node][this.offset(node, pos) + 3];
+	}
+
+	NodePosition getPosition(int node, int pos) {
+		if (pos == 0)
+			return new NodePosition(start[node], this.endObject(end[node]), textNr[node], typeContext[node]);
+		int[] positions = morePositions[node];
+		int offset = this.offset(node, pos);
+		return new NodePosition(positions[offset], this.endObject(positions[offset + 1]), positions[offset + 2],
+				positions[offset + 3]);
+	}
+
+	void addPosition(int node, int start, int end, int textNr, int typeContext) {
+		// make sure that the position added is never equal to the last position set
+		int last = this.positionsAmount(node) - 1;
+		if (this.getStart(node, last) == start && this.getEnd(node, last) == this.resolve(end)
+				&& this.getTextNr(node, last) == textNr) {
+			throw new IllegalStateException("addPos equal entry start: " + start + " end: " + this.resolve(end)
+					+ " textNr: " + textNr);
+		}
+		int[] positions = morePositions[node];
+		if (positions == null) {
+			positions = new int[1 + POSITION_FIELDS];
+		} else if (positions.length < 1 + (positions[0] + 1) * POSITION_FIELDS) {
+			positions = Arrays.copyOf(positions, 1 + positions[0] * 2 * POSITION_FIELDS);
+		}
+		int offset = 1 + positions[0] * POSITION_FIELDS;
+		positions[offset] = start;
+		positions[offset + 1] = end;
+		positions[offset + 2] = textNr;
+		positions[offset + 3] = typeContext;
+		positions[0]++;
+		morePositions[node] = positions;
+	}
+
+	// if a node is split, all of its start positions move by the length of the new parent's edge
+	void moveStarts(int node, int delta) {
+		start[node] += delta;
+		int[] positions = morePositions[node];
+		if (positions != null) {
+			for (int i = 0; i < positions[0]; i++)
+				positions[1 + i * POSITION_FIELDS] += delta;
+		}
+	}
+
+	// ----- children -----
+
+	boolean isTerminal(int node) {
+		return firstChild[node] == NONE;
+	}
+
+	int childrenAmount(int node) {
+		int amount = 0;
+		for (int child = firstChild[node]; child != NONE; child = nextSibling[child])
+			amount++;
+		return amount;
+	}
+
+	private static long key(int node, char c) {
+		return ((((long) node) << 16) | c) + 1;
+	}
+
+	private static int hash(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15l;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	/**
+	 * @return The child reached by the edge starting with c or NONE
+	 */
+	int getChild(int node, char c) {
+		long key = key(node, c);
+		int mask = childKeys.length - 1;
+		for (int i = hash(key, mask); childKeys[i] != 0; i = (i + 1) & mask) {
+			if (childKeys[i] == key)
+				return childValues[i];
+		}
+		return NONE;
+	}
+
+	/**
+	 * Sets the child reached by the edge starting with c, replacing the one
+	 * set for c before (if any).
+	 */
+	void setChild(int node, char c, int child) {
+		this.putHash(key(node, c), child);
+
+		// keep the siblings sorted
+		int previous = NONE;
+		int current = firstChild[node];
+		while (current != NONE && edgeChar[current] < c) {
+			previous = current;
+			current = nextSibling[current];
+		}
+		if (current != NONE && edgeChar[current] == c)
+			current = nextSibling[current];
+		edgeChar[child] = c;
+		nextSibling[child] = current;
+		if (previous == NONE)
+			firstChild[node] = child;
+		else
+			nextSibling[previous] = child;
+	}
+
+	private void putHash(long key, int value) {
+		int mask = childKeys.length - 1;
+		int i = hash(key, mask);
+		while (childKeys[i] != 0) {
+			if (childKeys[i] == key) {
+				childValues[i] = value;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		childKeys[i] = key;
+		childValues[i] = value;
+		// keep the load factor at or below one half
+		if (++childrenSize * 2 > childKeys.length)
+			this.rehash(childKeys.length * 2);
+	}
+
+	private void rehash(int capacity) {
+		long[] keys = childKeys;
+		int[] values = childValues;
+		childKeys = new long[capacity];
+		childValues = new int[capacity];
+		int mask = capacity - 1;
+		for (int j = 0; j < keys.length; j++) {
+			if (keys[j] == 0)
+				continue;
+			int i = hash(keys[j], mask);
+			while (childKeys[i] != 0)
+				i = (i + 1) & mask;
+			childKeys[i] = keys[j];
+			childValues[i] = values[j];
+		}
+	}
+
+}
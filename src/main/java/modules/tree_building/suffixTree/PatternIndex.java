@@ -0,0 +1,153 @@
+package modules.tree_building.suffixTree;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Answers pattern queries on a tree by the leaf intervals of its nodes (see
+ * TreeWalkState). The tree is walked once to number its leaves; the
+ * occurrences of a pattern are then the positions of the leaves in the
+ * interval of the node the pattern's path ends on, and their number is read
+ * from a running sum without visiting the leaves at all.
+ *
+ * Once built, the index only reads the tree, so queries may be answered
+ * concurrently (as long as the tree is not changed).
+ */
+public class PatternIndex {
+
+	private final BaseSuffixTree tree;
+
+	// per node: the interval of the leaves below it
+	private final int[] leavesFrom;
+	private final int[] leavesTo;
+
+	// per leaf (in the order of the walk): node number and path length
+	private final int[] leaves;
+	private final int[] leafPathLengths;
+
+	// per leaf: the number of positions of all leaves before it (one more than leaves)
+	private final int[] positionsBefore;
+
+	// the begins of the texts, to find the text of a position
+	private final int[] textBegins;
+
+	public PatternIndex(BaseSuffixTree tree) throws IOException {
+		this.tree = tree;
+		this.leavesFrom = new int[tree.getNodeAmount() + 1];
+		this.leavesTo = new int[tree.getNodeAmount() + 1];
+
+		final TreeWalkState walk = new TreeWalkState(tree);
+		TreeWalker.walk(tree.getRoot(), tree, new ITreeWalkerListener() {
+			@Override
+			public void entryaction(int nodeNr, int level) {
+				walk.enter(nodeNr);
+			}
+
+			@Override
+			public void exitaction(int nodeNr, int level) {
+				leavesFrom[nodeNr] = walk.getLeavesFrom();
+				leavesTo[nodeNr] = walk.getLeavesTo();
+				walk.exit();
+			}
+		});
+
+		final int leavesAmount = walk.getLeavesTo();
+		this.leaves = new int[leavesAmount];
+		this.leafPathLengths = new int[leavesAmount];
+		this.positionsBefore = new int[leavesAmount + 1];
+		for (int i = 0; i < leavesAmount; i++) {
+			leaves[i] = walk.getLeaf(i);
+			leafPathLengths[i] = walk.getLeafPathLength(i);
+			positionsBefore[i + 1] = positionsBefore[i] + tree.nodePositionsAmount(leaves[i]);
+		}
+
+		this.textBegins = new int[tree.textNrsAmount()];
+		for (int i = 0; i < textBegins.length; i++)
+			textBegins[i] = tree.getTextBegin(i);
+	}
+
+	// the tree queried
+	public BaseSuffixTree getTree() {
+		return tree;
+	}
+
+	/**
+	 * @param pattern Pattern
+	 * @return How often the pattern occurs in the texts
+	 */
+	public int count(CharSequence pattern) {
+		final int node = tree.findNode(pattern, tree.getRoot());
+		if (node == NodeStore.NONE)
+			return 0;
+		return positionsBefore[leavesTo[node]] - positionsBefore[leavesFrom[node]];
+	}
+
+	/**
+	 * @param pattern Pattern
+	 * @return The numbers of the texts the pattern occurs in (ascending)
+	 */
+	public int[] documents(CharSequence pattern) {
+		final int node = tree.findNode(pattern, tree.getRoot());
+		if (node == NodeStore.NONE)
+			return new int[0];
+
+		final int[] textNrs = new int[positionsBefore[leavesTo[node]] - positionsBefore[leavesFrom[node]]];
+		int n = 0;
+		for (int i = leavesFrom[node]; i < leavesTo[node]; i++) {
+			for (int p = 0; p < tree.nodePositionsAmount(leaves[i]); p++)
+				textNrs[n++] = tree.nodeTextNr(leaves[i], p);
+		}
+		Arrays.sort(textNrs);
+
+		// keep each text once
+		int distinct = 0;
+		for (int i = 0; i < n; i++) {
+			if (distinct == 0 || textNrs[distinct - 1] != textNrs[i])
+				textNrs[distinct++] = textNrs[i];
+		}
+		return Arrays.copyOf(textNrs, distinct);
+	}
+
+	/**
+	 * @param pattern Pattern
+	 * @return The positions the pattern starts at in the tree's text
+	 *         (ascending), see getTextNr() and getTextBegin() for the text
+	 *         they are in
+	 */
+	public int[] locate(CharSequence pattern) {
+		final int node = tree.findNode(pattern, tree.getRoot());
+		if (node == NodeStore.NONE)
+			return new int[0];
+
+		final int[] starts = new int[positionsBefore[leavesTo[node]] - positionsBefore[leavesFrom[node]]];
+		int n = 0;
+		for (int i = leavesFrom[node]; i < leavesTo[node]; i++) {
+			// a leaf's path is the suffix ending at each of its positions
+			for (int p = 0; p < tree.nodePositionsAmount(leaves[i]); p++)
+				starts[n++] = tree.nodeEnd(leaves[i], p) - leafPathLengths[i];
+		}
+		Arrays.sort(starts);
+		return starts;
+	}
+
+	/**
+	 * @param position Position in the tree's text
+	 * @return The number of the text holding the position
+	 */
+	public int getTextNr(int position) {
+		if (position < 0 || textBegins.length == 0 || position > tree.getTextEnd(textBegins.length - 1))
+			throw new IllegalArgumentException("No text for position: " + position + ".");
+		int i = Arrays.binarySearch(textBegins, position);
+		// the text begins before the position if the position is no begin
+		return i >= 0 ? i : -i - 2;
+	}
+
+	/**
+	 * @param textNr Text number
+	 * @return The position the text begins at in the tree's text
+	 */
+	public int getTextBegin(int textNr) {
+		return textBegins[textNr];
+	}
+
+}
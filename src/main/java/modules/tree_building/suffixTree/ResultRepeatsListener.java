@@ -0,0 +1,200 @@
+package modules.tree_building.suffixTree;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Finds the maximal or supermaximal repeats of a tree's texts in a single
+ * walk and writes those of them passing the filters as csv lines (see
+ * CSV_HEADER), each with the positions it occurs at. Only the repeats found
+ * are written, so the output grows with the result, not with the tree.
+ *
+ * A repeat is maximal if it can be extended neither to the right nor to the
+ * left without losing occurrences: It is the path of an internal node (or of
+ * a leaf reached by several texts, without the final '$') and its
+ * occurrences are preceded by at least two different chars (the begin of a
+ * text counts as a char of its own). The left chars are noted for every leaf
+ * and passed up the tree, so each node is decided in constant time.
+ *
+ * A repeat is supermaximal if it is no substring of another repeat: None of
+ * its node's children is a repeat and no two of its occurrences are preceded
+ * by the same char.
+ */
+public class ResultRepeatsListener extends AbstractResultLeafIntervalListener {
+
+	public static final String CSV_HEADER = "repeat,length,frequency,texts,occurrences";
+
+	// values of the left char of a node besides the chars themselves
+	private static final int NO_CHAR = -1;
+	private static final int DIVERSE = -2;
+
+	private final BaseSuffixTree tree;
+	private final Writer out;
+	private final boolean supermaximal;
+	private final int minLength;
+	private final int minFrequency;
+	private final int minTexts;
+
+	// the begins of the texts, to recognise the occurrences at a text's begin
+	private final int[] textBegins;
+
+	// per level on the current path: the left char of the node's occurrences
+	// found so far (or NO_CHAR or DIVERSE) and whether none of its children is
+	// a repeat
+	private int[] leftChars = new int[64];
+	private boolean[] leavesOnly = new boolean[64];
+
+	// counts the occurrences and texts of each node, ahead of this listener
+	// in the same walk
+	private final NodeFrequencies frequencies;
+
+	private int repeatsAmount = 0;
+
+	/**
+	 * @param tree Tree to walk
+	 * @param out Writer to write the repeats to (the header is not written)
+	 * @param supermaximal Whether to find the supermaximal repeats instead
+	 *            of the maximal ones
+	 * @param minLength Minimum length of the repeats written
+	 * @param minFrequency Minimum number of occurrences of the repeats written
+	 * @param minTexts Minimum number of texts the repeats written occur in
+	 */
+	public ResultRepeatsListener(BaseSuffixTree tree, Writer out, boolean supermaximal, int minLength,
+			int minFrequency, int minTexts) {
+		super(tree);
+		this.tree = tree;
+		this.out = out;
+		this.supermaximal = supermaximal;
+		// a repeat has a char and another occurrence at least
+		this.minLength = Math.max(1, minLength);
+		this.minFrequency = Math.max(2, minFrequency);
+		this.minTexts = minTexts;
+
+		this.textBegins = new int[tree.textNrsAmount()];
+		for (int i = 0; i < textBegins.length; i++)
+			textBegins[i] = tree.getTextBegin(i);
+		this.frequencies = new NodeFrequencies(tree);
+	}
+
+	@Override
+	public void entryaction(int nodeNr, int level) throws IOException {
+		frequencies.entryaction(nodeNr, level);
+		super.entryaction(nodeNr, level);
+		if (level == leftChars.length) {
+			leftChars = Arrays.copyOf(leftChars, leftChars.length * 2);
+			leavesOnly = Arrays.copyOf(leavesOnly, leavesOnly.length * 2);
+		}
+		leftChars[level] = NO_CHAR;
+		leavesOnly[level] = true;
+	}
+
+	@Override
+	public void exitaction(int nodeNr, int level) throws IOException {
+		frequencies.exitaction(nodeNr, level);
+		super.exitaction(nodeNr, level);
+	}
+
+	@Override
+	public void process(int nodeNr, TreeWalkState walk, int level) throws IOException {
+		final boolean terminal = tree.isTerminal(nodeNr);
+
+		// a leaf's occurrences give the left chars everything above is made of
+		if (terminal) {
+			for (int p = 0; p < tree.nodePositionsAmount(nodeNr); p++)
+				leftChars[level] = merge(leftChars[level], leftChar(tree.nodeEnd(nodeNr, p) - walk.getPathLength()));
+		}
+
+		if (level > 0) {
+			// a leaf's path is a repeat (without the '$') if several texts
+			// end with it and it is not its parent's path already
+			final boolean repeat = terminal ? tree.nodeEdgeLength(nodeNr) > 1 && tree.nodePositionsAmount(nodeNr) > 1
+					: true;
+			final int length = terminal ? walk.getPathLength() - 1 : walk.getPathLength();
+			final int frequency = frequencies.getOccurrences(nodeNr);
+			if (repeat && length >= minLength && frequency >= minFrequency
+					&& frequencies.getTexts(nodeNr) >= minTexts) {
+				final boolean qualifies = supermaximal ? leavesOnly[level] && distinctLeftChars(walk, frequency)
+						: leftChars[level] == DIVERSE;
+				if (qualifies)
+					this.write(walk, length, frequency, frequencies.getTexts(nodeNr));
+			}
+
+			// pass the left chars up, a parent having a repeat below it is
+			// no supermaximal repeat
+			leftChars[level - 1] = merge(leftChars[level - 1], leftChars[level]);
+			if (repeat)
+				leavesOnly[level - 1] = false;
+		}
+	}
+
+	// the char preceding the occurrence starting at the position
+	private int leftChar(int start) {
+		if (start == 0 || Arrays.binarySearch(textBegins, start) >= 0)
+			return DIVERSE;
+		return tree.charAt(start - 1);
+	}
+
+	private static int merge(int leftChar, int other) {
+		if (leftChar == NO_CHAR)
+			return other;
+		if (other == NO_CHAR)
+			return leftChar;
+		return leftChar == other ? leftChar : DIVERSE;
+	}
+
+	// whether no two occurrences of the current node are preceded by the same char
+	private boolean distinctLeftChars(TreeWalkState walk, int frequency) {
+		final int[] chars = new int[frequency];
+		int n = 0;
+		for (int i = walk.getLeavesFrom(); i < walk.getLeavesTo(); i++) {
+			final int leaf = walk.getLeaf(i);
+			for (int p = 0; p < tree.nodePositionsAmount(leaf); p++) {
+				final int leftChar = leftChar(tree.nodeEnd(leaf, p) - walk.getLeafPathLength(i));
+				// text begins differ from each other
+				chars[n] = leftChar == DIVERSE ? -1 - n : leftChar;
+				n++;
+			}
+		}
+		Arrays.sort(chars);
+		for (int i = 1; i < n; i++) {
+			if (chars[i] == chars[i - 1])
+				return false;
+		}
+		return true;
+	}
+
+	// writes the repeat of the current node
+	private void write(TreeWalkState walk, int length, int frequency, int texts) throws IOException {
+		// the occurrences by start, each with its text
+		final long[] occurrences = new long[frequency];
+		int n = 0;
+		for (int i = walk.getLeavesFrom(); i < walk.getLeavesTo(); i++) {
+			final int leaf = walk.getLeaf(i);
+			for (int p = 0; p < tree.nodePositionsAmount(leaf); p++) {
+				final int start = tree.nodeEnd(leaf, p) - walk.getLeafPathLength(i);
+				occurrences[n++] = ((long) start << 32) | tree.nodeTextNr(leaf, p);
+			}
+		}
+		Arrays.sort(occurrences);
+
+		final int start = (int) (occurrences[0] >>> 32);
+		final StringBuilder sb = new StringBuilder();
+		sb.append('"').append(tree.substring(start, start + length).replace("\"", "\"\"")).append("\",");
+		sb.append(length).append(',').append(frequency).append(',').append(texts).append(',');
+		for (int i = 0; i < occurrences.length; i++) {
+			final int textNr = (int) occurrences[i];
+			sb.append(i == 0 ? "" : " ").append(textNr).append(':')
+					.append((int) (occurrences[i] >>> 32) - textBegins[textNr]);
+		}
+		sb.append(System.lineSeparator());
+		out.write(sb.toString());
+		repeatsAmount++;
+	}
+
+	// the number of repeats written
+	public int getRepeatsAmount() {
+		return repeatsAmount;
+	}
+
+}
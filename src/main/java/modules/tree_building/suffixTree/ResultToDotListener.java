@@ -0,0 +1,91 @@
+package modules.tree_building.suffixTree;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Writes a graphviz .dot representation of the tree in a single walk. The
+ * leaves are written while walking; the internal nodes, edges and suffix
+ * links are collected and written after them by finishWriting(), giving the
+ * same output as SuffixTree.printTree().
+ */
+public class ResultToDotListener implements ITreeWalkerListener {
+
+	private final BaseSuffixTree tree;
+
+	private final PrintWriter out;
+
+	private final StringBuilder internalNodes = new StringBuilder();
+	private final StringBuilder edges = new StringBuilder();
+	private final StringBuilder suffixLinks = new StringBuilder();
+
+	// the numbers of the nodes on the current path
+	private int[] path = new int[64];
+
+	public ResultToDotListener(BaseSuffixTree tree, PrintWriter out) {
+		this.tree = tree;
+		this.out = out;
+	}
+
+	@Override
+	public void entryaction(int nodeNr, int level) throws IOException {
+		if (level == 0) {
+			out.println("digraph {");
+			out.println("\trankdir = LR;");
+			out.println("\tedge [arrowsize=0.4,fontsize=10]");
+			out.println("\tnode1 [label=\"\",style=filled,fillcolor=lightgrey,shape=circle,width=.1,height=.1];");
+			out.println("//------leaves------");
+		}
+		if (level == path.length) {
+			final int[] longer = new int[path.length * 2];
+			System.arraycopy(path, 0, longer, 0, path.length);
+			path = longer;
+		}
+		path[level] = nodeNr;
+
+		if (tree.isTerminal(nodeNr)) {
+			String positionlabel = "";
+			for (int i = 0; i < tree.nodePositionsAmount(nodeNr); i++) {
+				// textNr
+				positionlabel += "\n " + tree.nodeTextNr(nodeNr, i) + " " +
+				// anf
+						tree.nodeStart(nodeNr, i) + " " +
+						// end
+						tree.nodeEnd(nodeNr, i);
+			}
+			out.println("\tnode" + nodeNr + " [label=\"" + nodeNr + positionlabel + "\",shape=circle]");
+		} else if (level > 0) {
+			internalNodes.append("\tnode").append(nodeNr).append(" [label=\"").append(nodeNr)
+					.append("\",style=filled,fillcolor=lightgrey,shape=circle,width=.07,height=.07]")
+					.append(System.lineSeparator());
+		}
+		if (level > 0) {
+			edges.append("\tnode").append(path[level - 1]).append(" -> node").append(nodeNr).append("[label=\"")
+					.append(tree.edgeString(nodeNr)).append("\",weight=3]").append(System.lineSeparator());
+		}
+		if (tree.suffixLink(nodeNr) > 0) {
+			suffixLinks.append("\tnode").append(nodeNr).append(" -> node").append(tree.suffixLink(nodeNr))
+					.append(" [label=\"\",weight=1,style=dotted]").append(System.lineSeparator());
+		}
+	}
+
+	@Override
+	public void exitaction(int nodeNr, int level) throws IOException {
+	}
+
+	/**
+	 * Writes the parts collected while walking and closes the graph (but not
+	 * the writer).
+	 */
+	public void finishWriting() {
+		out.println("//------internal nodes------");
+		out.print(internalNodes);
+		out.println("//------edges------");
+		out.print(edges);
+		out.println("//------suffix links------");
+		out.print(suffixLinks);
+		out.println("}");
+		out.flush();
+	}
+
+}
@@ -1,12 +1,12 @@
 package modules.tree_building.suffixTree;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.Map;
 import java.util.TreeMap;
 
 import models.GstLabelData;
 
-public class ResultToGstLabelDataListener extends AbstractResultNodeStackListener {
+public class ResultToGstLabelDataListener extends AbstractResultLeafIntervalListener {
 
 	// the tree that will be iterated on with this listener
 	private final BaseSuffixTree tree;
@@ -14,24 +14,40 @@ public class ResultToGstLabelDataListener extends AbstractResultNodeStackListene
 	// a map from labels to the accompanying data
 	private final Map<String, GstLabelData> labelsToData;
 
+	// counts the occurrences, texts and type contexts of each node, ahead of
+	// this listener in the same walk
+	private final NodeFrequencies frequencies;
+
 	public ResultToGstLabelDataListener(BaseSuffixTree tree) {
 		// call parent constructor to setup and handle the node stack
 		super(tree);
 
 		this.tree = tree;
 		this.labelsToData = new TreeMap<String, GstLabelData>();
+		this.frequencies = new NodeFrequencies(tree);
 	}
 
 	@Override
-	public void process(int nodeNr, List<Node> path, int pathLength, int level) {
+	public void entryaction(int nodeNr, int level) throws IOException {
+		frequencies.entryaction(nodeNr, level);
+		super.entryaction(nodeNr, level);
+	}
+
+	@Override
+	public void exitaction(int nodeNr, int level) throws IOException {
+		frequencies.exitaction(nodeNr, level);
+		super.exitaction(nodeNr, level);
+	}
+
+	@Override
+	public void process(int nodeNr, TreeWalkState walk, int level) {
 		// ignore the root node as it does not have any label
 		if (nodeNr == tree.getRoot()) {
 			return;
 		}
 
-		// the node and label in question
-		final Node node = tree.getNode(nodeNr);
-		final String label = tree.edgeString(node);
+		// the label in question
+		final String label = tree.edgeString(nodeNr);
 
 		// if data was added for the label we want to simply add to it
 		final GstLabelData data = labelsToData.getOrDefault(label, new GstLabelData());
@@ -40,13 +56,15 @@ public class ResultToGstLabelDataListener extends AbstractResultNodeStackListene
 		// count and the leaf count
 		data.setLabel(label);
 		data.getLevels().add(level);
-		data.getChildCounts().add(node.getEdgeBegins().size());
-		data.getLeafCounts().add(node.getLeaves().size());
+		// (a leaf's interval holds the leaf itself, which is not counted)
+		final boolean terminal = tree.isTerminal(nodeNr);
+		data.getChildCounts().add(tree.childrenAmount(nodeNr));
+		data.getLeafCounts().add(terminal ? 0 : walk.getLeavesTo() - walk.getLeavesFrom());
 
 		// The parent node is the last node on the path to this node. use it to
 		// get the count of siblings for this node (other edges from the
 		// parent).
-		int siblingsCount = path.get(path.size() - 1).getEdgeBegins().size() - 1;
+		int siblingsCount = tree.childrenAmount(walk.getParent()) - 1;
 		if (siblingsCount < 0) {
 			throw new IllegalStateException("Negative numer of siblings reported for an existing node.");
 		}
@@ -54,11 +72,12 @@ public class ResultToGstLabelDataListener extends AbstractResultNodeStackListene
 
 		// The amount of occurrences is equal to the amount of positions for
 		// all leaves below the current node
-		int occurrenceCount = 0;
-		for (Node leaf : node.getLeaves()) {
-			occurrenceCount += leaf.getPositions().size();
-		}
-		data.getOccurenceCounts().add(occurrenceCount);
+		data.getOccurenceCounts().add(terminal ? 0 : frequencies.getOccurrences(nodeNr));
+
+		// the number of distinct texts and type contexts the label's path
+		// occurs in
+		data.getTextCounts().add(frequencies.getTexts(nodeNr));
+		data.getTypeContextCounts().add(frequencies.getTypeContexts(nodeNr));
 
 		// push the data back to the collection
 		labelsToData.put(label, data);
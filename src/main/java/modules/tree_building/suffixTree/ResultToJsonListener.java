@@ -1,21 +1,17 @@
 package modules.tree_building.suffixTree;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
-import java.util.List;
-import java.util.logging.Logger;
 
 import com.google.gson.stream.JsonWriter;
 
 import modules.OutputPort;
 
-public class ResultToJsonListener extends AbstractResultNodeStackListener {
-
-	private static final Logger LOGGER = Logger.getLogger(ResultToJsonListener.class.getName());
-
-	private static final String ENCODING = java.nio.charset.StandardCharsets.UTF_8.name();
+/**
+ * Writes a json representation of the tree to an output port while walking
+ * it. Every node is passed on as soon as it was processed (in blocks, see
+ * OutputPort.createWriter()), so the document is never held in memory.
+ */
+public class ResultToJsonListener extends AbstractResultLeafIntervalListener {
 
 	// the OutputPort to write to
 	private final OutputPort outputPort;
@@ -24,8 +20,7 @@ public class ResultToJsonListener extends AbstractResultNodeStackListener {
 	private final BaseSuffixTree tree;
 
 	// variables needed internally to write the Json representation
-	private final ByteArrayOutputStream outputStream;
-	private JsonWriter writer;
+	private final JsonWriter writer;
 	private boolean wroteBegin = false;
 
 	public ResultToJsonListener(BaseSuffixTree suffixTree, OutputPort outputPort) {
@@ -34,25 +29,18 @@ public class ResultToJsonListener extends AbstractResultNodeStackListener {
 		this.tree = suffixTree;
 		this.outputPort = outputPort;
 
-		this.outputStream = new ByteArrayOutputStream();
-		try {
-			this.writer = new JsonWriter(new OutputStreamWriter(this.outputStream, ENCODING));
-		} catch (UnsupportedEncodingException e) {
-			LOGGER.severe("Encoding " + ENCODING + "not supported.");
-			e.printStackTrace();
-		}
+		this.writer = new JsonWriter(outputPort.createWriter());
 		this.writer.setIndent("  ");
 	}
 
 	@Override
-	public void process(int nodeNr, List<Node> path, int pathLength, int level) throws IOException {
+	public void process(int nodeNr, TreeWalkState walk, int level) throws IOException {
 		if (!this.wroteBegin) {
 			writeBegin();
 		}
 
-		// get the node and label in question
-		final Node node = tree.getNode(nodeNr);
-		final String label = tree.edgeString(node);
+		// get the label in question
+		final String label = tree.edgeLabel(nodeNr).toString();
 
 		// output the beginning of the NodeRepresentation
 		writer.beginObject();
@@ -63,21 +51,13 @@ public class ResultToJsonListener extends AbstractResultNodeStackListener {
 		int frequency = 0;
 
 		// write patternInfo Objects: Information about the whole input pattern
-		// that the current label appeared in, as given by the node's leaves
-		// positions
+		// that the current label appeared in, as given by the positions of
+		// the node's leaves (or the node itself if it is a leaf)
 		writer.name("patternInfos").beginArray();
-		for (Node leaf : node.getLeaves()) {
-			for (NodePosition position : leaf.getPositions()) {
-				writePatternInfo(leaf, position);
-				frequency += 1;
-			}
-		}
-
-		// if the node is itself a leaf node, further patternInfos are written
-		// for it's positions
-		if (node.isTerminal()) {
-			for (NodePosition position : node.getPositions()) {
-				writePatternInfo(node, position);
+		for (int i = walk.getLeavesFrom(); i < walk.getLeavesTo(); i++) {
+			final int leaf = walk.getLeaf(i);
+			for (int p = 0; p < tree.nodePositionsAmount(leaf); p++) {
+				writePatternInfo(leaf, p, walk.getLeafPathLength(i));
 				frequency += 1;
 			}
 		}
@@ -85,21 +65,19 @@ public class ResultToJsonListener extends AbstractResultNodeStackListener {
 
 		writer.name("frequency").value(frequency);
 
-		// end writing of the NodeRepresentation and flush everything to the
-		// output port
+		// end writing of the NodeRepresentation
 		writer.endObject();
-		this.flushOutput();
 	}
 
-	private void writePatternInfo(Node leaf, NodePosition position) throws IOException {
+	private void writePatternInfo(int leaf, int position, int leafPathLength) throws IOException {
 		writer.beginObject();
 
-		writer.name("typeNr").value(position.getTypeContextNr());
-		writer.name("patternNr").value(position.getTextNr());
+		writer.name("typeNr").value(tree.nodeTypeContext(leaf, position));
+		writer.name("patternNr").value(tree.nodeTextNr(leaf, position));
 
 		// write the index of the start of the path leading to this leaf's
 		// position
-		writer.name("startPos").value(position.getEnd() - leaf.getPathLength());
+		writer.name("startPos").value(tree.nodeEnd(leaf, position) - leafPathLength);
 
 		writer.endObject();
 	}
@@ -112,15 +90,14 @@ public class ResultToJsonListener extends AbstractResultNodeStackListener {
 	 *             on error
 	 */
 	public void finishWriting() throws IOException {
+		// an empty walk still gives a complete tree
+		this.writeBegin();
+
 		// finalise the node array and object begun in writeBegin()
 		this.writer.endArray();
 		this.writer.endObject();
 
-		// write everything out
-		this.flushOutput();
-
-		// close all opened streams and ports
-		this.outputStream.close();
+		// write everything out, close the writers and the port
 		this.writer.close();
 		this.outputPort.close();
 	}
@@ -143,22 +120,8 @@ public class ResultToJsonListener extends AbstractResultNodeStackListener {
 		writer.name("nodeCount").value(tree.getNodeAmount());
 		writer.name("nodes");
 		writer.beginArray();
-		flushOutput();
 
 		wroteBegin = true;
 	}
 
-	/**
-	 * used internally to output changes in the writer's stream to the
-	 * outputPort
-	 * 
-	 * @throws IOException
-	 */
-	private void flushOutput() throws IOException {
-		writer.flush();
-		final String jsonOut = outputStream.toString(ENCODING);
-		outputPort.outputToAllCharPipes(jsonOut);
-		outputStream.reset();
-	}
-
 }
@@ -6,11 +6,14 @@ package modules.tree_building.suffixTree;
  */
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Stack;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import common.logicBits.ILogOp;
 import modules.tree_building.suffixTree.Word;
@@ -18,6 +21,9 @@ import modules.tree_building.suffixTree.Word;
 
 public class ResultToMorphListListener  implements ITreeWalkerListener{
 	
+	// debugging output (of Word as well), logged on level FINE
+	static final Logger LOGGER = Logger.getLogger(ResultToMorphListListener.class.getSimpleName());
+	
 	// the suffix tree this will work on
 	final BaseSuffixTree tree;
 	boolean inverted = true;
@@ -38,7 +44,7 @@ public class ResultToMorphListListener  implements ITreeWalkerListener{
 		this.nodeNrs = new Stack<Integer>();
 		
 		this.inverted = inverted;
-		this.nodesWholePhrases=new int[this.tree.nodes.length];
+		this.nodesWholePhrases=new int[this.tree.getNodeAmount() + 1];
 		
 		this.words = new ArrayList<Word>();
 		
@@ -171,10 +177,7 @@ public class ResultToMorphListListener  implements ITreeWalkerListener{
 					new ArrayList <BranchedStringBufferElement>();
 			BranchedStringBufferElement branchedStringElement;
 			ArrayList<BranchedStringBufferElement>branchedStringElementResultList=null;
-			System.out.print("generateSortedBranchedStringList ");
-			if(this.inverted) System.out.println("inverted");
-			else System.out.println("normal");
-			System.out.println();
+			LOGGER.fine("generateSortedBranchedStringList " + (this.inverted ? "inverted" : "normal"));
 			/* for all words generate list of branched words */
 			for (int i=0;i<this.words.size();i++){
 				Word word=this.words.get(i);
@@ -208,107 +211,97 @@ public class ResultToMorphListListener  implements ITreeWalkerListener{
 		
 		public StringBuffer resultBranchedStringElementList(ArrayList<ExtendedBranchedStringBufferElement>branchedStringElementList)
 		{
-			System.out.println("resultBranchedStringElementList");
-			int nrInserts=0,nrInsertsLeftRight=0,nrInsertsRightLeft=0;
+			LOGGER.fine("resultBranchedStringElementList");
 			StringBuffer outputBuffer= new StringBuffer();
-			char splitSign;
 			for(ExtendedBranchedStringBufferElement b:branchedStringElementList){
-				 nrInserts=0;
-				 //nrInsertsLeftRight=0;nrInsertsRightLeft=0;
-				System.out.println("resultBranchedStringElementList: "+b.stringBuffer);
-				// result is string representation of logical operation ('and'  or 'or')
-				StringBuffer result=new StringBuffer(b.stringBuffer);
-				// leftRight is element derived from suffix tree with normal (left right) input text
-				//StringBuffer leftRight=new StringBuffer(b.stringBuffer);
-				// rightLeft is element derived from suffix tree with inverted (right left) input text
-				//StringBuffer rightLeft=new StringBuffer(b.stringBuffer);
-				//int len=b.stringBuffer.length();
-				for (int i=0;i</*len */b.bitSet.length();i++){
-					if( b.bitSet.get(i)) {
-						if (b.leftRightBitSet.get(i)) {
-							if (b.rightLeftBitSet.get(i)) splitSign='|';
-							else splitSign='>';
-						} else {splitSign='<';};
-						if (i+nrInserts>result.length()) {
-							System.out.println("resultBranchedStringElementList: i: "+i+
-									" nrInserts: "+ nrInserts+ " result: "+result+ 
-								" b.stringBuffer: "+b.stringBuffer);
-						}
-						result.insert(i+nrInserts,splitSign);
-						nrInserts++;
-					};
-									
-				}
-				
-				
-				// int nrInserts=0;
-				// pipe sign | as separator; if pipe sign is inserted in string,
-				// insert must be counted (by nrInserts) to put pipe in correct position
-								
-				/*for (int i=0;i<b.bitSet.length();i++){
-					if(b.bitSet.get(i)) {
-						System.out.print('|');
-						outSbElement.insert(i+nrInserts,'|');
-						nrInserts++;
-						}
-						//else 
-						System.out.print(' ');
-					
-				} //for int i=0;i<b.bitSet.length();i++)
-				System.out.println();//System.out.println();
-				System.out.println(outSbElement);
-				*/
-				outputBuffer.append(result.append(System.getProperty("line.separator")));
+				outputBuffer.append(resultBranchedString(b).append(System.getProperty("line.separator")));
 			}
 			 return outputBuffer;
 						
 		}
 		
+		// the string of the element with the split signs of its branches inserted
+		private StringBuffer resultBranchedString(ExtendedBranchedStringBufferElement b) {
+			int nrInserts=0;
+			char splitSign;
+			if (LOGGER.isLoggable(Level.FINE))
+				LOGGER.fine("resultBranchedStringElementList: "+b.stringBuffer);
+			// result is string representation of logical operation ('and'  or 'or')
+			StringBuffer result=new StringBuffer(b.stringBuffer);
+			// leftRight is element derived from suffix tree with normal (left right) input text
+			// rightLeft is element derived from suffix tree with inverted (right left) input text
+			// pipe sign | as separator; if pipe sign is inserted in string,
+			// insert must be counted (by nrInserts) to put pipe in correct position
+			for (int i=0;i<b.bitSet.length();i++){
+				if( b.bitSet.get(i)) {
+					if (b.leftRightBitSet.get(i)) {
+						if (b.rightLeftBitSet.get(i)) splitSign='|';
+						else splitSign='>';
+					} else {splitSign='<';};
+					if (i+nrInserts>result.length() && LOGGER.isLoggable(Level.FINE)) {
+						LOGGER.fine("resultBranchedStringElementList: i: "+i+
+								" nrInserts: "+ nrInserts+ " result: "+result+ 
+							" b.stringBuffer: "+b.stringBuffer);
+					}
+					result.insert(i+nrInserts,splitSign);
+					nrInserts++;
+				};
+								
+			}
+			return result;
+		}
+		
 		public ArrayList<ExtendedBranchedStringBufferElement>logOp(ArrayList<BranchedStringBufferElement>l1,
 				ArrayList<BranchedStringBufferElement>l2, ILogOp il ) throws Exception{
 			// necessary precondition in1 and in2 contain identical strings
-			// ??toDo throw exception if not??
 			ArrayList<ExtendedBranchedStringBufferElement>resList=new ArrayList<ExtendedBranchedStringBufferElement>();
-			try {
-				for (int i=0;i<l1.size();i++){
-					// to check: new string buffer, newElement is clone of
-					// element from l1 List!!!
-					// HINT TODO??: might be useful to extend class BranchedStringBufferElement to
-					// a class BranchedStringBufferBitSourcesElement with two further bitsets, one from
-					// l1.get(i).bitSet and the second from l2.get(i).bitSet)
-					// with further information for Distance seq.
-					if (!(l1.get(i).stringBuffer.toString().equals(l2.get(i).stringBuffer.toString())))
-					
-						{System.out.println("logOp ungleiche Zeichenketten: "+
-							l1.get(i).stringBuffer+ "  "+l2.get(i).stringBuffer);
-						for (int j=0;j<l1.size();j++){
-							System.out.println(l1.get(j).stringBuffer+ "  "+l2.get(j).stringBuffer);
-						};
-						throw new Exception(l1.get(i).stringBuffer+ "  "+l2.get(i).stringBuffer);
-						};
-					BitSet resOp=il.logOperation(l1.get(i).bitSet,l2.get(i).bitSet);
-					ExtendedBranchedStringBufferElement newElement=
-							new ExtendedBranchedStringBufferElement(l1.get(i).stringBuffer,resOp,
-									l1.get(i).bitSet,l2.get(i).bitSet);
-					//newElement.firstBitSet=l1.get(i).bitSet;
-					//newElement.secondBitSet=l2.get(i).bitSet;
-					resList.add(newElement);
-					}
-				}
-				catch (Exception e){System.out.println
-				(" error in ResultTpMorphListListener.logOp: strings not equal"+
-				e.getMessage());
-				throw e;
-				}
-				
-			
-			
-			
-			
+			for (int i=0;i<l1.size();i++){
+				resList.add(logOp(l1, l2, i, il));
+			}
 			return resList;
 			
 		}
 		
+		/**
+		 * Combines the bit sets of the two lists like logOp() and writes the
+		 * result like resultBranchedStringElementList(), but one element at a
+		 * time as it is combined, without collecting the combined elements.
+		 * @param l1 Elements from the tree of the left right input text
+		 * @param l2 Elements (of the same strings) from the tree of the right
+		 *            left input text
+		 * @param il Logical operation
+		 * @param out Writer for the result lines
+		 * @throws Exception Thrown if the strings of the lists differ or the
+		 *             output cannot be written
+		 */
+		public void writeLogOp(ArrayList<BranchedStringBufferElement>l1,
+				ArrayList<BranchedStringBufferElement>l2, ILogOp il, Writer out) throws Exception{
+			final String lineSeparator = System.getProperty("line.separator");
+			for (int i=0;i<l1.size();i++){
+				out.append(resultBranchedString(logOp(l1, l2, i, il))).append(lineSeparator);
+			}
+		}
+		
+		// combines the i-th elements of the lists
+		private ExtendedBranchedStringBufferElement logOp(ArrayList<BranchedStringBufferElement>l1,
+				ArrayList<BranchedStringBufferElement>l2, int i, ILogOp il) throws Exception{
+			// to check: new string buffer, newElement is clone of
+			// element from l1 List!!!
+			if (i>=l2.size() || !(l1.get(i).stringBuffer.toString().equals(l2.get(i).stringBuffer.toString())))
+				{
+				if (LOGGER.isLoggable(Level.FINE)) {
+					for (int j=0;j<l1.size();j++){
+						LOGGER.fine(l1.get(j).stringBuffer+ "  "+(j<l2.size() ? l2.get(j).stringBuffer : ""));
+					}
+				}
+				throw new Exception("error in ResultToMorphListListener.logOp: strings not equal: "+
+						l1.get(i).stringBuffer+ "  "+(i<l2.size() ? l2.get(i).stringBuffer : ""));
+				};
+			BitSet resOp=il.logOperation(l1.get(i).bitSet,l2.get(i).bitSet);
+			return new ExtendedBranchedStringBufferElement(l1.get(i).stringBuffer,resOp,
+							l1.get(i).bitSet,l2.get(i).bitSet);
+		}
+		
 	
 		public void prepareEvaluation(ArrayList<ExtendedBranchedStringBufferElement> in){
 			
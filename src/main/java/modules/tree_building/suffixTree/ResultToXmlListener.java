@@ -1,146 +1,176 @@
 package modules.tree_building.suffixTree;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.Writer;
 
-import common.XmlPrintWriter;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
-public class ResultToXmlListener extends AbstractResultNodeStackListener {
+/**
+ * Writes an xml representation of the tree while walking it. Every node is
+ * written as soon as it was processed, so the document is never held in
+ * memory (as long as the writer given passes it on, e.g. one created by
+ * OutputPort.createWriter()).
+ */
+public class ResultToXmlListener extends AbstractResultLeafIntervalListener {
 
-	private final XmlPrintWriter out;
+	private final Writer writer;
+
+	private final XMLStreamWriter out;
 
 	private final BaseSuffixTree tree;
 
 	private boolean wroteHeader = false;
 
-	public ResultToXmlListener(BaseSuffixTree tree, XmlPrintWriter writer) {
-		// call parent constructor to setup and handle the node stack
+	public ResultToXmlListener(BaseSuffixTree tree, Writer writer) throws IOException {
+		// call parent constructor to setup the walk state
 		super(tree);
 
 		this.tree = tree;
-		this.out = writer;
+		this.writer = writer;
+		try {
+			this.out = XMLOutputFactory.newInstance().createXMLStreamWriter(writer);
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
 	}
 
 	/**
 	 * Outputs an xml representation of the node.
-	 * 
+	 *
 	 * @param nodeNr
 	 *            The number of the node currently processed.
-	 * @param path
-	 *            All nodes in the path leading to but not including the current
-	 *            Node.
-	 * @param pathLength
-	 *            The amount of chars in the path's edge strings leading to the
-	 *            current node.
+	 * @param walk
+	 *            The state of the walk, giving the leaves below the node.
 	 * @param level
 	 *            The node's level within the tree.
 	 */
 	@Override
-	public void process(int nodeNr, List<Node> path, int pathLength, int level) {
-		if (!wroteHeader) {
-			writeHeader();
-		}
-
-		final Node node = tree.getNode(nodeNr);
-		final String label = tree.edgeString(node);
-
-		// open <node>
-		out.printTag("node", true, 1, true);
-
-		// write the node number
-		out.printTag("number", true, 2, false);
-		out.printInt(nodeNr);
-		out.printTag("number", false, 0, true);
-
-		// write the label
-		out.printTag("label", true, 2, false);
-		out.print(label);
-		out.printTag("label", false, 0, true);
-
-		// open <type>
-		out.printTag("type", true, 2, true);
-
-		// frequency is determined by positions of leaves
-		int frequency = 0;
-
-		// write <patternInfo>-Tags: Information about the whole input pattern
-		// that the current label appeared in, as given by the node's leaves
-		// positions
-		for (Node leaf : node.getLeaves()) {
-			for (NodePosition position : leaf.getPositions()) {
-				writePatternInfo(leaf, position);
-				frequency += 1;
+	public void process(int nodeNr, TreeWalkState walk, int level) throws IOException {
+		try {
+			if (!wroteHeader) {
+				writeHeader();
 			}
-		}
 
-		// if the node is itself a leaf node, further patternInfos are written
-		// for it's
-		// positions
-		if (node.isTerminal()) {
-			for (NodePosition position : node.getPositions()) {
-				writePatternInfo(node, position);
-				frequency += 1;
+			// open <node>
+			startTag("node", 1);
+
+			// write the node number
+			element("number", nodeNr, 2);
+
+			// write the label
+			indent(2);
+			out.writeStartElement("label");
+			out.writeCharacters(tree.edgeLabel(nodeNr).toString());
+			out.writeEndElement();
+			out.writeCharacters("\n");
+
+			// open <type>
+			startTag("type", 2);
+
+			// frequency is determined by positions of leaves
+			int frequency = 0;
+
+			// write <patternInfo>-Tags: Information about the whole input pattern
+			// that the current label appeared in, as given by the positions of
+			// the node's leaves (or the node itself if it is a leaf)
+			for (int i = walk.getLeavesFrom(); i < walk.getLeavesTo(); i++) {
+				final int leaf = walk.getLeaf(i);
+				for (int p = 0; p < tree.nodePositionsAmount(leaf); p++) {
+					writePatternInfo(leaf, p, walk.getLeafPathLength(i));
+					frequency += 1;
+				}
 			}
-		}
 
-		// closing: </type>
-		out.printTag("type", false, 2, true);
+			// closing: </type>
+			endTag(2);
 
-		// writing: <frequency/>
-		out.printTag("frequency", true, 2, false);
-		out.print(frequency);
-		out.printTag("frequency", false, 0, true);
+			// writing: <frequency/>
+			element("frequency", frequency, 2);
 
-		// closing: </node>
-		out.printTag("node", false, 1, true);
+			// closing: </node>
+			endTag(1);
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
 	}
 
-	private void writePatternInfo(Node leaf, NodePosition position) {
-		out.printTag("patternInfo", true, 3, true);
+	private void writePatternInfo(int leaf, int position, int leafPathLength) throws XMLStreamException {
+		startTag("patternInfo", 3);
 
 		// write the id of the type context
-		out.printTag("typeNr", true, 4, false);
-		out.printInt(position.getTypeContextNr());
-		out.printTag("typeNr", false, 0, true);
+		element("typeNr", tree.nodeTypeContext(leaf, position), 4);
 
 		// write the id of the input text
-		out.printTag("pattern", true, 4, false);
-		out.printInt(position.getTextNr());
-		out.printTag("pattern", false, 0, true);
+		element("pattern", tree.nodeTextNr(leaf, position), 4);
 
 		// write the index of the start of the path leading to this leaf's
 		// position i.e. go back from the position's end as much letters as the
 		// path is long
-		out.printTag("startpos", true, 4, false);
-		out.printInt(position.getEnd() - leaf.getPathLength());
-		out.printTag("startpos", false, 0, true);
+		element("startpos", tree.nodeEnd(leaf, position) - leafPathLength, 4);
 
-		out.printTag("patternInfo", false, 3, true);
+		endTag(3);
 	}
 
 	/**
 	 * write the XML-Header
 	 */
-	private void writeHeader() {
-		out.printTag("output", true, 0, true);
+	private void writeHeader() throws XMLStreamException {
+		startTag("output", 0);
 
-		out.printTag("units", true, 1, false);
-		out.printInt(tree.getTypeContextsAmount());
-		out.printTag("units", false, 0, true);
-
-		out.printTag("nodes", true, 1, false);
-		out.printInt(tree.getNodeAmount());
-		out.printTag("nodes", false, 0, true);
+		element("units", tree.getTypeContextsAmount(), 1);
+		element("nodes", tree.getNodeAmount(), 1);
 
 		// set the flag such that this header is not written again
 		wroteHeader = true;
 	}
 
+	// the document is indented by tabs, one element per line
+
+	private void indent(int tabs) throws XMLStreamException {
+		for (int i = 0; i < tabs; i++) {
+			out.writeCharacters("\t");
+		}
+	}
+
+	private void startTag(String tag, int tabs) throws XMLStreamException {
+		indent(tabs);
+		out.writeStartElement(tag);
+		out.writeCharacters("\n");
+	}
+
+	private void endTag(int tabs) throws XMLStreamException {
+		indent(tabs);
+		out.writeEndElement();
+		out.writeCharacters("\n");
+	}
+
+	private void element(String tag, int value, int tabs) throws XMLStreamException {
+		indent(tabs);
+		out.writeStartElement(tag);
+		out.writeCharacters(String.valueOf(value));
+		out.writeEndElement();
+		out.writeCharacters("\n");
+	}
+
 	/**
 	 * Closes all tags as well as the provided writer.
+	 *
+	 * @throws IOException
+	 *             on error
 	 */
-	public void finishWriting() {
-		out.printTag("output", false, 0, true);
-		out.close();
+	public void finishWriting() throws IOException {
+		try {
+			if (!wroteHeader) {
+				writeHeader();
+			}
+			endTag(0);
+			out.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		}
+		writer.close();
 	}
 
 }
@@ -0,0 +1,264 @@
+package modules.tree_building.suffixTree;
+
+import java.util.Arrays;
+
+/**
+ * The generalised suffix tree represented by a GeneralisedSuffixArray: its
+ * nodes are the LCP intervals of the suffix array, found in a single
+ * bottom-up pass over the LCP array (Abouelhoda, Kurtz & Ohlebusch 2004).
+ * Every node only notes its interval [lb, rb] in the suffix array, its
+ * depth (the length of the path up to it) and its children, edges and
+ * positions are derived from these, so the tree needs much less memory than
+ * one built by Ukkonen's algorithm. It can be walked and printed like one,
+ * but neither be extended nor does it have suffix links.
+ *
+ * Like in the tree built by Ukkonen's algorithm, a suffix that occurs in
+ * several texts ends in a single leaf holding one position per text, and
+ * the root is node number 1.
+ */
+public class SuffixArrayTree extends SuffixTree {
+
+	private final GeneralisedSuffixArray sa;
+
+	// per node: interval in the suffix array, path length up to the node and children
+	private int[] lb;
+	private int[] rb;
+	private int[] depth;
+	private int[] firstChild;
+	private int[] nextSibling;
+
+	// children found but not yet given to a node while building, see addChild()
+	private int[] pending;
+	private int pendingSize;
+
+	public SuffixArrayTree(GeneralisedSuffixArray sa) {
+		super(0);
+		this.sa = sa;
+		this.text = sa.text();
+		this.position = sa.length() - 1;
+		for (int i = 0; i < sa.textNrsAmount(); i++)
+			this.setTextBegin(i, sa.getTextBegin(i));
+		if (sa.textNrsAmount() > 0 && sa.getTypeContext(0) != NO_TYPE_CONTEXT) {
+			for (int i = 0; i <= sa.getTypeContextsAmount(); i++)
+				this.incrementTypeContext();
+		}
+		this.build();
+	}
+
+	/**
+	 * @return The suffix array the tree is built from
+	 */
+	public GeneralisedSuffixArray getSuffixArray() {
+		return sa;
+	}
+
+	// ----- construction -----
+
+	private void build() {
+		final int n = sa.length();
+		this.allocate(n + 2);
+		this.pending = new int[16];
+		// the root gets its number first, but is closed last
+		this.currentNode = this.root;
+
+		// stack of the open intervals: lcp, lb and the index of their first pending child
+		int[] stack = new int[3 * 16];
+		int top = 0;
+		stack[0] = 0;
+		stack[1] = 0;
+		stack[2] = 0;
+
+		for (int i = 1; i <= n; i++) {
+			final int cur = i < n ? sa.getLcp(i) : 0;
+			// the suffix (or interval) left of the boundary i
+			int last = singleton(i - 1);
+			int left = i - 1;
+			while (cur < stack[top]) {
+				this.addChild(last);
+				left = stack[top + 1];
+				last = this.close(stack[top], left, i - 1, stack[top + 2]);
+				top -= 3;
+			}
+			if (cur > stack[top]) {
+				top += 3;
+				if (top + 3 > stack.length)
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				stack[top] = cur;
+				stack[top + 1] = left;
+				stack[top + 2] = pendingSize;
+			}
+			this.addChild(last);
+		}
+		this.close(0, 0, n - 1, 0);
+
+		this.pending = null;
+		final int size = this.currentNode + 1;
+		lb = Arrays.copyOf(lb, size);
+		rb = Arrays.copyOf(rb, size);
+		depth = Arrays.copyOf(depth, size);
+		firstChild = Arrays.copyOf(firstChild, size);
+		nextSibling = Arrays.copyOf(nextSibling, size);
+	}
+
+	private void allocate(int capacity) {
+		lb = Arrays.copyOf(lb == null ? new int[0] : lb, capacity);
+		rb = Arrays.copyOf(rb == null ? new int[0] : rb, capacity);
+		depth = Arrays.copyOf(depth == null ? new int[0] : depth, capacity);
+		firstChild = Arrays.copyOf(firstChild == null ? new int[0] : firstChild, capacity);
+		nextSibling = Arrays.copyOf(nextSibling == null ? new int[0] : nextSibling, capacity);
+	}
+
+	// pending children are either node numbers or single suffixes, the latter encoded as -(index + 1)
+	private static int singleton(int index) {
+		return -(index + 1);
+	}
+
+	private void addChild(int child) {
+		if (pendingSize == pending.length)
+			pending = Arrays.copyOf(pending, pendingSize * 2);
+		pending[pendingSize++] = child;
+	}
+
+	private int addNode(int lb, int rb, int depth) {
+		if (currentNode + 1 == this.lb.length)
+			this.allocate((int) Math.min(Integer.MAX_VALUE - 8, this.lb.length + (this.lb.length >> 1) + 1l));
+		final int node = ++currentNode;
+		this.lb[node] = lb;
+		this.rb[node] = rb;
+		this.depth[node] = depth;
+		return node;
+	}
+
+	// returns the length of the suffix up to the end of its text
+	private int suffixLength(int index) {
+		final int p = sa.getSuffix(index);
+		return sa.getTextEnd(p) - p;
+	}
+
+	/**
+	 * Turns a finished LCP interval into a node and hands it its pending
+	 * children.
+	 * @return The node's number
+	 */
+	private int close(int lcp, int lb, int rb, int firstPending) {
+		final int node;
+		if (lcp > 0 && this.suffixLength(lb) == lcp && text[sa.getSuffix(lb) + lcp - 1] == '$') {
+			// the suffix occurs in every text of the interval: one leaf for all
+			node = this.addNode(lb, rb, lcp);
+		} else {
+			if (lcp == 0) {
+				node = this.root;
+				this.lb[node] = lb;
+				this.rb[node] = rb;
+			} else {
+				node = this.addNode(lb, rb, lcp);
+			}
+			int previous = NodeStore.NONE;
+			for (int i = firstPending; i < pendingSize; i++) {
+				int child = pending[i];
+				if (child < 0) {
+					final int index = -child - 1;
+					final int length = this.suffixLength(index);
+					// a suffix of an unterminated last text may end inside the tree
+					if (length <= lcp)
+						continue;
+					child = this.addNode(index, index, length);
+				}
+				if (previous == NodeStore.NONE)
+					firstChild[node] = child;
+				else
+					nextSibling[previous] = child;
+				previous = child;
+			}
+		}
+		pendingSize = firstPending;
+		return node;
+	}
+
+	// the length of the path up to the node's parent
+	private int parentDepth(int node) {
+		if (node == root)
+			return 0;
+		final int left = sa.getLcp(lb[node]);
+		final int right = rb[node] + 1 < sa.length() ? sa.getLcp(rb[node] + 1) : 0;
+		return Math.max(left, right);
+	}
+
+	// ----- read access (see BaseSuffixTree) -----
+
+	@Override
+	boolean isTerminal(int node) {
+		return firstChild[node] == NodeStore.NONE;
+	}
+
+	@Override
+	int firstChild(int node) {
+		return firstChild[node];
+	}
+
+	@Override
+	int nextSibling(int node) {
+		return nextSibling[node];
+	}
+
+	@Override
+	int child(int node, char c) {
+		for (int child = firstChild[node]; child != NodeStore.NONE; child = nextSibling[child]) {
+			final char edgeBegin = text[sa.getSuffix(lb[child]) + depth[node]];
+			if (edgeBegin == c)
+				return child;
+			if (edgeBegin > c)
+				break;
+		}
+		return NodeStore.NONE;
+	}
+
+	@Override
+	int suffixLink(int node) {
+		return NodeStore.NONE;
+	}
+
+	@Override
+	public boolean hasSuffixLinks() {
+		return false;
+	}
+
+	@Override
+	int nodePositionsAmount(int node) {
+		return node != root && this.isTerminal(node) ? rb[node] - lb[node] + 1 : 1;
+	}
+
+	// returns the suffix the position refers to
+	private int suffix(int node, int pos) {
+		if (pos < 0 || pos >= this.nodePositionsAmount(node))
+			throw new IndexOutOfBoundsException("Position: " + pos + ", Amount: " + this.nodePositionsAmount(node));
+		return sa.getSuffix(lb[node] + pos);
+	}
+
+	@Override
+	int nodeStart(int node, int pos) {
+		return node == root ? -1 : this.suffix(node, pos) + this.parentDepth(node);
+	}
+
+	@Override
+	int nodeEnd(int node, int pos) {
+		return node == root ? -1 : this.suffix(node, pos) + depth[node];
+	}
+
+	@Override
+	int nodeTextNr(int node, int pos) {
+		return node == root ? 0 : sa.getTextNr(this.suffix(node, pos));
+	}
+
+	@Override
+	int nodeTypeContext(int node, int pos) {
+		return node == root ? NO_TYPE_CONTEXT : sa.getTypeContext(this.nodeTextNr(node, pos));
+	}
+
+	@Override
+	NodePosition nodePosition(int node, int pos) {
+		return new NodePosition(this.nodeStart(node, pos), new NodePositionEnd(this.nodeEnd(node, pos)),
+				this.nodeTextNr(node, pos), this.nodeTypeContext(node, pos));
+	}
+
+}
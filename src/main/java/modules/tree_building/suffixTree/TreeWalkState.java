@@ -0,0 +1,135 @@
+package modules.tree_building.suffixTree;
+
+import java.util.Arrays;
+
+/**
+ * The state of a depth-first walk of a tree: the path to the current node
+ * with the path length to each of its nodes, and the leaves met so far in
+ * the order they were met. The leaves below a node are numbered
+ * consecutively, so they form the interval [getLeavesFrom(), getLeavesTo())
+ * of leaf numbers (a leaf's interval holds just the leaf). Instead of the
+ * leaves being collected in a set per node, each leaf's node number and path
+ * length are noted once in arrays.
+ *
+ * A listener keeps the state by calling enter() first thing in its entry
+ * action and exit() last thing in its exit action, so it works with the
+ * TreeWalker and the MultiTreeWalker alike (see
+ * AbstractResultLeafIntervalListener).
+ */
+public class TreeWalkState {
+
+	private final BaseSuffixTree tree;
+
+	// level of the current node (-1 before the walk and after it)
+	private int level = -1;
+
+	// per level on the current path: node number, path length and the number of the first leaf below
+	private int[] nodes = new int[64];
+	private int[] pathLengths = new int[64];
+	private int[] leavesFrom = new int[64];
+
+	// per leaf met: node number and path length
+	private int[] leaves = new int[64];
+	private int[] leafPathLengths = new int[64];
+	private int leavesAmount = 0;
+
+	public TreeWalkState(BaseSuffixTree tree) {
+		this.tree = tree;
+	}
+
+	/**
+	 * Notes that the walk entered a node (a child of the current one).
+	 * @param nodeNr Node number
+	 */
+	public void enter(int nodeNr) {
+		level++;
+		if (level == nodes.length) {
+			nodes = Arrays.copyOf(nodes, nodes.length * 2);
+			pathLengths = Arrays.copyOf(pathLengths, pathLengths.length * 2);
+			leavesFrom = Arrays.copyOf(leavesFrom, leavesFrom.length * 2);
+		}
+		final int pathLength = (level == 0 ? 0 : pathLengths[level - 1])
+				+ (nodeNr == tree.getRoot() ? 0 : tree.nodeEdgeLength(nodeNr));
+		nodes[level] = nodeNr;
+		pathLengths[level] = pathLength;
+		leavesFrom[level] = leavesAmount;
+
+		if (tree.isTerminal(nodeNr)) {
+			if (leavesAmount == leaves.length) {
+				leaves = Arrays.copyOf(leaves, leaves.length * 2);
+				leafPathLengths = Arrays.copyOf(leafPathLengths, leafPathLengths.length * 2);
+			}
+			leaves[leavesAmount] = nodeNr;
+			leafPathLengths[leavesAmount] = pathLength;
+			leavesAmount++;
+		}
+	}
+
+	/**
+	 * Notes that the walk left the current node for its parent.
+	 */
+	public void exit() {
+		if (level < 0)
+			throw new IllegalStateException("Left a node that was never entered.");
+		level--;
+	}
+
+	// the level of the current node
+	public int getLevel() {
+		return level;
+	}
+
+	// the number of the current node
+	public int getNode() {
+		return nodes[level];
+	}
+
+	// the number of the node at the given level of the current path
+	public int getNode(int level) {
+		return nodes[level];
+	}
+
+	// the number of the current node's parent or NodeStore.NONE for the node the walk started with
+	public int getParent() {
+		return level > 0 ? nodes[level - 1] : NodeStore.NONE;
+	}
+
+	// the amount of chars on the path to the current node
+	public int getPathLength() {
+		return pathLengths[level];
+	}
+
+	// the amount of chars on the path to the node at the given level
+	public int getPathLength(int level) {
+		return pathLengths[level];
+	}
+
+	// the label of the edge to the node at the given level (a view on the text)
+	public CharSequence getEdge(int level) {
+		return tree.edgeLabel(nodes[level]);
+	}
+
+	// the number of the first leaf below the current node
+	public int getLeavesFrom() {
+		return leavesFrom[level];
+	}
+
+	/**
+	 * The number following the last leaf below the current node. Complete
+	 * once the walk is about to leave the node, i.e. in the exit action.
+	 */
+	public int getLeavesTo() {
+		return leavesAmount;
+	}
+
+	// the node number of the leaf with the given number
+	public int getLeaf(int i) {
+		return leaves[i];
+	}
+
+	// the amount of chars on the path to the leaf with the given number
+	public int getLeafPathLength(int i) {
+		return leafPathLengths[i];
+	}
+
+}
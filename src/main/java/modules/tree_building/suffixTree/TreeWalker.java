@@ -1,8 +1,7 @@
 package modules.tree_building.suffixTree;
 
 import java.io.IOException;
-
-import modules.tree_building.suffixTree.BaseSuffixTree;;
+import java.util.Arrays;
 
 public class TreeWalker {
 
@@ -11,8 +10,9 @@ public class TreeWalker {
 	}
 
 	/**
-	 * Walks the tree's nodes recursively (depth-first) and executes the
-	 * listener's actions for each node.
+	 * Walks the tree's nodes depth-first and executes the listener's actions
+	 * for each node. The path to the current node is kept on a stack of its
+	 * own, so trees of any depth can be walked.
 	 * 
 	 * @param startNodeNr
 	 *            The start with
@@ -23,28 +23,32 @@ public class TreeWalker {
 	 * @throws IOException on error
 	 */
 	public static void walk(int startNodeNr, BaseSuffixTree suffixTree, ITreeWalkerListener listener) throws IOException {
-		walk(startNodeNr, suffixTree, listener, 0/*level*/);
-	}
-
-	/**
-	 * Walks the tree's nodes recursively (depth-first) and executes the
-	 * listener's actions for each node.
-	 * @param startNodeNr The start with
-	 * @param suffixTree The SuffixTree to walk on
-	 * @param listener The listener defining the actions to take on each node
-	 * @param level level
-	 * @throws IOException on error
-	 */
-	
-	private static void walk(int startNodeNr, BaseSuffixTree suffixTree, ITreeWalkerListener listener, int level)
-			throws IOException {
-		listener.entryaction(startNodeNr, level);
-
-		for (int childNodeNr : suffixTree.nodes[startNodeNr].next.values()) {
-			walk(childNodeNr, suffixTree, listener, level + 1);
+		// the nodes on the path to the current one and the child of each to visit next
+		int[] nodes = new int[64];
+		int[] next = new int[64];
+		int level = 0;
+
+		nodes[0] = startNodeNr;
+		listener.entryaction(startNodeNr, 0);
+		next[0] = suffixTree.firstChild(startNodeNr);
+
+		while (level >= 0) {
+			final int child = next[level];
+			if (child == NodeStore.NONE) {
+				listener.exitaction(nodes[level], level);
+				level--;
+			} else {
+				next[level] = suffixTree.nextSibling(child);
+				level++;
+				if (level == nodes.length) {
+					nodes = Arrays.copyOf(nodes, nodes.length * 2);
+					next = Arrays.copyOf(next, next.length * 2);
+				}
+				nodes[level] = child;
+				listener.entryaction(child, level);
+				next[level] = suffixTree.firstChild(child);
+			}
 		}
-
-		listener.exitaction(startNodeNr, level);
 	}
 
 }
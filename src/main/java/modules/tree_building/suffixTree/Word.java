@@ -2,6 +2,7 @@ package modules.tree_building.suffixTree;
 
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.logging.Level;
 
 /**
  * @author JR
@@ -38,9 +39,9 @@ public class Word {
 			end=resultToMorphListener.tree.getNode(node).getEnd(0);
 			for(int pos=start;pos<end;pos++){
 				  //System.out.print(r.tree.text[pos]);
-				  if(resultToMorphListener.inverted) sb.insert(0, resultToMorphListener.tree.text[pos]);
+				  if(resultToMorphListener.inverted) sb.insert(0, resultToMorphListener.tree.charAt(pos));
 				  else
-				  sb.append(resultToMorphListener.tree.text[pos]);
+				  sb.append(resultToMorphListener.tree.charAt(pos));
 				  branchPosition++;
 			}
 			//System.out.print(" ");
@@ -59,10 +60,10 @@ public class Word {
 			
 		}
 		if (resultToMorphListener.inverted) {
-			System.out.println("Word inverted: "+sb);
 			reversedSb=new StringBuffer(sb);
 			reversedSb.reverse();
-			System.out.println("Word inverted: "+sb+"   "+reversedSb);
+			if (ResultToMorphListListener.LOGGER.isLoggable(Level.FINE))
+				ResultToMorphListListener.LOGGER.fine("Word inverted: "+sb+"   "+reversedSb);
 			sb.deleteCharAt(0);sb.append('$');}
 		//System.out.println();
 		//System.out.println(sb);
@@ -78,13 +79,14 @@ public class Word {
 			bitSetBranches.set(pos, true);
 		}// for int j=0;j<branchPosList.size();j++)
 		
-		System.out.println("Word: "+sb);
-		if (reversedSb!=null){
-			System.out.println(reversedSb);
-			for (int i=0;i<reversedBitSetBranches.length();i++)
-				if(reversedBitSetBranches.get(i)) System.out.print('<');
-				else System.out.print(' ');
-			System.out.println();
+		if (ResultToMorphListListener.LOGGER.isLoggable(Level.FINE)) {
+			ResultToMorphListListener.LOGGER.fine("Word: "+sb);
+			if (reversedSb!=null){
+				StringBuilder branches=new StringBuilder();
+				for (int i=0;i<reversedBitSetBranches.length();i++)
+					branches.append(reversedBitSetBranches.get(i) ? '<' : ' ');
+				ResultToMorphListListener.LOGGER.fine(reversedSb+System.getProperty("line.separator")+branches);
+			}
 		}
 		
 		BranchedStringBufferElement bs=new BranchedStringBufferElement(sb,bitSetBranches);
@@ -1,16 +1,19 @@
 package modules.tree_building.suffixTreeModuleWrapper;
 
 import java.io.BufferedReader;
+import java.io.CharArrayReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
+import java.util.logging.Logger;
 
 import base.workbench.ModuleRunner;
-import common.XmlPrintWriter;
 import common.parallelization.CallbackReceiver;
 import models.GstLabelData;
 import modules.BytePipe;
@@ -18,16 +21,22 @@ import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
+import modules.ResultCache;
 import modules.transitionNetwork.TransitionNetwork;
-import modules.tree_building.suffixTree.GST;
+import modules.tree_building.suffixTree.BaseSuffixTree;
+import modules.tree_building.suffixTree.GSTBuilder;
+import modules.tree_building.suffixTree.GeneralisedSuffixArray;
+import modules.tree_building.suffixTree.MappedSuffixTree;
+import modules.tree_building.suffixTree.MultiTreeWalker;
 import modules.tree_building.suffixTree.ResultEdgeSegmentsListener;
 import modules.tree_building.suffixTree.ResultLabelListListener;
 import modules.tree_building.suffixTree.ResultToFiniteStateMachineListener;
+import modules.tree_building.suffixTree.ResultToDotListener;
 import modules.tree_building.suffixTree.ResultToGstLabelDataListener;
 import modules.tree_building.suffixTree.ResultToJsonListener;
 import modules.tree_building.suffixTree.ResultToXmlListener;
+import modules.tree_building.suffixTree.SuffixArrayTree;
 import modules.tree_building.suffixTree.SuffixTree;
-import modules.tree_building.suffixTree.TreeWalker;
 
 /**
  * Module Reads from KWIP modules output into a suffix tree. Constructs a
@@ -48,6 +57,20 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 	private static final String MODULE_DESCRIPTION = "Module Rreads from KWIP modules output into a suffix tree. Constructs a "
 			+ "representation of that tree, that can be used as input for clustering.";
 
+	// Property keys
+	public static final String PROPERTYKEY_MAXTEXTLENGTH = "Maximum text length";
+	public static final String PROPERTYKEY_BACKEND = "Backend";
+	public static final String PROPERTYKEY_INDEXFILE = "Index file";
+	public static final String PROPERTYKEY_APPEND = "Append to index";
+
+	// Values for PROPERTYKEY_BACKEND
+	public static final String BACKEND_UKKONEN = "ukkonen";
+	public static final String BACKEND_SUFFIX_ARRAY = "suffix array";
+
+	private int maxTextLength = GSTBuilder.MAX_TEXT_LENGTH;
+	private boolean useSuffixArray = false;
+	private File indexFile = null;
+	private boolean append = false;
 	// Variables describing I/O
 	private static final String INPUT_TEXT_ID = "plain";
 	private static final String INPUT_TEXT_DESC = "[text/plain] Takes a plaintext representation of the KWIP result.";
@@ -66,6 +89,9 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 	private static final String OUTPUT_EDGE_SEGMENTS_ID = "edge segments";
 	private static final String OUTPUT_EDGE_SEGMENTS_DESC = "For each input text the output is that path in the tree split into it's edges.";
 
+	private static final String OUTPUT_TREE_ID = "suffix tree";
+	private static final String OUTPUT_TREE_DESC = "[object] The suffix tree itself, handed over in memory to modules that can take it.";
+
 	private static final String OUTPUT_FOR_TN_ID = "tn";
 	private static final String OUTPUT_FOR_TN_DESC = "[bytestream] A forTN representation of the tree build, suitable for clustering.";
 
@@ -89,7 +115,17 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 		super(callbackReceiver, properties);
 
 		// Set the modules name and description
+		this.getPropertyDescriptions().put(PROPERTYKEY_MAXTEXTLENGTH, "Maximum number of chars the tree is built for (the memory needed grows linearly with it). Longer input lets the module fail.");
+		this.getPropertyDescriptions().put(PROPERTYKEY_BACKEND, "How to build the tree: '" + BACKEND_UKKONEN
+				+ "' (Ukkonen's algorithm) or '" + BACKEND_SUFFIX_ARRAY
+				+ "' (LCP intervals of a suffix array, needs less memory, but the tree has no suffix links).");
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, MODULE_NAME);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXTEXTLENGTH, String.valueOf(GSTBuilder.MAX_TEXT_LENGTH));
+		this.getPropertyDescriptions().put(PROPERTYKEY_INDEXFILE, "File to keep the tree in between runs (empty for none). If it was written for the same input, the tree is memory-mapped from it instead of being built, else it is built and written to the file.");
+		this.getPropertyDescriptions().put(PROPERTYKEY_APPEND, "If true, the input texts (and type context end numbers, counted on from the texts in the index) are appended to the tree kept in the index file, which is replaced by the result. Needs an index file and the '" + BACKEND_UKKONEN + "' backend (an index written by the '" + BACKEND_SUFFIX_ARRAY + "' backend is rebuilt with suffix links first).");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_BACKEND, BACKEND_UKKONEN);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_INDEXFILE, "");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_APPEND, "false");
 		this.setDescription(MODULE_DESCRIPTION);
 
 		// Add module category
@@ -131,81 +167,113 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 				}
 			}
 
-			// actually build the tree
+			// actually build the tree while reading the input
 			final BufferedReader textReader = new BufferedReader(
 					this.getInputPorts().get(INPUT_TEXT_ID).getInputReader());
-			final SuffixTree suffixTree = GST.buildGST(textReader, contextNrs);
+			final SuffixTree suffixTree;
+			if (this.append) {
+				suffixTree = this.appendToIndex(textReader, contextNrs);
+			} else if (this.indexFile != null) {
+				suffixTree = this.loadOrBuild(textReader, contextNrs);
+			} else if (this.useSuffixArray) {
+				suffixTree = new SuffixArrayTree(
+						GeneralisedSuffixArray.build(textReader, contextNrs, this.maxTextLength));
+			} else {
+				suffixTree = new GSTBuilder(this.maxTextLength).build(textReader, contextNrs);
+			}
+
+			// hand the tree itself to connected modules first, so they can
+			// start while the other outputs are generated
+			final OutputPort treeOut = this.getOutputPorts().get(OUTPUT_TREE_ID);
+			if (treeOut.isConnected()) {
+				treeOut.outputToAllObjectPipes(suffixTree);
+				treeOut.close();
+			}
+
+			// all other outputs are generated from a single walk over the
+			// tree, each one in its own thread
+			final MultiTreeWalker walker = new MultiTreeWalker(suffixTree);
 
 			// output a simple list of labels
 			final OutputPort labelsOut = this.getOutputPorts().get(OUTPUT_LIST_ID);
 			if (labelsOut.isConnected()) {
 				final ResultLabelListListener listener = new ResultLabelListListener(suffixTree);
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-
-				for (String label : listener.getLabels()) {
-					labelsOut.outputToAllCharPipes(label + System.lineSeparator());
-				}
+				walker.add(listener, () -> {
+					for (String label : listener.getLabels()) {
+						labelsOut.outputToAllCharPipes(label + System.lineSeparator());
+					}
+					labelsOut.close();
+				});
 			}
 
 			// output a graphical representation as a graphviz .dot file
 			final OutputPort dotOut = this.getOutputPorts().get(OUTPUT_DOT_FILE_ID);
 			if (dotOut.isConnected()) {
-				final CharPipe dotOutPipe = (CharPipe) dotOut.getPipes().get(CharPipe.class).get(0);
-				final PrintWriter writer = new PrintWriter(dotOutPipe.getOutput());
-				suffixTree.printTree(writer);
-				dotOut.close();
+				final PrintWriter writer = new PrintWriter(dotOut.createWriter());
+				final ResultToDotListener listener = new ResultToDotListener(suffixTree, writer);
+				walker.add(listener, () -> {
+					listener.finishWriting();
+					writer.close();
+					dotOut.close();
+				});
 			}
 
 			// output a list of edge segments
 			final OutputPort edgeSegmentsOut = this.getOutputPorts().get(OUTPUT_EDGE_SEGMENTS_ID);
 			if (edgeSegmentsOut.isConnected()) {
 				final ResultEdgeSegmentsListener listener = new ResultEdgeSegmentsListener(suffixTree, edgeSegmentsOut);
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-				if (!listener.hasCompleted()) {
-					throw new IllegalStateException("Listener did not finish correctly. Result may be wrong.");
-				}
-				edgeSegmentsOut.close();
+				walker.add(listener, () -> {
+					if (!listener.hasCompleted()) {
+						throw new IllegalStateException("Listener did not finish correctly. Result may be wrong.");
+					}
+					edgeSegmentsOut.close();
+				});
 			}
 
 			// output the transition network
 			final OutputPort transitionNetworkOut = this.getOutputPorts().get(OUTPUT_FOR_TN_ID);
 			if (transitionNetworkOut.isConnected()) {
 				final ResultToFiniteStateMachineListener listener = new ResultToFiniteStateMachineListener(suffixTree);
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-				TransitionNetwork tn = listener.getTN();
-				tn.writeTN(transitionNetworkOut);
-				transitionNetworkOut.close();
+				walker.add(listener, () -> {
+					TransitionNetwork tn = listener.getTN();
+					tn.writeTN(transitionNetworkOut);
+					transitionNetworkOut.close();
+				});
 			}
 			
 			
 			// output an XML-Representation of the tree
 			final OutputPort xmlOut = this.getOutputPorts().get(OUTPUT_XML_ID);
 			if (xmlOut.isConnected()) {
-				final StringWriter sw = new StringWriter();
-				final ResultToXmlListener listener = new ResultToXmlListener(suffixTree, new XmlPrintWriter(sw));
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-				listener.finishWriting();
-				xmlOut.outputToAllBytePipes(sw.toString().getBytes());
-				xmlOut.close();
+				final ResultToXmlListener listener = new ResultToXmlListener(suffixTree,
+						new OutputStreamWriter(xmlOut.createOutputStream(), StandardCharsets.UTF_8));
+				walker.add(listener, () -> {
+					listener.finishWriting();
+					xmlOut.close();
+				});
 			}
 
 			final OutputPort jsonOut = this.getOutputPorts().get(OUTPUT_JSON_ID);
 			if (jsonOut.isConnected()) {
 				final ResultToJsonListener listener = new ResultToJsonListener(suffixTree, jsonOut);
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-				listener.finishWriting();
-				jsonOut.close();
+				walker.add(listener, () -> {
+					listener.finishWriting();
+					jsonOut.close();
+				});
 			}
 
 			// output the label data csv table
 			final OutputPort labelDataOut = this.getOutputPorts().get(OUTPUT_LABEL_DATA_ID);
 			if (labelDataOut.isConnected()) {
 				final ResultToGstLabelDataListener listener = new ResultToGstLabelDataListener(suffixTree);
-				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
-				writeGstLabelData(listener.getLabelsToGstData().values(), labelDataOut);
-				labelDataOut.close();
+				walker.add(listener, () -> {
+					writeGstLabelData(listener.getLabelsToGstData().values(), labelDataOut);
+					labelDataOut.close();
+				});
 			}
 
+			walker.walk(suffixTree.getRoot());
+
 		} catch (Exception e) {
 			result = false;
 			throw e;
@@ -216,6 +284,118 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 		return result;
 	}
 
+	/**
+	 * Maps the tree from the index file if that was written for the same
+	 * input, else builds the tree and writes it to the index file.
+	 */
+	private SuffixTree loadOrBuild(BufferedReader textReader, List<Integer> contextNrs) throws Exception {
+		final char[] text = new GSTBuilder(this.maxTextLength).readText(textReader);
+		final long sourceChecksum = MappedSuffixTree.sourceChecksum(text, contextNrs);
+
+		if (this.indexFile.isFile()) {
+			try {
+				// only an index written for the input by the same backend is mapped, another one is replaced below
+				final MappedSuffixTree.Header header = MappedSuffixTree.readHeader(this.indexFile);
+				if (header.getSourceChecksum() == sourceChecksum && header.hasSuffixLinks() != this.useSuffixArray)
+					return MappedSuffixTree.load(this.indexFile);
+			} catch (IOException e) {
+				Logger.getLogger(this.getClass().getSimpleName()).warning(
+						"Cannot use the index file " + this.indexFile.getAbsolutePath() + ", rebuilding it: " + e.getMessage());
+			}
+		}
+
+		final SuffixTree tree;
+		if (this.useSuffixArray) {
+			tree = new SuffixArrayTree(new GeneralisedSuffixArray(text, contextNrs));
+		} else {
+			// the text holds no line breaks, so it is read as the single line it was joined to
+			tree = new GSTBuilder(this.maxTextLength).build(new CharArrayReader(text), contextNrs);
+		}
+		MappedSuffixTree.write(tree, this.indexFile, sourceChecksum);
+		return tree;
+	}
+
+	/**
+	 * Appends the input to the tree from the index file (or builds the tree if
+	 * there is none yet) and writes the result to the index file. The index is
+	 * read, not mapped, so no mapping of it is left when it is replaced.
+	 */
+	private SuffixTree appendToIndex(BufferedReader textReader, List<Integer> contextNrs) throws Exception {
+		final GSTBuilder builder = new GSTBuilder(this.maxTextLength);
+		final SuffixTree tree;
+		if (this.indexFile.isFile()) {
+			BaseSuffixTree indexed = MappedSuffixTree.read(this.indexFile);
+			if (!indexed.hasSuffixLinks()) {
+				// written by the suffix array backend, rebuild the tree with suffix links from its text
+				indexed = new GSTBuilder(this.maxTextLength).build(new CharArrayReader(indexed.getText().toCharArray()),
+						MappedSuffixTree.typeContextEndIndices(indexed));
+			}
+			tree = builder.append(indexed, textReader, contextNrs);
+		} else {
+			tree = builder.build(textReader, contextNrs);
+		}
+		// the checksum is the one of the whole input, so the index is used by runs building from it as well
+		MappedSuffixTree.write(tree, this.indexFile, MappedSuffixTree.sourceChecksum(tree));
+		return tree;
+	}
+
+	@Override
+	public String getCacheKeyDetails() {
+		if (this.indexFile == null)
+			return "";
+		// appending has to change the index, and a missing one has to be
+		// written, neither of which happens if the output is taken from the cache
+		if (this.append || !this.indexFile.isFile())
+			return null;
+		return ResultCache.getFileDetails(this.indexFile);
+	}
+
+	@Override
+	public void applyProperties() throws Exception {
+
+		// Set defaults for properties not yet set
+		super.setDefaultsIfMissing();
+
+		String maxTextLengthString = this.getProperties().getProperty(PROPERTYKEY_MAXTEXTLENGTH,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_MAXTEXTLENGTH));
+		if (maxTextLengthString != null) {
+			try {
+				this.maxTextLength = Integer.parseInt(maxTextLengthString.trim());
+			} catch (NumberFormatException e) {
+				throw new Exception("Invalid setting for " + PROPERTYKEY_MAXTEXTLENGTH + ": " + maxTextLengthString);
+			}
+			if (this.maxTextLength < 0 || this.maxTextLength > GSTBuilder.MAX_TEXT_LENGTH)
+				throw new Exception(PROPERTYKEY_MAXTEXTLENGTH + " must be between 0 and " + GSTBuilder.MAX_TEXT_LENGTH + ".");
+		}
+
+		String backend = this.getProperties().getProperty(PROPERTYKEY_BACKEND,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_BACKEND));
+		if (backend != null) {
+			if (backend.trim().equalsIgnoreCase(BACKEND_SUFFIX_ARRAY))
+				this.useSuffixArray = true;
+			else if (backend.trim().equalsIgnoreCase(BACKEND_UKKONEN))
+				this.useSuffixArray = false;
+			else
+				throw new Exception("Invalid setting for " + PROPERTYKEY_BACKEND + ": " + backend);
+		}
+
+		String indexFileName = this.getProperties().getProperty(PROPERTYKEY_INDEXFILE,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_INDEXFILE));
+		if (indexFileName != null)
+			this.indexFile = indexFileName.trim().isEmpty() ? null : new File(indexFileName.trim());
+
+		String appendString = this.getProperties().getProperty(PROPERTYKEY_APPEND,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_APPEND));
+		if (appendString != null)
+			this.append = Boolean.parseBoolean(appendString.trim());
+		if (this.append && (this.indexFile == null || this.useSuffixArray))
+			throw new Exception(PROPERTYKEY_APPEND + " needs an " + PROPERTYKEY_INDEXFILE + " and the '" + BACKEND_UKKONEN + "' "
+					+ PROPERTYKEY_BACKEND + ".");
+
+		// Apply parent object's properties (just the name variable actually)
+		super.applyProperties();
+	}
+
 	// this is normally done in the constructor, but was moved here to
 	// remove clutter from it
 	private void setupOutputPorts() {
@@ -249,6 +429,10 @@ public class GeneralisedSuffixTreeModule extends modules.ModuleImpl {
 		outputForTnPort.addSupportedPipe(CharPipe.class);
 		super.addOutputPort(outputForTnPort);
 
+		OutputPort outputTreePort = new OutputPort(OUTPUT_TREE_ID, OUTPUT_TREE_DESC, this);
+		outputTreePort.addSupportedObjectType(SuffixTree.class);
+		super.addOutputPort(outputTreePort);
+
 	}
 
 	/**
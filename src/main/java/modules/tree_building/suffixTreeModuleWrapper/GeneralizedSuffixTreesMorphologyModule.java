@@ -3,15 +3,16 @@ package modules.tree_building.suffixTreeModuleWrapper;
 
 import common.parallelization.CallbackReceiver;
 import java.io.BufferedReader;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Properties;
+import java.util.logging.Logger;
 
 import modules.CharPipe;
 import modules.InputPort;
 import modules.OutputPort;
 import modules.ModuleImpl;
 import modules.tree_building.suffixTree.BranchedStringBufferElement;
-import modules.tree_building.suffixTree.ExtendedBranchedStringBufferElement;
 import modules.tree_building.suffixTree.GST;
 import common.logicBits.LogOpOR;
 import modules.tree_building.suffixTree.ResultToMorphListListener;
@@ -46,6 +47,8 @@ public class GeneralizedSuffixTreesMorphologyModule extends ModuleImpl {
 	
 	*/
 	
+	private static final Logger LOGGER = Logger.getLogger(GeneralizedSuffixTreesMorphologyModule.class.getSimpleName());
+
 	// Variables for the module
 	private static final String MODULE_NAME = "GeneralisedSuffixTreesMorphologyModule";
 	private static final String MODULE_DESCRIPTION = 	
@@ -114,108 +117,55 @@ public class GeneralizedSuffixTreesMorphologyModule extends ModuleImpl {
 	
 	
 	/**
-	 * This builds a generalised suffix tree and constructs output for all
-	 * connected output ports
+	 * This builds the generalised suffix trees of both inputs and writes the
+	 * combination of their branches. The trees are built and walked
+	 * concurrently, the reversed one in a thread of its own.
 	 */
 	@Override
 	public boolean process() throws Exception {
-		/*--------------------TEST
-		boolean b=true;
-		if(b) throw new Exception("TEST");
-        ______________________END TEST_____________ */
-		
-		//ResultToMorphListListener test=new ResultToMorphListListener(null,false);
 
 		boolean result=true;
-		StringBuffer outputBuffer=null;
-		SortedBranchedStringListsResult sortedBranchedStringListsResultForward=null,
-				sortedBranchedStringListsResultBackward	=null;	
 		
 		InputPort in1 = this.getInputPorts().get(INPUT_TEXT1_ID);
 		InputPort in2 = this.getInputPorts().get(INPUT_TEXT2_ID);
 		
-		BufferedReader bufReader1, bufReader2=null;
-		
-		
 		try {			
-			
-			System.out.println("XX vor TextReader1");
-			
-			// actually build the trees
-			if (in1.isConnected()) {
-				bufReader1 = new BufferedReader(in1.getInputReader());
-			
-			
-				
-			
-				System.out.println("vor SuffixTree1");			
-				final SuffixTree suffixTree1 = GST.buildGST(bufReader1,null);
-				System.out.println("vor SuffixTree2");
-			
-				if (in2.isConnected()) {
-					
-					bufReader2 = new BufferedReader(
-					in2.getInputReader());
-					final SuffixTree suffixTree2 = GST.buildGST(bufReader2,null);
-			
-					System.out.println("XXSuffixTrees Built");
-			
-			
-				
-					ResultToMorphListListener resultToMorphListListener1=
-							new ResultToMorphListListener(suffixTree1,false);
-					TreeWalker.walk(suffixTree1.getRoot(), suffixTree1, 
-						resultToMorphListListener1);
-					System.out.println("XX vor branchedStringElementList1");
-					//ArrayList<BranchedStringBufferElement> branchedStringElementList1=
-			
-					sortedBranchedStringListsResultForward=
-						resultToMorphListListener1.generateSortedBranchedStringList();
-					ArrayList<BranchedStringBufferElement> branchedStringElementListForward=
-						sortedBranchedStringListsResultForward.firstBranchedStringBufferElementList;
-					//System.out.println();System.out.println();System.out.println();
-					ResultToMorphListListener resultToMorphListListener2=
-							new ResultToMorphListListener(suffixTree2,true);
-					TreeWalker.walk(suffixTree2.getRoot(), suffixTree2, 
-					resultToMorphListListener2);
-					//System.out.println("XX vor branchedStringElementList2");
-					sortedBranchedStringListsResultBackward=
-						resultToMorphListListener2.generateSortedBranchedStringList();
-					//xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx
-					ArrayList<BranchedStringBufferElement> branchedStringElementListBackwardForwarded=
-						sortedBranchedStringListsResultBackward.firstBranchedStringBufferElementList;
-					ArrayList<BranchedStringBufferElement> branchedStringElementListBackward=
-					sortedBranchedStringListsResultBackward.secondBranchedStringBufferElementList;		
-					// print resulted branchedStringLists
-					//System.out.print("branchedStringElementList1 ");
-					//resultToMorphListListener1.printBranchedStringElementList(branchedStringElementList1,false);
-					//System.out.print("branchedStringElementList2 ");
-					//resultToMorphListListener2.printBranchedStringElementList(branchedStringElementList2,false);
-					 //
-					// generate list of logical or
-					System.out.println("branchedStringElementListOR ");
-					ArrayList<ExtendedBranchedStringBufferElement> branchedStringElementListOr=
-							resultToMorphListListener1.logOp(branchedStringElementListForward,
-						branchedStringElementListBackwardForwarded,new LogOpOR());	
-					System.out.print("branchedStringElementListOr ");
-		
-					outputBuffer=
-						resultToMorphListListener1.resultBranchedStringElementList(branchedStringElementListOr);
-			
-					String outputString = outputBuffer.toString();
-					System.out.println(" outputString:");
-					System.out.println(outputString);
-			
-					System.out.println("----------------------------------------------------------------");
-					resultToMorphListListener1.prepareEvaluation(branchedStringElementListOr);
-					// Write to outputs
-					this.getOutputPorts().get(OUTPUTID).outputToAllCharPipes(outputString);
-					
-					// Close outputs (important!)
-					//this.closeAllOutputs();
-				} else throw new Exception("in2 not connected");
-			
-			} else throw new Exception("in1 not connected");
+			if (!in1.isConnected()) throw new Exception("in1 not connected");
+			if (!in2.isConnected()) throw new Exception("in2 not connected");
+
+			// the trees are independent, so the reversed one is built and
+			// walked while the forward one is
+			final MorphList backward = new MorphList(new BufferedReader(in2.getInputReader()), true);
+			final Thread backwardThread = new Thread(backward, "MorphList-" + INPUT_TEXT2_ID);
+			backwardThread.start();
+
+			final MorphList forward = new MorphList(new BufferedReader(in1.getInputReader()), false);
+			try {
+				forward.run();
+			} finally {
+				boolean interrupted = false;
+				while (backwardThread.isAlive()) {
+					try {
+						backwardThread.join();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				if (interrupted)
+					Thread.currentThread().interrupt();
+			}
+			if (forward.failure != null) throw forward.failure;
+			if (backward.failure != null) throw backward.failure;
+
+			// generate list of logical or, written as it is combined
+			ArrayList<BranchedStringBufferElement> branchedStringElementListForward=
+				forward.sortedBranchedStringListsResult.firstBranchedStringBufferElementList;
+			ArrayList<BranchedStringBufferElement> branchedStringElementListBackwardForwarded=
+				backward.sortedBranchedStringListsResult.firstBranchedStringBufferElementList;
+			final Writer writer = this.getOutputPorts().get(OUTPUTID).createWriter();
+			forward.listener.writeLogOp(branchedStringElementListForward,
+				branchedStringElementListBackwardForwarded, new LogOpOR(), writer);
+			writer.close();
 		} catch (Exception e) {
 			result = false;
 			throw e;
@@ -227,6 +177,38 @@ public class GeneralizedSuffixTreesMorphologyModule extends ModuleImpl {
 		return result;
 	}
 
+	/**
+	 * Builds the tree of one input and lists its branched strings.
+	 */
+	private static class MorphList implements Runnable {
+
+		private final BufferedReader reader;
+		private final boolean inverted;
+		private ResultToMorphListListener listener;
+		private SortedBranchedStringListsResult sortedBranchedStringListsResult;
+		private volatile Exception failure;
+
+		private MorphList(BufferedReader reader, boolean inverted) {
+			this.reader = reader;
+			this.inverted = inverted;
+		}
+
+		@Override
+		public void run() {
+			try {
+				final SuffixTree suffixTree = GST.buildGST(reader, null);
+				LOGGER.fine("SuffixTree built, inverted: " + inverted);
+				listener = new ResultToMorphListListener(suffixTree, inverted);
+				TreeWalker.walk(suffixTree.getRoot(), suffixTree, listener);
+				sortedBranchedStringListsResult = listener.generateSortedBranchedStringList();
+			} catch (Exception e) {
+				failure = e;
+			} catch (Error e) {
+				failure = new Exception(e);
+			}
+		}
+	}
+
 
 	
 	
@@ -0,0 +1,322 @@
+package modules.tree_building.suffixTreeModuleWrapper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.gson.stream.JsonWriter;
+
+import base.workbench.ModuleRunner;
+import common.parallelization.CallbackReceiver;
+import modules.CharPipe;
+import modules.InputPort;
+import modules.ModuleImpl;
+import modules.ObjectPipe;
+import modules.OutputPort;
+import modules.ResultCache;
+import modules.tree_building.suffixTree.BaseSuffixTree;
+import modules.tree_building.suffixTree.MappedSuffixTree;
+import modules.tree_building.suffixTree.PatternIndex;
+
+/**
+ * Looks up patterns (one per line) in a generalised suffix tree, either handed
+ * over by the GeneralisedSuffixTreeModule or mapped from an index file it
+ * wrote. For each pattern, the number of its occurrences, the texts it occurs
+ * in or the positions it occurs at are output as csv or json, in the order of
+ * the patterns. The patterns are answered in batches by several threads at
+ * once, using the leaf intervals of the tree's nodes (see PatternIndex).
+ */
+public class SuffixTreeQueryModule extends ModuleImpl {
+
+	// Main method for stand-alone execution
+	public static void main(String[] args) throws Exception {
+		ModuleRunner.runStandAlone(SuffixTreeQueryModule.class, args);
+	}
+
+	// Variables for the module
+	private static final String MODULE_NAME = "SuffixTreeQueryModule";
+	private static final String MODULE_DESCRIPTION = "Looks up patterns (one per line) in a generalised suffix tree and outputs how often, in which texts or where they occur.";
+
+	// Property keys
+	public static final String PROPERTYKEY_QUERY = "Query";
+	public static final String PROPERTYKEY_FORMAT = "Output format";
+	public static final String PROPERTYKEY_MAXPARALLELTHREADS = "maximum threads";
+	public static final String PROPERTYKEY_INDEXFILE = "Index file";
+
+	// Values for PROPERTYKEY_QUERY
+	public static final String QUERY_COUNT = "count";
+	public static final String QUERY_DOCUMENTS = "documents";
+	public static final String QUERY_LOCATE = "locate";
+
+	// Values for PROPERTYKEY_FORMAT
+	public static final String FORMAT_CSV = "csv";
+	public static final String FORMAT_JSON = "json";
+
+	// Number of patterns answered at once by a thread
+	private static final int BATCH_SIZE = 512;
+
+	// Variables describing I/O
+	private static final String INPUT_TREE_ID = "suffix tree";
+	private static final String INPUT_TREE_DESC = "[object] The suffix tree to query, as handed over by the GeneralisedSuffixTreeModule (if not connected, the tree is mapped from the index file).";
+	private static final String INPUT_PATTERNS_ID = "patterns";
+	private static final String INPUT_PATTERNS_DESC = "[text/plain] The patterns to look up, one per line (empty lines are skipped).";
+	private static final String OUTPUT_RESULTS_ID = "results";
+	private static final String OUTPUT_RESULTS_DESC = "[text/csv] or [text/json] One result per pattern, in the order of the patterns.";
+
+	private String query = QUERY_COUNT;
+	private boolean json = false;
+	private int maxParallelThreads = Runtime.getRuntime().availableProcessors();
+	private File indexFile = null;
+
+	public SuffixTreeQueryModule(CallbackReceiver callbackReceiver, Properties properties) throws Exception {
+		// Call parent constructor
+		super(callbackReceiver, properties);
+
+		// Set the modules name and description
+		this.getPropertyDescriptions().put(PROPERTYKEY_QUERY, "What to output for each pattern: '" + QUERY_COUNT
+				+ "' (the number of occurrences), '" + QUERY_DOCUMENTS + "' (the numbers of the texts it occurs in) or '"
+				+ QUERY_LOCATE + "' (the text number and offset of each occurrence).");
+		this.getPropertyDescriptions().put(PROPERTYKEY_FORMAT, "Format of the results: '" + FORMAT_CSV + "' or '" + FORMAT_JSON + "'.");
+		this.getPropertyDescriptions().put(PROPERTYKEY_MAXPARALLELTHREADS, "Maximum number of parallel threads answering the patterns (in addition to the module's own thread).");
+		this.getPropertyDescriptions().put(PROPERTYKEY_INDEXFILE, "Index file written by the GeneralisedSuffixTreeModule to map the tree from if the tree input is not connected.");
+		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, MODULE_NAME);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_QUERY, QUERY_COUNT);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_FORMAT, FORMAT_CSV);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXPARALLELTHREADS, String.valueOf(Runtime.getRuntime().availableProcessors()));
+		this.getPropertyDefaultValues().put(PROPERTYKEY_INDEXFILE, "");
+		this.setDescription(MODULE_DESCRIPTION);
+
+		// Setup I/O
+		InputPort inputTreePort = new InputPort(INPUT_TREE_ID, INPUT_TREE_DESC, this);
+		inputTreePort.addSupportedObjectType(BaseSuffixTree.class);
+		super.addInputPort(inputTreePort);
+
+		InputPort inputPatternsPort = new InputPort(INPUT_PATTERNS_ID, INPUT_PATTERNS_DESC, this);
+		inputPatternsPort.addSupportedPipe(CharPipe.class);
+		super.addInputPort(inputPatternsPort);
+
+		OutputPort outputResultsPort = new OutputPort(OUTPUT_RESULTS_ID, OUTPUT_RESULTS_DESC, this);
+		outputResultsPort.addSupportedPipe(CharPipe.class);
+		super.addOutputPort(outputResultsPort);
+	}
+
+	@Override
+	public boolean process() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(this.maxParallelThreads);
+		try {
+			final PatternIndex index = new PatternIndex(this.readTree());
+			final OutputPort out = this.getOutputPorts().get(OUTPUT_RESULTS_ID);
+			final BufferedReader patterns = new BufferedReader(
+					this.getInputPorts().get(INPUT_PATTERNS_ID).getInputReader());
+
+			out.outputToAllCharPipes(json ? "[" : this.csvHeader() + System.lineSeparator());
+
+			// batches being answered, their results are output in the order
+			// of the patterns and only a few are kept in memory at once
+			final Deque<Future<String>> pending = new ArrayDeque<Future<String>>();
+			boolean first = true;
+			List<String> batch = new ArrayList<String>(BATCH_SIZE);
+			String line;
+			do {
+				line = patterns.readLine();
+				if (line != null && !line.isEmpty())
+					batch.add(line);
+				if (batch.size() == BATCH_SIZE || (line == null && !batch.isEmpty())) {
+					final List<String> submitted = batch;
+					final boolean leading = first;
+					pending.add(executor.submit(() -> this.answer(index, submitted, leading)));
+					batch = new ArrayList<String>(BATCH_SIZE);
+					first = false;
+				}
+				while (!pending.isEmpty() && (pending.size() > 2 * this.maxParallelThreads || line == null))
+					out.outputToAllCharPipes(result(pending.poll()));
+			} while (line != null);
+
+			if (json)
+				out.outputToAllCharPipes(System.lineSeparator() + "]" + System.lineSeparator());
+		} finally {
+			executor.shutdownNow();
+			this.closeAllOutputs();
+		}
+		return true;
+	}
+
+	// waits for the results of a batch, rethrowing what failed answering it
+	private static String result(Future<String> future) throws Exception {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception)
+				throw (Exception) e.getCause();
+			throw e;
+		}
+	}
+
+	/**
+	 * Takes the tree from its input or maps it from the index file.
+	 */
+	private BaseSuffixTree readTree() throws Exception {
+		final InputPort treeIn = this.getInputPorts().get(INPUT_TREE_ID);
+		if (treeIn.isConnected(ObjectPipe.class)) {
+			final BaseSuffixTree tree = treeIn.readObject(BaseSuffixTree.class);
+			if (tree == null)
+				throw new Exception("No tree received on input port " + treeIn.toString());
+			return tree;
+		}
+		if (this.indexFile == null)
+			throw new Exception("Either the tree input has to be connected or the " + PROPERTYKEY_INDEXFILE + " to be set.");
+		return MappedSuffixTree.load(this.indexFile);
+	}
+
+	/**
+	 * Answers a batch of patterns.
+	 * @param index Index to query
+	 * @param patterns Patterns
+	 * @param leading Whether the batch is the first one (in json, all other
+	 *            results are preceded by a comma)
+	 * @return The results
+	 * @throws IOException Thrown if the json cannot be written
+	 */
+	private String answer(PatternIndex index, List<String> patterns, boolean leading) throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < patterns.size(); i++) {
+			if (json)
+				this.appendJson(index, patterns.get(i), sb.append(leading && i == 0 ? "" : ",").append(System.lineSeparator()));
+			else
+				this.appendCsv(index, patterns.get(i), sb);
+		}
+		return sb.toString();
+	}
+
+	private String csvHeader() {
+		switch (query) {
+		case QUERY_DOCUMENTS:
+			return "pattern,document count,documents";
+		case QUERY_LOCATE:
+			return "pattern,count,occurrences";
+		default:
+			return "pattern,count";
+		}
+	}
+
+	// appends a line of csv, lists are separated by spaces, occurrences are given as text number:offset
+	private void appendCsv(PatternIndex index, String pattern, StringBuilder sb) {
+		sb.append('"').append(pattern.replace("\"", "\"\"")).append("\",");
+		switch (query) {
+		case QUERY_DOCUMENTS:
+			final int[] textNrs = index.documents(pattern);
+			sb.append(textNrs.length).append(',');
+			for (int i = 0; i < textNrs.length; i++)
+				sb.append(i == 0 ? "" : " ").append(textNrs[i]);
+			break;
+		case QUERY_LOCATE:
+			final int[] starts = index.locate(pattern);
+			sb.append(starts.length).append(',');
+			for (int i = 0; i < starts.length; i++) {
+				final int textNr = index.getTextNr(starts[i]);
+				sb.append(i == 0 ? "" : " ").append(textNr).append(':').append(starts[i] - index.getTextBegin(textNr));
+			}
+			break;
+		default:
+			sb.append(index.count(pattern));
+		}
+		sb.append(System.lineSeparator());
+	}
+
+	private void appendJson(PatternIndex index, String pattern, StringBuilder sb) throws IOException {
+		final StringWriter sw = new StringWriter();
+		final JsonWriter writer = new JsonWriter(sw);
+		writer.beginObject();
+		writer.name("pattern").value(pattern);
+		switch (query) {
+		case QUERY_DOCUMENTS:
+			writer.name("documents").beginArray();
+			for (int textNr : index.documents(pattern))
+				writer.value(textNr);
+			writer.endArray();
+			break;
+		case QUERY_LOCATE:
+			writer.name("occurrences").beginArray();
+			for (int start : index.locate(pattern)) {
+				final int textNr = index.getTextNr(start);
+				writer.beginObject();
+				writer.name("textNr").value(textNr);
+				writer.name("offset").value(start - index.getTextBegin(textNr));
+				writer.endObject();
+			}
+			writer.endArray();
+			break;
+		default:
+			writer.name("count").value(index.count(pattern));
+		}
+		writer.endObject();
+		writer.close();
+		sb.append(sw);
+	}
+
+	@Override
+	public String getCacheKeyDetails() {
+		// a tree read from the index file is not covered by the keys of the input
+		if (this.indexFile == null || this.getInputPorts().get(INPUT_TREE_ID).isConnected(ObjectPipe.class))
+			return "";
+		return ResultCache.getFileDetails(this.indexFile);
+	}
+
+	@Override
+	public void applyProperties() throws Exception {
+
+		// Set defaults for properties not yet set
+		super.setDefaultsIfMissing();
+
+		final String queryString = this.getProperties().getProperty(PROPERTYKEY_QUERY,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_QUERY));
+		if (queryString != null) {
+			final String value = queryString.trim().toLowerCase();
+			if (!value.equals(QUERY_COUNT) && !value.equals(QUERY_DOCUMENTS) && !value.equals(QUERY_LOCATE))
+				throw new Exception("Invalid setting for " + PROPERTYKEY_QUERY + ": " + queryString);
+			this.query = value;
+		}
+
+		final String format = this.getProperties().getProperty(PROPERTYKEY_FORMAT,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_FORMAT));
+		if (format != null) {
+			if (format.trim().equalsIgnoreCase(FORMAT_JSON))
+				this.json = true;
+			else if (format.trim().equalsIgnoreCase(FORMAT_CSV))
+				this.json = false;
+			else
+				throw new Exception("Invalid setting for " + PROPERTYKEY_FORMAT + ": " + format);
+		}
+
+		final String threads = this.getProperties().getProperty(PROPERTYKEY_MAXPARALLELTHREADS,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_MAXPARALLELTHREADS));
+		if (threads != null) {
+			try {
+				this.maxParallelThreads = Integer.parseInt(threads.trim());
+			} catch (NumberFormatException e) {
+				throw new Exception("Invalid setting for " + PROPERTYKEY_MAXPARALLELTHREADS + ": " + threads);
+			}
+			if (this.maxParallelThreads < 1)
+				throw new Exception(PROPERTYKEY_MAXPARALLELTHREADS + " must be at least 1.");
+		}
+
+		final String indexFileName = this.getProperties().getProperty(PROPERTYKEY_INDEXFILE,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_INDEXFILE));
+		if (indexFileName != null)
+			this.indexFile = indexFileName.trim().isEmpty() ? null : new File(indexFileName.trim());
+
+		// Apply parent object's properties (just the name variable actually)
+		super.applyProperties();
+	}
+
+}
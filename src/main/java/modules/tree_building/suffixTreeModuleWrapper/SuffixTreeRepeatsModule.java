@@ -0,0 +1,177 @@
+package modules.tree_building.suffixTreeModuleWrapper;
+
+import java.io.File;
+import java.io.Writer;
+import java.util.Properties;
+
+import base.workbench.ModuleRunner;
+import common.parallelization.CallbackReceiver;
+import modules.CharPipe;
+import modules.InputPort;
+import modules.ModuleImpl;
+import modules.ObjectPipe;
+import modules.OutputPort;
+import modules.ResultCache;
+import modules.tree_building.suffixTree.BaseSuffixTree;
+import modules.tree_building.suffixTree.MappedSuffixTree;
+import modules.tree_building.suffixTree.ResultRepeatsListener;
+import modules.tree_building.suffixTree.TreeWalker;
+
+/**
+ * Outputs the maximal or supermaximal repeats of the texts of a generalised
+ * suffix tree, either handed over by the GeneralisedSuffixTreeModule or mapped
+ * from an index file it wrote. The repeats are found in a single walk of the
+ * tree (see ResultRepeatsListener) and written as csv while walking, together
+ * with the positions they occur at.
+ */
+public class SuffixTreeRepeatsModule extends ModuleImpl {
+
+	// Main method for stand-alone execution
+	public static void main(String[] args) throws Exception {
+		ModuleRunner.runStandAlone(SuffixTreeRepeatsModule.class, args);
+	}
+
+	// Variables for the module
+	private static final String MODULE_NAME = "SuffixTreeRepeatsModule";
+	private static final String MODULE_DESCRIPTION = "Outputs the maximal or supermaximal repeats of the texts of a generalised suffix tree with the positions they occur at.";
+
+	// Property keys
+	public static final String PROPERTYKEY_REPEATS = "Repeats";
+	public static final String PROPERTYKEY_MINLENGTH = "Minimum length";
+	public static final String PROPERTYKEY_MINFREQUENCY = "Minimum frequency";
+	public static final String PROPERTYKEY_MINTEXTS = "Minimum texts";
+	public static final String PROPERTYKEY_INDEXFILE = "Index file";
+
+	// Values for PROPERTYKEY_REPEATS
+	public static final String REPEATS_MAXIMAL = "maximal";
+	public static final String REPEATS_SUPERMAXIMAL = "supermaximal";
+
+	// Variables describing I/O
+	private static final String INPUT_TREE_ID = "suffix tree";
+	private static final String INPUT_TREE_DESC = "[object] The suffix tree to search, as handed over by the GeneralisedSuffixTreeModule (if not connected, the tree is mapped from the index file).";
+	private static final String OUTPUT_REPEATS_ID = "repeats";
+	private static final String OUTPUT_REPEATS_DESC = "[text/csv] One line per repeat: repeat, length, frequency, number of texts and the occurrences as text number:offset.";
+
+	private boolean supermaximal = false;
+	private int minLength = 1;
+	private int minFrequency = 2;
+	private int minTexts = 1;
+	private File indexFile = null;
+
+	public SuffixTreeRepeatsModule(CallbackReceiver callbackReceiver, Properties properties) throws Exception {
+		// Call parent constructor
+		super(callbackReceiver, properties);
+
+		// Set the modules name and description
+		this.getPropertyDescriptions().put(PROPERTYKEY_REPEATS, "Which repeats to output: '" + REPEATS_MAXIMAL
+				+ "' (not extendable to either side without losing occurrences) or '" + REPEATS_SUPERMAXIMAL
+				+ "' (no substring of another repeat).");
+		this.getPropertyDescriptions().put(PROPERTYKEY_MINLENGTH, "Minimum length of the repeats output.");
+		this.getPropertyDescriptions().put(PROPERTYKEY_MINFREQUENCY, "Minimum number of occurrences of the repeats output (at least 2).");
+		this.getPropertyDescriptions().put(PROPERTYKEY_MINTEXTS, "Minimum number of different texts the repeats output occur in.");
+		this.getPropertyDescriptions().put(PROPERTYKEY_INDEXFILE, "Index file written by the GeneralisedSuffixTreeModule to map the tree from if the tree input is not connected.");
+		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, MODULE_NAME);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_REPEATS, REPEATS_MAXIMAL);
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MINLENGTH, "1");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MINFREQUENCY, "2");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MINTEXTS, "1");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_INDEXFILE, "");
+		this.setDescription(MODULE_DESCRIPTION);
+
+		// Setup I/O
+		InputPort inputTreePort = new InputPort(INPUT_TREE_ID, INPUT_TREE_DESC, this);
+		inputTreePort.addSupportedObjectType(BaseSuffixTree.class);
+		super.addInputPort(inputTreePort);
+
+		OutputPort outputRepeatsPort = new OutputPort(OUTPUT_REPEATS_ID, OUTPUT_REPEATS_DESC, this);
+		outputRepeatsPort.addSupportedPipe(CharPipe.class);
+		super.addOutputPort(outputRepeatsPort);
+	}
+
+	@Override
+	public boolean process() throws Exception {
+		try {
+			final BaseSuffixTree tree = this.readTree();
+			final Writer out = this.getOutputPorts().get(OUTPUT_REPEATS_ID).createWriter();
+			out.write(ResultRepeatsListener.CSV_HEADER + System.lineSeparator());
+			final ResultRepeatsListener listener = new ResultRepeatsListener(tree, out, supermaximal, minLength,
+					minFrequency, minTexts);
+			TreeWalker.walk(tree.getRoot(), tree, listener);
+			out.close();
+		} finally {
+			this.closeAllOutputs();
+		}
+		return true;
+	}
+
+	/**
+	 * Takes the tree from its input or maps it from the index file.
+	 */
+	private BaseSuffixTree readTree() throws Exception {
+		final InputPort treeIn = this.getInputPorts().get(INPUT_TREE_ID);
+		if (treeIn.isConnected(ObjectPipe.class)) {
+			final BaseSuffixTree tree = treeIn.readObject(BaseSuffixTree.class);
+			if (tree == null)
+				throw new Exception("No tree received on input port " + treeIn.toString());
+			return tree;
+		}
+		if (this.indexFile == null)
+			throw new Exception("Either the tree input has to be connected or the " + PROPERTYKEY_INDEXFILE + " to be set.");
+		return MappedSuffixTree.load(this.indexFile);
+	}
+
+	// reads a property that has to be a number of at least the minimum given
+	private int intProperty(String key, int current, int minimum) throws Exception {
+		final String value = this.getProperties().getProperty(key, this.getPropertyDefaultValues().get(key));
+		if (value == null)
+			return current;
+		final int result;
+		try {
+			result = Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new Exception("Invalid setting for " + key + ": " + value);
+		}
+		if (result < minimum)
+			throw new Exception(key + " must be at least " + minimum + ".");
+		return result;
+	}
+
+	@Override
+	public String getCacheKeyDetails() {
+		// a tree read from the index file is not covered by the keys of the input
+		if (this.indexFile == null || this.getInputPorts().get(INPUT_TREE_ID).isConnected(ObjectPipe.class))
+			return "";
+		return ResultCache.getFileDetails(this.indexFile);
+	}
+
+	@Override
+	public void applyProperties() throws Exception {
+
+		// Set defaults for properties not yet set
+		super.setDefaultsIfMissing();
+
+		final String repeats = this.getProperties().getProperty(PROPERTYKEY_REPEATS,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_REPEATS));
+		if (repeats != null) {
+			if (repeats.trim().equalsIgnoreCase(REPEATS_SUPERMAXIMAL))
+				this.supermaximal = true;
+			else if (repeats.trim().equalsIgnoreCase(REPEATS_MAXIMAL))
+				this.supermaximal = false;
+			else
+				throw new Exception("Invalid setting for " + PROPERTYKEY_REPEATS + ": " + repeats);
+		}
+
+		this.minLength = this.intProperty(PROPERTYKEY_MINLENGTH, this.minLength, 1);
+		this.minFrequency = this.intProperty(PROPERTYKEY_MINFREQUENCY, this.minFrequency, 2);
+		this.minTexts = this.intProperty(PROPERTYKEY_MINTEXTS, this.minTexts, 1);
+
+		final String indexFileName = this.getProperties().getProperty(PROPERTYKEY_INDEXFILE,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_INDEXFILE));
+		if (indexFileName != null)
+			this.indexFile = indexFileName.trim().isEmpty() ? null : new File(indexFileName.trim());
+
+		// Apply parent object's properties (just the name variable actually)
+		super.applyProperties();
+	}
+
+}
@@ -1,5 +1,6 @@
 package modules.tree_building.treeBuilder;
 
+import java.io.Writer;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Properties;
@@ -8,11 +9,9 @@ import java.util.TreeSet;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
-import modules.Pipe;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import common.parallelization.CallbackReceiver;
 
 import base.workbench.ModuleRunner;
@@ -28,12 +27,17 @@ public class AtomicRangeSuffixTrieBuilder extends ModuleImpl {
 	// Property keys
 	public static final String PROPERTYKEY_MAXLENGTH = "Maximum length of branches";
 	public static final String PROPERTYKEY_REVERSE = "Reverse the trie";
+	public static final String PROPERTYKEY_PRETTYPRINT = "Pretty print JSON";
+
+	// Number of chars read from the input at once
+	private static final int BLOCK_SIZE = 8192;
 
 	// Local variables
 	private final String INPUTID = "input";
 	private final String OUTPUTID = "output";
 	private int maxLaenge; // Maximale Laenge des zu bauenden Baums
 	private boolean umgekehrt; // Maximale Laenge des zu bauenden Baums
+	private boolean prettyPrint = true;
 
 	public AtomicRangeSuffixTrieBuilder(CallbackReceiver callbackReceiver, Properties properties)
 			throws Exception {
@@ -44,17 +48,20 @@ public class AtomicRangeSuffixTrieBuilder extends ModuleImpl {
 		inputPort.addSupportedPipe(CharPipe.class);
 		OutputPort outputPort = new OutputPort(OUTPUTID, "JSON-encoded suffix trie.", this);
 		outputPort.addSupportedPipe(CharPipe.class);
+		outputPort.addSupportedObjectType(Knoten.class);
 		super.addInputPort(inputPort);
 		super.addOutputPort(outputPort);
 		
 		// Add description for properties
 		this.getPropertyDescriptions().put(PROPERTYKEY_MAXLENGTH,"Define the maximum length of any branch of the trie. Set to -1 for no constraint");
 		this.getPropertyDescriptions().put(PROPERTYKEY_REVERSE,"Reverse the building of the trie (results in a prefix trie).");
+		this.getPropertyDescriptions().put(PROPERTYKEY_PRETTYPRINT,"Indent the JSON output; set to false for compact JSON (smaller and faster to read).");
 		
 		// Add default values
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, "AtomicRangeSuffixTrieBuilder");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXLENGTH, "10");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_REVERSE, "false");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_PRETTYPRINT, "true");
 		
 		// Add module description
 		this.setDescription("Iterates over a raw and unsegmented string input, building a suffix trie from the data of limited range with each step. Keeps track of how often each node of the suffix trie gets triggered.");
@@ -65,16 +72,15 @@ public class AtomicRangeSuffixTrieBuilder extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 		
-		// Wurzelknoten des zu erstellenden Baumes erstellen
-		Knoten wurzelKnoten = new Knoten("^");
-		
-		LinkedList<Character> buffer = new LinkedList<Character>();
+		// Trie in kompakter Form aufbauen (siehe CompactSuffixTrie, entspricht baueTrie() fuer jedes Fenster)
+		CompactSuffixTrie trie = new CompactSuffixTrie(this.maxLaenge, this.umgekehrt);
 		
-		// Read first characters
-		int charCode = this.getInputPorts().get(INPUTID).getInputReader().read();
+		// Read the input a block at a time
+		char[] block = new char[BLOCK_SIZE];
+		int read = this.getInputPorts().get(INPUTID).read(block, 0, block.length);
 
 		// Loop until no more data can be read
-		while (charCode != -1) {
+		while (read != -1) {
 
 			// Check for interrupt signal
 			if (Thread.interrupted()) {
@@ -82,37 +88,32 @@ public class AtomicRangeSuffixTrieBuilder extends ModuleImpl {
 				throw new InterruptedException("Thread has been interrupted.");
 			}
 
-			// Add read char code to buffer
-			buffer.add(Character.valueOf((char) charCode));
-			
-			// If the buffer exceeds the set maximum length, remove the oldest (first) element
-			if (this.maxLaenge >= 0 && buffer.size()>this.maxLaenge)
-				buffer.removeFirst();
-			
-			// Construct trie from buffer and attach it to the root node (skip this until the buffer is full)
-			if (buffer.size()==this.maxLaenge)
-				this.baueTrie(buffer, wurzelKnoten, this.umgekehrt, -1);
+			// Move the window on by every char read, adding it to the trie once it is full
+			for (int i = 0; i < read; i++)
+				trie.add(block[i]);
 			
-			// Read next char
-			charCode = this.getInputPorts().get(INPUTID).getInputReader().read();
+			// Read next block
+			read = this.getInputPorts().get(INPUTID).read(block, 0, block.length);
 		}
 		
 		// Read remaining buffer
-		if (!buffer.isEmpty() && buffer.size()==this.maxLaenge)
-			buffer.removeFirst();
-		while (!buffer.isEmpty()){
-			// Construct trie from buffer and attach it to the root node
-			this.baueTrie(buffer, wurzelKnoten, this.umgekehrt, -1);
-			buffer.removeFirst();
-		}
+		trie.finish();
+		
+		// Wurzelknoten des erstellten Baumes
+		Knoten wurzelKnoten = trie.toKnoten("^");
 		
-		// Letztlich wird der Wurzelknoten (und damit der gesamte erstellte Baum) in JSON umgewandelt und ausgegeben
-		Gson gson = new GsonBuilder().setPrettyPrinting().create();
-		Iterator<Pipe> charPipes = this.getOutputPorts().get(OUTPUTID).getPipes(CharPipe.class).iterator();
-		while (charPipes.hasNext()){
-			gson.toJson(wurzelKnoten, ((CharPipe)charPipes.next()).getOutput());
+		// Der Wurzelknoten (und damit der gesamte erstellte Baum) wird in JSON umgewandelt und in einem
+		// Durchlauf an alle Ausgabekanaele ausgegeben, bevor ihn Module, die Objekte annehmen, erhalten
+		if (this.getOutputPorts().get(OUTPUTID).isConnected(CharPipe.class)) {
+			Writer writer = this.getOutputPorts().get(OUTPUTID).createWriter();
+			new KnotenJsonCodec(this.prettyPrint).write(wurzelKnoten, writer);
+			writer.close();
 		}
 		
+		// Erst danach wird der Wurzelknoten Modulen, die Objekte annehmen, direkt uebergeben
+		if (this.getOutputPorts().get(OUTPUTID).isConnected(ObjectPipe.class))
+			this.getOutputPorts().get(OUTPUTID).outputToAllObjectPipes(wurzelKnoten);
+		
 		// Ausgabekanaele schliessen
 		this.closeAllOutputs();
 		
@@ -131,12 +132,16 @@ public class AtomicRangeSuffixTrieBuilder extends ModuleImpl {
 			this.maxLaenge = Integer.parseInt(this.getProperties().getProperty(PROPERTYKEY_MAXLENGTH));
 		if (this.getProperties().containsKey(PROPERTYKEY_REVERSE))
 			this.umgekehrt = Boolean.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_REVERSE));
+		if (this.getProperties().containsKey(PROPERTYKEY_PRETTYPRINT))
+			this.prettyPrint = Boolean.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_PRETTYPRINT));
 		super.applyProperties();
 	}
 	
     /**
      * Erzeugt einen Suffixtrie im uebergebenen Knoten anhand der uebergebenen Token.
      * Inkrementiert die Zaehlvariable eines jeden Knotens um eins fuer jede "Beruehrung".
+     * process() baut denselben Trie mit CompactSuffixTrie auf, ohne Listen und Knoten
+     * je Token zu erzeugen.
      * @param token LinkedList mit Token
      * @param rootnode Startknoten Wurzelknoten des zu konstruierenden Baumes
      * @param umgekehrt Zeigt an, ob der Baum umgekehrt erstellt werden soll (quasi als "Praefixbaum")
@@ -0,0 +1,191 @@
+package modules.tree_building.treeBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Builds the suffix trie AtomicRangeSuffixTrieBuilder builds, but without an
+ * object per node or char: the window sliding over the input is a circular
+ * char array read in place, the nodes are kept in primitive arrays indexed
+ * by node number (their parent, edge char and counter) and a child is looked
+ * up through an open addressing hash over (parent, char).
+ *
+ * Once the input is complete, toKnoten() creates the Knoten tree. Children
+ * are put into their parent's map in the order they were created, which is
+ * the order baueTrie() creates them in, so the maps (and thus their JSON
+ * representation) are the same.
+ */
+public class CompactSuffixTrie {
+
+	private static final int ROOT = 0;
+
+	private final int maxLaenge;
+	private final boolean umgekehrt;
+
+	// the window: length chars from start on, wrapping around
+	private char[] window;
+	private int start;
+	private int length;
+
+	// nodes
+	private int size = 1;
+	private int[] parent;
+	private char[] name;
+	private int[] zaehler;
+
+	// Hash of (parent, char) to child; keys are offset by one, so 0 marks an empty slot
+	private long[] childKeys = new long[16];
+	private int[] childValues = new int[16];
+
+	/**
+	 * @param maxLaenge Length of the window (&lt;0 for no constraint, every
+	 *            suffix of the whole input is added then)
+	 * @param umgekehrt Whether to add the window's chars from last to first
+	 *            (builds a prefix trie)
+	 */
+	public CompactSuffixTrie(int maxLaenge, boolean umgekehrt) {
+		this.maxLaenge = maxLaenge;
+		this.umgekehrt = umgekehrt;
+		this.window = new char[maxLaenge > 0 ? maxLaenge + 1 : 16];
+		this.parent = new int[16];
+		this.name = new char[16];
+		this.zaehler = new int[16];
+	}
+
+	/**
+	 * Moves the window on by one char and adds it to the trie once it is
+	 * full (see AtomicRangeSuffixTrieBuilder.process()).
+	 * @param c Next char of the input
+	 */
+	public void add(char c) {
+		if (length == window.length)
+			this.growWindow();
+		window[(start + length) % window.length] = c;
+		length++;
+		// If the window exceeds the set maximum length, remove the oldest (first) char
+		if (maxLaenge >= 0 && length > maxLaenge)
+			this.removeFirst();
+		if (length == maxLaenge)
+			this.addWindow();
+	}
+
+	/**
+	 * Adds the suffixes of the last window not added yet. Must be called
+	 * once the input is complete.
+	 */
+	public void finish() {
+		// the full window was added already
+		if (length > 0 && length == maxLaenge)
+			this.removeFirst();
+		while (length > 0) {
+			this.addWindow();
+			this.removeFirst();
+		}
+	}
+
+	/**
+	 * @return The number of nodes (the root included)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Creates the trie as Knoten objects.
+	 * @param rootName Name of the root node
+	 * @return Root node
+	 */
+	public Knoten toKnoten(String rootName) {
+		final Knoten[] knoten = new Knoten[size];
+		knoten[ROOT] = new Knoten(rootName);
+		knoten[ROOT].setZaehler(zaehler[ROOT]);
+		// nodes are numbered in the order they were created
+		for (int node = ROOT + 1; node < size; node++) {
+			knoten[node] = new Knoten();
+			knoten[node].setName(name[node]);
+			knoten[node].setZaehler(zaehler[node]);
+			knoten[parent[node]].getKinder().put(knoten[node].getName(), knoten[node]);
+		}
+		return knoten[ROOT];
+	}
+
+	// adds the window's path to the trie, counting every node on it
+	private void addWindow() {
+		int node = ROOT;
+		zaehler[node]++;
+		for (int i = 0; i < length; i++) {
+			final int offset = umgekehrt ? length - 1 - i : i;
+			node = this.child(node, window[(start + offset) % window.length]);
+			zaehler[node]++;
+		}
+	}
+
+	private void removeFirst() {
+		start = (start + 1) % window.length;
+		length--;
+	}
+
+	// without a maximum length the window holds the whole input
+	private void growWindow() {
+		final char[] grown = new char[window.length * 2];
+		for (int i = 0; i < length; i++)
+			grown[i] = window[(start + i) % window.length];
+		window = grown;
+		start = 0;
+	}
+
+	private static long key(int node, char c) {
+		return ((((long) node) << 16) | c) + 1;
+	}
+
+	private static int hash(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15l;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	// returns the child reached by c, creating it if necessary
+	private int child(int node, char c) {
+		final long key = key(node, c);
+		final int mask = childKeys.length - 1;
+		int i = hash(key, mask);
+		while (childKeys[i] != 0) {
+			if (childKeys[i] == key)
+				return childValues[i];
+			i = (i + 1) & mask;
+		}
+
+		if (size == parent.length) {
+			final int capacity = (int) Math.min(Integer.MAX_VALUE - 8, size + (size >> 1) + 1l);
+			parent = Arrays.copyOf(parent, capacity);
+			name = Arrays.copyOf(name, capacity);
+			zaehler = Arrays.copyOf(zaehler, capacity);
+		}
+		final int child = size++;
+		parent[child] = node;
+		name[child] = c;
+
+		childKeys[i] = key;
+		childValues[i] = child;
+		// keep the load factor at or below one half (the root is no child)
+		if (size * 2 > childKeys.length)
+			this.rehash(childKeys.length * 2);
+		return child;
+	}
+
+	private void rehash(int capacity) {
+		final long[] keys = childKeys;
+		final int[] values = childValues;
+		childKeys = new long[capacity];
+		childValues = new int[capacity];
+		final int mask = capacity - 1;
+		for (int j = 0; j < keys.length; j++) {
+			if (keys[j] == 0)
+				continue;
+			int i = hash(keys[j], mask);
+			while (childKeys[i] != 0)
+				i = (i + 1) & mask;
+			childKeys[i] = keys[j];
+			childValues[i] = values[j];
+		}
+	}
+
+}
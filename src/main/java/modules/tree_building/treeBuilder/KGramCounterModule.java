@@ -0,0 +1,320 @@
+package modules.tree_building.treeBuilder;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import base.workbench.ModuleRunner;
+import common.parallelization.CallbackReceiver;
+import modules.CharPipe;
+import modules.InputPort;
+import modules.ModuleImpl;
+import modules.ObjectPipe;
+import modules.OutputPort;
+
+public class KGramCounterModule extends ModuleImpl {
+
+	// Main method for stand-alone execution
+	public static void main(String[] args) throws Exception {
+		ModuleRunner.runStandAlone(KGramCounterModule.class, args);
+	}
+
+	// Property keys
+	public static final String PROPERTYKEY_MAXLENGTH = "Maximum length of k-grams";
+	public static final String PROPERTYKEY_MAXTHREADS = "Max. threads";
+	public static final String PROPERTYKEY_PRETTYPRINT = "Pretty print JSON";
+
+	// Define I/O IDs (the same as AtomicRangeSuffixTrieBuilder's)
+	private static final String ID_INPUT = "input";
+	private static final String ID_OUTPUT = "output";
+
+	// Amount of chars handed to a worker thread at once (the k-grams starting there)
+	private static final int SHARD_LENGTH = 1 << 16;
+	// Marks the end of the input for a worker thread
+	private static final Shard END_OF_INPUT = new Shard(new char[0], 0, 0, true);
+
+	// Local variables
+	private int maxLength = 10;
+	private int maxThreads = 1;
+	private boolean prettyPrint = true;
+
+	public KGramCounterModule(CallbackReceiver callbackReceiver, Properties properties) throws Exception {
+		super(callbackReceiver, properties);
+
+		// Define I/O
+		InputPort inputPort = new InputPort(ID_INPUT, "Plain text character input.", this);
+		inputPort.addSupportedPipe(CharPipe.class);
+		OutputPort outputPort = new OutputPort(ID_OUTPUT, "JSON-encoded suffix trie of the k-grams.", this);
+		outputPort.addSupportedPipe(CharPipe.class);
+		outputPort.addSupportedObjectType(Knoten.class);
+		super.addInputPort(inputPort);
+		super.addOutputPort(outputPort);
+
+		// Add description for properties
+		this.getPropertyDescriptions().put(PROPERTYKEY_MAXLENGTH, "Maximum length of the k-grams counted (greater than zero).");
+		this.getPropertyDescriptions().put(PROPERTYKEY_MAXTHREADS, "Maximum number of threads counting parts of the input.");
+		this.getPropertyDescriptions().put(PROPERTYKEY_PRETTYPRINT, "Indent the JSON output; set to false for compact JSON (smaller and faster to read).");
+
+		// Add default values
+		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, "KGramCounter");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXLENGTH, "10");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXTHREADS, "1");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_PRETTYPRINT, "true");
+
+		// Add module description
+		this.setDescription("Counts how often each substring of up to the maximum length (each k-gram) occurs in a raw and unsegmented string input, in a single pass and in several threads, without building a trie. Outputs the same suffix trie as the AtomicRangeSuffixTrieBuilder with the maximum length as the length of its branches.");
+	}
+
+	@Override
+	public boolean process() throws Exception {
+
+		// Count the k-grams of the input
+		KGramTable table;
+		try {
+			if (this.maxThreads > 1)
+				table = this.countInParallel();
+			else
+				table = this.count();
+		} catch (Exception e) {
+			this.closeAllOutputs();
+			throw e;
+		}
+
+		// Trie der k-Gramme
+		Knoten wurzelKnoten = table.toKnoten("^");
+
+		// Write to all outputs at once, walking the tree once, before modules
+		// accepting objects receive it
+		if (this.getOutputPorts().get(ID_OUTPUT).isConnected(CharPipe.class)) {
+			Writer writer = this.getOutputPorts().get(ID_OUTPUT).createWriter();
+			new KnotenJsonCodec(this.prettyPrint).write(wurzelKnoten, writer);
+			writer.close();
+		}
+
+		// Erst danach wird der Wurzelknoten Modulen, die Objekte annehmen, direkt uebergeben
+		if (this.getOutputPorts().get(ID_OUTPUT).isConnected(ObjectPipe.class))
+			this.getOutputPorts().get(ID_OUTPUT).outputToAllObjectPipes(wurzelKnoten);
+
+		// Close outputs (important!)
+		this.closeAllOutputs();
+
+		return true;
+	}
+
+	/**
+	 * Counts the k-grams of the input in the calling thread.
+	 * @return Table of the whole input
+	 * @throws Exception Thrown if the input cannot be read or the thread is
+	 *             interrupted
+	 */
+	private KGramTable count() throws Exception {
+		KGramTable table = new KGramTable(this.maxLength);
+		ShardReader reader = new ShardReader();
+		Shard shard;
+		do {
+			shard = reader.next();
+			table.count(shard.chars, shard.length, shard.position, shard.last);
+		} while (!shard.last);
+		return table;
+	}
+
+	/**
+	 * Counts the k-grams of the input in maxThreads worker threads. The
+	 * calling thread reads the input and hands it to the workers in shards
+	 * of consecutive chars, each worker counts the k-grams starting in the
+	 * shards it takes into a table of its own. These tables are merged
+	 * afterwards.
+	 * @return Table of the whole input
+	 * @throws Exception Thrown if the input cannot be read, the thread is
+	 *             interrupted or a worker fails
+	 */
+	private KGramTable countInParallel() throws Exception {
+
+		BlockingQueue<Shard> shards = new ArrayBlockingQueue<Shard>(this.maxThreads * 2);
+		List<ShardWorker> workers = new ArrayList<ShardWorker>(this.maxThreads);
+		List<Thread> threads = new ArrayList<Thread>(this.maxThreads);
+		for (int i = 0; i < this.maxThreads; i++) {
+			ShardWorker worker = new ShardWorker(shards, new KGramTable(this.maxLength));
+			Thread thread = new Thread(worker, this.getName() + "-" + i);
+			workers.add(worker);
+			threads.add(thread);
+			thread.start();
+		}
+
+		boolean done = false;
+		try {
+			ShardReader reader = new ShardReader();
+			Shard shard;
+			do {
+				shard = reader.next();
+				handOver(shard, shards, workers);
+			} while (!shard.last);
+			for (int i = 0; i < this.maxThreads; i++)
+				handOver(END_OF_INPUT, shards, workers);
+
+			for (Thread thread : threads)
+				thread.join();
+			checkWorkers(workers);
+			done = true;
+		} finally {
+			// Stop the workers if the k-grams cannot be counted
+			if (!done) {
+				for (Thread thread : threads)
+					thread.interrupt();
+				boolean interrupted = false;
+				for (Thread thread : threads) {
+					while (thread.isAlive()) {
+						try {
+							thread.join();
+						} catch (InterruptedException e) {
+							interrupted = true;
+						}
+					}
+				}
+				if (interrupted)
+					Thread.currentThread().interrupt();
+			}
+		}
+
+		// Merge the workers' tables into the first one
+		KGramTable table = workers.get(0).table;
+		for (int i = 1; i < workers.size(); i++)
+			table.merge(workers.get(i).table);
+		return table;
+	}
+
+	// puts the shard into the queue as soon as there is room, unless a worker failed
+	private static void handOver(Shard shard, BlockingQueue<Shard> shards, List<ShardWorker> workers) throws Exception {
+		checkWorkers(workers);
+		while (!shards.offer(shard, 100, TimeUnit.MILLISECONDS))
+			checkWorkers(workers);
+	}
+
+	// rethrows the failure of the first failed worker
+	private static void checkWorkers(List<ShardWorker> workers) throws Exception {
+		for (ShardWorker worker : workers) {
+			Throwable failure = worker.failure;
+			if (failure instanceof Exception)
+				throw (Exception) failure;
+			if (failure instanceof Error)
+				throw (Error) failure;
+		}
+	}
+
+	/**
+	 * Consecutive chars of the input, the k-grams starting there to be
+	 * counted (see KGramTable.count()).
+	 */
+	private static class Shard {
+
+		private final char[] chars;
+		private final int length;
+		private final long position;
+		private final boolean last;
+
+		private Shard(char[] chars, int length, long position, boolean last) {
+			this.chars = chars;
+			this.length = length;
+			this.position = position;
+			this.last = last;
+		}
+	}
+
+	/**
+	 * Reads the input into shards, each starting with the last maxLength - 1
+	 * chars of the one before, whose k-grams are not complete there.
+	 */
+	private class ShardReader {
+
+		private char[] chars = new char[SHARD_LENGTH + maxLength - 1];
+		private int length;
+		private long position;
+
+		// returns the next shard, the last one once the input is exhausted
+		private Shard next() throws Exception {
+			while (length < chars.length) {
+
+				// Check for interrupt signal
+				if (Thread.interrupted())
+					throw new InterruptedException("Thread has been interrupted.");
+
+				int read = getInputPorts().get(ID_INPUT).read(chars, length, chars.length - length);
+				if (read == -1)
+					return new Shard(chars, length, position, true);
+				length += read;
+			}
+
+			Shard shard = new Shard(chars, length, position, false);
+			int overlap = maxLength - 1;
+			chars = new char[chars.length];
+			System.arraycopy(shard.chars, length - overlap, chars, 0, overlap);
+			length = overlap;
+			position += shard.length - overlap;
+			return shard;
+		}
+	}
+
+	/**
+	 * Counts the k-grams of the shards it takes from the queue until it
+	 * takes END_OF_INPUT.
+	 */
+	private static class ShardWorker implements Runnable {
+
+		private final BlockingQueue<Shard> shards;
+		private final KGramTable table;
+		private volatile Throwable failure;
+
+		private ShardWorker(BlockingQueue<Shard> shards, KGramTable table) {
+			this.shards = shards;
+			this.table = table;
+		}
+
+		@Override
+		public void run() {
+			try {
+				Shard shard;
+				while ((shard = this.shards.take()) != END_OF_INPUT)
+					this.table.count(shard.chars, shard.length, shard.position, shard.last);
+			} catch (InterruptedException e) {
+				// Stopped by the reading thread
+			} catch (Throwable t) {
+				this.failure = t;
+			}
+		}
+	}
+
+	@Override
+	public void applyProperties() throws Exception {
+
+		// Set defaults for properties not yet set
+		super.setDefaultsIfMissing();
+
+		// Apply own properties
+		String maxLengthString = this.getProperties().getProperty(PROPERTYKEY_MAXLENGTH,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_MAXLENGTH));
+		if (maxLengthString != null)
+			this.maxLength = Integer.parseInt(maxLengthString);
+		if (this.maxLength < 1)
+			throw new Exception("Invalid value for property '" + PROPERTYKEY_MAXLENGTH + "'.");
+
+		String maxThreadsString = this.getProperties().getProperty(PROPERTYKEY_MAXTHREADS,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_MAXTHREADS));
+		if (maxThreadsString != null)
+			this.maxThreads = Integer.parseInt(maxThreadsString);
+		if (this.maxThreads < 1)
+			throw new Exception("Invalid value for property '" + PROPERTYKEY_MAXTHREADS + "'.");
+
+		String prettyPrintString = this.getProperties().getProperty(PROPERTYKEY_PRETTYPRINT,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_PRETTYPRINT));
+		if (prettyPrintString != null)
+			this.prettyPrint = Boolean.parseBoolean(prettyPrintString);
+
+		// Apply parent object's properties (just the name variable actually)
+		super.applyProperties();
+	}
+
+}
@@ -0,0 +1,257 @@
+package modules.tree_building.treeBuilder;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Counts the k-grams of a text, i.e. how often each substring of up to
+ * maxLength chars occurs, which is what the nodes of the trie
+ * AtomicRangeSuffixTrieBuilder (or CompactSuffixTrie) builds with a window
+ * of that length count. Instead of a trie, the k-grams are kept in primitive
+ * arrays indexed by k-gram number, found through an open addressing hash
+ * table over their polynomial hash. The k-grams starting at a position are
+ * looked up by increasing length, extending the hash by one char each time,
+ * so a matching hash is verified against the text by comparing just the
+ * k-gram's last char and its prefix (the k-gram found one step before);
+ * neither the text nor an object per k-gram is kept.
+ *
+ * The text may be counted in parts (see count()), by several tables each;
+ * merging these gives the table of the whole text. Once complete,
+ * toKnoten() creates the trie: the Knoten tree AtomicRangeSuffixTrieBuilder
+ * builds (not reversed), children put into their parent's map in the same
+ * order, so its JSON representation is the same.
+ */
+public class KGramTable {
+
+	// Base of the polynomial hash (odd, so no char is lost by overflow)
+	public static final long DEFAULT_BASE = 0x100000001B3l;
+
+	// Prefix of the k-grams of length one
+	private static final int NONE = -1;
+
+	private final int maxLength;
+	private final long base;
+
+	// number of positions counted (the root's counter)
+	private long positions;
+
+	// k-grams, numbered in the order they were added
+	private int size;
+	private long[] hash = new long[16];
+	private int[] prefix = new int[16];
+	private char[] last = new char[16];
+	private int[] zaehler = new int[16];
+	// position of the first occurrence in the text
+	private long[] firstPosition = new long[16];
+
+	// Hash of k-grams to their number; offset by one, so 0 marks an empty slot
+	private int[] slots = new int[32];
+
+	/**
+	 * @param maxLength Maximum length of the k-grams counted (&gt; 0)
+	 */
+	public KGramTable(int maxLength) {
+		this(maxLength, DEFAULT_BASE);
+	}
+
+	/**
+	 * @param maxLength Maximum length of the k-grams counted (&gt; 0)
+	 * @param base Base of the polynomial hash
+	 */
+	public KGramTable(int maxLength, long base) {
+		if (maxLength < 1)
+			throw new IllegalArgumentException("The maximum length must be greater than zero.");
+		this.maxLength = maxLength;
+		this.base = base;
+	}
+
+	/**
+	 * @return The maximum length of the k-grams counted
+	 */
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * Counts the k-grams starting at each position of the given chars whose
+	 * maxLength chars are complete (or at each position, if the chars are
+	 * the end of the text). The next part of the text should thus start with
+	 * the last maxLength - 1 chars of these.
+	 * @param chars Chars
+	 * @param length Number of chars
+	 * @param position Position of the first char in the text
+	 * @param last Whether the chars are the end of the text
+	 * @return The number of positions counted
+	 */
+	public int count(char[] chars, int length, long position, boolean last) {
+		final int starts = last ? length : Math.max(0, length - maxLength + 1);
+		for (int start = 0; start < starts; start++) {
+			final int end = Math.min(length, start + maxLength);
+			// polynomial hash of chars[start, i], extended by one char at a time
+			long h = 0;
+			int kGram = NONE;
+			for (int i = start; i < end; i++) {
+				h = h * base + chars[i];
+				kGram = this.add(h, kGram, chars[i], position + start, 1);
+			}
+		}
+		positions += starts;
+		return starts;
+	}
+
+	/**
+	 * Adds the counts of the given table (of another part of the same text)
+	 * to this one.
+	 * @param table Table with the same maximum length and hash base
+	 */
+	public void merge(KGramTable table) {
+		if (table.maxLength != maxLength || table.base != base)
+			throw new IllegalArgumentException("The tables differ in maximum length or hash base.");
+		// k-grams are numbered after their prefix, so these are merged first
+		final int[] merged = new int[table.size];
+		for (int kGram = 0; kGram < table.size; kGram++) {
+			final int kGramPrefix = table.prefix[kGram] == NONE ? NONE : merged[table.prefix[kGram]];
+			merged[kGram] = this.add(table.hash[kGram], kGramPrefix, table.last[kGram],
+					table.firstPosition[kGram], table.zaehler[kGram]);
+		}
+		positions += table.positions;
+	}
+
+	/**
+	 * @return The number of positions counted
+	 */
+	public long positions() {
+		return positions;
+	}
+
+	/**
+	 * @return The number of distinct k-grams
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param kGram k-gram
+	 * @return How often it occurs (0 if it is longer than the maximum length)
+	 */
+	public int get(String kGram) {
+		long h = 0;
+		int found = NONE;
+		for (int i = 0; i < kGram.length(); i++) {
+			h = h * base + kGram.charAt(i);
+			found = this.find(h, found, kGram.charAt(i));
+			if (found == NONE)
+				return 0;
+		}
+		return found == NONE ? 0 : zaehler[found];
+	}
+
+	/**
+	 * Creates the trie of the k-grams as Knoten objects.
+	 * @param rootName Name of the root node
+	 * @return Root node
+	 * @throws IllegalStateException Thrown if more positions were counted
+	 *             than a Knoten's counter can take
+	 */
+	public Knoten toKnoten(String rootName) {
+		// no k-gram occurs more often than there are positions, so their
+		// counters did not overflow either if the root's does not
+		if (positions > Integer.MAX_VALUE)
+			throw new IllegalStateException("Too many positions for the counter of a node: " + positions);
+		final Knoten root = new Knoten(rootName);
+		root.setZaehler((int) positions);
+
+		// baueTrie() creates nodes by the position of their first occurrence,
+		// a prefix before the k-grams it is the prefix of
+		final Integer[] order = new Integer[size];
+		for (int kGram = 0; kGram < size; kGram++)
+			order[kGram] = Integer.valueOf(kGram);
+		final int[] length = new int[size];
+		for (int kGram = 0; kGram < size; kGram++)
+			length[kGram] = prefix[kGram] == NONE ? 1 : length[prefix[kGram]] + 1;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				final int byPosition = Long.compare(firstPosition[a.intValue()], firstPosition[b.intValue()]);
+				return byPosition != 0 ? byPosition : Integer.compare(length[a.intValue()], length[b.intValue()]);
+			}
+		});
+
+		final Knoten[] knoten = new Knoten[size];
+		for (Integer boxedKGram : order) {
+			final int kGram = boxedKGram.intValue();
+			knoten[kGram] = new Knoten();
+			knoten[kGram].setName(String.valueOf(last[kGram]));
+			knoten[kGram].setZaehler(zaehler[kGram]);
+			final Knoten parent = prefix[kGram] == NONE ? root : knoten[prefix[kGram]];
+			parent.getKinder().put(knoten[kGram].getName(), knoten[kGram]);
+		}
+		return root;
+	}
+
+	private static int index(long h, int mask) {
+		h *= 0x9E3779B97F4A7C15l;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	// returns the number of the k-gram with the given hash, prefix and last char or NONE
+	private int find(long h, int kGramPrefix, char c) {
+		final int mask = slots.length - 1;
+		for (int i = index(h, mask); slots[i] != 0; i = (i + 1) & mask) {
+			final int kGram = slots[i] - 1;
+			if (hash[kGram] == h && prefix[kGram] == kGramPrefix && last[kGram] == c)
+				return kGram;
+		}
+		return NONE;
+	}
+
+	// adds count occurrences of the k-gram, the first at the given position, and returns its number
+	private int add(long h, int kGramPrefix, char c, long position, int count) {
+		final int mask = slots.length - 1;
+		int i = index(h, mask);
+		for (; slots[i] != 0; i = (i + 1) & mask) {
+			final int kGram = slots[i] - 1;
+			// the same hash is the same k-gram only with the same prefix and last char
+			if (hash[kGram] == h && prefix[kGram] == kGramPrefix && last[kGram] == c) {
+				zaehler[kGram] += count;
+				if (position < firstPosition[kGram])
+					firstPosition[kGram] = position;
+				return kGram;
+			}
+		}
+
+		if (size == hash.length) {
+			final int capacity = (int) Math.min(Integer.MAX_VALUE - 8, size + (size >> 1) + 1l);
+			hash = Arrays.copyOf(hash, capacity);
+			prefix = Arrays.copyOf(prefix, capacity);
+			last = Arrays.copyOf(last, capacity);
+			zaehler = Arrays.copyOf(zaehler, capacity);
+			firstPosition = Arrays.copyOf(firstPosition, capacity);
+		}
+		final int kGram = size++;
+		hash[kGram] = h;
+		prefix[kGram] = kGramPrefix;
+		last[kGram] = c;
+		zaehler[kGram] = count;
+		firstPosition[kGram] = position;
+
+		slots[i] = kGram + 1;
+		// keep the load factor at or below one half
+		if (size * 2 > slots.length)
+			this.rehash(slots.length * 2);
+		return kGram;
+	}
+
+	private void rehash(int capacity) {
+		slots = new int[capacity];
+		final int mask = capacity - 1;
+		for (int kGram = 0; kGram < size; kGram++) {
+			int i = index(hash[kGram], mask);
+			while (slots[i] != 0)
+				i = (i + 1) & mask;
+			slots[i] = kGram + 1;
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+package modules.tree_building.treeBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import common.TreeJsonCodec;
+
+/**
+ * Streaming JSON codec for trees of Knoten objects, compatible with Gson's
+ * (reflective) representation of the class.
+ */
+public class KnotenJsonCodec extends TreeJsonCodec<Knoten> {
+
+	/**
+	 * @param prettyPrinting Whether to write pretty printed or compact JSON
+	 */
+	public KnotenJsonCodec(boolean prettyPrinting) {
+		super("kinder", prettyPrinting);
+	}
+
+	@Override
+	protected void writeFieldsBeforeChildren(Knoten knoten, JsonWriter out) throws IOException {
+		out.name("zaehler").value(knoten.getZaehler());
+		if (knoten.getName() != null)
+			out.name("name").value(knoten.getName());
+	}
+
+	@Override
+	protected void writeFieldsAfterChildren(Knoten knoten, JsonWriter out) throws IOException {
+		out.name("match").value(knoten.isMatch());
+	}
+
+	@Override
+	protected Map<String, Knoten> getChildren(Knoten knoten) {
+		return knoten.getKinder();
+	}
+
+	@Override
+	protected Knoten createNode() {
+		return new Knoten();
+	}
+
+	@Override
+	protected void readField(Knoten knoten, String name, JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			if (name.equals("name"))
+				knoten.setName((String) null);
+			else if (name.equals("kinder"))
+				knoten.setKinder(null);
+		} else if (name.equals("zaehler"))
+			knoten.setZaehler(in.nextInt());
+		else if (name.equals("name"))
+			knoten.setName(in.nextString());
+		else if (name.equals("match"))
+			knoten.setMatch(in.nextBoolean());
+		else
+			in.skipValue();
+	}
+
+}
@@ -1,6 +1,7 @@
 package modules.tree_building.treeBuilder;
 
 import java.io.BufferedReader;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
@@ -11,8 +12,8 @@ import java.util.logging.Logger;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
+import modules.ObjectPipe;
 import modules.OutputPort;
-import modules.Pipe;
 import modules.parser.oanc.WortAnnotationTupel;
 
 import com.google.gson.Gson;
@@ -34,6 +35,7 @@ public class TreeBuilder extends ModuleImpl {
 	public static final String PROPERTYKEY_BUILDTRIE = "Build trie instead of tree";
 	public static final String PROPERTYKEY_MAXLENGTH = "Maximum length of branches";
 	public static final String PROPERTYKEY_REVERSE = "Reverse order";
+	public static final String PROPERTYKEY_PRETTYPRINT = "Pretty print JSON";
 
 	// Local variables
 	private final String INPUTID = "input";
@@ -41,6 +43,7 @@ public class TreeBuilder extends ModuleImpl {
 	private boolean baueTrie; // Zeigt an, ob ein Trie oder ein Tree gebaut werden soll
 	private int maxLaenge; // Maximale Laenge des zu bauenden Baums
 	private boolean umgekehrt; // Zeigt an, ob der Baum umgekehrt (als Praefix-Baum) konstruiert werden soll
+	private boolean prettyPrint = true; // Zeigt an, ob die JSON-Ausgabe eingerueckt werden soll
 
 	public TreeBuilder(CallbackReceiver callbackReceiver, Properties properties)
 			throws Exception {
@@ -51,6 +54,7 @@ public class TreeBuilder extends ModuleImpl {
 		inputPort.addSupportedPipe(CharPipe.class);
 		OutputPort outputPort = new OutputPort(OUTPUTID, "JSON-encoded suffix trie.", this);
 		outputPort.addSupportedPipe(CharPipe.class);
+		outputPort.addSupportedObjectType(Knoten.class);
 		super.addInputPort(inputPort);
 		super.addOutputPort(outputPort);
 		
@@ -58,12 +62,14 @@ public class TreeBuilder extends ModuleImpl {
 		this.getPropertyDescriptions().put(PROPERTYKEY_BUILDTRIE,"Set to true if you want to construct a trie instead of a tree.");
 		this.getPropertyDescriptions().put(PROPERTYKEY_MAXLENGTH,"Define the maximum length of any branch of the tree.");
 		this.getPropertyDescriptions().put(PROPERTYKEY_REVERSE,"Reverse the order, construct a prefix-tree.");
+		this.getPropertyDescriptions().put(PROPERTYKEY_PRETTYPRINT,"Indent the JSON output; set to false for compact JSON.");
 		
 		// Add default values
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, "Treebuilder");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_BUILDTRIE, "true");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXLENGTH, "-1");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_REVERSE, "false");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_PRETTYPRINT, "true");
 		
 		// Add module description
 		this.setDescription("Builds a suffixtree from the JSON output of OANCXMLParser (expects annotated JSON, one object per line). Can be configured to build other forms.");
@@ -125,12 +131,18 @@ public class TreeBuilder extends ModuleImpl {
 			
 		}
 		
-		// Letztlich wird der Wurzelknoten (und damit der gesamte erstellte Baum) in JSON umgewandelt und ausgegeben
-		Iterator<Pipe> charPipes = this.getOutputPorts().get(OUTPUTID).getPipes(CharPipe.class).iterator();
-		while (charPipes.hasNext()){
-			gson.toJson(wurzelKnoten, ((CharPipe)charPipes.next()).getOutput());
+		// Der Wurzelknoten (und damit der gesamte erstellte Baum) wird in JSON umgewandelt und in einem
+		// Durchlauf an alle Ausgabekanaele ausgegeben, bevor ihn Module, die Objekte annehmen, erhalten
+		if (this.getOutputPorts().get(OUTPUTID).isConnected(CharPipe.class)) {
+			Writer writer = this.getOutputPorts().get(OUTPUTID).createWriter();
+			new KnotenJsonCodec(this.prettyPrint).write(wurzelKnoten, writer);
+			writer.close();
 		}
 		
+		// Erst danach wird der Wurzelknoten Modulen, die Objekte annehmen, direkt uebergeben
+		if (this.getOutputPorts().get(OUTPUTID).isConnected(ObjectPipe.class))
+			this.getOutputPorts().get(OUTPUTID).outputToAllObjectPipes(wurzelKnoten);
+		
 		// Ausgabekanaele schliessen
 		this.closeAllOutputs();
 		
@@ -151,6 +163,8 @@ public class TreeBuilder extends ModuleImpl {
 			this.maxLaenge = Integer.parseInt(this.getProperties().getProperty(PROPERTYKEY_MAXLENGTH));
 		if (this.getProperties().containsKey(PROPERTYKEY_REVERSE))
 			this.umgekehrt = Boolean.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_REVERSE));
+		if (this.getProperties().containsKey(PROPERTYKEY_PRETTYPRINT))
+			this.prettyPrint = Boolean.parseBoolean(this.getProperties().getProperty(PROPERTYKEY_PRETTYPRINT));
 		super.applyProperties();
 	}
 	
@@ -1,7 +1,11 @@
 package modules.tree_building.treeBuilder;
 
 import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -11,18 +15,19 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Scanner;
 import java.util.SortedMap;
-
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import base.workbench.ModuleRunner;
+import common.ExtensibleTreeNodeJsonCodec;
 import common.parallelization.CallbackReceiver;
 import models.ExtensibleTreeNode;
 import modules.CharPipe;
 import modules.InputPort;
 import modules.ModuleImpl;
 import modules.OutputPort;
-import modules.Pipe;
 
 public class TreeBuilderV3Module extends ModuleImpl {
 
@@ -34,12 +39,19 @@ public class TreeBuilderV3Module extends ModuleImpl {
 	public static final String PROPERTYKEY_MAXDEPTH = "Tree depth";
 	public static final String PROPERTYKEY_OMITREDUNDANTINFO = "Omit redundant info";
 	public static final String PROPERTYKEY_STRUCTURE = "Compact or atomic?";
-	// public static final String PROPERTYKEY_MAXTHREADS = "Max. threads";
+	public static final String PROPERTYKEY_MAXTHREADS = "Max. threads";
+	public static final String PROPERTYKEY_NODEBUDGET = "Node budget";
+	public static final String PROPERTYKEY_PRETTYPRINT = "Pretty print JSON";
 
 	// Define I/O IDs (must be unique for every input or output)
 	private static final String ID_INPUT = "text";
 	private static final String ID_OUTPUT = "tree";
 
+	// Minimum amount of chars handed to a worker thread at once
+	private static final int SHARD_LENGTH = 1 << 14;
+	// Marks the end of the input for a worker thread
+	private static final List<String> END_OF_INPUT = Collections.emptyList();
+
 	// Local variables
 	private String outerInputDelimiter = "\\$";
 	private String innerInputDelimiter = "[\\s]+";
@@ -47,9 +59,10 @@ public class TreeBuilderV3Module extends ModuleImpl {
 	private int maxDepth = -1;
 	private boolean omitRedundantInformation;
 	private boolean compactTree;
+	private int maxThreads = 1;
+	private long nodeBudget = -1;
+	private boolean prettyPrint = true;
 
-	// private int maxThreads;
-	
 	// Main method for stand-alone execution
 	public static void main(String[] args) throws Exception {
 		ModuleRunner.runStandAlone(TreeBuilderV3Module.class, args);
@@ -62,7 +75,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 		super(callbackReceiver, properties);
 
 		// Add module description
-		this.setDescription("<p>This module can be used to construct different types of suffix trees from formatted or non-formatted text input. It uses a custom algorithm and runs in approximate linear time (actually it did turn out that the processing time grows exponentially under certain circumstances, so no guarantee) and uses single thread processing.</p>"
+		this.setDescription("<p>This module can be used to construct different types of suffix trees from formatted or non-formatted text input. It uses a custom algorithm and runs in approximate linear time (actually it did turn out that the processing time grows exponentially under certain circumstances, so no guarantee). Atomic trees can be built by several threads, compact trees are built by a single thread.</p>"
 				+ "<p> The type of tree to build is determined by various parameters. With those, you can build suffix trees that are"
 				+ "<ul>"
 				+ "<li><i>generalised</i> or <i>non-generalised</i>,</li>"
@@ -96,6 +109,15 @@ public class TreeBuilderV3Module extends ModuleImpl {
 		this.getPropertyDescriptions()
 				.put(PROPERTYKEY_STRUCTURE,
 						"Type of suffix tree to output; possible values are 'compact' and 'atomic'.");
+		this.getPropertyDescriptions()
+				.put(PROPERTYKEY_MAXTHREADS,
+						"Maximum number of threads building an atomic tree. With more than one, the strings of the input (as separated by the outer input delimiter) are handed to the threads in shards, each thread builds a tree from its shards and these trees are merged; the output does not depend on the number of threads. Compact trees are always built by a single thread.");
+		this.getPropertyDescriptions()
+				.put(PROPERTYKEY_NODEBUDGET,
+						"Maximum number of nodes to create (the root not included); the module fails once it is exceeded instead of running out of memory. Set to -1 for no constraint. Nodes built by several threads count once per thread, since each thread's tree is held in memory until they are merged.");
+		this.getPropertyDescriptions()
+				.put(PROPERTYKEY_PRETTYPRINT,
+						"Indent the JSON output; set to false for compact JSON (smaller and faster to read).");
 
 		// Add property defaults (_should_ be provided for every property)
 		this.getPropertyDefaultValues().put(ModuleImpl.PROPERTYKEY_NAME, "TreeBuilder v3 Module");
@@ -105,6 +127,9 @@ public class TreeBuilderV3Module extends ModuleImpl {
 		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXDEPTH, "-1");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_OMITREDUNDANTINFO, "true");
 		this.getPropertyDefaultValues().put(PROPERTYKEY_STRUCTURE, "compact");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_MAXTHREADS, "1");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_NODEBUDGET, "-1");
+		this.getPropertyDefaultValues().put(PROPERTYKEY_PRETTYPRINT, "true");
 
 		// Define I/O
 		/*
@@ -132,31 +157,237 @@ public class TreeBuilderV3Module extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 
-		// Initialise tree root node
-		ExtensibleTreeNode rootNode = new ExtensibleTreeNode("^");
-		rootNode.setNodeCounter(1);
-		
-		// Initialise parent relation map
-		Map<ExtensibleTreeNode,ExtensibleTreeNode> childParentRelationMap = new HashMap<ExtensibleTreeNode,ExtensibleTreeNode>();
-		childParentRelationMap.put(rootNode, null);
-
 		// Instantiate outer input scanner
 		Scanner outerInputScanner = new Scanner(this.getInputPorts()
 				.get(ID_INPUT).getInputReader());
 		outerInputScanner.useDelimiter(this.outerInputDelimiter);
 
+		// Build the tree (the trees of several threads can only be merged
+		// into an atomic tree)
+		ExtensibleTreeNode rootNode;
+		try {
+			if (this.maxThreads > 1 && !this.compactTree)
+				rootNode = this.buildInParallel(outerInputScanner);
+			else
+				rootNode = this.build(outerInputScanner);
+		} catch (Exception e) {
+			this.closeAllOutputs();
+			throw e;
+		} finally {
+			outerInputScanner.close();
+		}
+
+		// Loop over leaves to eliminate parent relations (since they make
+		// serialisation impossible)
+		/*
+		 * Iterator<ExtensibleTreeNode> leaves = leafList.iterator(); while
+		 * (leaves.hasNext()){ ExtensibleTreeNode leaf = leaves.next();
+		 * ExtensibleTreeNode parent =
+		 * (((ExtensibleTreeNode)(leaf.getAttributes(
+		 * ).get(attribkey_parentnode)))); while (parent != null){
+		 * leaf.getAttributes().put(attribkey_parentnode, null); leaf = parent;
+		 * parent =
+		 * (((ExtensibleTreeNode)(parent.getAttributes().get(attribkey_parentnode
+		 * )))); } }
+		 */
+
+		// Write to all outputs at once, walking the tree once
+		if (this.getOutputPorts().get(ID_OUTPUT).isConnected(CharPipe.class)) {
+			Writer writer = this.getOutputPorts().get(ID_OUTPUT).createWriter();
+			new ExtensibleTreeNodeJsonCodec(this.prettyPrint).write(rootNode, writer);
+			writer.close();
+		}
+
+		// Close outputs (important!)
+		this.closeAllOutputs();
+
+		// Done
+		return true;
+	}
+
+	/**
+	 * Builds the tree from all strings of the input in the calling thread.
+	 * @param outerInputScanner Scanner returning the strings
+	 * @return Root node
+	 * @throws Exception Thrown if the thread is interrupted or the node
+	 *             budget is exceeded
+	 */
+	private ExtensibleTreeNode build(Scanner outerInputScanner) throws Exception {
+
+		// Initialise tree root node and parent relation map
+		Map<ExtensibleTreeNode,ExtensibleTreeNode> childParentRelationMap = new HashMap<ExtensibleTreeNode,ExtensibleTreeNode>();
+		ExtensibleTreeNode rootNode = createRootNode(childParentRelationMap);
+
+		this.insert(outerInputScanner, rootNode, childParentRelationMap,
+				new AtomicLong());
+		return rootNode;
+	}
+
+	/**
+	 * Builds an atomic tree from all strings of the input in maxThreads
+	 * worker threads. The calling thread reads the strings and hands them to
+	 * the workers in shards of consecutive strings, each worker builds a tree
+	 * from the shards it takes. These trees are merged afterwards: an atomic
+	 * tree holds the path of each suffix inserted, no matter in which order,
+	 * and a node's counter is the number of leaves below it, so the merged
+	 * tree is the one a single thread builds.
+	 * @param outerInputScanner Scanner returning the strings
+	 * @return Root node
+	 * @throws Exception Thrown if the thread is interrupted, the node budget
+	 *             is exceeded or a worker fails
+	 */
+	private ExtensibleTreeNode buildInParallel(Scanner outerInputScanner) throws Exception {
+
+		BlockingQueue<List<String>> shards = new ArrayBlockingQueue<List<String>>(this.maxThreads * 2);
+		AtomicLong nodeCount = new AtomicLong();
+		List<ShardWorker> workers = new ArrayList<ShardWorker>(this.maxThreads);
+		List<Thread> threads = new ArrayList<Thread>(this.maxThreads);
+		for (int i = 0; i < this.maxThreads; i++) {
+			ShardWorker worker = new ShardWorker(shards, nodeCount);
+			Thread thread = new Thread(worker, this.getName() + "-" + i);
+			workers.add(worker);
+			threads.add(thread);
+			thread.start();
+		}
+
+		boolean done = false;
+		try {
+			// Outer input read loop
+			List<String> shard = new ArrayList<String>();
+			int shardLength = 0;
+			while (outerInputScanner.hasNext()) {
+
+				// Check for interrupt signal
+				if (Thread.interrupted())
+					throw new InterruptedException("Thread has been interrupted.");
+
+				String outerInputSegment = outerInputScanner.next();
+				shard.add(outerInputSegment);
+				shardLength += outerInputSegment.length();
+				if (shardLength >= SHARD_LENGTH) {
+					handOver(shard, shards, workers);
+					shard = new ArrayList<String>();
+					shardLength = 0;
+				}
+			}
+			if (!shard.isEmpty())
+				handOver(shard, shards, workers);
+			for (int i = 0; i < this.maxThreads; i++)
+				handOver(END_OF_INPUT, shards, workers);
+
+			for (Thread thread : threads)
+				thread.join();
+			checkWorkers(workers);
+			done = true;
+		} finally {
+			// Stop the workers if the tree cannot be built
+			if (!done) {
+				for (Thread thread : threads)
+					thread.interrupt();
+				boolean interrupted = false;
+				for (Thread thread : threads) {
+					while (thread.isAlive()) {
+						try {
+							thread.join();
+						} catch (InterruptedException e) {
+							interrupted = true;
+						}
+					}
+				}
+				if (interrupted)
+					Thread.currentThread().interrupt();
+			}
+		}
+
+		// Merge the workers' trees into the first one
+		ExtensibleTreeNode rootNode = workers.get(0).rootNode;
+		Deque<ExtensibleTreeNode[]> merges = new ArrayDeque<ExtensibleTreeNode[]>();
+		for (int i = workers.size() - 1; i > 0; i--)
+			merges.push(new ExtensibleTreeNode[] { rootNode, workers.get(i).rootNode });
+		while (!merges.isEmpty()) {
+			ExtensibleTreeNode[] merge = merges.pop();
+			for (Entry<String, ExtensibleTreeNode> child : merge[1].getChildNodes().entrySet()) {
+				ExtensibleTreeNode existingChild = merge[0].getChildNodes().get(child.getKey());
+				if (existingChild == null)
+					merge[0].getChildNodes().put(child.getKey(), child.getValue());
+				else
+					merges.push(new ExtensibleTreeNode[] { existingChild, child.getValue() });
+			}
+		}
+
+		// Recount the leaves below each node (children before their parents)
+		List<ExtensibleTreeNode> nodes = new ArrayList<ExtensibleTreeNode>();
+		nodes.add(rootNode);
+		for (int i = 0; i < nodes.size(); i++)
+			nodes.addAll(nodes.get(i).getChildNodes().values());
+		for (int i = nodes.size() - 1; i >= 0; i--) {
+			ExtensibleTreeNode node = nodes.get(i);
+			int leaves = node.getChildNodes().isEmpty() ? 1 : 0;
+			for (ExtensibleTreeNode childNode : node.getChildNodes().values())
+				leaves += childNode.getNodeCounter();
+			node.setNodeCounter(leaves);
+		}
+
+		return rootNode;
+	}
+
+	// puts the shard into the queue as soon as there is room, unless a worker failed
+	private static void handOver(List<String> shard, BlockingQueue<List<String>> shards, List<ShardWorker> workers) throws Exception {
+		checkWorkers(workers);
+		while (!shards.offer(shard, 100, TimeUnit.MILLISECONDS))
+			checkWorkers(workers);
+	}
+
+	// rethrows the failure of the first failed worker
+	private static void checkWorkers(List<ShardWorker> workers) throws Exception {
+		for (ShardWorker worker : workers) {
+			Throwable failure = worker.failure;
+			if (failure instanceof Exception)
+				throw (Exception) failure;
+			if (failure instanceof Error)
+				throw (Error) failure;
+		}
+	}
+
+	private static ExtensibleTreeNode createRootNode(Map<ExtensibleTreeNode,ExtensibleTreeNode> childParentRelationMap) {
+		ExtensibleTreeNode rootNode = new ExtensibleTreeNode("^");
+		rootNode.setNodeCounter(1);
+		childParentRelationMap.put(rootNode, null);
+		return rootNode;
+	}
+
+	// counts a node about to be created against the node budget
+	private void countNode(AtomicLong nodeCount) throws Exception {
+		if (this.nodeBudget >= 0 && nodeCount.incrementAndGet() > this.nodeBudget)
+			throw new Exception("The tree exceeds the node budget of "
+					+ this.nodeBudget + " nodes (see property '"
+					+ PROPERTYKEY_NODEBUDGET + "').");
+	}
+
+	/**
+	 * Inserts the suffixes of each string (a segment of the input as
+	 * separated by the outer input delimiter) into the tree.
+	 * @param outerInputSegments Strings
+	 * @param rootNode Root node of the tree
+	 * @param childParentRelationMap Parent of each node of the tree
+	 * @param nodeCount Number of nodes created so far
+	 * @throws Exception Thrown if the thread is interrupted or the node
+	 *             budget is exceeded
+	 */
+	private void insert(Iterator<String> outerInputSegments, ExtensibleTreeNode rootNode,
+			Map<ExtensibleTreeNode,ExtensibleTreeNode> childParentRelationMap,
+			AtomicLong nodeCount) throws Exception {
+
 		// Outer input read loop
-		while (outerInputScanner.hasNext()) {
+		while (outerInputSegments.hasNext()) {
 
 			// Check for interrupt signal
 			if (Thread.interrupted()) {
-				outerInputScanner.close();
-				this.closeAllOutputs();
 				throw new InterruptedException("Thread has been interrupted.");
 			}
 
 			// Determine next segment
-			String outerInputSegment = outerInputScanner.next();
+			String outerInputSegment = outerInputSegments.next();
 
 			// Initialise leaf list
 			List<ExtensibleTreeNode> leafList = new ArrayList<ExtensibleTreeNode>();
@@ -173,7 +404,6 @@ public class TreeBuilderV3Module extends ModuleImpl {
 				// Check for interrupt signal
 				if (Thread.interrupted()) {
 					innerInputScanner.close();
-					this.closeAllOutputs();
 					throw new InterruptedException(
 							"Thread has been interrupted.");
 				}
@@ -209,7 +439,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 						if (!childNodesThatStartWithSegment.isEmpty()) {
 							String childNodeValue = childNodesThatStartWithSegment
 									.firstKey();
-							childNode = (ExtensibleTreeNode) childNodesThatStartWithSegment
+							childNode = childNodesThatStartWithSegment
 									.get(childNodeValue);
 							// If the child node's value is longer than the
 							// input segment, we have to insert a split (i.e. a
@@ -221,7 +451,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 										.substring(inputSegment.length());
 
 								// Determine parent node value
-								String parentNodeValue = (String) node
+								String parentNodeValue = node
 										.getNodeValue();
 								// If the value is only present as a map key, we
 								// have to search it first
@@ -271,6 +501,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 									childNode = node;
 								} else {
 									// Create new node for the read segment
+									this.countNode(nodeCount);
 									ExtensibleTreeNode newNode = new ExtensibleTreeNode();
 									newNode.setNodeCounter(childNode
 											.getNodeCounter());
@@ -294,7 +525,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 						}
 
 					} else
-						childNode = (ExtensibleTreeNode) node.getChildNodes()
+						childNode = node.getChildNodes()
 								.get(inputSegment);
 
 					// Check if child node does not yet exist (and if so, create
@@ -331,6 +562,7 @@ public class TreeBuilderV3Module extends ModuleImpl {
 							childNode = node;
 
 						} else {
+							this.countNode(nodeCount);
 							childNode = new ExtensibleTreeNode();
 							childParentRelationMap.put(childNode, node);
 							if (!omitRedundantInformation)
@@ -417,42 +649,38 @@ public class TreeBuilderV3Module extends ModuleImpl {
 			innerInputScanner.close();
 
 		}
-		outerInputScanner.close();
-
-		// Loop over leaves to eliminate parent relations (since they make
-		// serialisation impossible)
-		/*
-		 * Iterator<ExtensibleTreeNode> leaves = leafList.iterator(); while
-		 * (leaves.hasNext()){ ExtensibleTreeNode leaf = leaves.next();
-		 * ExtensibleTreeNode parent =
-		 * (((ExtensibleTreeNode)(leaf.getAttributes(
-		 * ).get(attribkey_parentnode)))); while (parent != null){
-		 * leaf.getAttributes().put(attribkey_parentnode, null); leaf = parent;
-		 * parent =
-		 * (((ExtensibleTreeNode)(parent.getAttributes().get(attribkey_parentnode
-		 * )))); } }
-		 */
+	}
 
-		// Initialise JSON serialiser
-		GsonBuilder gsonBuilder = new GsonBuilder();
-		// gsonBuilder.registerTypeAdapter(ModuleNetwork.class, new
-		// ParentRelationTreeNodeSerialiser());
-		Gson gson = gsonBuilder.setPrettyPrinting().create();
-
-		// Write to outputs // TODO Not sure if this is really the best
-		// performing method. Needs testing.
-		Iterator<Pipe> outputPipes = this.getOutputPorts().get(ID_OUTPUT)
-				.getPipes(CharPipe.class).iterator();
-		while (outputPipes.hasNext()) {
-			CharPipe outputPipe = (CharPipe) outputPipes.next();
-			gson.toJson(rootNode, outputPipe.getOutput());
+	/**
+	 * Builds a tree from the shards it takes from the queue until it takes
+	 * END_OF_INPUT.
+	 */
+	private class ShardWorker implements Runnable {
+
+		private final BlockingQueue<List<String>> shards;
+		private final AtomicLong nodeCount;
+		private final Map<ExtensibleTreeNode,ExtensibleTreeNode> childParentRelationMap = new HashMap<ExtensibleTreeNode,ExtensibleTreeNode>();
+		private final ExtensibleTreeNode rootNode = createRootNode(childParentRelationMap);
+		private volatile Throwable failure;
+
+		private ShardWorker(BlockingQueue<List<String>> shards, AtomicLong nodeCount) {
+			this.shards = shards;
+			this.nodeCount = nodeCount;
 		}
 
-		// Close outputs (important!)
-		this.closeAllOutputs();
-
-		// Done
-		return true;
+		@Override
+		public void run() {
+			try {
+				List<String> shard;
+				while ((shard = this.shards.take()) != END_OF_INPUT)
+					insert(shard.iterator(), this.rootNode,
+							this.childParentRelationMap, this.nodeCount);
+			} catch (InterruptedException e) {
+				// Stopped by the reading thread
+			} catch (Throwable t) {
+				this.failure = t;
+			}
+		}
 	}
 
 	@Override
@@ -507,9 +735,26 @@ public class TreeBuilderV3Module extends ModuleImpl {
 				throw new Exception("Invalid value for property '"
 						+ PROPERTYKEY_STRUCTURE + "'.");
 
-		// this.maxThreads =
-		// Integer.parseInt(this.getProperties().getProperty(PROPERTYKEY_MAXTHREADS,
-		// this.getPropertyDefaultValues().get(PROPERTYKEY_MAXTHREADS)));
+		String maxThreadsString = this.getProperties().getProperty(
+				PROPERTYKEY_MAXTHREADS,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_MAXTHREADS));
+		if (maxThreadsString != null)
+			this.maxThreads = Integer.parseInt(maxThreadsString);
+		if (this.maxThreads < 1)
+			throw new Exception("Invalid value for property '"
+					+ PROPERTYKEY_MAXTHREADS + "'.");
+
+		String nodeBudgetString = this.getProperties().getProperty(
+				PROPERTYKEY_NODEBUDGET,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_NODEBUDGET));
+		if (nodeBudgetString != null)
+			this.nodeBudget = Long.parseLong(nodeBudgetString);
+
+		String prettyPrintString = this.getProperties().getProperty(
+				PROPERTYKEY_PRETTYPRINT,
+				this.getPropertyDefaultValues().get(PROPERTYKEY_PRETTYPRINT));
+		if (prettyPrintString != null)
+			this.prettyPrint = Boolean.parseBoolean(prettyPrintString);
 
 		// Apply parent object's properties (just the name variable actually)
 		super.applyProperties();
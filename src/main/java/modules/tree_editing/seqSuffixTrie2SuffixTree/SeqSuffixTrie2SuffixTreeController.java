@@ -167,13 +167,11 @@ public class SeqSuffixTrie2SuffixTreeController extends ModuleImpl {
 								}
 								
 								node.addNode(childNode.getValue(), childNode);
-								subIt.remove(); // avoids a ConcurrentModificationException
 							}
 							
 							rootNode.addNode(node.getValue(), node);
 					}
 			}
-		    it.remove(); // avoids a ConcurrentModificationException
 		}
 	}
 	
@@ -268,7 +266,6 @@ public class SeqSuffixTrie2SuffixTreeController extends ModuleImpl {
 					currPropNode.addNode(newNode.getValue(), newNode);
 				}
 			}
-			deepIt.remove(); // avoids a ConcurrentModificationException
 			return currPropNode;
 		}
 	}
@@ -2,15 +2,16 @@ package modules.vectorization;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
-import java.util.Scanner;
 
 import common.DoubleComparator;
 import common.StringUnescaper;
 import common.parallelization.CallbackReceiver;
 import modules.CharPipe;
 import modules.InputPort;
+import modules.InputPortReader;
 import modules.ModuleImpl;
 import modules.OutputPort;
 
@@ -87,17 +88,17 @@ public class VectorAberrationCalculatorModule extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 
-		// Construct scanner instances for input segmentation
-		Scanner inputScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
-		inputScanner.useDelimiter("\\R+");
+		// Read the input line by line (skipping empty lines)
+		InputPortReader inputReader = this.getInputPorts().get(ID_INPUT).getReader();
+		Iterator<String> inputLines = inputReader.iterateLines(true).iterator();
 		
 		// Read csv header line (except when we will sort the output anyway)
 		if (!this.sort) {
 			String[] head = null;
-			if (inputScanner.hasNext()) {
-				head = inputScanner.next().split(this.inputCsvDelimiterRegex);
+			if (inputLines.hasNext()) {
+				head = inputLines.next().split(this.inputCsvDelimiterRegex);
 			} else {
-				inputScanner.close();
+				inputReader.close();
 				this.closeAllOutputs();
 				throw new Exception("The CSV input is zero lines; aborting.");
 			}
@@ -107,11 +108,11 @@ public class VectorAberrationCalculatorModule extends ModuleImpl {
 				this.getOutputPorts().get(ID_OUTPUT).outputToAllCharPipes(head[i] + this.outputCsvDelimiter);
 			}
 			this.getOutputPorts().get(ID_OUTPUT).outputToAllCharPipes("\n");
-		} else if (inputScanner.hasNext()) {
+		} else if (inputLines.hasNext()) {
 			// Silently drop the header line
-			inputScanner.next();
+			inputLines.next();
 		} else {
-			inputScanner.close();
+			inputReader.close();
 			this.closeAllOutputs();
 			throw new Exception("The CSV input is zero lines; aborting.");
 		}
@@ -121,16 +122,16 @@ public class VectorAberrationCalculatorModule extends ModuleImpl {
 		Comparator<Double> comparator = new DoubleComparator();
 		
 		// Input read loop
-		while (inputScanner.hasNext()) {
+		while (inputLines.hasNext()) {
 			// Determine next segment
-			String dataLine = inputScanner.next();
+			String dataLine = inputLines.next();
 			
 			// Explode data line
 			String[] data = dataLine.split(this.inputCsvDelimiterRegex);
 			
 			// Check whether the row has at least one true data field
 			if (data.length<2){
-				inputScanner.close();
+				inputReader.close();
 				throw new Exception("I happened upon an empty data row -- rekon something is wrong here.");
 			}
 			
@@ -184,8 +185,8 @@ public class VectorAberrationCalculatorModule extends ModuleImpl {
 
 		}
 		
-		// Close input scanner
-		inputScanner.close();
+		// Close input reader
+		inputReader.close();
 		
 		// Close outputs (important!)
 		this.closeAllOutputs();
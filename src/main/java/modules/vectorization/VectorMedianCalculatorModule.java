@@ -3,10 +3,10 @@ package modules.vectorization;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Scanner;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -15,6 +15,7 @@ import common.DoubleComparator;
 import common.parallelization.CallbackReceiver;
 import modules.CharPipe;
 import modules.InputPort;
+import modules.InputPortReader;
 import modules.ModuleImpl;
 import modules.OutputPort;
 
@@ -68,15 +69,15 @@ public class VectorMedianCalculatorModule extends ModuleImpl {
 	@Override
 	public boolean process() throws Exception {
 
-		// Construct scanner instances for input segmentation
-		Scanner inputScanner = new Scanner(this.getInputPorts().get(ID_INPUT).getInputReader());
-		inputScanner.useDelimiter("\\R+");
+		// Read the input line by line (skipping empty lines)
+		InputPortReader inputReader = this.getInputPorts().get(ID_INPUT).getReader();
+		Iterator<String> inputLines = inputReader.iterateLines(true).iterator();
 		
 		// Skip csv head (we will sort the data lines individually anyway, so no sense in keeping track of the edge labels)
-		if (inputScanner.hasNext()){
-			inputScanner.next();
+		if (inputLines.hasNext()){
+			inputLines.next();
 		} else {
-			inputScanner.close();
+			inputReader.close();
 			this.closeAllOutputs();
 			throw new Exception("The CSV input is zero lines; aborting.");
 		}
@@ -88,16 +89,16 @@ public class VectorMedianCalculatorModule extends ModuleImpl {
 		Comparator<Double> comparator = new DoubleComparator();
 		
 		// Input read loop
-		while (inputScanner.hasNext()) {
+		while (inputLines.hasNext()) {
 			// Determine next segment
-			String dataLine = inputScanner.next();
+			String dataLine = inputLines.next();
 			
 			// Explode data line
 			String[] data = dataLine.split("[,;]");
 			
 			// Check whether the row has at least one true data field
 			if (data.length<2){
-				inputScanner.close();
+				inputReader.close();
 				throw new Exception("I happened upon an empty data row -- rekon something is wrong here.");
 			}
 			
@@ -142,8 +143,8 @@ public class VectorMedianCalculatorModule extends ModuleImpl {
 
 		}
 		
-		// Close input scanner
-		inputScanner.close();
+		// Close input reader
+		inputReader.close();
 
 		// Output median map
 		Gson gson = new GsonBuilder().setPrettyPrinting().create();
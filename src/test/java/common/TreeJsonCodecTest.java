@@ -0,0 +1,139 @@
+package common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import models.ExtensibleTreeNode;
+import modules.tree_building.treeBuilder.Knoten;
+import modules.tree_building.treeBuilder.KnotenJsonCodec;
+
+public class TreeJsonCodecTest {
+
+	private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+	private static final Gson GSON = new Gson();
+
+	// keys include chars Gson escapes
+	private static final String[] KEYS = { "a", "b", "ab ", "<c>", "d'=", "äß", "\"q\"", "x\\y" };
+
+	private static ExtensibleTreeNode randomExtensibleTree(Random random, int depth) {
+		ExtensibleTreeNode node = new ExtensibleTreeNode();
+		if (random.nextBoolean())
+			node.setNodeValue(KEYS[random.nextInt(KEYS.length)]);
+		node.setNodeCounter(random.nextInt(100));
+		if (random.nextInt(3) == 0)
+			node.getAttributes().put("doubleCounter", new Double(random.nextInt(10)));
+		if (random.nextInt(3) == 0)
+			node.getAttributes().put("text", "attribute & <text>");
+		if (depth > 0) {
+			int children = random.nextInt(4);
+			for (int i = 0; i < children; i++)
+				node.getChildNodes().put(KEYS[random.nextInt(KEYS.length)], randomExtensibleTree(random, depth - 1));
+		}
+		return node;
+	}
+
+	private static Knoten randomKnotenTree(Random random, int depth) {
+		Knoten knoten = new Knoten();
+		if (random.nextBoolean())
+			knoten.setName(KEYS[random.nextInt(KEYS.length)]);
+		knoten.setZaehler(random.nextInt(100));
+		knoten.setMatch(random.nextBoolean());
+		if (depth > 0) {
+			int children = random.nextInt(4);
+			for (int i = 0; i < children; i++)
+				knoten.getKinder().put(KEYS[random.nextInt(KEYS.length)], randomKnotenTree(random, depth - 1));
+		}
+		return knoten;
+	}
+
+	private static <N> String write(TreeJsonCodec<N> codec, N rootNode) throws Exception {
+		StringWriter writer = new StringWriter();
+		codec.write(rootNode, writer);
+		return writer.toString();
+	}
+
+	@Test
+	public void testExtensibleTreeNodeAsGson() throws Exception {
+		Random random = new Random(7);
+		for (int i = 0; i < 200; i++) {
+			ExtensibleTreeNode rootNode = randomExtensibleTree(random, 5);
+			String prettyJson = PRETTY_GSON.toJson(rootNode);
+			String json = GSON.toJson(rootNode);
+			assertEquals(prettyJson, write(new ExtensibleTreeNodeJsonCodec(), rootNode));
+			assertEquals(json, write(new ExtensibleTreeNodeJsonCodec(false), rootNode));
+
+			// Either representation reads back to the same tree, attributes included
+			assertEquals(json, GSON.toJson(new ExtensibleTreeNodeJsonCodec().read(new StringReader(prettyJson))));
+			ExtensibleTreeNode readNode = new ExtensibleTreeNodeJsonCodec().read(new StringReader(json));
+			assertEquals(json, GSON.toJson(readNode));
+			assertEquals(json, GSON.toJson(GSON.fromJson(json, ExtensibleTreeNode.class)));
+		}
+	}
+
+	@Test
+	public void testKnotenAsGson() throws Exception {
+		Random random = new Random(11);
+		for (int i = 0; i < 200; i++) {
+			Knoten rootKnoten = randomKnotenTree(random, 5);
+			String prettyJson = PRETTY_GSON.toJson(rootKnoten);
+			String json = GSON.toJson(rootKnoten);
+			assertEquals(prettyJson, write(new KnotenJsonCodec(true), rootKnoten));
+			assertEquals(json, write(new KnotenJsonCodec(false), rootKnoten));
+			assertEquals(json, GSON.toJson(new KnotenJsonCodec(false).read(new StringReader(prettyJson))));
+		}
+	}
+
+	@Test
+	public void testAttributeTypes() throws Exception {
+		ExtensibleTreeNode node = new ExtensibleTreeNode("^");
+		node.getAttributes().put("doubleCounter", new Double(3));
+		node.getAttributes().put("nothing", null);
+		node.getChildNodes().put("child", null);
+		String json = write(new ExtensibleTreeNodeJsonCodec(false), node);
+		assertEquals(GSON.toJson(node), json);
+
+		ExtensibleTreeNode readNode = new ExtensibleTreeNodeJsonCodec().read(new StringReader(json));
+		assertEquals(Double.class, readNode.getAttributes().get("doubleCounter").getClass());
+		assertEquals(json, GSON.toJson(readNode));
+	}
+
+	@Test
+	public void testDeepTree() throws Exception {
+		// Far deeper than a recursive walk could handle
+		int depth = 100000;
+		ExtensibleTreeNode rootNode = new ExtensibleTreeNode("^");
+		ExtensibleTreeNode node = rootNode;
+		for (int i = 0; i < depth; i++) {
+			ExtensibleTreeNode child = new ExtensibleTreeNode();
+			child.setNodeCounter(i);
+			node.getChildNodes().put(String.valueOf(i % 10), child);
+			node = child;
+		}
+
+		String json = write(new ExtensibleTreeNodeJsonCodec(false), rootNode);
+		node = new ExtensibleTreeNodeJsonCodec().read(new StringReader(json));
+		assertEquals("^", node.getNodeValue());
+		for (int i = 0; i < depth; i++) {
+			node = node.getChildNodes().get(String.valueOf(i % 10));
+			assertEquals(i, node.getNodeCounter());
+		}
+		assertEquals(0, node.getChildNodes().size());
+	}
+
+	@Test
+	public void testEmptyInput() throws Exception {
+		assertNull(new ExtensibleTreeNodeJsonCodec().read(new StringReader("")));
+		assertNull(new ExtensibleTreeNodeJsonCodec().read(new StringReader("null")));
+		assertEquals("null", write(new ExtensibleTreeNodeJsonCodec(), null));
+	}
+
+}
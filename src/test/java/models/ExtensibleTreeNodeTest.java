@@ -1,5 +1,7 @@
 package models;
 
+import java.util.Map;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -33,6 +35,45 @@ public class ExtensibleTreeNodeTest {
 		Assert.assertTrue(((Double)(node3.getChildNodes().get("child").getAttributes().get("doubleCounter"))).doubleValue() == 4d);
 		Assert.assertTrue(node3.getChildNodes().get("child").getAttributes().get("doubleCounter").getClass().equals(Double.class));
 	}
+
+	@Test
+	public void gsonFormatTest() {
+		// As written by Gson for the former TreeMap and HashMap fields
+		String json = "{\"nodeValue\":\"^\",\"nodeCounter\":3,\"childNodes\":{"
+				+ "\"b\":{\"nodeCounter\":2,\"childNodes\":{\"a\":{\"nodeValue\":\"a\",\"nodeCounter\":1,\"childNodes\":{},\"attributes\":{\"doubleCounter\":1.5}}},\"attributes\":{}},"
+				+ "\"c\\u003c\":{\"nodeCounter\":1,\"childNodes\":{},\"attributes\":{}}},\"attributes\":{}}";
+
+		ExtensibleTreeNode root = new ExtensibleTreeNode("^");
+		root.setNodeCounter(3);
+		ExtensibleTreeNode c = new ExtensibleTreeNode();
+		c.setNodeCounter(1);
+		root.getChildNodes().put("c<", c);
+		ExtensibleTreeNode b = new ExtensibleTreeNode();
+		b.setNodeCounter(2);
+		root.getChildNodes().put("b", b);
+		ExtensibleTreeNode a = new ExtensibleTreeNode("a");
+		a.setNodeCounter(1);
+		a.getAttributes().put("doubleCounter", new Double(1.5));
+		b.getChildNodes().put("a", a);
+
+		Gson gson = new Gson();
+		Assert.assertEquals(json, gson.toJson(root));
+		Assert.assertEquals(json, gson.toJson(gson.fromJson(json, ExtensibleTreeNode.class)));
+		Assert.assertEquals(json, gson.toJson(gson.fromJson(new GsonBuilder().setPrettyPrinting().create().toJson(root), ExtensibleTreeNode.class)));
+	}
+
+	@Test
+	public void lazyAttributesTest() {
+		ExtensibleTreeNode node = new ExtensibleTreeNode();
+		Map<String, Object> attributes = node.getAttributes();
+		Assert.assertTrue(attributes.isEmpty());
+		Assert.assertNull(attributes.get("text"));
+
+		// A view obtained before the first put sees the created map
+		attributes.put("text", "value");
+		Assert.assertEquals("value", node.getAttributes().get("text"));
+		Assert.assertEquals(1, attributes.size());
+	}
 	
 	
 
@@ -0,0 +1,93 @@
+package models;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SortedArrayMapTest {
+
+	private static final String[] KEYS = { "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "ab", "ba", "ä", "" };
+
+	@Test
+	public void behavesLikeTreeMapTest() {
+		Random random = new Random(3);
+		for (int run = 0; run < 500; run++) {
+			SortedMap<String, Integer> map = new SortedArrayMap<Integer>();
+			TreeMap<String, Integer> expected = new TreeMap<String, Integer>();
+			for (int op = 0; op < 40; op++) {
+				String key = KEYS[random.nextInt(KEYS.length)];
+				switch (random.nextInt(4)) {
+				case 0:
+				case 1:
+					Assert.assertEquals(expected.put(key, op), map.put(key, op));
+					break;
+				case 2:
+					Assert.assertEquals(expected.remove(key), map.remove(key));
+					break;
+				default:
+					// Remove every other entry through the iterator
+					Iterator<Entry<String, Integer>> entries = map.entrySet().iterator();
+					Iterator<Entry<String, Integer>> expectedEntries = expected.entrySet().iterator();
+					boolean remove = random.nextBoolean();
+					while (expectedEntries.hasNext()) {
+						Assert.assertEquals(expectedEntries.next(), entries.next());
+						if (remove) {
+							entries.remove();
+							expectedEntries.remove();
+						}
+						remove = !remove;
+					}
+					Assert.assertFalse(entries.hasNext());
+				}
+				Assert.assertEquals(expected, map);
+				Assert.assertEquals(expected.toString(), map.toString());
+				Assert.assertEquals(expected.get(key), map.get(key));
+				Assert.assertEquals(expected.containsKey(key), map.containsKey(key));
+
+				String from = KEYS[random.nextInt(KEYS.length)];
+				String to = KEYS[random.nextInt(KEYS.length)];
+				if (from.compareTo(to) <= 0) {
+					Assert.assertEquals(expected.subMap(from, to), map.subMap(from, to));
+					Assert.assertEquals(expected.subMap(from, to).size(), map.subMap(from, to).size());
+				}
+				Assert.assertEquals(expected.headMap(to), map.headMap(to));
+				Assert.assertEquals(expected.tailMap(from), map.tailMap(from));
+				if (!expected.isEmpty()) {
+					Assert.assertEquals(expected.firstKey(), map.firstKey());
+					Assert.assertEquals(expected.lastKey(), map.lastKey());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void viewsAreLiveTest() {
+		SortedMap<String, Integer> map = new SortedArrayMap<Integer>();
+		SortedMap<String, Integer> subMap = map.subMap("b", "d");
+		map.put("a", 1);
+		map.put("c", 3);
+		Assert.assertEquals(1, subMap.size());
+		subMap.put("b", 2);
+		Assert.assertEquals(Integer.valueOf(2), map.get("b"));
+		map.entrySet().iterator().next().setValue(0);
+		Assert.assertEquals(Integer.valueOf(0), map.get("a"));
+
+		// Beyond the array size, the views switch to the tree map
+		for (int i = 0; i < SortedArrayMap.MAX_ARRAY_SIZE; i++)
+			map.put("c" + i, i);
+		Assert.assertEquals(3 + SortedArrayMap.MAX_ARRAY_SIZE - 1, subMap.size());
+	}
+
+	@Test
+	public void singleCharKeysAreInternedTest() {
+		SortedArrayMap<Integer> map = new SortedArrayMap<Integer>();
+		map.put(new String("x"), 1);
+		Assert.assertSame("x", map.firstKey());
+	}
+
+}
@@ -0,0 +1,116 @@
+package modularization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Properties;
+
+import modules.CharPipe;
+import modules.ModuleImpl;
+import modules.ModuleNetwork;
+import modules.OutputPort;
+import modules.input_output.ConsoleWriterModule;
+import modules.input_output.FileReaderModule;
+
+import org.junit.Test;
+
+public class FanOutTest {
+
+	private ModuleNetwork moduleNetwork = new ModuleNetwork();
+
+	private OutputPort createOutputPort() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileReader");
+		return new FileReaderModule(moduleNetwork, properties).getOutputPorts().get("output");
+	}
+
+	private CharPipe connect(OutputPort outputPort, String name) throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, name);
+		ConsoleWriterModule consoleWriter = new ConsoleWriterModule(moduleNetwork, properties);
+		CharPipe pipe = new CharPipe();
+		moduleNetwork.addConnection(outputPort, consoleWriter.getInputPorts().get("input"), pipe);
+		return pipe;
+	}
+
+	private static String readAll(CharPipe pipe) throws IOException {
+		StringBuilder result = new StringBuilder();
+		char[] buffer = new char[64];
+		int read;
+		while ((read = pipe.getInput().read(buffer, 0, buffer.length)) != -1)
+			result.append(buffer, 0, read);
+		return result.toString();
+	}
+
+	@Test
+	public void testSlowConsumerSpills() throws Exception {
+		OutputPort outputPort = this.createOutputPort();
+		final CharPipe fastPipe = this.connect(outputPort, "fast");
+		CharPipe slowPipe = this.connect(outputPort, "slow");
+		outputPort.setDecoupled(2, OutputPort.OverflowPolicy.SPILL);
+
+		// The fast consumer reads right away, the slow one only once the producer is done
+		final StringBuilder fastResult = new StringBuilder();
+		Thread fastConsumer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					fastResult.append(readAll(fastPipe));
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+		fastConsumer.start();
+
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			String chunk = "chunk " + i + ";";
+			expected.append(chunk);
+			outputPort.outputToAllCharPipes(chunk);
+		}
+		outputPort.close();
+		assertTrue(outputPort.getLag(slowPipe) > 0);
+
+		assertEquals(expected.toString(), readAll(slowPipe));
+		fastConsumer.join();
+		assertEquals(expected.toString(), fastResult.toString());
+		assertEquals(0l, outputPort.getMaxLag());
+	}
+
+	@Test
+	public void testWriter() throws Exception {
+		OutputPort outputPort = this.createOutputPort();
+		CharPipe firstPipe = this.connect(outputPort, "first");
+		CharPipe secondPipe = this.connect(outputPort, "second");
+
+		// nothing is passed on before the writer is flushed or closed
+		Writer writer = outputPort.createWriter();
+		writer.write("some ");
+		writer.write("output");
+		assertFalse(firstPipe.getInput().ready());
+		writer.close();
+		outputPort.close();
+
+		assertEquals("some output", readAll(firstPipe));
+		assertEquals("some output", readAll(secondPipe));
+	}
+
+	@Test(expected = IOException.class)
+	public void testSlowConsumerFails() throws Exception {
+		OutputPort outputPort = this.createOutputPort();
+		this.connect(outputPort, "stalled");
+		outputPort.setDecoupled(1, OutputPort.OverflowPolicy.FAIL);
+		char[] chunk = new char[100];
+		try {
+			for (int i = 0; i < 1000; i++)
+				outputPort.outputToAllCharPipes(chunk, 0, chunk.length);
+		} finally {
+			outputPort.reset();
+		}
+	}
+
+}
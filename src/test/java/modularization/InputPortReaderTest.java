@@ -0,0 +1,58 @@
+package modularization;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import modules.InputPortReader;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+public class InputPortReaderTest {
+
+	@Test
+	public void testReadBlock() throws Exception {
+		InputPortReader reader = new InputPortReader(new StringReader("abcdefghij"), 4);
+		StringBuilder result = new StringBuilder();
+		int charsRead;
+		while ((charsRead = reader.readBlock()) != -1) {
+			assertEquals(true, charsRead <= 4);
+			result.append(reader.getBlock(), 0, charsRead);
+		}
+		assertEquals("abcdefghij", result.toString());
+	}
+
+	@Test
+	public void testIterateLines() throws Exception {
+		String input = "first\r\nsecond\n\n\rthird";
+
+		List<String> lines = new ArrayList<String>();
+		for (String line : new InputPortReader(new StringReader(input)).iterateLines(false))
+			lines.add(line);
+		assertEquals(Arrays.asList("first", "second", "", "", "third"), lines);
+
+		lines.clear();
+		for (String line : new InputPortReader(new StringReader(input)).iterateLines(true))
+			lines.add(line);
+		assertEquals(Arrays.asList("first", "second", "third"), lines);
+	}
+
+	@Test
+	public void testGsonStream() throws Exception {
+		Type type = new TypeToken<TreeMap<Integer, Map<String, Integer>>>() {}.getType();
+		InputPortReader reader = new InputPortReader(new StringReader("{\"1\":{\"a\":2},\"2\":{\"b\":3}}"), 8);
+		TreeMap<Integer, Map<String, Integer>> result = new Gson().fromJson(reader, type);
+		assertEquals(2, result.size());
+		assertEquals(Integer.valueOf(3), result.get(2).get("b"));
+	}
+
+}
@@ -0,0 +1,114 @@
+package modularization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import modules.CharPipe;
+import modules.Module;
+import modules.ModuleImpl;
+import modules.ModuleNetwork;
+import modules.basic_text_processing.CaseChangerModule;
+import modules.basic_text_processing.FilterModule;
+import modules.basic_text_processing.RegExReplacementModule;
+import modules.basic_text_processing.ReverserModule;
+import modules.input_output.FileReaderModule;
+import modules.input_output.FileWriterModule;
+
+import org.junit.Test;
+
+public class ModuleFusionTest {
+
+	/**
+	 * Runs FileReader -> CaseChanger -> RegExReplacement -> Reverser -> Filter -> FileWriter.
+	 * @param input Input text
+	 * @param fuse Whether to fuse the text modules
+	 * @return Output text
+	 */
+	private String runChain(String input, boolean fuse) throws Exception {
+		File inputFile = File.createTempFile("fusion", ".txt");
+		File outputFile = File.createTempFile("fusion", ".out");
+		inputFile.deleteOnExit();
+		outputFile.deleteOnExit();
+		Files.write(inputFile.toPath(), input.getBytes(StandardCharsets.UTF_8));
+
+		ModuleNetwork moduleNetwork = new ModuleNetwork();
+		moduleNetwork.setFuseModules(fuse);
+
+		Properties properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileReader");
+		properties.setProperty(FileReaderModule.PROPERTYKEY_INPUTFILE, inputFile.getAbsolutePath());
+		properties.setProperty(FileReaderModule.PROPERTYKEY_ENCODING, "UTF-8");
+		FileReaderModule fileReader = new FileReaderModule(moduleNetwork, properties);
+
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "CaseChanger");
+		CaseChangerModule caseChanger = new CaseChangerModule(moduleNetwork, properties);
+
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "RegEx");
+		properties.setProperty(RegExReplacementModule.PROPERTYKEY_REGEX, "o");
+		properties.setProperty(RegExReplacementModule.PROPERTYKEY_REPLACEMENT, "0");
+		RegExReplacementModule regEx = new RegExReplacementModule(moduleNetwork, properties);
+
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "Reverser");
+		properties.setProperty("Reverse each line", "true");
+		ReverserModule reverser = new ReverserModule(moduleNetwork, properties);
+
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "Filter");
+		properties.setProperty(FilterModule.PROPERTYKEY_MINLENGTH, "2");
+		properties.setProperty(FilterModule.PROPERTYKEY_MAXLENGTH, "5");
+		FilterModule filter = new FilterModule(moduleNetwork, properties);
+
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileWriter");
+		properties.setProperty(FileWriterModule.PROPERTYKEY_OUTPUTFILE, outputFile.getAbsolutePath());
+		properties.setProperty(FileWriterModule.PROPERTYKEY_ENCODING, "UTF-8");
+		FileWriterModule fileWriter = new FileWriterModule(moduleNetwork, properties);
+
+		Module[] modules = new Module[] { fileReader, caseChanger, regEx, reverser, filter, fileWriter };
+		for (Module module : modules) {
+			module.applyProperties();
+			moduleNetwork.addModule(module);
+		}
+		moduleNetwork.addConnection(fileReader.getOutputPorts().get("output"), caseChanger.getInputPorts().get("input"), new CharPipe());
+		moduleNetwork.addConnection(caseChanger.getOutputPorts().get("output"), regEx.getInputPorts().get("input"), new CharPipe());
+		moduleNetwork.addConnection(regEx.getOutputPorts().get("output"), reverser.getInputPorts().get("input"), new CharPipe());
+		moduleNetwork.addConnection(reverser.getOutputPorts().get("reversed"), filter.getInputPorts().get("input1"), new CharPipe());
+		moduleNetwork.addConnection(filter.getOutputPorts().get("output-normal"), fileWriter.getInputPorts().get("input"), new CharPipe());
+
+		moduleNetwork.runModules(false);
+		assertTrue(moduleNetwork.awaitModules(30, TimeUnit.SECONDS));
+		for (Module module : modules)
+			assertEquals(module.getName(), Module.STATUSCODE_SUCCESS, module.getStatus());
+		if (fuse)
+			assertTrue(filter.getStatusDetail().contains("fused"));
+
+		return new String(Files.readAllBytes(outputFile.toPath()), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testFusedEqualsUnfused() throws Exception {
+		assertEquals("dlr0w 0lleh$\n", this.runChain("Hello World\r\nsingle\n", true));
+		assertEquals("dlr0w 0lleh$\n", this.runChain("Hello World\r\nsingle\n", false));
+		assertEquals("", this.runChain("", true));
+
+		// Span several blocks, with mixed line terminators
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 5000; i++)
+			input.append("Line ").append(i).append(i % 3 == 0 ? " of Words" : "").append(i % 2 == 0 ? "\r\n" : (i % 5 == 0 ? "\r" : "\n"));
+		input.append("Last Line without break");
+		String fused = this.runChain(input.toString(), true);
+		assertEquals(this.runChain(input.toString(), false), fused);
+		assertTrue(fused.startsWith("sdr0w f0 0 enil$\n1 enil$\n"));
+		assertTrue(fused.endsWith("kaerb tu0htiw enil tsal$\n"));
+	}
+
+}
@@ -1,11 +1,14 @@
 package modularization;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import modules.CharPipe;
+import modules.Module;
 import modules.ModuleImpl;
 import modules.ModuleNetwork;
 import modules.input_output.ConsoleWriterModule;
@@ -105,4 +108,42 @@ public class ModuleNetworkTest {
 		assertTrue(true);
 	}
 
+	@Test
+	public void testBoundedPool() throws Exception {
+		
+		String outputFileLocation = System.getProperty("java.io.tmpdir")+File.separator+"test-pool.txt";
+		
+		ModuleNetwork moduleNetwork = new ModuleNetwork();
+		
+		// Fewer threads than modules: the pool has to be enlarged to avoid a deadlock
+		moduleNetwork.setMaxThreads(1);
+		
+		Properties fileFinderProperties = new Properties();
+		fileFinderProperties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileFinder");
+		fileFinderProperties.setProperty(FileFinderModule.PROPERTYKEY_PATHTOSEARCH, "src"+File.separator+"test"+File.separator+"data"+File.separator);
+		fileFinderProperties.setProperty(FileFinderModule.PROPERTYKEY_FILENAMESUFFIX, "txt");
+		FileFinderModule fileFinderModule = new FileFinderModule(moduleNetwork,fileFinderProperties);
+		
+		Properties fileWriterProperties = new Properties();
+		fileWriterProperties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileWriter");
+		fileWriterProperties.setProperty(FileWriterModule.PROPERTYKEY_OUTPUTFILE, outputFileLocation);
+		fileWriterProperties.setProperty(FileWriterModule.PROPERTYKEY_ENCODING, "UTF-8");
+		FileWriterModule fileWriter = new FileWriterModule(moduleNetwork,fileWriterProperties);
+		
+		moduleNetwork.addModule(fileFinderModule);
+		moduleNetwork.addModule(fileWriter);
+		moduleNetwork.addConnection(fileFinderModule.getOutputPorts().get("file list"), fileWriter.getInputPorts().get("input"), new CharPipe());
+		
+		// Run twice to reuse the pooled threads
+		for (int run = 0; run < 2; run++) {
+			moduleNetwork.resetModuleIO();
+			moduleNetwork.runModules(false);
+			assertTrue(moduleNetwork.awaitModules(30, TimeUnit.SECONDS));
+			assertEquals(Module.STATUSCODE_SUCCESS, fileFinderModule.getStatus());
+			assertEquals(Module.STATUSCODE_SUCCESS, fileWriter.getStatus());
+			assertTrue(new File(outputFileLocation).length() > 0);
+			assertTrue(moduleNetwork.getStartedThreads().isEmpty());
+		}
+	}
+
 }
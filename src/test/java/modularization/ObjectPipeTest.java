@@ -0,0 +1,77 @@
+package modularization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import models.NamedFieldMatrix;
+import modules.CharPipe;
+import modules.ModuleImpl;
+import modules.ModuleNetwork;
+import modules.ObjectPipe;
+import modules.Pipe;
+import modules.input_output.FileReaderModule;
+import modules.matrix.MatrixValuesExpressionApplyModule;
+import modules.matrix.MclModule;
+
+import org.junit.Test;
+
+public class ObjectPipeTest {
+
+	@Test
+	public void testReadWrite() throws Exception {
+		ObjectPipe<String> pipe = new ObjectPipe<String>(String.class, 1);
+		pipe.write("first");
+		assertEquals("first", pipe.read());
+		pipe.write("second");
+		pipe.writeClose();
+		assertEquals("second", pipe.read());
+		assertNull(pipe.read());
+		assertNull(pipe.read());
+
+		pipe.reset();
+		pipe.write("third");
+		assertEquals("third", pipe.read());
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteAfterClose() throws Exception {
+		ObjectPipe<String> pipe = new ObjectPipe<String>(String.class);
+		pipe.writeClose();
+		pipe.write("data");
+	}
+
+	@Test
+	public void testNegotiation() throws Exception {
+		ModuleNetwork moduleNetwork = new ModuleNetwork();
+
+		Properties properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "Expression");
+		MatrixValuesExpressionApplyModule expressionModule = new MatrixValuesExpressionApplyModule(moduleNetwork, properties);
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "MCL");
+		MclModule mclModule = new MclModule(moduleNetwork, properties);
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileReader");
+		FileReaderModule fileReader = new FileReaderModule(moduleNetwork, properties);
+
+		// Both ends handle matrices: hand over the object
+		Pipe pipe = ModuleNetwork.getCompatiblePipe(expressionModule.getOutputPorts().get("Matrix output"),
+				mclModule.getInputPorts().get("input matrix"));
+		assertTrue(pipe instanceof ObjectPipe);
+		assertSame(NamedFieldMatrix.class, ((ObjectPipe<?>) pipe).getType());
+
+		// Text only producer: fall back to a character pipe
+		pipe = ModuleNetwork.getCompatiblePipe(fileReader.getOutputPorts().get("output"),
+				mclModule.getInputPorts().get("input matrix"));
+		assertTrue(pipe instanceof CharPipe);
+
+		// Object pipes of unrelated types are refused
+		assertTrue(!mclModule.getInputPorts().get("input matrix").supportsPipe(new ObjectPipe<String>(String.class)));
+	}
+
+}
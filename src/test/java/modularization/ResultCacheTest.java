@@ -0,0 +1,167 @@
+package modularization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import modules.CharPipe;
+import modules.Module;
+import modules.ModuleImpl;
+import modules.ModuleNetwork;
+import modules.ResultCache;
+import modules.basic_text_processing.CaseChangerModule;
+import modules.basic_text_processing.ReverserModule;
+import modules.input_output.FileReaderModule;
+import modules.input_output.FileWriterModule;
+
+import org.junit.Test;
+
+public class ResultCacheTest {
+
+	private File inputFile;
+	private File outputFile;
+	private ModuleNetwork moduleNetwork = new ModuleNetwork();
+	private FileReaderModule fileReader;
+	private ReverserModule reverser;
+	private CaseChangerModule caseChanger;
+	private FileWriterModule fileWriter;
+
+	// Whether the reverser's output must not be taken from (or recorded in) the cache
+	private boolean reverserUncached = false;
+
+	/**
+	 * Sets up FileReader -> Reverser -> CaseChanger -> FileWriter.
+	 * @param cache Result cache to use
+	 */
+	private void createNetwork(ResultCache cache) throws Exception {
+		this.inputFile = File.createTempFile("cache", ".txt");
+		this.outputFile = File.createTempFile("cache", ".out");
+		this.inputFile.deleteOnExit();
+		this.outputFile.deleteOnExit();
+		Files.write(this.inputFile.toPath(), "Hello\nWorld".getBytes(StandardCharsets.UTF_8));
+
+		this.moduleNetwork.setResultCache(cache);
+
+		Properties properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileReader");
+		properties.setProperty(FileReaderModule.PROPERTYKEY_INPUTFILE, this.inputFile.getAbsolutePath());
+		properties.setProperty(FileReaderModule.PROPERTYKEY_ENCODING, "UTF-8");
+		this.fileReader = new FileReaderModule(this.moduleNetwork, properties);
+
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "Reverser");
+		this.reverser = new ReverserModule(this.moduleNetwork, properties) {
+			@Override
+			public String getCacheKeyDetails() {
+				return ResultCacheTest.this.reverserUncached ? null : super.getCacheKeyDetails();
+			}
+		};
+
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "CaseChanger");
+		this.caseChanger = new CaseChangerModule(this.moduleNetwork, properties);
+
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileWriter");
+		properties.setProperty(FileWriterModule.PROPERTYKEY_OUTPUTFILE, this.outputFile.getAbsolutePath());
+		properties.setProperty(FileWriterModule.PROPERTYKEY_ENCODING, "UTF-8");
+		this.fileWriter = new FileWriterModule(this.moduleNetwork, properties);
+
+		for (Module module : new Module[] { this.fileReader, this.reverser, this.caseChanger, this.fileWriter }) {
+			module.applyProperties();
+			this.moduleNetwork.addModule(module);
+		}
+		this.moduleNetwork.addConnection(this.fileReader.getOutputPorts().get("output"), this.reverser.getInputPorts().get("input"), new CharPipe());
+		this.moduleNetwork.addConnection(this.reverser.getOutputPorts().get("reversed"), this.caseChanger.getInputPorts().get("input"), new CharPipe());
+		this.moduleNetwork.addConnection(this.caseChanger.getOutputPorts().get("output"), this.fileWriter.getInputPorts().get("input"), new CharPipe());
+	}
+
+	/**
+	 * Runs the network.
+	 * @return Output text
+	 */
+	private String run() throws Exception {
+		this.moduleNetwork.resetModuleIO();
+		this.moduleNetwork.runModules(false);
+		assertTrue(this.moduleNetwork.awaitModules(30, TimeUnit.SECONDS));
+		for (Module module : this.moduleNetwork.getModuleList())
+			assertEquals(module.getName(), Module.STATUSCODE_SUCCESS, module.getStatus());
+		return new String(Files.readAllBytes(this.outputFile.toPath()), StandardCharsets.UTF_8);
+	}
+
+	private static File createCacheDirectory() throws Exception {
+		File directory = Files.createTempDirectory("resultcache").toFile();
+		directory.deleteOnExit();
+		return directory;
+	}
+
+	@Test
+	public void testReplay() throws Exception {
+		this.createNetwork(new ResultCache(createCacheDirectory(), ResultCache.DEFAULT_MAXSIZE));
+
+		assertEquals("dlrow\nolleh", this.run());
+		assertEquals(3, this.moduleNetwork.getResultCache().getDirectory().listFiles().length);
+
+		// Nothing but the writer has to run again
+		Files.write(this.outputFile.toPath(), new byte[0]);
+		assertEquals("dlrow\nolleh", this.run());
+		assertEquals("Output taken from cache", this.caseChanger.getStatusDetail());
+		assertEquals("Skipped, output not needed", this.reverser.getStatusDetail());
+		assertEquals("Skipped, output not needed", this.fileReader.getStatusDetail());
+
+		// Changed properties invalidate the module's output (and the one of the modules depending on it)
+		this.caseChanger.getProperties().setProperty(CaseChangerModule.PROPERTYKEY_CASE, "uppercase");
+		this.caseChanger.applyProperties();
+		assertEquals("DLROW\nOLLEH", this.run());
+		assertEquals("Output taken from cache", this.reverser.getStatusDetail());
+		assertEquals("Skipped, output not needed", this.fileReader.getStatusDetail());
+
+		// So does a changed input file
+		Files.write(this.inputFile.toPath(), "Changed input".getBytes(StandardCharsets.UTF_8));
+		assertEquals("TUPNI DEGNAHC", this.run());
+		assertTrue(this.fileReader.getStatusDetail() == null || !this.fileReader.getStatusDetail().contains("Skipped"));
+
+		// Even if its length and modification time stay the same
+		long lastModified = this.inputFile.lastModified();
+		Files.write(this.inputFile.toPath(), "Altered input".getBytes(StandardCharsets.UTF_8));
+		assertTrue(this.inputFile.setLastModified(lastModified));
+		assertEquals("TUPNI DERETLA", this.run());
+	}
+
+	@Test
+	public void testNullDetails() throws Exception {
+		this.createNetwork(new ResultCache(createCacheDirectory(), ResultCache.DEFAULT_MAXSIZE));
+		this.reverserUncached = true;
+
+		// Neither the reverser's output nor the one of the module depending on it is recorded
+		assertEquals("dlrow\nolleh", this.run());
+		assertEquals(1, this.moduleNetwork.getResultCache().getDirectory().listFiles().length);
+
+		// So both run again
+		assertEquals("dlrow\nolleh", this.run());
+		assertEquals("Output taken from cache", this.fileReader.getStatusDetail());
+		assertTrue(this.reverser.getStatusDetail() == null || !this.reverser.getStatusDetail().contains("cache"));
+		assertTrue(this.caseChanger.getStatusDetail() == null || !this.caseChanger.getStatusDetail().contains("cache"));
+
+		// Until the details allow it again
+		this.reverserUncached = false;
+		assertEquals("dlrow\nolleh", this.run());
+		assertEquals("dlrow\nolleh", this.run());
+		assertEquals("Output taken from cache", this.caseChanger.getStatusDetail());
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		// Room for the output of one module only
+		this.createNetwork(new ResultCache(createCacheDirectory(), 30l));
+		assertEquals("dlrow\nolleh", this.run());
+		assertEquals(1, this.moduleNetwork.getResultCache().getDirectory().listFiles().length);
+		assertEquals("dlrow\nolleh", this.run());
+	}
+
+}
@@ -0,0 +1,126 @@
+package modularization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import modules.BytePipe;
+import modules.CharPipe;
+import modules.InputPort;
+import modules.ModuleImpl;
+import modules.ModuleNetwork;
+import modules.OutputPort;
+import modules.Pipe;
+import modules.RingBufferBytePipe;
+import modules.RingBufferCharPipe;
+import modules.input_output.ConsoleWriterModule;
+import modules.input_output.FileReaderModule;
+
+import org.junit.Test;
+
+public class RingBufferPipeTest {
+
+	@Test
+	public void testCharTransfer() throws Exception {
+		final RingBufferCharPipe pipe = new RingBufferCharPipe(16);
+		assertEquals(16, pipe.getCapacity());
+
+		// Write considerably more than the capacity from a separate thread
+		final StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 5000; i++)
+			expected.append(i).append(' ');
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					pipe.write(expected.toString());
+					pipe.getOutput().write('!');
+					pipe.writeClose();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+		writer.start();
+
+		StringBuilder received = new StringBuilder();
+		char[] buffer = new char[7];
+		int read;
+		while ((read = pipe.read(buffer, 0, buffer.length)) != -1)
+			received.append(buffer, 0, read);
+		writer.join();
+
+		assertEquals(expected.toString() + "!", received.toString());
+	}
+
+	@Test
+	public void testByteTransferAndReset() throws Exception {
+		final RingBufferBytePipe pipe = new RingBufferBytePipe(10);
+		assertEquals(16, pipe.getCapacity());
+
+		for (int run = 0; run < 2; run++) {
+			Thread writer = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						byte[] data = new byte[256];
+						for (int i = 0; i < data.length; i++)
+							data[i] = (byte) i;
+						pipe.write(data, 0, data.length);
+						pipe.writeClose();
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+			});
+			writer.start();
+
+			int expected = 0;
+			int value;
+			while ((value = pipe.getInput().read()) != -1)
+				assertEquals(expected++, value);
+			writer.join();
+			assertEquals(256, expected);
+
+			pipe.reset();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteAfterReadClose() throws Exception {
+		RingBufferCharPipe pipe = new RingBufferCharPipe();
+		pipe.readClose();
+		pipe.write("data");
+	}
+
+	@Test
+	public void testCompatiblePipe() throws Exception {
+		ModuleNetwork moduleNetwork = new ModuleNetwork();
+
+		Properties readerProperties = new Properties();
+		readerProperties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileReader");
+		FileReaderModule fileReader = new FileReaderModule(moduleNetwork, readerProperties);
+		Properties writerProperties = new Properties();
+		writerProperties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "ConsoleWriter");
+		ConsoleWriterModule consoleWriter = new ConsoleWriterModule(moduleNetwork, writerProperties);
+
+		OutputPort outputPort = fileReader.getOutputPorts().get("output");
+		InputPort inputPort = consoleWriter.getInputPorts().get("input");
+
+		// Ring buffer pipes are handled as their java.io counterparts by the ports
+		Pipe pipe = ModuleNetwork.getCompatiblePipe(outputPort, inputPort, 1024);
+		assertTrue(pipe instanceof RingBufferBytePipe || pipe instanceof RingBufferCharPipe);
+		moduleNetwork.addConnection(outputPort, inputPort, pipe);
+		if (pipe instanceof CharPipe)
+			assertTrue(outputPort.getPipes(CharPipe.class).contains(pipe));
+		else
+			assertTrue(outputPort.getPipes(BytePipe.class).contains(pipe));
+
+		moduleNetwork.removeConnection(inputPort);
+		assertTrue(outputPort.getPipes(CharPipe.class).isEmpty());
+		assertTrue(outputPort.getPipes(BytePipe.class).isEmpty());
+	}
+
+}
@@ -0,0 +1,189 @@
+package suffixTree;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import modules.tree_building.suffixTree.BaseSuffixTree;
+import modules.tree_building.suffixTree.GST;
+import modules.tree_building.suffixTree.GSTBuilder;
+import modules.tree_building.suffixTree.GeneralisedSuffixArray;
+import modules.tree_building.suffixTree.MappedSuffixTree;
+import modules.tree_building.suffixTree.SuffixArrayTree;
+import modules.tree_building.suffixTree.SuffixTree;
+
+public class GstAppendTest {
+
+	private static final String[] TEXTS = { "aab$", "bba$", "aabccd$", "aab$", "bba$", "aabbba$", "bbaaab$", "a$",
+			"aab$", "petra$", "peter$", "pet$" };
+
+	@Test
+	public void testAppendEqualsRebuild() throws Exception {
+		// split the texts into two batches at every possible point
+		for (int split = 0; split <= TEXTS.length; split++) {
+			final String first = join(0, split);
+			final String second = join(split, TEXTS.length);
+
+			final SuffixTree tree = GST.buildGST(first);
+			final SuffixTree appended = GST.appendToGST(tree, second, null);
+			// a tree built by GSTBuilder is extended in place
+			assertSame(tree, appended);
+			assertSameTree(GST.buildGST(first + second), appended);
+		}
+	}
+
+	@Test
+	public void testAppendTextByText() throws Exception {
+		SuffixTree tree = GST.buildGST("");
+		for (String text : TEXTS) {
+			tree = GST.appendToGST(tree, text, null);
+		}
+		assertSameTree(GST.buildGST(join(0, TEXTS.length)), tree);
+		GstTestHelper.generalTreeCheck(tree, join(0, TEXTS.length));
+	}
+
+	@Test
+	public void testTypeContexts() throws Exception {
+		final List<Integer> contextEndIndices = Arrays.asList(2, 3, 7, 8, 11, 12);
+		final SuffixTree expected = GST.buildGST(join(0, TEXTS.length), contextEndIndices);
+
+		for (int split = 0; split <= TEXTS.length; split++) {
+			final List<Integer> first = new ArrayList<Integer>();
+			final List<Integer> second = new ArrayList<Integer>();
+			for (int index : contextEndIndices) {
+				if (index <= split)
+					first.add(index);
+				else
+					second.add(index);
+			}
+			// the texts of a type context are not split
+			if (split > 0 && (first.isEmpty() || first.get(first.size() - 1) != split))
+				continue;
+
+			final SuffixTree tree = GST.buildGST(join(0, split), first);
+			assertSameTree(expected, GST.appendToGST(tree, join(split, TEXTS.length), second));
+			assertEquals(expected.getTypeContextsAmount(), tree.getTypeContextsAmount());
+			assertEquals(MappedSuffixTree.sourceChecksum(join(0, TEXTS.length).toCharArray(), contextEndIndices),
+					MappedSuffixTree.sourceChecksum(tree));
+		}
+		GstTestHelper.checkTypeContexts(expected, "peter$", Arrays.asList(4));
+		GstTestHelper.checkTypeContexts(expected, "pet$", Arrays.asList(5));
+	}
+
+	@Test
+	public void testLines() throws Exception {
+		// lines continue the tree's input as in the input read at once, so they
+		// are joined by the same rules
+		final String first = "aa cc$bb cc$\nbb dd$";
+		final String second = "aa\ncc$\nbb cc$";
+		final SuffixTree tree = new GSTBuilder().build(new StringReader(first), null);
+		new GSTBuilder().append(tree, new StringReader(second), null);
+		assertSameTree(new GSTBuilder().build(new StringReader(first + "\n" + second), null), tree);
+		assertEquals(" aacc$", tree.getInputText(3));
+	}
+
+	@Test
+	public void testAppendToMappedTree() throws Exception {
+		final List<Integer> contextEndIndices = Arrays.asList(2, 3, 7, 8, 11, 12);
+		final File indexFile = File.createTempFile("gst", ".idx");
+		try {
+			final SuffixTree tree = GST.buildGST(join(0, 3), Arrays.asList(2, 3));
+			MappedSuffixTree.write(tree, indexFile, MappedSuffixTree.sourceChecksum(tree));
+			final MappedSuffixTree mapped = MappedSuffixTree.load(indexFile);
+			assertEquals(MappedSuffixTree.sourceChecksum(join(0, 3).toCharArray(), Arrays.asList(2, 3)),
+					mapped.getSourceChecksum());
+
+			// the mapped tree is copied, node numbers and suffix links are kept
+			final SuffixTree appended = GST.appendToGST(mapped, join(3, TEXTS.length), Arrays.asList(7, 8, 11, 12));
+			assertNotSame(mapped, appended);
+			assertEquals(join(0, 3), mapped.getText());
+			assertSameTree(GST.buildGST(join(0, TEXTS.length), contextEndIndices), appended);
+			assertEquals(MappedSuffixTree.sourceChecksum(join(0, TEXTS.length).toCharArray(), contextEndIndices),
+					MappedSuffixTree.sourceChecksum(appended));
+		} finally {
+			indexFile.delete();
+		}
+	}
+
+	@Test
+	public void testInvalidAppends() throws Exception {
+		// type contexts must be given if and only if the tree has them
+		try {
+			GST.appendToGST(GST.buildGST("aab$"), "bba$", Arrays.asList(2));
+			fail("Type contexts should not be added to a tree without them.");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			GST.appendToGST(GST.buildGST("aab$", Arrays.asList(1)), "bba$", null);
+			fail("Type contexts should be given for a tree with them.");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			GST.appendToGST(GST.buildGST("aab$", Arrays.asList(1)), "bba$", Arrays.asList(1, 2));
+			fail("Type contexts should not end in the tree.");
+		} catch (IllegalArgumentException e) {
+		}
+
+		// texts must be terminated
+		try {
+			GST.appendToGST(GST.buildGST("aab$bb"), "a$", null);
+			fail("Texts should not be appended to an unterminated text.");
+		} catch (IllegalArgumentException e) {
+		}
+		try {
+			GST.appendToGST(GST.buildGST("aab$"), "bba$bb", null);
+			fail("Unterminated texts should not be appended.");
+		} catch (IllegalArgumentException e) {
+		}
+
+		// a tree without suffix links cannot be continued
+		final SuffixArrayTree tree = new SuffixArrayTree(
+				GeneralisedSuffixArray.build(new StringReader("petra$peter$"), null, GSTBuilder.MAX_TEXT_LENGTH));
+		try {
+			GST.appendToGST(tree, "pet$", null);
+			fail("Texts should not be appended to a tree built from a suffix array.");
+		} catch (IllegalArgumentException e) {
+		}
+
+		// the maximum text length applies to the whole tree
+		try {
+			new GSTBuilder(10).append(GST.buildGST("aab$bba$"), new StringReader("aabccd$"), null);
+			fail("The tree should not grow beyond the maximum text length.");
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	private static String join(int from, int to) {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = from; i < to; i++)
+			sb.append(TEXTS[i]);
+		return sb.toString();
+	}
+
+	private static void assertSameTree(SuffixTree expected, BaseSuffixTree actual) {
+		assertEquals(expected.getText(), actual.getText());
+		assertEquals(expected.getNodeAmount(), actual.getNodeAmount());
+		assertEquals(expected.textNrsAmount(), actual.textNrsAmount());
+		for (int i = 0; i < expected.textNrsAmount(); i++)
+			assertEquals(expected.getTextBegin(i), actual.getTextBegin(i));
+		assertEquals(expected.getCurrentTypeContext(), actual.getCurrentTypeContext());
+		assertEquals(GstTestHelper.describeTree(expected), GstTestHelper.describeTree(actual));
+		// node numbers, positions and suffix links are the same as well
+		assertEquals(print(expected), print((SuffixTree) actual));
+	}
+
+	private static String print(SuffixTree tree) {
+		final StringWriter out = new StringWriter();
+		tree.printTree(new PrintWriter(out));
+		return out.toString();
+	}
+
+}
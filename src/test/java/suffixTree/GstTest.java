@@ -6,12 +6,14 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
 
+import modules.tree_building.suffixTree.GSTBuilder;
 import modules.tree_building.suffixTree.SuffixTree;
 
 public class GstTest {
@@ -147,6 +149,32 @@ public class GstTest {
 		}
 	}
 
+	@Test
+	public void testStreamingBuild() throws Exception {
+		// start with room for a single char only, so the tree has to grow while reading
+		SuffixTree tree = new GSTBuilder(GSTBuilder.MAX_TEXT_LENGTH, 1)
+				.build(new StringReader("aab$\nbba$\naabccd$\naabbba$\nbbaaab$\n"), null);
+		GstTestHelper.generalTreeCheck(tree, "aab$bba$aabccd$aabbba$bbaaab$");
+		String[][] expectedPaths = new String[][] { { "$" }, { "a", "$" }, { "a", "a", "ab$" }, { "a", "a", "b", "$" },
+				{ "a", "a", "b", "bba$" }, { "a", "a", "b", "ccd$" }, { "a", "b", "$" }, { "a", "b", "bba$" },
+				{ "a", "b", "ccd$" }, { "b", "$" }, { "b", "a", "$" }, { "b", "a", "aab$" }, { "b", "b", "a", "$" },
+				{ "b", "b", "a", "aab$" }, { "b", "b", "ba$" }, { "b", "ccd$" }, { "c", "cd$" }, { "c", "d$" },
+				{ "d$" } };
+		GstTestHelper.checkPaths(tree, expectedPaths, 29);
+
+		// lines not ending on a terminator are separated from the preceding input by a blank
+		tree = new GSTBuilder(GSTBuilder.MAX_TEXT_LENGTH, 1).build(new StringReader("pet\nra\npeter$\nra$"), null);
+		GstTestHelper.generalTreeCheck(tree, "pet rapeter$ra$");
+
+		// input exceeding the maximum text length lets the build fail
+		try {
+			new GSTBuilder(10).build(new StringReader("petra$\npeter$\n"), null);
+			fail("The maximum text length should have been exceeded.");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage().contains("maximum text length of 10"));
+		}
+	}
+
 	@Test
 	public void testTypeContexts() {
 		SuffixTree tree = null;
@@ -309,4 +309,39 @@ class GstTestHelper {
 				actualContextNrs.equals(expectedTypeContexts));
 	}
 
+	/**
+	 * Describes every node of the tree by its path (the edge strings leading
+	 * to it) and every leaf by its positions as well, so that two trees can
+	 * be compared independently of their node numbers.
+	 * 
+	 * @param tree
+	 *            The tree to describe.
+	 * @return The sorted descriptions of all nodes.
+	 */
+	protected static List<String> describeTree(final BaseSuffixTree tree) {
+		final List<String> result = new ArrayList<String>();
+		describeNode(tree, tree.getRoot(), "", result);
+		Collections.sort(result);
+		return result;
+	}
+
+	private static void describeNode(final BaseSuffixTree tree, final int nodeNr, final String path,
+			final List<String> result) {
+		final Node node = tree.getNode(nodeNr);
+		final StringBuilder description = new StringBuilder(path);
+		if (node.isTerminal()) {
+			final List<String> positions = new ArrayList<String>();
+			for (int i = 0; i < node.getPositionsAmount(); i++) {
+				positions.add(node.getTextNr(i) + ":" + node.getStart(i) + "-" + node.getEnd(i) + ":"
+						+ node.getTypeContext(i));
+			}
+			Collections.sort(positions);
+			description.append(' ').append(positions);
+		}
+		result.add(description.toString());
+		for (int child : tree.getChildren(nodeNr)) {
+			describeNode(tree, child, path + "|" + tree.edgeString(child), result);
+		}
+	}
+
 }
@@ -0,0 +1,163 @@
+package suffixTree;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import modules.tree_building.suffixTree.BaseSuffixTree;
+import modules.tree_building.suffixTree.GSTBuilder;
+import modules.tree_building.suffixTree.GeneralisedSuffixArray;
+import modules.tree_building.suffixTree.MappedSuffixTree;
+import modules.tree_building.suffixTree.ResultLabelListListener;
+import modules.tree_building.suffixTree.SuffixArrayTree;
+import modules.tree_building.suffixTree.SuffixTree;
+import modules.tree_building.suffixTree.TreeWalker;
+
+public class MappedSuffixTreeTest {
+
+	private File indexFile;
+
+	@Before
+	public void setUp() throws IOException {
+		this.indexFile = File.createTempFile("gst", ".idx");
+	}
+
+	@After
+	public void tearDown() {
+		this.indexFile.delete();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		final String input = "aa cc$bb cc$bb dd$aa cc$bb cc$bb dd$";
+		final List<Integer> contextEndIndices = Arrays.asList(1, 3, 5, 6);
+		final SuffixTree tree = new GSTBuilder().build(new StringReader(input), contextEndIndices);
+		final long sourceChecksum = MappedSuffixTree.sourceChecksum(input.toCharArray(), contextEndIndices);
+
+		MappedSuffixTree.write(tree, this.indexFile, sourceChecksum);
+		final MappedSuffixTree mapped = MappedSuffixTree.load(this.indexFile);
+
+		assertEquals(sourceChecksum, mapped.getSourceChecksum());
+		assertTrue(mapped.hasSuffixLinks());
+		assertEquals(input, mapped.getText());
+		assertEquals(contextEndIndices, MappedSuffixTree.typeContextEndIndices(mapped));
+		assertEquals(tree.getNodeAmount(), mapped.getNodeAmount());
+		assertEquals(tree.textNrsAmount(), mapped.textNrsAmount());
+		assertEquals(tree.getTypeContextsAmount(), mapped.getTypeContextsAmount());
+		assertEquals(GstTestHelper.describeTree(tree), GstTestHelper.describeTree(mapped));
+		GstTestHelper.generalTreeCheck(mapped, input);
+		GstTestHelper.checkTypeContexts(mapped, " cc$", Arrays.asList(0, 1, 2, 2));
+
+		// node numbers and suffix links are kept, so the printed trees are the same
+		assertEquals(print(tree), print(mapped));
+		assertEquals(labels(tree), labels(mapped));
+
+		assertTrue(mapped.findPattern("bb d"));
+		assertTrue(mapped.findPattern("dd$"));
+		assertFalse(mapped.findPattern("dd$aa"));
+		assertFalse(mapped.findPattern("ccc"));
+	}
+
+	@Test
+	public void testSuffixArrayTree() throws Exception {
+		final String input = "petra$peter$";
+		final SuffixArrayTree tree = new SuffixArrayTree(
+				GeneralisedSuffixArray.build(new StringReader(input), null, GSTBuilder.MAX_TEXT_LENGTH));
+
+		MappedSuffixTree.write(tree, this.indexFile, 0);
+		assertFalse(MappedSuffixTree.readHeader(this.indexFile).hasSuffixLinks());
+		final MappedSuffixTree mapped = MappedSuffixTree.load(this.indexFile);
+		assertFalse(mapped.hasSuffixLinks());
+		assertEquals(GstTestHelper.describeTree(tree), GstTestHelper.describeTree(mapped));
+		assertEquals(BaseSuffixTree.NO_TYPE_CONTEXT, mapped.getCurrentTypeContext());
+		assertNull(MappedSuffixTree.typeContextEndIndices(mapped));
+
+		// no texts can be added to it, but it can be rebuilt with suffix links from its text
+		final SuffixTree rebuilt = new GSTBuilder().build(new StringReader(mapped.getText()),
+				MappedSuffixTree.typeContextEndIndices(mapped));
+		assertEquals(GstTestHelper.describeTree(new GSTBuilder().build(new StringReader(input), null)),
+				GstTestHelper.describeTree(rebuilt));
+	}
+
+	@Test
+	public void testReadAndHeader() throws Exception {
+		final String input = "banana$New York$";
+		final SuffixTree tree = new GSTBuilder().build(new StringReader(input), null);
+		MappedSuffixTree.write(tree, this.indexFile, 42);
+		assertEquals(42, MappedSuffixTree.readHeader(this.indexFile).getSourceChecksum());
+
+		// the tree read is kept in memory, so the file can be replaced while it is used
+		final MappedSuffixTree read = MappedSuffixTree.read(this.indexFile);
+		MappedSuffixTree.write(new GSTBuilder().build(new StringReader("other$"), null), this.indexFile, 43);
+		assertEquals(input, read.getText());
+		assertEquals(GstTestHelper.describeTree(tree), GstTestHelper.describeTree(read));
+		assertEquals(43, MappedSuffixTree.readHeader(this.indexFile).getSourceChecksum());
+	}
+
+	@Test
+	public void testDamagedFile() throws Exception {
+		final SuffixTree tree = new GSTBuilder().build(new StringReader("banana$New York$"), null);
+		MappedSuffixTree.write(tree, this.indexFile, 0);
+
+		// change a char of the text
+		RandomAccessFile file = new RandomAccessFile(this.indexFile, "rw");
+		try {
+			file.seek(MappedSuffixTree.HEADER_SIZE + 1);
+			file.write('c');
+		} finally {
+			file.close();
+		}
+		try {
+			MappedSuffixTree.load(this.indexFile);
+			fail("A damaged file should not be loaded.");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("checksum"));
+		}
+		try {
+			MappedSuffixTree.read(this.indexFile);
+			fail("A damaged file should not be read.");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("checksum"));
+		}
+
+		// an unknown version
+		file = new RandomAccessFile(this.indexFile, "rw");
+		try {
+			file.seek(4);
+			file.writeInt(MappedSuffixTree.VERSION + 1);
+		} finally {
+			file.close();
+		}
+		try {
+			MappedSuffixTree.load(this.indexFile, false);
+			fail("A file of another version should not be loaded.");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("version"));
+		}
+	}
+
+	private static String print(SuffixTree tree) {
+		final StringWriter out = new StringWriter();
+		tree.printTree(new PrintWriter(out));
+		return out.toString();
+	}
+
+	private static Set<String> labels(BaseSuffixTree tree) throws IOException {
+		final ResultLabelListListener listener = new ResultLabelListListener(tree);
+		TreeWalker.walk(tree.getRoot(), tree, listener);
+		return listener.getLabels();
+	}
+
+}
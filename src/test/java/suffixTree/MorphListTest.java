@@ -0,0 +1,57 @@
+package suffixTree;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import common.logicBits.LogOpOR;
+import modules.tree_building.suffixTree.BranchedStringBufferElement;
+import modules.tree_building.suffixTree.GST;
+import modules.tree_building.suffixTree.ResultToMorphListListener;
+import modules.tree_building.suffixTree.SortedBranchedStringListsResult;
+import modules.tree_building.suffixTree.SuffixTree;
+import modules.tree_building.suffixTree.TreeWalker;
+
+public class MorphListTest {
+
+	@Test
+	public void testWriteLogOp() throws Exception {
+		final ResultToMorphListListener forward = walk("walked$walks$talked$talks$", false);
+		final ResultToMorphListListener backward = walk("deklaw$sklaw$deklat$sklat$", true);
+		final ArrayList<BranchedStringBufferElement> forwardList = forward.generateSortedBranchedStringList().firstBranchedStringBufferElementList;
+		final SortedBranchedStringListsResult backwardLists = backward.generateSortedBranchedStringList();
+		final ArrayList<BranchedStringBufferElement> backwardList = backwardLists.firstBranchedStringBufferElementList;
+
+		// writing the combination as it is generated gives the same as collecting it first
+		final StringWriter out = new StringWriter();
+		forward.writeLogOp(forwardList, backwardList, new LogOpOR(), out);
+		final String expected = forward
+				.resultBranchedStringElementList(forward.logOp(forwardList, backwardList, new LogOpOR())).toString();
+		assertEquals(expected, out.toString());
+
+		final String[] lines = out.toString().split(System.getProperty("line.separator"));
+		assertEquals(4, lines.length);
+		assertEquals("t<alk>ed$", lines[0]);
+		assertEquals("w<alk>s$", lines[3]);
+
+		// the lists must hold the same strings
+		try {
+			forward.writeLogOp(forwardList, backwardLists.secondBranchedStringBufferElementList, new LogOpOR(),
+					new StringWriter());
+			fail("Lists of different strings should not be combined.");
+		} catch (Exception e) {
+			assertTrue(e.getMessage().contains("not equal"));
+		}
+	}
+
+	private static ResultToMorphListListener walk(String input, boolean inverted) throws Exception {
+		final SuffixTree tree = GST.buildGST(input);
+		final ResultToMorphListListener listener = new ResultToMorphListListener(tree, inverted);
+		TreeWalker.walk(tree.getRoot(), tree, listener);
+		return listener;
+	}
+
+}
@@ -0,0 +1,101 @@
+package suffixTree;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import common.XmlPrintWriter;
+import models.GstLabelData;
+import modules.tree_building.suffixTree.GSTBuilder;
+import modules.tree_building.suffixTree.ITreeWalkerListener;
+import modules.tree_building.suffixTree.MultiTreeWalker;
+import modules.tree_building.suffixTree.ResultLabelListListener;
+import modules.tree_building.suffixTree.ResultToDotListener;
+import modules.tree_building.suffixTree.ResultToGstLabelDataListener;
+import modules.tree_building.suffixTree.ResultToXmlListener;
+import modules.tree_building.suffixTree.SuffixTree;
+import modules.tree_building.suffixTree.TreeWalker;
+
+public class MultiTreeWalkerTest {
+
+	private static final String INPUT = "aab$bba$aabccd$aabbba$bbaaab$petra$peter$aab$bba$";
+
+	@Test
+	public void testSameResultsAsSingleWalks() throws Exception {
+		// the expected results, each from a walk of its own
+		SuffixTree tree = new GSTBuilder().build(new StringReader(INPUT), null);
+		final StringWriter expectedXml = new StringWriter();
+		final ResultToXmlListener xml = new ResultToXmlListener(tree, new XmlPrintWriter(expectedXml));
+		TreeWalker.walk(tree.getRoot(), tree, xml);
+		xml.finishWriting();
+		final ResultToGstLabelDataListener labelData = new ResultToGstLabelDataListener(tree);
+		TreeWalker.walk(tree.getRoot(), tree, labelData);
+		final ResultLabelListListener labels = new ResultLabelListListener(tree);
+		TreeWalker.walk(tree.getRoot(), tree, labels);
+		final StringWriter expectedDot = new StringWriter();
+		tree.printTree(new PrintWriter(expectedDot));
+
+		// all at once on a fresh tree, with listeners lagging behind
+		tree = new GSTBuilder().build(new StringReader(INPUT), null);
+		final MultiTreeWalker walker = new MultiTreeWalker(tree, 1);
+		final StringWriter actualXml = new StringWriter();
+		final ResultToXmlListener multiXml = new ResultToXmlListener(tree, new XmlPrintWriter(actualXml));
+		walker.add(multiXml, () -> multiXml.finishWriting());
+		final ResultToGstLabelDataListener multiLabelData = new ResultToGstLabelDataListener(tree);
+		walker.add(multiLabelData, null);
+		final ResultLabelListListener multiLabels = new ResultLabelListListener(tree);
+		walker.add(multiLabels, null);
+		final StringWriter actualDot = new StringWriter();
+		final ResultToDotListener dot = new ResultToDotListener(tree, new PrintWriter(actualDot));
+		walker.add(dot, () -> dot.finishWriting());
+		walker.walk(tree.getRoot());
+
+		assertEquals(expectedXml.toString(), actualXml.toString());
+		assertEquals(expectedDot.toString(), actualDot.toString());
+		assertEquals(labels.getLabels(), multiLabels.getLabels());
+		assertEquals(csv(labelData.getLabelsToGstData()), csv(multiLabelData.getLabelsToGstData()));
+	}
+
+	@Test
+	public void testFailingListener() throws Exception {
+		final SuffixTree tree = new GSTBuilder().build(new StringReader(INPUT), null);
+		final MultiTreeWalker walker = new MultiTreeWalker(tree, 1);
+		final ResultLabelListListener labels = new ResultLabelListListener(tree);
+		walker.add(labels, null);
+		walker.add(new ITreeWalkerListener() {
+			@Override
+			public void entryaction(int nodeNr, int level) throws IOException {
+				if (level == 2)
+					throw new IOException("failed at level 2");
+			}
+
+			@Override
+			public void exitaction(int nodeNr, int level) {
+			}
+		}, null);
+		try {
+			walker.walk(tree.getRoot());
+			fail("The listener's exception should be thrown by the walk.");
+		} catch (IOException e) {
+			assertEquals("failed at level 2", e.getMessage());
+		}
+		// the other listener is not held up
+		assertFalse(labels.getLabels().isEmpty());
+	}
+
+	private static String csv(Map<String, GstLabelData> data) {
+		final StringBuilder sb = new StringBuilder();
+		final Set<String> labels = data.keySet();
+		for (String label : labels)
+			sb.append(data.get(label).toCsv()).append('\n');
+		return sb.toString();
+	}
+
+}
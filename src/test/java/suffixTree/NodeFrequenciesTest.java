@@ -0,0 +1,70 @@
+package suffixTree;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import modules.tree_building.suffixTree.AbstractResultLeafIntervalListener;
+import modules.tree_building.suffixTree.BaseSuffixTree;
+import modules.tree_building.suffixTree.GSTBuilder;
+import modules.tree_building.suffixTree.GeneralisedSuffixArray;
+import modules.tree_building.suffixTree.NodeFrequencies;
+import modules.tree_building.suffixTree.NodePosition;
+import modules.tree_building.suffixTree.SuffixArrayTree;
+import modules.tree_building.suffixTree.TreeWalkState;
+import modules.tree_building.suffixTree.TreeWalker;
+
+public class NodeFrequenciesTest {
+
+	private static final String INPUT = "aab$bba$aabccd$aabbba$bbaaab$petra$peter$aab$bba$";
+
+	// the type contexts end with the texts 2, 5 and 8
+	private static final List<Integer> TYPE_CONTEXT_ENDS = Arrays.asList(3, 6, 9);
+
+	@Test
+	public void testUkkonen() throws Exception {
+		checkFrequencies(new GSTBuilder().build(new StringReader(INPUT), TYPE_CONTEXT_ENDS));
+		checkFrequencies(new GSTBuilder().build(new StringReader(INPUT), null));
+	}
+
+	@Test
+	public void testSuffixArray() throws Exception {
+		checkFrequencies(new SuffixArrayTree(GeneralisedSuffixArray.build(new StringReader(INPUT),
+				TYPE_CONTEXT_ENDS, GSTBuilder.MAX_TEXT_LENGTH)));
+	}
+
+	// compares the counts to sets of the texts and type contexts below each node
+	private static void checkFrequencies(BaseSuffixTree tree) throws Exception {
+		final NodeFrequencies frequencies = NodeFrequencies.count(tree);
+		final int[] checked = new int[1];
+		TreeWalker.walk(tree.getRoot(), tree, new AbstractResultLeafIntervalListener(tree) {
+			@Override
+			public void process(int nodeNr, TreeWalkState walk, int level) {
+				int occurrences = 0;
+				final Set<Integer> texts = new HashSet<Integer>();
+				final Set<Integer> typeContexts = new HashSet<Integer>();
+				for (int i = walk.getLeavesFrom(); i < walk.getLeavesTo(); i++) {
+					for (NodePosition position : tree.getNode(walk.getLeaf(i)).getPositions()) {
+						occurrences++;
+						texts.add(position.getTextNr());
+						typeContexts.add(position.getTypeContextNr());
+					}
+				}
+				assertEquals(occurrences, frequencies.getOccurrences(nodeNr));
+				assertEquals(texts.size(), frequencies.getTexts(nodeNr));
+				assertEquals(typeContexts.size(), frequencies.getTypeContexts(nodeNr));
+				assertEquals(texts.size(), frequencies.getTextCounts()[nodeNr]);
+				checked[0]++;
+			}
+		});
+		assertEquals(tree.getNodeAmount(), checked[0]);
+		assertEquals(9, frequencies.getTexts(tree.getRoot()));
+	}
+
+}
@@ -0,0 +1,74 @@
+package suffixTree;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import modules.tree_building.suffixTree.BaseSuffixTree;
+import modules.tree_building.suffixTree.GSTBuilder;
+import modules.tree_building.suffixTree.GeneralisedSuffixArray;
+import modules.tree_building.suffixTree.PatternIndex;
+import modules.tree_building.suffixTree.SuffixArrayTree;
+
+public class PatternIndexTest {
+
+	private static final String INPUT = "aab$bba$aabccd$aabbba$bbaaab$petra$peter$aab$bba$";
+
+	private static final String[] PATTERNS = { "a", "aab", "aab$", "ab", "b", "bba", "c", "pet", "e", "r$", "$",
+			"x", "aabx", "peter$p", "" };
+
+	@Test
+	public void testUkkonen() throws Exception {
+		checkQueries(new GSTBuilder().build(new StringReader(INPUT), null));
+	}
+
+	@Test
+	public void testSuffixArray() throws Exception {
+		checkQueries(new SuffixArrayTree(
+				GeneralisedSuffixArray.build(new StringReader(INPUT), null, GSTBuilder.MAX_TEXT_LENGTH)));
+	}
+
+	@Test
+	public void testTextNr() throws Exception {
+		final PatternIndex index = new PatternIndex(new GSTBuilder().build(new StringReader(INPUT), null));
+		assertEquals(0, index.getTextNr(0));
+		assertEquals(0, index.getTextNr(3));
+		assertEquals(1, index.getTextNr(4));
+		assertEquals(8, index.getTextNr(INPUT.length() - 1));
+		try {
+			index.getTextNr(INPUT.length());
+			fail("A position after the text should not be in a text.");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	// compares the index's answers to those found by searching the text
+	private static void checkQueries(BaseSuffixTree tree) throws Exception {
+		final PatternIndex index = new PatternIndex(tree);
+		final String[] texts = INPUT.split("(?<=\\$)");
+		for (String pattern : PATTERNS) {
+			final List<Integer> starts = new ArrayList<Integer>();
+			final TreeSet<Integer> textNrs = new TreeSet<Integer>();
+			// patterns never pass the end of a text
+			int begin = 0;
+			for (int textNr = 0; textNr < texts.length; textNr++) {
+				for (int i = texts[textNr].indexOf(pattern); i >= 0 && !pattern.isEmpty(); i = texts[textNr].indexOf(pattern, i + 1)) {
+					starts.add(begin + i);
+					textNrs.add(textNr);
+				}
+				begin += texts[textNr].length();
+			}
+
+			assertEquals(pattern, starts.size(), index.count(pattern));
+			assertEquals(pattern, starts.toString(), Arrays.toString(index.locate(pattern)));
+			assertEquals(pattern, textNrs.toString(), Arrays.toString(index.documents(pattern)));
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+package suffixTree;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import modules.tree_building.suffixTree.BaseSuffixTree;
+import modules.tree_building.suffixTree.GSTBuilder;
+import modules.tree_building.suffixTree.GeneralisedSuffixArray;
+import modules.tree_building.suffixTree.ResultRepeatsListener;
+import modules.tree_building.suffixTree.SuffixArrayTree;
+import modules.tree_building.suffixTree.TreeWalker;
+
+public class RepeatsTest {
+
+	private static final String INPUT = "aab$bba$aabccd$aabbba$bbaaab$petra$peter$aab$bba$";
+
+	@Test
+	public void testMaximal() throws Exception {
+		checkRepeats(INPUT, false, 1, 2, 1);
+		checkRepeats(INPUT, false, 3, 3, 2);
+	}
+
+	@Test
+	public void testSupermaximal() throws Exception {
+		checkRepeats(INPUT, true, 1, 2, 1);
+		checkRepeats(INPUT, true, 2, 2, 3);
+	}
+
+	@Test
+	public void testRandomTexts() throws Exception {
+		final Random random = new Random(17);
+		for (int i = 0; i < 20; i++) {
+			final StringBuilder sb = new StringBuilder();
+			for (int t = 0; t < 1 + random.nextInt(5); t++) {
+				for (int c = 0; c < 1 + random.nextInt(12); c++)
+					sb.append((char) ('a' + random.nextInt(3)));
+				sb.append('$');
+			}
+			checkRepeats(sb.toString(), false, 1, 2, 1);
+			checkRepeats(sb.toString(), true, 1, 2, 1);
+		}
+	}
+
+	// compares the repeats of both kinds of tree to those found by trying all substrings
+	private static void checkRepeats(String input, boolean supermaximal, int minLength, int minFrequency,
+			int minTexts) throws Exception {
+		final String expected = bruteForce(input, supermaximal, minLength, minFrequency, minTexts);
+		assertEquals(input, expected, repeats(new GSTBuilder().build(new StringReader(input), null), supermaximal,
+				minLength, minFrequency, minTexts));
+		assertEquals(input, expected,
+				repeats(new SuffixArrayTree(
+						GeneralisedSuffixArray.build(new StringReader(input), null, GSTBuilder.MAX_TEXT_LENGTH)),
+						supermaximal, minLength, minFrequency, minTexts));
+	}
+
+	// the lines written by the listener, sorted
+	private static String repeats(BaseSuffixTree tree, boolean supermaximal, int minLength, int minFrequency,
+			int minTexts) throws Exception {
+		final StringWriter out = new StringWriter();
+		TreeWalker.walk(tree.getRoot(), tree,
+				new ResultRepeatsListener(tree, out, supermaximal, minLength, minFrequency, minTexts));
+		final String[] lines = out.toString().split(System.lineSeparator());
+		Arrays.sort(lines);
+		return String.join("\n", lines);
+	}
+
+	private static String bruteForce(String input, boolean supermaximal, int minLength, int minFrequency,
+			int minTexts) {
+		final String[] texts = input.split("(?<=\\$)");
+
+		// all substrings (without the '$') occurring more than once, with their
+		// occurrences as text number and offset
+		final Map<String, List<int[]>> occurrences = new TreeMap<String, List<int[]>>();
+		for (int textNr = 0; textNr < texts.length; textNr++) {
+			final String text = texts[textNr];
+			for (int begin = 0; begin < text.length() - 1; begin++) {
+				for (int end = begin + 1; end < text.length(); end++) {
+					occurrences.computeIfAbsent(text.substring(begin, end), k -> new ArrayList<int[]>())
+							.add(new int[] { textNr, begin });
+				}
+			}
+		}
+		occurrences.values().removeIf(list -> list.size() < 2);
+
+		final List<String> lines = new ArrayList<String>();
+		for (Map.Entry<String, List<int[]>> entry : occurrences.entrySet()) {
+			final String repeat = entry.getKey();
+			final List<int[]> list = entry.getValue();
+			final boolean qualifies;
+			if (supermaximal) {
+				// no other repeat contains it
+				qualifies = occurrences.keySet().stream().noneMatch(r -> !r.equals(repeat) && r.contains(repeat));
+			} else {
+				// the chars around the occurrences differ, a text's begin or
+				// end differs from everything
+				final TreeSet<Character> left = new TreeSet<Character>();
+				final TreeSet<Character> right = new TreeSet<Character>();
+				boolean leftEnd = false;
+				boolean rightEnd = false;
+				for (int[] occurrence : list) {
+					final String text = texts[occurrence[0]];
+					if (occurrence[1] == 0)
+						leftEnd = true;
+					else
+						left.add(text.charAt(occurrence[1] - 1));
+					final char next = text.charAt(occurrence[1] + repeat.length());
+					if (next == '$')
+						rightEnd = true;
+					else
+						right.add(next);
+				}
+				qualifies = (leftEnd || left.size() > 1) && (rightEnd || right.size() > 1);
+			}
+			final TreeSet<Integer> textNrs = new TreeSet<Integer>();
+			for (int[] occurrence : list)
+				textNrs.add(occurrence[0]);
+			if (!qualifies || repeat.length() < minLength || list.size() < minFrequency || textNrs.size() < minTexts)
+				continue;
+
+			final StringBuilder sb = new StringBuilder();
+			sb.append('"').append(repeat).append("\",").append(repeat.length()).append(',').append(list.size())
+					.append(',').append(textNrs.size()).append(',');
+			for (int i = 0; i < list.size(); i++)
+				sb.append(i == 0 ? "" : " ").append(list.get(i)[0]).append(':').append(list.get(i)[1]);
+			lines.add(sb.toString());
+		}
+		final String[] sorted = lines.toArray(new String[lines.size()]);
+		Arrays.sort(sorted);
+		return String.join("\n", sorted);
+	}
+
+}
@@ -0,0 +1,52 @@
+package suffixTree;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import modules.tree_building.suffixTree.GSTBuilder;
+import modules.tree_building.suffixTree.ResultToXmlListener;
+import modules.tree_building.suffixTree.SuffixTree;
+import modules.tree_building.suffixTree.TreeWalker;
+
+public class ResultToXmlListenerTest {
+
+	@Test
+	public void testMarkupInLabels() throws Exception {
+		final SuffixTree tree = new GSTBuilder().build(new StringReader("a<b&c$a<b>$"), null);
+		final StringWriter out = new StringWriter();
+		final ResultToXmlListener listener = new ResultToXmlListener(tree, out);
+		TreeWalker.walk(tree.getRoot(), tree, listener);
+		listener.finishWriting();
+
+		// the labels are escaped, so the document can be parsed
+		final Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+				.parse(new ByteArrayInputStream(out.toString().getBytes(StandardCharsets.UTF_8)));
+		assertEquals(String.valueOf(tree.getNodeAmount()),
+				document.getElementsByTagName("nodes").item(0).getTextContent());
+
+		final NodeList nodes = document.getElementsByTagName("node");
+		assertEquals(tree.getNodeAmount(), nodes.getLength());
+		final Map<Integer, String> labels = new HashMap<Integer, String>();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			final Element node = (Element) nodes.item(i);
+			labels.put(Integer.parseInt(node.getElementsByTagName("number").item(0).getTextContent()),
+					node.getElementsByTagName("label").item(0).getTextContent());
+		}
+		for (int nodeNr = tree.getRoot(); nodeNr <= tree.getNodeAmount(); nodeNr++)
+			assertEquals(tree.edgeString(nodeNr), labels.get(nodeNr));
+	}
+
+}
@@ -0,0 +1,103 @@
+package suffixTree;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import modules.tree_building.suffixTree.GSTBuilder;
+import modules.tree_building.suffixTree.GeneralisedSuffixArray;
+import modules.tree_building.suffixTree.SuffixArrayTree;
+import modules.tree_building.suffixTree.SuffixTree;
+
+public class SuffixArrayTest {
+
+	private static final String[] INPUTS = { "aa$bb$", "aa$bb$aa$bb$aa$", "aaaaaaaa$", "abcabxabcd$",
+			"aab$bba$aabccd$aabbba$bbaaab$", "bbaaab$aabbba$aabccd$bba$aab$", "petra$peter$", "banana$New York$",
+			"aa cc$bb cc$bb dd$aa cc$bb cc$bb dd$", "$", "a$a$a$", "ab$b$ab$b$" };
+
+	@Test
+	public void testSameTreeAsUkkonen() throws Exception {
+		for (String input : INPUTS)
+			this.compare(input, null);
+		this.compare("aa cc$bb cc$bb dd$aa cc$bb cc$bb dd$", Arrays.asList(1, 3, 5, 6));
+
+		// random texts over a small alphabet repeat a lot
+		final Random random = new Random(42);
+		for (int i = 0; i < 50; i++) {
+			final StringBuilder input = new StringBuilder();
+			final int texts = 1 + random.nextInt(8);
+			for (int t = 0; t < texts; t++) {
+				final int length = random.nextInt(12);
+				for (int j = 0; j < length; j++)
+					input.append("ab c".charAt(random.nextInt(4)));
+				input.append('$');
+			}
+			this.compare(input.toString(), null);
+		}
+	}
+
+	@Test
+	public void testPaths() throws Exception {
+		SuffixArrayTree tree = build("abcabxabcd$", null);
+		String[][] expectedPaths = new String[][] { { "$" }, { "ab", "xabcd$" }, { "ab", "c", "d$" },
+				{ "ab", "c", "abxabcd$" }, { "b", "xabcd$" }, { "b", "c", "d$" }, { "b", "c", "abxabcd$" },
+				{ "c", "abxabcd$" }, { "c", "d$" }, { "d$" }, { "xabcd$" } };
+		GstTestHelper.checkPaths(tree, expectedPaths, 17);
+
+		tree = build("aa$bb$aa$bb$aa$", null);
+		expectedPaths = new String[][] { { "$" }, { "a", "$" }, { "a", "a$" }, { "b", "$" }, { "b", "b$" } };
+		GstTestHelper.checkPaths(tree, expectedPaths, 8);
+		// the leaf "a$" is shared by the three texts "aa$"
+		assertEquals(3, tree.getNode(GstTestHelper.checkFullPathExists(tree, "aa$").getNr()).getPositionsAmount());
+
+		GstTestHelper.generalTreeCheck(tree, "aa$bb$aa$bb$aa$");
+	}
+
+	@Test
+	public void testFindPattern() throws Exception {
+		final String input = "banana$New York$";
+		final SuffixArrayTree tree = build(input, null);
+		final GeneralisedSuffixArray sa = tree.getSuffixArray();
+
+		for (int i = 0; i < input.length(); i++) {
+			for (int j = i + 1; j <= input.length(); j++) {
+				final String pattern = input.substring(i, j);
+				// patterns reaching beyond a '$' are no paths in the tree
+				final boolean expected = pattern.indexOf('$') < 0 || pattern.indexOf('$') == pattern.length() - 1;
+				assertEquals(pattern, expected, tree.findPattern(pattern));
+				assertEquals(pattern, expected, sa.findPattern(pattern));
+			}
+		}
+		assertFalse(sa.findPattern(""));
+		assertFalse(sa.findPattern(null));
+		assertFalse(sa.findPattern("bananas"));
+		assertFalse(sa.findPattern("York$New"));
+
+		assertEquals(6, sa.longestPath("bananas"));
+		assertEquals(4, sa.longestPath("New Jersey"));
+		assertEquals(0, sa.longestPath("x"));
+		assertEquals(7, sa.longestPath("banana$New"));
+	}
+
+	private static SuffixArrayTree build(String input, List<Integer> typeContextEndIndices) throws Exception {
+		return new SuffixArrayTree(
+				GeneralisedSuffixArray.build(new StringReader(input), typeContextEndIndices, GSTBuilder.MAX_TEXT_LENGTH));
+	}
+
+	private void compare(String input, List<Integer> typeContextEndIndices) throws Exception {
+		final SuffixTree expected = new GSTBuilder().build(new StringReader(input), typeContextEndIndices);
+		final SuffixArrayTree actual = build(input, typeContextEndIndices);
+
+		assertEquals(input, expected.getText(), actual.getText());
+		assertEquals(input, expected.textNrsAmount(), actual.textNrsAmount());
+		assertEquals(input, expected.getTypeContextsAmount(), actual.getTypeContextsAmount());
+		assertEquals(input, expected.getNodeAmount(), actual.getNodeAmount());
+		assertEquals(input, GstTestHelper.describeTree(expected), GstTestHelper.describeTree(actual));
+	}
+
+}
@@ -0,0 +1,129 @@
+package suffixTree;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import modules.tree_building.suffixTree.AbstractResultLeafIntervalListener;
+import modules.tree_building.suffixTree.AbstractResultNodeStackListener;
+import modules.tree_building.suffixTree.BaseSuffixTree;
+import modules.tree_building.suffixTree.GSTBuilder;
+import modules.tree_building.suffixTree.ITreeWalkerListener;
+import modules.tree_building.suffixTree.Node;
+import modules.tree_building.suffixTree.SuffixTree;
+import modules.tree_building.suffixTree.TreeWalkState;
+import modules.tree_building.suffixTree.TreeWalker;
+
+public class TreeWalkerTest {
+
+	private static final String INPUT = "aab$bba$aabccd$aabbba$bbaaab$petra$peter$aab$bba$";
+
+	@Test
+	public void testWalkOrder() throws Exception {
+		final SuffixTree tree = new GSTBuilder().build(new StringReader(INPUT), null);
+		final List<String> expected = new ArrayList<String>();
+		walkRecursively(tree, tree.getRoot(), 0, expected);
+
+		final List<String> actual = new ArrayList<String>();
+		TreeWalker.walk(tree.getRoot(), tree, new ITreeWalkerListener() {
+			@Override
+			public void entryaction(int nodeNr, int level) {
+				actual.add("enter " + nodeNr + " " + level);
+			}
+
+			@Override
+			public void exitaction(int nodeNr, int level) {
+				actual.add("exit " + nodeNr + " " + level);
+			}
+		});
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	public void testDeepTree() throws Exception {
+		// the path to the last leaf passes a node for every 'a'
+		final char[] chars = new char[100000];
+		Arrays.fill(chars, 'a');
+		chars[chars.length - 1] = '$';
+		final SuffixTree tree = new GSTBuilder().build(new StringReader(new String(chars)), null);
+
+		final int[] maxLevel = { 0 };
+		TreeWalker.walk(tree.getRoot(), tree, new ITreeWalkerListener() {
+			@Override
+			public void entryaction(int nodeNr, int level) {
+				maxLevel[0] = Math.max(maxLevel[0], level);
+			}
+
+			@Override
+			public void exitaction(int nodeNr, int level) {
+			}
+		});
+		assertEquals(chars.length - 1, maxLevel[0]);
+	}
+
+	@Test
+	public void testLeafIntervals() throws Exception {
+		final SuffixTree tree = new GSTBuilder().build(new StringReader(INPUT), null);
+
+		// the leaves and path lengths as noted in the nodes
+		final List<Set<Integer>> expectedLeaves = new ArrayList<Set<Integer>>();
+		final List<Integer> expectedPathLengths = new ArrayList<Integer>();
+		TreeWalker.walk(tree.getRoot(), tree, new AbstractResultNodeStackListener(tree) {
+			@Override
+			public void process(int nodeNr, List<Node> path, int pathLength, int level) {
+				final Set<Integer> leaves = new HashSet<Integer>();
+				for (Node leaf : tree.getNode(nodeNr).getLeaves())
+					leaves.add(leaf.getNr());
+				// a leaf's interval holds the leaf itself
+				if (tree.getNode(nodeNr).isTerminal())
+					leaves.add(nodeNr);
+				expectedLeaves.add(leaves);
+				expectedPathLengths.add(pathLength);
+			}
+		});
+
+		final List<Set<Integer>> actualLeaves = new ArrayList<Set<Integer>>();
+		final List<Integer> actualPathLengths = new ArrayList<Integer>();
+		TreeWalker.walk(tree.getRoot(), tree, new AbstractResultLeafIntervalListener(tree) {
+			@Override
+			public void process(int nodeNr, TreeWalkState walk, int level) throws IOException {
+				assertEquals(level, walk.getLevel());
+				assertEquals(nodeNr, walk.getNode());
+
+				// the path is the same as the one given by the edge labels
+				final StringBuilder path = new StringBuilder();
+				for (int i = 0; i <= level; i++)
+					path.append(walk.getEdge(i));
+				assertEquals(path.length(), walk.getPathLength());
+				assertEquals(tree.edgeString(nodeNr), tree.edgeLabel(nodeNr).toString());
+
+				final Set<Integer> leaves = new HashSet<Integer>();
+				for (int i = walk.getLeavesFrom(); i < walk.getLeavesTo(); i++) {
+					leaves.add(walk.getLeaf(i));
+					assertTrue(walk.getLeafPathLength(i) >= walk.getPathLength());
+				}
+				actualLeaves.add(leaves);
+				actualPathLengths.add(walk.getPathLength());
+			}
+		});
+
+		assertEquals(expectedLeaves, actualLeaves);
+		assertEquals(expectedPathLengths, actualPathLengths);
+	}
+
+	private static void walkRecursively(BaseSuffixTree tree, int nodeNr, int level, List<String> actions) {
+		actions.add("enter " + nodeNr + " " + level);
+		for (int child : tree.getChildren(nodeNr))
+			walkRecursively(tree, child, level + 1, actions);
+		actions.add("exit " + nodeNr + " " + level);
+	}
+
+}
@@ -0,0 +1,80 @@
+package treeBuilder;
+
+import static org.junit.Assert.*;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import modules.tree_building.treeBuilder.AtomicRangeSuffixTrieBuilder;
+import modules.tree_building.treeBuilder.CompactSuffixTrie;
+import modules.tree_building.treeBuilder.Knoten;
+
+public class CompactSuffixTrieTest {
+
+	private static final String TEXT = "the quick brown fox jumps over the lazy dog and the quick brown cat jumps over the fox";
+
+	@Test
+	public void testSameTrie() throws Exception {
+		final AtomicRangeSuffixTrieBuilder builder = new AtomicRangeSuffixTrieBuilder(null, new Properties());
+		for (int maxLaenge : new int[] { -1, 0, 1, 2, 5, 10, TEXT.length(), TEXT.length() + 5 }) {
+			for (boolean umgekehrt : new boolean[] { false, true }) {
+				final CompactSuffixTrie trie = new CompactSuffixTrie(maxLaenge, umgekehrt);
+				for (int i = 0; i < TEXT.length(); i++)
+					trie.add(TEXT.charAt(i));
+				trie.finish();
+
+				final String expected = describe(build(builder, TEXT, maxLaenge, umgekehrt));
+				assertEquals("window " + maxLaenge + ", reversed " + umgekehrt, expected, describe(trie.toKnoten("^")));
+			}
+		}
+	}
+
+	@Test
+	public void testCounters() {
+		final CompactSuffixTrie trie = new CompactSuffixTrie(2, false);
+		for (char c : "abab".toCharArray())
+			trie.add(c);
+		trie.finish();
+		// windows ab, ba, ab and the last suffix b
+		final Knoten root = trie.toKnoten("^");
+		assertEquals(4, root.getZaehler());
+		assertEquals(2, root.getKinder().get("a").getZaehler());
+		assertEquals(2, root.getKinder().get("a").getKinder().get("b").getZaehler());
+		assertEquals(2, root.getKinder().get("b").getZaehler());
+		assertEquals(1, root.getKinder().get("b").getKinder().get("a").getZaehler());
+		assertEquals(5, trie.size());
+	}
+
+	// builds the trie the way AtomicRangeSuffixTrieBuilder.process() did with baueTrie()
+	private static Knoten build(AtomicRangeSuffixTrieBuilder builder, String text, int maxLaenge, boolean umgekehrt) {
+		final Knoten root = new Knoten("^");
+		final LinkedList<Character> buffer = new LinkedList<Character>();
+		for (int i = 0; i < text.length(); i++) {
+			buffer.add(Character.valueOf(text.charAt(i)));
+			if (maxLaenge >= 0 && buffer.size() > maxLaenge)
+				buffer.removeFirst();
+			if (buffer.size() == maxLaenge)
+				builder.baueTrie(buffer, root, umgekehrt, -1);
+		}
+		if (!buffer.isEmpty() && buffer.size() == maxLaenge)
+			buffer.removeFirst();
+		while (!buffer.isEmpty()) {
+			builder.baueTrie(buffer, root, umgekehrt, -1);
+			buffer.removeFirst();
+		}
+		return root;
+	}
+
+	// describes the nodes in the order they are serialised (i.e. the maps' iteration order)
+	private static String describe(Knoten knoten) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(knoten.getName()).append('[').append(knoten.getZaehler()).append("]{");
+		for (Map.Entry<String, Knoten> kind : knoten.getKinder().entrySet())
+			sb.append(kind.getKey()).append(':').append(describe(kind.getValue()));
+		return sb.append('}').toString();
+	}
+
+}
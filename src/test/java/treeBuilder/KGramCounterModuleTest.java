@@ -0,0 +1,94 @@
+package treeBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import modules.CharPipe;
+import modules.Module;
+import modules.ModuleImpl;
+import modules.ModuleNetwork;
+import modules.input_output.FileReaderModule;
+import modules.input_output.FileWriterModule;
+import modules.tree_building.treeBuilder.AtomicRangeSuffixTrieBuilder;
+import modules.tree_building.treeBuilder.KGramCounterModule;
+
+import org.junit.Test;
+
+public class KGramCounterModuleTest {
+
+	/**
+	 * Runs FileReader -> trie module -> FileWriter.
+	 * @param input Input text
+	 * @param trieModule Module building the trie (properties not applied yet)
+	 * @return Output text
+	 */
+	private String run(String input, ModuleImpl trieModule, ModuleNetwork moduleNetwork) throws Exception {
+		File inputFile = File.createTempFile("kgrams", ".txt");
+		File outputFile = File.createTempFile("kgrams", ".json");
+		inputFile.deleteOnExit();
+		outputFile.deleteOnExit();
+		Files.write(inputFile.toPath(), input.getBytes(StandardCharsets.UTF_8));
+
+		Properties properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileReader");
+		properties.setProperty(FileReaderModule.PROPERTYKEY_INPUTFILE, inputFile.getAbsolutePath());
+		properties.setProperty(FileReaderModule.PROPERTYKEY_ENCODING, "UTF-8");
+		FileReaderModule fileReader = new FileReaderModule(moduleNetwork, properties);
+
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileWriter");
+		properties.setProperty(FileWriterModule.PROPERTYKEY_OUTPUTFILE, outputFile.getAbsolutePath());
+		properties.setProperty(FileWriterModule.PROPERTYKEY_ENCODING, "UTF-8");
+		FileWriterModule fileWriter = new FileWriterModule(moduleNetwork, properties);
+
+		for (Module module : new Module[] { fileReader, trieModule, fileWriter }) {
+			module.applyProperties();
+			moduleNetwork.addModule(module);
+		}
+		moduleNetwork.addConnection(fileReader.getOutputPorts().get("output"), trieModule.getInputPorts().get("input"), new CharPipe());
+		moduleNetwork.addConnection(trieModule.getOutputPorts().get("output"), fileWriter.getInputPorts().get("input"), new CharPipe());
+
+		moduleNetwork.runModules(false);
+		assertTrue(moduleNetwork.awaitModules(60, TimeUnit.SECONDS));
+		assertEquals(Module.STATUSCODE_SUCCESS, trieModule.getStatus());
+
+		return new String(Files.readAllBytes(outputFile.toPath()), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testSameAsAtomicRangeSuffixTrie() throws Exception {
+		// Enough chars for several shards
+		Random random = new Random(17);
+		StringBuilder input = new StringBuilder();
+		while (input.length() < 200000)
+			input.append((char) ('a' + random.nextInt(5))).append(random.nextInt(4) == 0 ? " " : "");
+
+		for (String maxLength : new String[] { "1", "4" }) {
+			ModuleNetwork moduleNetwork = new ModuleNetwork();
+			Properties properties = new Properties();
+			properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "Trie");
+			properties.setProperty(AtomicRangeSuffixTrieBuilder.PROPERTYKEY_MAXLENGTH, maxLength);
+			properties.setProperty(AtomicRangeSuffixTrieBuilder.PROPERTYKEY_PRETTYPRINT, "false");
+			String expected = this.run(input.toString(), new AtomicRangeSuffixTrieBuilder(moduleNetwork, properties), moduleNetwork);
+			assertTrue(expected.contains("\"zaehler\""));
+
+			for (int maxThreads : new int[] { 1, 3 }) {
+				moduleNetwork = new ModuleNetwork();
+				properties = new Properties();
+				properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "KGramCounter");
+				properties.setProperty(KGramCounterModule.PROPERTYKEY_MAXLENGTH, maxLength);
+				properties.setProperty(KGramCounterModule.PROPERTYKEY_MAXTHREADS, String.valueOf(maxThreads));
+				properties.setProperty(KGramCounterModule.PROPERTYKEY_PRETTYPRINT, "false");
+				assertEquals(expected, this.run(input.toString(), new KGramCounterModule(moduleNetwork, properties), moduleNetwork));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+package treeBuilder;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import modules.tree_building.treeBuilder.CompactSuffixTrie;
+import modules.tree_building.treeBuilder.KGramTable;
+import modules.tree_building.treeBuilder.Knoten;
+
+public class KGramTableTest {
+
+	private static final String TEXT = "the quick brown fox jumps over the lazy dog and the quick brown cat jumps over the fox";
+
+	@Test
+	public void testSameTrie() {
+		for (int maxLength : new int[] { 1, 2, 5, 10, TEXT.length(), TEXT.length() + 5 }) {
+			final KGramTable table = new KGramTable(maxLength);
+			assertEquals(TEXT.length(), table.count(TEXT.toCharArray(), TEXT.length(), 0, true));
+			assertEquals("length " + maxLength, describe(suffixTrie(TEXT, maxLength)), describe(table.toKnoten("^")));
+		}
+	}
+
+	@Test
+	public void testPartsMerged() {
+		final Random random = new Random(5);
+		for (int run = 0; run < 200; run++) {
+			final int maxLength = 1 + random.nextInt(6);
+			final char[] text = new char[random.nextInt(200)];
+			for (int i = 0; i < text.length; i++)
+				text[i] = (char) ('a' + random.nextInt(3));
+			final String expected = describe(suffixTrie(new String(text), maxLength));
+
+			// Parts overlapping by maxLength - 1 chars, counted by several tables in any order
+			final List<KGramTable> tables = new ArrayList<KGramTable>();
+			for (int i = 0; i < 3; i++)
+				tables.add(new KGramTable(maxLength));
+			final List<int[]> parts = new ArrayList<int[]>();
+			for (int start = 0, next; start < text.length; start = next) {
+				next = start + 1 + random.nextInt(20);
+				// a part reaching the end of the text is the last one
+				if (next + maxLength - 1 >= text.length)
+					next = text.length;
+				parts.add(new int[] { start, next });
+			}
+			Collections.shuffle(parts, random);
+			for (int[] part : parts) {
+				final int end = part[1] == text.length ? text.length : part[1] + maxLength - 1;
+				final char[] chars = new char[end - part[0]];
+				System.arraycopy(text, part[0], chars, 0, chars.length);
+				assertEquals(part[1] - part[0], tables.get(random.nextInt(tables.size())).count(chars, chars.length, part[0], part[1] == text.length));
+			}
+			final KGramTable table = tables.get(0);
+			table.merge(tables.get(2));
+			table.merge(tables.get(1));
+
+			assertEquals(text.length, table.positions());
+			assertEquals(expected, describe(table.toKnoten("^")));
+		}
+	}
+
+	@Test
+	public void testHashCollisions() {
+		// With base 1, k-grams of the same chars share their hash, with base 0 k-grams of the same last char
+		for (long base : new long[] { 0, 1 }) {
+			final KGramTable table = new KGramTable(4, base);
+			table.count(TEXT.toCharArray(), TEXT.length(), 0, true);
+			assertEquals(describe(suffixTrie(TEXT, 4)), describe(table.toKnoten("^")));
+			assertEquals(4, table.get("the "));
+			assertEquals(0, table.get("teh "));
+		}
+	}
+
+	@Test
+	public void testCounters() {
+		final KGramTable table = new KGramTable(2);
+		// the first part's last position is counted with the second part
+		table.count("aba".toCharArray(), 3, 0, false);
+		table.count("ab".toCharArray(), 2, 2, true);
+		assertEquals(4, table.positions());
+		assertEquals(2, table.get("a"));
+		assertEquals(2, table.get("ab"));
+		assertEquals(2, table.get("b"));
+		assertEquals(1, table.get("ba"));
+		assertEquals(0, table.get("aba"));
+		assertEquals(4, table.size());
+	}
+
+	// the trie AtomicRangeSuffixTrieBuilder builds
+	private static Knoten suffixTrie(String text, int maxLength) {
+		final CompactSuffixTrie trie = new CompactSuffixTrie(maxLength, false);
+		for (int i = 0; i < text.length(); i++)
+			trie.add(text.charAt(i));
+		trie.finish();
+		return trie.toKnoten("^");
+	}
+
+	// describes the nodes in the order they are serialised (i.e. the maps' iteration order)
+	private static String describe(Knoten knoten) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(knoten.getName()).append('[').append(knoten.getZaehler()).append("]{");
+		for (Map.Entry<String, Knoten> kind : knoten.getKinder().entrySet())
+			sb.append(kind.getKey()).append(':').append(describe(kind.getValue()));
+		return sb.append('}').toString();
+	}
+
+}
@@ -0,0 +1,112 @@
+package treeBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import modules.CharPipe;
+import modules.Module;
+import modules.ModuleImpl;
+import modules.ModuleNetwork;
+import modules.input_output.FileReaderModule;
+import modules.input_output.FileWriterModule;
+import modules.tree_building.treeBuilder.TreeBuilderV3Module;
+
+import org.junit.Test;
+
+public class TreeBuilderV3ModuleTest {
+
+	/**
+	 * Runs FileReader -> TreeBuilderV3 -> FileWriter.
+	 * @param input Input text
+	 * @param treeBuilderProperties Properties of the TreeBuilderV3 module
+	 * @param expectedStatus Status the TreeBuilderV3 module ends with
+	 * @return Output text
+	 */
+	private String runTreeBuilder(String input, Properties treeBuilderProperties, int expectedStatus) throws Exception {
+		File inputFile = File.createTempFile("treebuilder", ".txt");
+		File outputFile = File.createTempFile("treebuilder", ".json");
+		inputFile.deleteOnExit();
+		outputFile.deleteOnExit();
+		Files.write(inputFile.toPath(), input.getBytes(StandardCharsets.UTF_8));
+
+		ModuleNetwork moduleNetwork = new ModuleNetwork();
+
+		Properties properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileReader");
+		properties.setProperty(FileReaderModule.PROPERTYKEY_INPUTFILE, inputFile.getAbsolutePath());
+		properties.setProperty(FileReaderModule.PROPERTYKEY_ENCODING, "UTF-8");
+		FileReaderModule fileReader = new FileReaderModule(moduleNetwork, properties);
+
+		treeBuilderProperties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "TreeBuilder");
+		TreeBuilderV3Module treeBuilder = new TreeBuilderV3Module(moduleNetwork, treeBuilderProperties);
+
+		properties = new Properties();
+		properties.setProperty(ModuleImpl.PROPERTYKEY_NAME, "FileWriter");
+		properties.setProperty(FileWriterModule.PROPERTYKEY_OUTPUTFILE, outputFile.getAbsolutePath());
+		properties.setProperty(FileWriterModule.PROPERTYKEY_ENCODING, "UTF-8");
+		FileWriterModule fileWriter = new FileWriterModule(moduleNetwork, properties);
+
+		for (Module module : new Module[] { fileReader, treeBuilder, fileWriter }) {
+			module.applyProperties();
+			moduleNetwork.addModule(module);
+		}
+		moduleNetwork.addConnection(fileReader.getOutputPorts().get("output"), treeBuilder.getInputPorts().get("text"), new CharPipe());
+		moduleNetwork.addConnection(treeBuilder.getOutputPorts().get("tree"), fileWriter.getInputPorts().get("input"), new CharPipe());
+
+		moduleNetwork.runModules(false);
+		assertTrue(moduleNetwork.awaitModules(60, TimeUnit.SECONDS));
+		assertEquals(expectedStatus, treeBuilder.getStatus());
+
+		return new String(Files.readAllBytes(outputFile.toPath()), StandardCharsets.UTF_8);
+	}
+
+	private static Properties atomicTreeProperties(int maxThreads, String maxDepth) {
+		Properties properties = new Properties();
+		properties.setProperty(TreeBuilderV3Module.PROPERTYKEY_STRUCTURE, "atomic");
+		properties.setProperty(TreeBuilderV3Module.PROPERTYKEY_MAXDEPTH, maxDepth);
+		properties.setProperty(TreeBuilderV3Module.PROPERTYKEY_MAXTHREADS, String.valueOf(maxThreads));
+		return properties;
+	}
+
+	@Test
+	public void testParallelEqualsSequential() throws Exception {
+		// Enough words for several shards
+		Random random = new Random(42);
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 4000; i++) {
+			int words = 1 + random.nextInt(8);
+			for (int j = 0; j < words; j++)
+				input.append(j == 0 ? "" : " ").append((char) ('a' + random.nextInt(4))).append(random.nextInt(3));
+			input.append('$');
+		}
+
+		for (String maxDepth : new String[] { "-1", "3" }) {
+			String sequential = this.runTreeBuilder(input.toString(), atomicTreeProperties(1, maxDepth), Module.STATUSCODE_SUCCESS);
+			assertTrue(sequential.contains("\"nodeCounter\""));
+			for (int maxThreads : new int[] { 2, 3, 8 })
+				assertEquals(sequential, this.runTreeBuilder(input.toString(), atomicTreeProperties(maxThreads, maxDepth), Module.STATUSCODE_SUCCESS));
+		}
+	}
+
+	@Test
+	public void testNodeBudget() throws Exception {
+		String input = "a b c d$b c d a$c d a b$d a b c$";
+		for (int maxThreads : new int[] { 1, 4 }) {
+			Properties properties = atomicTreeProperties(maxThreads, "-1");
+			properties.setProperty(TreeBuilderV3Module.PROPERTYKEY_NODEBUDGET, "15");
+			this.runTreeBuilder(input, properties, Module.STATUSCODE_FAILURE);
+
+			// The atomic tree has four nodes on each of its four levels
+			properties.setProperty(TreeBuilderV3Module.PROPERTYKEY_NODEBUDGET, "16");
+			this.runTreeBuilder(input, properties, Module.STATUSCODE_SUCCESS);
+		}
+	}
+
+}